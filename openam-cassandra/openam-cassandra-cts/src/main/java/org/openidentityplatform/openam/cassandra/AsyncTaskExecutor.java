@@ -0,0 +1,203 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.openidentityplatform.openam.cassandra;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.forgerock.openam.cts.impl.queue.config.CTSQueueConfiguration;
+import org.forgerock.openam.sm.datalayer.api.AsyncTask;
+import org.forgerock.openam.sm.datalayer.api.AsyncTokenStorageAdapter;
+import org.forgerock.openam.sm.datalayer.api.DataLayerException;
+import org.forgerock.openam.sm.datalayer.api.QueueTimeoutException;
+import org.forgerock.openam.sm.datalayer.api.Task;
+import org.forgerock.openam.sm.datalayer.api.TaskExecutor;
+import org.forgerock.openam.sm.datalayer.impl.SeriesTaskExecutor;
+import org.forgerock.util.promise.ExceptionHandler;
+import org.forgerock.util.promise.Promise;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link TaskExecutor} which performs CTS tasks against Cassandra without holding a thread while a statement is
+ * in flight.
+ *
+ * Every task is started on the CTS worker pool, never on the caller's thread. Tasks that implement {@link AsyncTask}
+ * are started without waiting for the statement to complete, other tasks, such as queries, are performed on the
+ * pool thread. Only once a task has completed is the next task queued for the same Token ID started, so tasks for a
+ * Token ID are still performed in order. The caller's audit request context is propagated to each task.
+ *
+ * The number of outstanding tasks is bounded by the number of processors multiplied by
+ * {@link CTSQueueConfiguration#getQueueSize()}, and callers block for up to
+ * {@link CTSQueueConfiguration#getQueueTimeout()} seconds when that bound is reached.
+ *
+ * Enabled with the {@link #ENABLED_PROPERTY} system property, otherwise the CTS executor is used.
+ */
+public class AsyncTaskExecutor implements TaskExecutor {
+	final static Logger logger = LoggerFactory.getLogger(AsyncTaskExecutor.class);
+
+	/**
+	 * System property which enables this executor for the Cassandra CTS.
+	 */
+	public static final String ENABLED_PROPERTY = "org.openidentityplatform.openam.cassandra.cts.async";
+
+	private final ConcurrentMap<String, TaskChain> chains = new ConcurrentHashMap<>();
+	private final AsyncTokenStorageAdapter adapter;
+	private final ExecutorService poolService;
+	private final CTSQueueConfiguration configuration;
+	private Semaphore capacity;
+
+	@Inject
+	public AsyncTaskExecutor(TokenStorageAdapter adapter, ExecutorService poolService,
+			CTSQueueConfiguration configuration) {
+		this.adapter = adapter;
+		this.poolService = poolService;
+		this.configuration = configuration;
+	}
+
+	@Override
+	public synchronized void start() throws DataLayerException {
+		if (capacity == null)
+			capacity = new Semaphore(configuration.getProcessors() * configuration.getQueueSize());
+	}
+
+	@Override
+	public void execute(String tokenId, Task task) throws DataLayerException {
+		try {
+			if (!capacity.tryAcquire(configuration.getQueueTimeout(), TimeUnit.SECONDS))
+				throw new QueueTimeoutException(task);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new QueueTimeoutException(task, e);
+		}
+
+		task = SeriesTaskExecutor.propagateAuditRequestContext(task);
+		if (tokenId == null) {
+			dispatch(null, task);
+			return;
+		}
+
+		while (true) {
+			TaskChain chain = chains.get(tokenId);
+			if (chain == null) {
+				final TaskChain created = new TaskChain(tokenId);
+				if (chains.putIfAbsent(tokenId, created) == null) {
+					dispatch(created, task);
+					return;
+				}
+			} else if (chain.append(task)) {
+				return;
+			}
+			// The chain for this token was closed between lookup and append, so try again.
+		}
+	}
+
+	/**
+	 * Hand the task to the CTS worker pool, rather than start it on the caller's or the driver's callback thread.
+	 */
+	private void dispatch(final TaskChain chain, final Task task) {
+		poolService.execute(new Runnable() {
+			@Override
+			public void run() {
+				perform(chain, task);
+			}
+		});
+	}
+
+	/**
+	 * Start the task, and once it has completed start the next task in its chain.
+	 */
+	private void perform(final TaskChain chain, final Task task) {
+		final Runnable completion = new Runnable() {
+			@Override
+			public void run() {
+				capacity.release();
+				if (chain != null) {
+					final Task next = chain.next();
+					if (next != null)
+						dispatch(chain, next);
+				}
+			}
+		};
+
+		if (!(task instanceof AsyncTask)) {
+			try {
+				task.execute(adapter);
+			} catch (Throwable e) {
+				logger.warn("processing task {}", task, e);
+			} finally {
+				completion.run();
+			}
+			return;
+		}
+
+		final Promise<Void, DataLayerException> promise;
+		try {
+			promise = ((AsyncTask) task).executeAsync(adapter);
+		} catch (RuntimeException e) {
+			logger.warn("processing task {}", task, e);
+			completion.run();
+			return;
+		}
+		promise.thenOnException(new ExceptionHandler<DataLayerException>() {
+			@Override
+			public void handleException(DataLayerException e) {
+				logger.warn("processing task {}", task, e);
+			}
+		}).thenAlways(completion);
+	}
+
+	/**
+	 * The outstanding tasks for a single Token ID, other than the one in flight. Once the last task has completed
+	 * the chain is closed and removed, and any further tasks for the Token ID start a new chain.
+	 */
+	private final class TaskChain {
+		private final String tokenId;
+		private final Queue<Task> tasks = new ArrayDeque<>();
+		private boolean closed = false;
+
+		private TaskChain(String tokenId) {
+			this.tokenId = tokenId;
+		}
+
+		synchronized boolean append(Task task) {
+			if (closed)
+				return false;
+			tasks.add(task);
+			return true;
+		}
+
+		/**
+		 * @return The next task to perform, or null if there are none, in which case the chain has been closed.
+		 */
+		synchronized Task next() {
+			final Task next = tasks.poll();
+			if (next == null) {
+				closed = true;
+				chains.remove(tokenId, this);
+			}
+			return next;
+		}
+	}
+}
@@ -22,18 +22,22 @@ import javax.inject.Inject;
 
 import org.forgerock.openam.cts.api.CoreTokenConstants;
 import org.forgerock.openam.cts.impl.queue.config.CTSQueueConfiguration;
+import org.forgerock.openam.cts.impl.queue.config.CTSTaskExecutorProvider;
 import org.forgerock.openam.cts.monitoring.CTSConnectionMonitoringStore;
 import org.forgerock.openam.cts.monitoring.impl.connections.MonitoredCTSConnectionFactory;
 import org.forgerock.openam.sm.datalayer.api.ConnectionFactory;
 import org.forgerock.openam.sm.datalayer.api.QueueConfiguration;
+import org.forgerock.openam.sm.datalayer.api.TaskExecutor;
 import org.forgerock.openam.sm.datalayer.impl.SeriesTaskExecutor;
 import org.forgerock.openam.sm.datalayer.impl.SeriesTaskExecutorThreadFactory;
+import org.forgerock.openam.sm.datalayer.impl.WorkStealingTaskExecutor;
 import org.forgerock.openam.sm.datalayer.providers.DataLayerConnectionFactoryCache;
 
 import com.google.inject.Key;
 import com.google.inject.PrivateBinder;
 import com.google.inject.Provider;
 import com.google.inject.name.Names;
+import com.iplanet.am.util.SystemProperties;
 
 @SuppressWarnings("rawtypes")
 public class CTSAsyncConnectionModule extends DataLayerConnectionModule {
@@ -49,12 +53,44 @@ public class CTSAsyncConnectionModule extends DataLayerConnectionModule {
         super.configureTaskExecutor(binder);
     }
 
+    @Override
+    protected void bindTaskExecutor(PrivateBinder binder, Class<? extends TaskExecutor> executorType) {
+        binder.bind(SeriesTaskExecutor.class);
+        binder.bind(WorkStealingTaskExecutor.class);
+        binder.bind(CTSTaskExecutorProvider.class);
+        binder.bind(AsyncTaskExecutor.class);
+        binder.bind(TaskExecutor.class).toProvider(CassandraTaskExecutorProvider.class);
+    }
+
     
 	@Override
     protected Class<? extends javax.inject.Provider<ConnectionFactory>> getConnectionFactoryProviderType() {
         return CTSConnectionFactoryProvider.class;
     }
 
+    /**
+     * Provides the {@link AsyncTaskExecutor} when it has been enabled, otherwise the executor selected by the CTS
+     * queue configuration.
+     */
+    private static class CassandraTaskExecutorProvider implements Provider<TaskExecutor> {
+        private final CTSTaskExecutorProvider ctsProvider;
+        private final Provider<AsyncTaskExecutor> asyncProvider;
+
+        @Inject
+        public CassandraTaskExecutorProvider(CTSTaskExecutorProvider ctsProvider,
+                Provider<AsyncTaskExecutor> asyncProvider) {
+            this.ctsProvider = ctsProvider;
+            this.asyncProvider = asyncProvider;
+        }
+
+        public TaskExecutor get() {
+            if (SystemProperties.getAsBoolean(AsyncTaskExecutor.ENABLED_PROPERTY, false)) {
+                return asyncProvider.get();
+            }
+            return ctsProvider.get();
+        }
+    }
+
     /**
      * This provider provides ConnectionFactory instances that are wrapped in a monitoring factory.
      */
@@ -25,6 +25,23 @@ import org.forgerock.openam.sm.datalayer.api.DataLayerConstants;
 import com.iplanet.am.util.SystemProperties;
 
 public class DataLayerConfiguration extends CTSDataLayerConfiguration {
+	/**
+	 * When true tokens are written with a TTL taken from their expiry timestamp and the CTS worker which deletes
+	 * expired tokens is not started.
+	 */
+	public static final String TTL_EXPIRY_PROPERTY = "org.openidentityplatform.openam.cassandra.cts.ttl.expiry";
+
+	/**
+	 * The maximum number of writes grouped into one unlogged batch. Batching is disabled when this is 1 or less.
+	 */
+	public static final String BATCH_SIZE_PROPERTY = "org.openidentityplatform.openam.cassandra.cts.batch.size";
+
+	/**
+	 * The maximum number of batches in flight to any one replica set before further writes are held back to be
+	 * batched.
+	 */
+	public static final String BATCH_IN_FLIGHT_PROPERTY = "org.openidentityplatform.openam.cassandra.cts.batch.inflight";
+
 	@Inject
 	public DataLayerConfiguration(@Named(DataLayerConstants.ROOT_DN_SUFFIX) String rootDnSuffix) {
 		super(rootDnSuffix);
@@ -41,4 +58,17 @@ public class DataLayerConfiguration extends CTSDataLayerConfiguration {
 	public String getTableName(){
 	    return getTable().split("\\.")[1];
 	}
+
+	@Override
+	public boolean isExpiryManagedByStore() {
+		return SystemProperties.getAsBoolean(TTL_EXPIRY_PROPERTY, false);
+	}
+
+	public int getBatchSize() {
+		return SystemProperties.getAsInt(BATCH_SIZE_PROPERTY, 1);
+	}
+
+	public int getBatchesInFlight() {
+		return Math.max(1, SystemProperties.getAsInt(BATCH_IN_FLIGHT_PROPERTY, 32));
+	}
 }
@@ -0,0 +1,159 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.openidentityplatform.openam.cassandra;
+
+import static com.datastax.driver.core.querybuilder.QueryBuilder.bindMarker;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.set;
+import static com.datastax.driver.core.querybuilder.QueryBuilder.ttl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.inject.Singleton;
+
+import org.forgerock.openam.tokens.CoreTokenField;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.querybuilder.Update;
+
+/**
+ * Registry of the prepared statements used for single token operations, keyed on session, table and operation shape.
+ *
+ * Each statement is prepared once per session, on first use, and is then executed with bound values so that
+ * Cassandra does not have to parse the CQL for every operation. Statements are held per session as a statement
+ * prepared with one session cannot be executed with another, such as the session created after a reconnect.
+ */
+@Singleton
+public class PreparedStatements {
+
+	/**
+	 * The shape of a single token operation.
+	 */
+	public enum Shape {
+		/**
+		 * Select all columns of a token. Bound values: token id.
+		 */
+		READ {
+			@Override
+			RegularStatement build(String keySpace, String table) {
+				return QueryBuilder.select().all().from(keySpace, table)
+						.where(eq(CoreTokenField.TOKEN_ID.toString(), bindMarker())).limit(1);
+			}
+		},
+		/**
+		 * Write every column of a token. Bound values: TTL, each non id {@link CoreTokenField} in declaration
+		 * order, token id.
+		 */
+		UPDATE {
+			@Override
+			RegularStatement build(String keySpace, String table) {
+				return update(keySpace, table);
+			}
+		},
+		/**
+		 * As {@link #UPDATE}, but only applied if the token exists.
+		 */
+		UPDATE_IF_EXISTS {
+			@Override
+			RegularStatement build(String keySpace, String table) {
+				return update(keySpace, table).ifExists();
+			}
+		},
+		/**
+		 * Delete a token. Bound values: token id.
+		 */
+		DELETE {
+			@Override
+			RegularStatement build(String keySpace, String table) {
+				return QueryBuilder.delete().all().from(keySpace, table)
+						.where(eq(CoreTokenField.TOKEN_ID.toString(), bindMarker()));
+			}
+		};
+
+		abstract RegularStatement build(String keySpace, String table);
+
+		private static Update.Where update(String keySpace, String table) {
+			Update update = QueryBuilder.update(keySpace, table);
+			Update.Assignments assignments = update.with();
+			for (CoreTokenField field : CoreTokenField.values()) {
+				if (!CoreTokenField.TOKEN_ID.equals(field)) {
+					assignments.and(set(field.toString(), bindMarker()));
+				}
+			}
+			// CQL places USING ahead of SET, so the TTL is the first bound value.
+			update.using(ttl(bindMarker()));
+			return update.where(eq(CoreTokenField.TOKEN_ID.toString(), bindMarker()));
+		}
+	}
+
+	private final ConcurrentMap<Session, ConcurrentMap<String, PreparedStatement>> statements =
+			new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the prepared statement for the given table and shape.
+	 *
+	 * The first use of a table prepares the statements for every shape. This keeps the blocking prepare on the
+	 * caller's thread, rather than on a driver callback thread when one operation is chained from another.
+	 *
+	 * @param session The session to prepare the statements with.
+	 * @param keySpace The key space of the table.
+	 * @param table The table the statement operates on.
+	 * @param shape The operation to perform.
+	 * @return A non null prepared statement.
+	 */
+	public PreparedStatement get(Session session, String keySpace, String table, Shape shape) {
+		final ConcurrentMap<String, PreparedStatement> prepared = getStatements(session);
+		PreparedStatement statement = prepared.get(key(keySpace, table, shape));
+		if (statement == null) {
+			// Preparing twice under a race is harmless, the driver returns an equivalent statement.
+			for (Shape each : Shape.values())
+				prepared.putIfAbsent(key(keySpace, table, each), session.prepare(each.build(keySpace, table)));
+			statement = prepared.get(key(keySpace, table, shape));
+		}
+		return statement;
+	}
+
+	private ConcurrentMap<String, PreparedStatement> getStatements(Session session) {
+		ConcurrentMap<String, PreparedStatement> prepared = statements.get(session);
+		if (prepared == null) {
+			// A new session, the statements of any session which has since been closed are no longer of use.
+			for (Session each : statements.keySet())
+				if (each.isClosed())
+					statements.remove(each);
+			final ConcurrentMap<String, PreparedStatement> created = new ConcurrentHashMap<>();
+			prepared = statements.putIfAbsent(session, created);
+			if (prepared == null)
+				prepared = created;
+		}
+		return prepared;
+	}
+
+	private static String key(String keySpace, String table, Shape shape) {
+		return keySpace + "." + table + "/" + shape;
+	}
+
+	/**
+	 * Drop all prepared statements, for example after the table has been altered.
+	 */
+	public void clear() {
+		statements.clear();
+	}
+}
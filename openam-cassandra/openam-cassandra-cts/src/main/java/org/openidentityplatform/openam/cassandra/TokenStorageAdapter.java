@@ -37,6 +37,7 @@ import org.forgerock.openam.cts.api.filter.TokenFilter;
 import org.forgerock.openam.cts.api.tokens.Token;
 import org.forgerock.openam.cts.continuous.ContinuousQuery;
 import org.forgerock.openam.cts.continuous.ContinuousQueryListener;
+import org.forgerock.openam.sm.datalayer.api.AsyncTokenStorageAdapter;
 import org.forgerock.openam.sm.datalayer.api.ConnectionFactory;
 import org.forgerock.openam.sm.datalayer.api.DataLayerException;
 import org.forgerock.openam.sm.datalayer.api.LdapOperationFailedException;
@@ -44,39 +45,86 @@ import org.forgerock.openam.sm.datalayer.api.OptimisticConcurrencyCheckFailedExc
 import org.forgerock.openam.sm.datalayer.api.query.PartialToken;
 import org.forgerock.openam.tokens.CoreTokenField;
 import org.forgerock.openam.tokens.TokenType;
+import org.forgerock.util.AsyncFunction;
+import org.forgerock.util.Function;
 import org.forgerock.util.Options;
+import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.PromiseImpl;
+import org.forgerock.util.promise.Promises;
+import org.openidentityplatform.openam.cassandra.PreparedStatements.Shape;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.querybuilder.Clause;
-import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.datastax.driver.core.querybuilder.Select;
-import com.datastax.driver.core.querybuilder.Using;
 import com.datastax.driver.core.querybuilder.Select.Where;
-import com.datastax.driver.core.querybuilder.Update.Assignments;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 
-public class TokenStorageAdapter implements org.forgerock.openam.sm.datalayer.api.TokenStorageAdapter {
+/**
+ * Cassandra implementation of the CTS token storage adapter.
+ *
+ * Single token operations are executed as prepared statements with bound values, see {@link PreparedStatements}.
+ * Each has an asynchronous form built on the driver's {@code executeAsync}, which the synchronous form waits on.
+ * Unconditional writes may be grouped with others into unlogged batches, see {@link WriteBatcher}.
+ *
+ * Tokens are written with a TTL. When {@link DataLayerConfiguration#isExpiryManagedByStore()} is set the TTL is
+ * taken from the token's expiry timestamp, plus a grace period to allow the session workers to process expired
+ * sessions, and Cassandra is left to remove expired tokens. Otherwise the TTL is capped at one day.
+ */
+public class TokenStorageAdapter implements AsyncTokenStorageAdapter {
 	final static Logger logger = LoggerFactory.getLogger(TokenStorageAdapter.class);
 
 	private final DataLayerConfiguration cfg;
 	private final ConnectionFactory<Session> connectionFactory;
+	private final PreparedStatements statements;
+	private final WriteBatcher batcher;
+
+	static final int EXPIRY_GRACE_SECONDS = 5*60;
+	static final int MAX_TTL_SECONDS = 24*60*60;
+	/**
+	 * The largest TTL Cassandra accepts, twenty years.
+	 */
+	static final int MAX_CASSANDRA_TTL_SECONDS = 20*365*24*60*60;
 
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	@Inject
-	public TokenStorageAdapter(DataLayerConfiguration dataLayerConfiguration,ConnectionFactory connectionFactory) {
+	public TokenStorageAdapter(DataLayerConfiguration dataLayerConfiguration,ConnectionFactory connectionFactory, PreparedStatements statements, WriteBatcher batcher) {
 		this.cfg = dataLayerConfiguration;
 		this.connectionFactory = connectionFactory;
+		this.statements = statements;
+		this.batcher = batcher;
+	}
+
+	/**
+	 * @return The TTL in seconds to write the token with, never less than one or more than Cassandra accepts.
+	 */
+	int getTTL(Token token) {
+		long ttl = (token.getExpiryTimestamp().getTimeInMillis() - System.currentTimeMillis()) / 1000 + EXPIRY_GRACE_SECONDS;
+		if (!cfg.isExpiryManagedByStore())
+			ttl = Math.min(ttl, MAX_TTL_SECONDS);
+		return (int) Math.max(1, Math.min(ttl, MAX_CASSANDRA_TTL_SECONDS));
 	}
 
 	public Token update(Token token, boolean ifExists) throws DataLayerException {
+		return updateAsync(token, ifExists).getOrThrowUninterruptibly();
+	}
+
+	public Promise<Token, DataLayerException> updateAsync(final Token token, boolean ifExists) {
 		try {
 			if (token.getAttribute(CoreTokenField.ETAG)==null)
 				token.setAttribute(CoreTokenField.ETAG, "");
-			Assignments update = QueryBuilder.update(cfg.getKeySpace(), cfg.getTableName()).with();
-			final Using TTL = QueryBuilder.ttl(new Long(Math.min(((token.getExpiryTimestamp().getTimeInMillis() - System.currentTimeMillis()) / 1000)+5*60,24*60*60)).intValue());
+			// Bound in the order described by PreparedStatements.Shape#UPDATE
+			final Object[] values = new Object[CoreTokenField.values().length + 1];
+			int index = 0;
+			values[index++] = getTTL(token);
 			for (CoreTokenField field : CoreTokenField.values()) {
 				if (!CoreTokenField.TOKEN_ID.equals(field)) {
 					Object value = null;
@@ -94,23 +142,33 @@ public class TokenStorageAdapter implements org.forgerock.openam.sm.datalayer.ap
 						else if (value instanceof byte[])
 							value = ByteBuffer.wrap((byte[]) value);
 					}
-					update=update.and(QueryBuilder.set(field.toString(), value));
+					values[index++] = value;
 				}
 			}
-			if (ifExists)
-				new ExecuteCallback(getSession(), update.using(TTL).where(QueryBuilder.eq(CoreTokenField.TOKEN_ID.toString(), token.getAttribute(CoreTokenField.TOKEN_ID))).ifExists()).execute();
-			else
-				new ExecuteCallback(getSession(), update.using(TTL).where(QueryBuilder.eq(CoreTokenField.TOKEN_ID.toString(), token.getAttribute(CoreTokenField.TOKEN_ID)))).execute();
+			values[index] = token.getAttribute(CoreTokenField.TOKEN_ID);
+			final BoundStatement statement = prepare(ifExists ? Shape.UPDATE_IF_EXISTS : Shape.UPDATE).bind(values);
+			// Conditional updates cannot be batched
+			return execute("update", ifExists ? executeAsync(statement) : batcher.execute(getSession(), statement),
+					new Function<ResultSet, Token, DataLayerException>() {
+						@Override
+						public Token apply(ResultSet result) {
+							return token;
+						}
+					});
 		} catch (Throwable e) {
-			throw new DataLayerException("update", e);
+			return Promises.newExceptionPromise(new DataLayerException("update", e));
 		}
-		return token;
 	}
 	
     public Token update(Token previous, Token token, Options options) throws DataLayerException {
     	return update(token, true);
     }
 
+	@Override
+	public Promise<Token, DataLayerException> updateAsync(Token previous, Token token, Options options) {
+		return updateAsync(token, true);
+	}
+
     /**
      * Create the Token in the database.
      *
@@ -124,6 +182,11 @@ public class TokenStorageAdapter implements org.forgerock.openam.sm.datalayer.ap
 		return update(token, false);
 	}
 
+	@Override
+	public Promise<Token, DataLayerException> createAsync(Token token, Options options) {
+		return updateAsync(token, false);
+	}
+
 	/**
      * Performs a read against the LDAP connection and converts the result into a Token.
      * 
@@ -132,14 +195,24 @@ public class TokenStorageAdapter implements org.forgerock.openam.sm.datalayer.ap
      * @return Token if found, otherwise null.
      */
     public Token read(String tokenId, Options options) throws DataLayerException {
-    		try{
-    			for (Row row : new ExecuteCallback(getSession(),QueryBuilder.select().all().from(cfg.getKeySpace(),cfg.getTableName()).where(QueryBuilder.eq(CoreTokenField.TOKEN_ID.toString(), tokenId)).limit(1)).execute()) 
-    				return Row2Token(row);
-	    }catch(Throwable e){
-			throw new DataLayerException("read", e);
-		}
-    		return null;
+    		return readAsync(tokenId, options).getOrThrowUninterruptibly();
     }
+
+	@Override
+	public Promise<Token, DataLayerException> readAsync(String tokenId, Options options) {
+		try {
+			return execute("read", executeAsync(prepare(Shape.READ).bind(tokenId)),
+					new Function<ResultSet, Token, DataLayerException>() {
+						@Override
+						public Token apply(ResultSet result) {
+							final Row row = result.one();
+							return row == null ? null : Row2Token(row);
+						}
+					});
+		} catch (Throwable e) {
+			return Promises.newExceptionPromise(new DataLayerException("read", e));
+		}
+	}
     
     /**
      * Performs a delete against the Token ID provided.
@@ -151,22 +224,63 @@ public class TokenStorageAdapter implements org.forgerock.openam.sm.datalayer.ap
      * @throws OptimisticConcurrencyCheckFailedException If the operation failed due to an assertion on the tokens ETag.
      */
 	public PartialToken delete(String tokenId, Options options) throws DataLayerException {
-		PartialToken ptoken=null;
-		try {
-			Token token = read(tokenId,options);
-			if (token != null) {
-				new ExecuteCallback(getSession(), QueryBuilder.delete().all().from(cfg.getKeySpace(), cfg.getTableName()).where(QueryBuilder.eq(CoreTokenField.TOKEN_ID.toString(), tokenId))).execute();
-				
-				final Map<CoreTokenField, Object> entry=new HashMap<CoreTokenField, Object>();
-				entry.put(CoreTokenField.TOKEN_ID, token.getAttribute(CoreTokenField.TOKEN_ID));
-				ptoken=new PartialToken(entry);
+		return deleteAsync(tokenId, options).getOrThrowUninterruptibly();
+	}
+
+	@Override
+	public Promise<PartialToken, DataLayerException> deleteAsync(final String tokenId, Options options) {
+		return readAsync(tokenId, options).thenAsync(new AsyncFunction<Token, PartialToken, DataLayerException>() {
+			@Override
+			public Promise<PartialToken, DataLayerException> apply(final Token token) {
+				if (token == null)
+					return Promises.newResultPromise(null);
+				try {
+					return execute("delete", batcher.execute(getSession(), prepare(Shape.DELETE).bind(tokenId)),
+							new Function<ResultSet, PartialToken, DataLayerException>() {
+								@Override
+								public PartialToken apply(ResultSet result) {
+									final Map<CoreTokenField, Object> entry=new HashMap<CoreTokenField, Object>();
+									entry.put(CoreTokenField.TOKEN_ID, token.getAttribute(CoreTokenField.TOKEN_ID));
+									return new PartialToken(entry);
+								}
+							});
+				} catch (Throwable e) {
+					return Promises.newExceptionPromise(new DataLayerException("delete", e));
+				}
 			}
-		} catch (Throwable e) {
-			throw new DataLayerException("delete", e);
-		}
-		return ptoken;
+		});
 	}
 
+	private BoundStatement prepare(Shape shape) throws DataLayerException {
+		return new BoundStatement(statements.get(getSession(), cfg.getKeySpace(), cfg.getTableName(), shape));
+	}
+
+	private ListenableFuture<ResultSet> executeAsync(BoundStatement statement) throws DataLayerException {
+		return new ExecuteCallback(getSession(), statement).executeAsync();
+	}
+
+	/**
+	 * Converts the result of a statement executed without blocking once it is available.
+	 */
+	private <T> Promise<T, DataLayerException> execute(final String operation, ListenableFuture<ResultSet> future,
+			final Function<ResultSet, T, DataLayerException> converter) {
+		final PromiseImpl<T, DataLayerException> promise = PromiseImpl.create();
+		Futures.addCallback(future, new FutureCallback<ResultSet>() {
+			@Override
+			public void onSuccess(ResultSet result) {
+				try {
+					promise.handleResult(converter.apply(result));
+				} catch (Throwable e) {
+					promise.handleException(new DataLayerException(operation, e));
+				}
+			}
+			@Override
+			public void onFailure(Throwable t) {
+				promise.handleException(new DataLayerException(operation, t));
+			}
+		}, MoreExecutors.directExecutor());
+		return promise;
+	}
 
     /**
      * Performs a full-token query using the provided filter.
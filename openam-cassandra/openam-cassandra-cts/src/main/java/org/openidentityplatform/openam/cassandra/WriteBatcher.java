@@ -0,0 +1,230 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.openidentityplatform.openam.cassandra;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.Configuration;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Groups unconditional single partition writes into unlogged batches, one queue per replica set, so that each
+ * batch is coordinated by a replica which owns every partition in it. The queues are held per session, so that
+ * writes made with the session created after a reconnect are sent with that session.
+ *
+ * A write is sent straight away while fewer than {@link DataLayerConfiguration#getBatchesInFlight()} batches are
+ * in flight to its replica set. Otherwise it waits, and is sent with up to
+ * {@link DataLayerConfiguration#getBatchSize()} other waiting writes as soon as one of the in flight batches
+ * completes. Under light load writes are therefore not delayed, and under heavy load they are batched.
+ *
+ * Conditional (lightweight transaction) statements must not be passed to this class, as Cassandra does not allow
+ * them to be batched across partitions.
+ */
+@Singleton
+public class WriteBatcher {
+
+	private final DataLayerConfiguration cfg;
+	private final ConcurrentMap<Session, ConcurrentMap<Set<Host>, ReplicaQueue>> queues = new ConcurrentHashMap<>();
+
+	@Inject
+	public WriteBatcher(DataLayerConfiguration cfg) {
+		this.cfg = cfg;
+	}
+
+	/**
+	 * Execute the write, possibly as part of a batch.
+	 *
+	 * @param session The session to execute the write with.
+	 * @param statement An unconditional write to a single partition.
+	 * @return A future of the result of the write, or of the batch it was sent in.
+	 */
+	public ListenableFuture<ResultSet> execute(Session session, Statement statement) {
+		final int batchSize = cfg.getBatchSize();
+		if (batchSize <= 1)
+			return new ExecuteCallback(session, statement).executeAsync();
+		final Set<Host> replicas = getReplicas(session, statement);
+		if (replicas.isEmpty())
+			return new ExecuteCallback(session, statement).executeAsync();
+
+		final ConcurrentMap<Set<Host>, ReplicaQueue> sessionQueues = getQueues(session);
+		ReplicaQueue queue = sessionQueues.get(replicas);
+		if (queue == null) {
+			final ReplicaQueue created = new ReplicaQueue(session);
+			queue = sessionQueues.putIfAbsent(replicas, created);
+			if (queue == null)
+				queue = created;
+		}
+		return queue.submit(statement, batchSize, cfg.getBatchesInFlight());
+	}
+
+	private ConcurrentMap<Set<Host>, ReplicaQueue> getQueues(Session session) {
+		ConcurrentMap<Set<Host>, ReplicaQueue> sessionQueues = queues.get(session);
+		if (sessionQueues == null) {
+			// A new session, the queues of any session which has since been closed are no longer of use.
+			for (Session each : queues.keySet())
+				if (each.isClosed())
+					queues.remove(each);
+			final ConcurrentMap<Set<Host>, ReplicaQueue> created = new ConcurrentHashMap<>();
+			sessionQueues = queues.putIfAbsent(session, created);
+			if (sessionQueues == null)
+				sessionQueues = created;
+		}
+		return sessionQueues;
+	}
+
+	private static Set<Host> getReplicas(Session session, Statement statement) {
+		final Configuration configuration = session.getCluster().getConfiguration();
+		final ByteBuffer routingKey = statement.getRoutingKey(
+				configuration.getProtocolOptions().getProtocolVersion(), configuration.getCodecRegistry());
+		final String keySpace = statement.getKeyspace();
+		if (routingKey == null || keySpace == null)
+			return Collections.emptySet();
+		return session.getCluster().getMetadata().getReplicas(keySpace, routingKey);
+	}
+
+	@VisibleForTesting
+	int getQueueCount() {
+		int count = 0;
+		for (ConcurrentMap<Set<Host>, ReplicaQueue> sessionQueues : queues.values())
+			count += sessionQueues.size();
+		return count;
+	}
+
+	/**
+	 * The writes waiting to be sent to one replica set.
+	 */
+	private static final class ReplicaQueue {
+		private final Session session;
+		private final Queue<Write> waiting = new ArrayDeque<>();
+		private int inFlight = 0;
+
+		private ReplicaQueue(Session session) {
+			this.session = session;
+		}
+
+		ListenableFuture<ResultSet> submit(Statement statement, int batchSize, int maxInFlight) {
+			final Write write = new Write(statement);
+			final List<Write> batch;
+			synchronized (this) {
+				waiting.add(write);
+				batch = inFlight < maxInFlight ? take(batchSize) : null;
+			}
+			if (batch != null)
+				send(batch, batchSize);
+			return write.result;
+		}
+
+		/**
+		 * Must be called whilst holding the lock on this queue.
+		 */
+		private List<Write> take(int batchSize) {
+			final List<Write> batch = new ArrayList<>(Math.min(batchSize, waiting.size()));
+			while (batch.size() < batchSize && !waiting.isEmpty())
+				batch.add(waiting.poll());
+			inFlight++;
+			return batch;
+		}
+
+		/**
+		 * Called when a batch completes, releases its slot and takes the next batch if any writes are waiting.
+		 */
+		private synchronized List<Write> release(int batchSize) {
+			inFlight--;
+			return waiting.isEmpty() ? null : take(batchSize);
+		}
+
+		/**
+		 * Sends batches until one is still in flight, without recursing when a batch completes immediately.
+		 */
+		private void send(List<Write> batch, final int batchSize) {
+			while (batch != null) {
+				final List<Write> sent = batch;
+				final ListenableFuture<ResultSet> future = new ExecuteCallback(session, toStatement(sent)).executeAsync();
+				if (!future.isDone()) {
+					Futures.addCallback(future, new FutureCallback<ResultSet>() {
+						@Override
+						public void onSuccess(ResultSet result) {
+							for (Write write : sent)
+								write.result.set(result);
+							send(release(batchSize), batchSize);
+						}
+						@Override
+						public void onFailure(Throwable t) {
+							for (Write write : sent)
+								write.result.setException(t);
+							send(release(batchSize), batchSize);
+						}
+					}, MoreExecutors.directExecutor());
+					return;
+				}
+				complete(sent, future);
+				batch = release(batchSize);
+			}
+		}
+
+		private static Statement toStatement(List<Write> batch) {
+			if (batch.size() == 1)
+				return batch.get(0).statement;
+			final BatchStatement statement = new BatchStatement(BatchStatement.Type.UNLOGGED);
+			for (Write write : batch)
+				statement.add(write.statement);
+			return statement;
+		}
+
+		private static void complete(List<Write> batch, ListenableFuture<ResultSet> future) {
+			try {
+				final ResultSet result = Futures.getUnchecked(future);
+				for (Write write : batch)
+					write.result.set(result);
+			} catch (RuntimeException e) {
+				final Throwable cause = e.getCause() != null ? e.getCause() : e;
+				for (Write write : batch)
+					write.result.setException(cause);
+			}
+		}
+	}
+
+	private static final class Write {
+		private final Statement statement;
+		private final SettableFuture<ResultSet> result = SettableFuture.create();
+
+		private Write(Statement statement) {
+			this.statement = statement;
+		}
+	}
+}
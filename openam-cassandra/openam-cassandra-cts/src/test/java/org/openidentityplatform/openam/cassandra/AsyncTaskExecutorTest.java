@@ -0,0 +1,208 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.openidentityplatform.openam.cassandra;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import org.forgerock.openam.audit.context.AuditRequestContext;
+import org.forgerock.openam.cts.impl.queue.config.CTSQueueConfiguration;
+import org.forgerock.openam.sm.datalayer.api.AsyncTask;
+import org.forgerock.openam.sm.datalayer.api.AsyncTokenStorageAdapter;
+import org.forgerock.openam.sm.datalayer.api.DataLayerException;
+import org.forgerock.openam.sm.datalayer.api.QueueTimeoutException;
+import org.forgerock.openam.sm.datalayer.api.Task;
+import org.forgerock.services.TransactionId;
+import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.PromiseImpl;
+import org.forgerock.util.promise.Promises;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class AsyncTaskExecutorTest {
+
+	private CTSQueueConfiguration configuration;
+	private TokenStorageAdapter adapter;
+	private List<Runnable> pool;
+	private AsyncTaskExecutor executor;
+
+	@Before
+	public void setup() throws Exception {
+		configuration = mock(CTSQueueConfiguration.class);
+		when(configuration.getProcessors()).thenReturn(1);
+		when(configuration.getQueueSize()).thenReturn(2);
+		when(configuration.getQueueTimeout()).thenReturn(0);
+		adapter = mock(TokenStorageAdapter.class);
+		pool = new ArrayList<>();
+		final ExecutorService poolService = mock(ExecutorService.class);
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) {
+				pool.add((Runnable) invocation.getArguments()[0]);
+				return null;
+			}
+		}).when(poolService).execute(any(Runnable.class));
+		executor = new AsyncTaskExecutor(adapter, poolService, configuration);
+		executor.start();
+	}
+
+	@After
+	public void tearDown() {
+		AuditRequestContext.clear();
+	}
+
+	@Test
+	public void shouldNotStartTaskOnCallerThread() throws Exception {
+		final AsyncTask task = asyncTask(Promises.<Void, DataLayerException>newResultPromise(null));
+
+		executor.execute("badger", task);
+
+		verify(task, never()).executeAsync(any(AsyncTokenStorageAdapter.class));
+		runPool();
+		verify(task).executeAsync(adapter);
+	}
+
+	@Test
+	public void shouldPerformTaskWithCallersAuditRequestContext() throws Exception {
+		final List<String> transactionIds = new ArrayList<>();
+		final Task task = new Task() {
+			@Override
+			public void execute(org.forgerock.openam.sm.datalayer.api.TokenStorageAdapter adapter) {
+				transactionIds.add(AuditRequestContext.getTransactionIdValue());
+			}
+			@Override
+			public void processError(DataLayerException error) {
+			}
+		};
+		AuditRequestContext.set(new AuditRequestContext(new TransactionId("badger-transaction")));
+		executor.execute(null, task);
+		AuditRequestContext.set(new AuditRequestContext(new TransactionId("worker-transaction")));
+
+		runPool();
+
+		assertEquals(1, transactionIds.size());
+		assertEquals("badger-transaction", transactionIds.get(0));
+		assertEquals("worker-transaction", AuditRequestContext.getTransactionIdValue());
+	}
+
+	@Test
+	public void shouldStartAsyncTaskWithCallersAuditRequestContext() throws Exception {
+		final List<String> transactionIds = new ArrayList<>();
+		final AsyncTask task = mock(AsyncTask.class);
+		when(task.executeAsync(any(AsyncTokenStorageAdapter.class))).thenAnswer(new Answer<Promise<Void, DataLayerException>>() {
+			@Override
+			public Promise<Void, DataLayerException> answer(InvocationOnMock invocation) {
+				transactionIds.add(AuditRequestContext.getTransactionIdValue());
+				return Promises.newResultPromise(null);
+			}
+		});
+		AuditRequestContext.set(new AuditRequestContext(new TransactionId("badger-transaction")));
+		executor.execute("badger", task);
+		AuditRequestContext.clear();
+
+		runPool();
+
+		assertEquals(1, transactionIds.size());
+		assertEquals("badger-transaction", transactionIds.get(0));
+	}
+
+	@Test
+	public void shouldNotStartNextTaskForTokenUntilPreviousCompletes() throws Exception {
+		final PromiseImpl<Void, DataLayerException> first = PromiseImpl.create();
+		final AsyncTask firstTask = asyncTask(first);
+		final AsyncTask secondTask = asyncTask(Promises.<Void, DataLayerException>newResultPromise(null));
+		executor.execute("badger", firstTask);
+		executor.execute("badger", secondTask);
+
+		runPool();
+		verify(firstTask).executeAsync(adapter);
+		verify(secondTask, never()).executeAsync(any(AsyncTokenStorageAdapter.class));
+
+		first.handleResult(null);
+		runPool();
+		verify(secondTask).executeAsync(adapter);
+	}
+
+	@Test
+	public void shouldStartTasksForDifferentTokensIndependently() throws Exception {
+		final AsyncTask firstTask = asyncTask(PromiseImpl.<Void, DataLayerException>create());
+		final AsyncTask secondTask = asyncTask(PromiseImpl.<Void, DataLayerException>create());
+		executor.execute("badger", firstTask);
+		executor.execute("weasel", secondTask);
+
+		runPool();
+
+		verify(firstTask).executeAsync(adapter);
+		verify(secondTask).executeAsync(adapter);
+	}
+
+	@Test
+	public void shouldTimeOutWhenCapacityIsExhausted() throws Exception {
+		executor.execute("badger", asyncTask(PromiseImpl.<Void, DataLayerException>create()));
+		executor.execute("weasel", asyncTask(PromiseImpl.<Void, DataLayerException>create()));
+		runPool();
+
+		try {
+			executor.execute("stoat", asyncTask(Promises.<Void, DataLayerException>newResultPromise(null)));
+			fail("Capacity should have been exhausted");
+		} catch (QueueTimeoutException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void shouldReleaseCapacityWhenTaskFails() throws Exception {
+		executor.execute("badger", asyncTask(Promises.<Void, DataLayerException>newExceptionPromise(
+				new DataLayerException("write failed"))));
+		executor.execute("weasel", asyncTask(Promises.<Void, DataLayerException>newResultPromise(null)));
+		runPool();
+
+		executor.execute("stoat", asyncTask(Promises.<Void, DataLayerException>newResultPromise(null)));
+		executor.execute("ferret", asyncTask(Promises.<Void, DataLayerException>newResultPromise(null)));
+
+		assertEquals(2, pool.size());
+	}
+
+	private AsyncTask asyncTask(Promise<Void, DataLayerException> result) {
+		final AsyncTask task = mock(AsyncTask.class);
+		when(task.executeAsync(any(AsyncTokenStorageAdapter.class))).thenReturn(result);
+		return task;
+	}
+
+	/**
+	 * Runs the tasks handed to the pool, including any handed to it whilst doing so.
+	 */
+	private void runPool() {
+		assertTrue("Expected work for the pool", !pool.isEmpty());
+		while (!pool.isEmpty())
+			pool.remove(0).run();
+	}
+}
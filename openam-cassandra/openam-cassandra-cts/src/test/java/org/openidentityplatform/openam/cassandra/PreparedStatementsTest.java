@@ -0,0 +1,118 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.openidentityplatform.openam.cassandra;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.openidentityplatform.openam.cassandra.PreparedStatements.Shape;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.Session;
+
+public class PreparedStatementsTest {
+
+	private PreparedStatements statements;
+
+	@Before
+	public void setup() {
+		statements = new PreparedStatements();
+	}
+
+	@Test
+	public void shouldPrepareEveryShapeOnceOnFirstUse() {
+		final Session session = session();
+
+		final PreparedStatement read = statements.get(session, "ks", "tokens", Shape.READ);
+		final PreparedStatement delete = statements.get(session, "ks", "tokens", Shape.DELETE);
+
+		verify(session, times(Shape.values().length)).prepare(any(RegularStatement.class));
+		assertSame(read, statements.get(session, "ks", "tokens", Shape.READ));
+		assertNotSame(read, delete);
+	}
+
+	@Test
+	public void shouldPrepareEachTableSeparately() {
+		final Session session = session();
+
+		final PreparedStatement first = statements.get(session, "ks", "tokens", Shape.READ);
+		final PreparedStatement second = statements.get(session, "ks", "archive", Shape.READ);
+
+		verify(session, times(2 * Shape.values().length)).prepare(any(RegularStatement.class));
+		assertNotSame(first, second);
+	}
+
+	@Test
+	public void shouldPrepareAgainForNewSession() {
+		final Session session = session();
+		final PreparedStatement original = statements.get(session, "ks", "tokens", Shape.UPDATE);
+		when(session.isClosed()).thenReturn(true);
+		final Session reconnected = session();
+
+		final PreparedStatement statement = statements.get(reconnected, "ks", "tokens", Shape.UPDATE);
+
+		verify(reconnected, times(Shape.values().length)).prepare(any(RegularStatement.class));
+		assertNotSame(original, statement);
+		assertSame(statement, statements.get(reconnected, "ks", "tokens", Shape.UPDATE));
+	}
+
+	@Test
+	public void shouldKeepStatementsOfOpenSessions() {
+		final Session first = session();
+		final Session second = session();
+		final PreparedStatement original = statements.get(first, "ks", "tokens", Shape.READ);
+		statements.get(second, "ks", "tokens", Shape.READ);
+
+		assertSame(original, statements.get(first, "ks", "tokens", Shape.READ));
+		verify(first, times(Shape.values().length)).prepare(any(RegularStatement.class));
+	}
+
+	@Test
+	public void shouldPrepareAgainOnceCleared() {
+		final Session session = session();
+		statements.get(session, "ks", "tokens", Shape.READ);
+
+		statements.clear();
+		statements.get(session, "ks", "tokens", Shape.READ);
+
+		verify(session, times(2 * Shape.values().length)).prepare(any(RegularStatement.class));
+	}
+
+	/**
+	 * @return A session which prepares a distinct statement each time.
+	 */
+	private static Session session() {
+		final Session session = mock(Session.class);
+		when(session.prepare(any(RegularStatement.class))).thenAnswer(new Answer<PreparedStatement>() {
+			@Override
+			public PreparedStatement answer(InvocationOnMock invocation) {
+				return mock(PreparedStatement.class);
+			}
+		});
+		return session;
+	}
+}
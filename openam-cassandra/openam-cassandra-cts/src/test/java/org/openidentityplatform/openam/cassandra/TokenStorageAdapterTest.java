@@ -0,0 +1,104 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.openidentityplatform.openam.cassandra;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Calendar;
+
+import org.forgerock.openam.cts.api.tokens.Token;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TokenStorageAdapterTest {
+
+	private DataLayerConfiguration cfg;
+	private TokenStorageAdapter adapter;
+
+	@Before
+	public void setup() {
+		cfg = mock(DataLayerConfiguration.class);
+		adapter = new TokenStorageAdapter(cfg, null, null, null);
+	}
+
+	@Test
+	public void shouldAddGracePeriodToTimeUntilExpiry() {
+		when(cfg.isExpiryManagedByStore()).thenReturn(true);
+
+		final int ttl = adapter.getTTL(tokenExpiringIn(60 * 60));
+
+		assertTTL(60 * 60 + TokenStorageAdapter.EXPIRY_GRACE_SECONDS, ttl);
+	}
+
+	@Test
+	public void shouldCapTTLAtOneDayWhenExpiryIsNotManagedByStore() {
+		when(cfg.isExpiryManagedByStore()).thenReturn(false);
+
+		final int ttl = adapter.getTTL(tokenExpiringIn(7 * 24 * 60 * 60));
+
+		assertEquals(TokenStorageAdapter.MAX_TTL_SECONDS, ttl);
+	}
+
+	@Test
+	public void shouldNotCapTTLAtOneDayWhenExpiryIsManagedByStore() {
+		when(cfg.isExpiryManagedByStore()).thenReturn(true);
+
+		final int ttl = adapter.getTTL(tokenExpiringIn(7 * 24 * 60 * 60));
+
+		assertTTL(7 * 24 * 60 * 60 + TokenStorageAdapter.EXPIRY_GRACE_SECONDS, ttl);
+	}
+
+	@Test
+	public void shouldClampTTLToLargestAcceptedByCassandra() {
+		when(cfg.isExpiryManagedByStore()).thenReturn(true);
+		final Token token = mock(Token.class);
+		final Calendar expiry = Calendar.getInstance();
+		expiry.add(Calendar.YEAR, 100);
+		when(token.getExpiryTimestamp()).thenReturn(expiry);
+
+		final int ttl = adapter.getTTL(token);
+
+		assertEquals(630720000, ttl);
+		assertEquals(TokenStorageAdapter.MAX_CASSANDRA_TTL_SECONDS, ttl);
+	}
+
+	@Test
+	public void shouldUseTTLOfOneSecondForLongExpiredToken() {
+		when(cfg.isExpiryManagedByStore()).thenReturn(true);
+
+		final int ttl = adapter.getTTL(tokenExpiringIn(-24 * 60 * 60));
+
+		assertEquals(1, ttl);
+	}
+
+	private static Token tokenExpiringIn(int seconds) {
+		final Token token = mock(Token.class);
+		final Calendar expiry = Calendar.getInstance();
+		expiry.add(Calendar.SECOND, seconds);
+		when(token.getExpiryTimestamp()).thenReturn(expiry);
+		return token;
+	}
+
+	/**
+	 * Allows for the clock moving on between creating the token and calculating its TTL.
+	 */
+	private static void assertTTL(int expected, int actual) {
+		assertEquals(expected, actual, 1);
+	}
+}
@@ -0,0 +1,264 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.openidentityplatform.openam.cassandra;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+public class WriteBatcherTest {
+
+	private DataLayerConfiguration cfg;
+	private Session session;
+	private WriteBatcher batcher;
+	private List<Statement> sent;
+	private List<PendingResultSetFuture> pending;
+
+	private Host replica;
+
+	@Before
+	public void setup() {
+		cfg = mock(DataLayerConfiguration.class);
+		replica = mock(Host.class);
+		sent = new ArrayList<>();
+		pending = new ArrayList<>();
+		session = session();
+		batcher = new WriteBatcher(cfg);
+	}
+
+	@Test
+	public void shouldExecuteDirectlyWhenBatchingIsDisabled() {
+		when(cfg.getBatchSize()).thenReturn(1);
+		final Statement write = write("badger");
+
+		batcher.execute(session, write);
+
+		assertEquals(Collections.singletonList(write), sent);
+		assertEquals(0, batcher.getQueueCount());
+	}
+
+	@Test
+	public void shouldExecuteDirectlyWhenStatementHasNoRoutingKey() {
+		when(cfg.getBatchSize()).thenReturn(10);
+		final Statement write = new SimpleStatement("INSERT badger");
+
+		batcher.execute(session, write);
+
+		assertEquals(Collections.singletonList(write), sent);
+		assertEquals(0, batcher.getQueueCount());
+	}
+
+	@Test
+	public void shouldSendWritesImmediatelyWhileBelowInFlightLimit() {
+		configure(10, 2);
+		final Statement first = write("badger");
+		final Statement second = write("weasel");
+
+		batcher.execute(session, first);
+		batcher.execute(session, second);
+
+		assertEquals(2, sent.size());
+		assertSame(first, sent.get(0));
+		assertSame(second, sent.get(1));
+	}
+
+	@Test
+	public void shouldBatchWaitingWritesOnceInFlightBatchCompletes() throws Exception {
+		configure(10, 1);
+		final ListenableFuture<ResultSet> first = batcher.execute(session, write("badger"));
+		final List<ListenableFuture<ResultSet>> waiting = new ArrayList<>();
+		for (String id : new String[] { "weasel", "stoat", "ferret" })
+			waiting.add(batcher.execute(session, write(id)));
+		assertEquals(1, sent.size());
+		assertFalse(waiting.get(0).isDone());
+
+		final ResultSet firstResult = mock(ResultSet.class);
+		pending.get(0).set(firstResult);
+
+		assertSame(firstResult, first.get());
+		assertEquals(2, sent.size());
+		assertTrue(sent.get(1) instanceof BatchStatement);
+		assertEquals(3, ((BatchStatement) sent.get(1)).size());
+
+		final ResultSet batchResult = mock(ResultSet.class);
+		pending.get(1).set(batchResult);
+
+		for (ListenableFuture<ResultSet> write : waiting)
+			assertSame(batchResult, write.get());
+		assertEquals(1, batcher.getQueueCount());
+	}
+
+	@Test
+	public void shouldLimitBatchToBatchSize() {
+		configure(2, 1);
+		for (String id : new String[] { "badger", "weasel", "stoat", "ferret" })
+			batcher.execute(session, write(id));
+
+		pending.get(0).set(mock(ResultSet.class));
+		assertEquals(2, sent.size());
+		assertEquals(2, ((BatchStatement) sent.get(1)).size());
+
+		pending.get(1).set(mock(ResultSet.class));
+		assertEquals(3, sent.size());
+		assertFalse(sent.get(2) instanceof BatchStatement);
+	}
+
+	@Test
+	public void shouldFailEveryWriteInFailedBatch() throws Exception {
+		configure(10, 1);
+		batcher.execute(session, write("badger"));
+		final ListenableFuture<ResultSet> second = batcher.execute(session, write("weasel"));
+		final ListenableFuture<ResultSet> third = batcher.execute(session, write("stoat"));
+		pending.get(0).set(mock(ResultSet.class));
+
+		final RuntimeException error = new RuntimeException("write timeout");
+		pending.get(1).setException(error);
+
+		assertFailedWith(error, second);
+		assertFailedWith(error, third);
+	}
+
+	@Test
+	public void shouldSendNextBatchWhenInFlightBatchFails() {
+		configure(10, 1);
+		final ListenableFuture<ResultSet> first = batcher.execute(session, write("badger"));
+		batcher.execute(session, write("weasel"));
+
+		pending.get(0).setException(new RuntimeException("write timeout"));
+
+		assertTrue(first.isDone());
+		assertEquals(2, sent.size());
+	}
+
+	@Test
+	public void shouldSendWritesWithNewSessionAfterReconnect() {
+		configure(10, 1);
+		batcher.execute(session, write("badger"));
+		when(session.isClosed()).thenReturn(true);
+		final Session reconnected = session();
+
+		batcher.execute(reconnected, write("weasel"));
+
+		assertEquals(2, sent.size());
+		verify(session, times(1)).executeAsync(any(Statement.class));
+		verify(reconnected, times(1)).executeAsync(any(Statement.class));
+		assertEquals(1, batcher.getQueueCount());
+	}
+
+	private Session session() {
+		final Session session = mock(Session.class, RETURNS_DEEP_STUBS);
+		when(session.getCluster().getMetadata().getReplicas(eq("ks"), any(ByteBuffer.class)))
+				.thenReturn(Collections.singleton(replica));
+		when(session.executeAsync(any(Statement.class))).thenAnswer(new Answer<ResultSetFuture>() {
+			@Override
+			public ResultSetFuture answer(InvocationOnMock invocation) {
+				sent.add((Statement) invocation.getArguments()[0]);
+				final PendingResultSetFuture future = new PendingResultSetFuture();
+				pending.add(future);
+				return future;
+			}
+		});
+		return session;
+	}
+
+	private void configure(int batchSize, int batchesInFlight) {
+		when(cfg.getBatchSize()).thenReturn(batchSize);
+		when(cfg.getBatchesInFlight()).thenReturn(batchesInFlight);
+	}
+
+	private static Statement write(String tokenId) {
+		final SimpleStatement statement = new SimpleStatement("INSERT " + tokenId);
+		statement.setKeyspace("ks");
+		statement.setRoutingKey(ByteBuffer.wrap(tokenId.getBytes()));
+		return statement;
+	}
+
+	private static void assertFailedWith(Throwable expected, ListenableFuture<ResultSet> future) throws InterruptedException {
+		try {
+			future.get();
+			fail("Write should have failed");
+		} catch (ExecutionException e) {
+			assertSame(expected, e.getCause());
+		}
+	}
+
+	/**
+	 * A result of an asynchronous execution which the test completes.
+	 */
+	private static final class PendingResultSetFuture extends AbstractFuture<ResultSet> implements ResultSetFuture {
+
+		@Override
+		public boolean set(ResultSet value) {
+			return super.set(value);
+		}
+
+		@Override
+		public boolean setException(Throwable throwable) {
+			return super.setException(throwable);
+		}
+
+		@Override
+		public ResultSet getUninterruptibly() {
+			try {
+				return Uninterruptibles.getUninterruptibly(this);
+			} catch (ExecutionException e) {
+				throw new RuntimeException(e.getCause());
+			}
+		}
+
+		@Override
+		public ResultSet getUninterruptibly(long timeout, TimeUnit unit) {
+			try {
+				return Uninterruptibles.getUninterruptibly(this, timeout, unit);
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+}
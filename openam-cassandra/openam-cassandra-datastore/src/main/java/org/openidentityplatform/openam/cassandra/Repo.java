@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -37,6 +38,7 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.commons.lang3.StringUtils;
 import org.forgerock.openam.utils.CrestQuery;
@@ -57,6 +59,11 @@ import com.datastax.driver.core.querybuilder.Select;
 import com.datastax.driver.core.querybuilder.Select.Where;
 import com.datastax.driver.core.querybuilder.Update.Assignments;
 import com.datastax.driver.core.querybuilder.Update.Options;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.iplanet.sso.SSOException;
 import com.iplanet.sso.SSOToken;
 import com.sun.identity.idm.IdOperation;
@@ -196,18 +203,46 @@ public class Repo extends IdRepo {
 		}
 	}
 	
-	public Set<String> rowIndexGet(Integer index,String value){
-		final Set<String> res=new HashSet<String>();
+	static final int rowIndexLimit=64000;
+	static final int searchPageSize=100;
+	
+	/**
+	 * Reads the keys of a row index value page by page. Each page is requested only once the previous one has been consumed,
+	 * so no thread is blocked while the pages are being fetched and lookups of several values can run side by side.
+	 * @return keys found in the row index, or an immediate null if the field has no row index
+	 */
+	public ListenableFuture<Set<String>> rowIndexGetAsync(Integer index,String value){
 		if (index==null || value==null)
-			return null;
-		final Statement selectIndex=QueryBuilder.select("key").from(keyspace,rowIndexData).where(QueryBuilder.eq("id", index)).and(QueryBuilder.eq("value", value)).limit(64000);
-		final ResultSet rc=new ExecuteCallback(session,selectIndex).execute();
-		for (Row row : rc){ 
-			if (rc.getAvailableWithoutFetching() == (session.getCluster().getConfiguration().getQueryOptions().getFetchSize()-1) && !rc.isFullyFetched())
-				rc.fetchMoreResults(); // this is asynchronous
-			res.add(row.getString(0));
+			return Futures.immediateFuture(null);
+		final Statement selectIndex=QueryBuilder.select("key").from(keyspace,rowIndexData).where(QueryBuilder.eq("id", index)).and(QueryBuilder.eq("value", value)).limit(rowIndexLimit);
+		return Futures.transformAsync(new ExecuteCallback(session,selectIndex).executeAsync(),new RowIndexPages(),MoreExecutors.directExecutor());
+	}
+	
+	static class RowIndexPages implements AsyncFunction<ResultSet, Set<String>>{
+		final Set<String> res=new HashSet<String>();
+		
+		@Override
+		public ListenableFuture<Set<String>> apply(ResultSet rc) {
+			for (int available=rc.getAvailableWithoutFetching();available>0;available--) 
+				res.add(rc.one().getString(0));
+			if (rc.isFullyFetched())
+				return Futures.immediateFuture(res);
+			return Futures.transformAsync(rc.fetchMoreResults(),this,MoreExecutors.directExecutor());
 		}
-		return res;
+	}
+	
+	static <V> V get(ListenableFuture<V> future){
+		try {
+			return Uninterruptibles.getUninterruptibly(future);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException)e.getCause();
+			throw new RuntimeException(e.getCause());
+		}
+	}
+	
+	public Set<String> rowIndexGet(Integer index,String value){
+		return get(rowIndexGetAsync(index, value));
 	}
 	
 	public Set<String> rowIndexGet(IdType type,String field,String value){
@@ -219,17 +254,17 @@ public class Repo extends IdRepo {
 		if (uids.size()>0){//test res
 			final String uid=getKeyName(type);
 			final String fieldName=getFieldName(type, field);
-			final Statement selectIndex=QueryBuilder.select(new String[]{uid,fieldName}).from(keyspace,getTableName(type)).where(QueryBuilder.in(uid, uids.toArray()));
-			final ResultSet rc=new ExecuteCallback(session,selectIndex).execute();
-			for (Row row : rc){ 
-				if (rc.getAvailableWithoutFetching() == (session.getCluster().getConfiguration().getQueryOptions().getFetchSize()-1) && !rc.isFullyFetched())
-					rc.fetchMoreResults(); // this is asynchronous
-				final Set<String> values=row.getSet(fieldName,String.class);
-				if (values!=null && values.contains(value))
-					uidsReal.add(row.getString(uid));
-				else{
-					logger.warn("remove phantom row index {} {}: {}={}",type,row.getString(uid),field,value);
-					rowIndexDelete(index, value, row.getString(uid));
+			final List<String> keys=new ArrayList<String>(uids);
+			for (int from=0;from<keys.size();from+=searchPageSize){
+				final Statement selectIndex=QueryBuilder.select(new String[]{uid,fieldName}).from(keyspace,getTableName(type)).where(QueryBuilder.in(uid, keys.subList(from, Math.min(keys.size(), from+searchPageSize)).toArray()));
+				for (Row row : new ExecuteCallback(session,selectIndex).execute()){ 
+					final Set<String> values=row.getSet(fieldName,String.class);
+					if (values!=null && values.contains(value))
+						uidsReal.add(row.getString(uid));
+					else{
+						logger.warn("remove phantom row index {} {}: {}={}",type,row.getString(uid),field,value);
+						rowIndexDelete(index, value, row.getString(uid));
+					}
 				}
 			}
 			uids.removeAll(uidsReal);
@@ -296,20 +331,9 @@ public class Repo extends IdRepo {
 				}
 				return attr;
 			}
-			Select.Builder selectBuilder=(attrNames==null||attrNames.isEmpty())?QueryBuilder.select().all():QueryBuilder.select();
-			if (attrNames!=null){
-				boolean setColumns=false;
-				for (Object field : attrNames.toArray()){ 
-					final String fieldName=getFieldName(type, field.toString());
-					if (fieldName!=null){
-						selectBuilder=((Select.Selection)selectBuilder).column(fieldName);
-						setColumns=true;
-					}
-				}
-				if (!setColumns)
-					return Collections.EMPTY_MAP;
-			}
-			final Statement statement=selectBuilder.from(keyspace,getTableName(type)).where(QueryBuilder.eq(getKeyName(type), name)).limit(1);
+			final Statement statement=selectAttributes(type, name, attrNames);
+			if (statement==null)
+				return Collections.EMPTY_MAP;
 			final ResultSet rc=new ExecuteCallback(session,statement).execute();
 			for (Row row : rc){
 				if (rc.getAvailableWithoutFetching() == (session.getCluster().getConfiguration().getQueryOptions().getFetchSize()-1) && !rc.isFullyFetched())
@@ -326,6 +350,69 @@ public class Repo extends IdRepo {
 		return attr;
 	}
 
+	/**
+	 * @return select of the row with the requested attributes, or null if none of the attributes is mapped to a column
+	 */
+	Statement selectAttributes(IdType type,String name, Set attrNames){
+		Select.Builder selectBuilder=(attrNames==null||attrNames.isEmpty())?QueryBuilder.select().all():QueryBuilder.select();
+		if (attrNames!=null){
+			boolean setColumns=false;
+			for (Object field : attrNames.toArray()){ 
+				final String fieldName=getFieldName(type, field.toString());
+				if (fieldName!=null){
+					selectBuilder=((Select.Selection)selectBuilder).column(fieldName);
+					setColumns=true;
+				}
+			}
+			if (!setColumns)
+				return null;
+		}
+		return selectBuilder.from(keyspace,getTableName(type)).where(QueryBuilder.eq(getKeyName(type), name)).limit(1);
+	}
+	
+	/**
+	 * Reads the rows as single partition reads running side by side, keeping up to {@link #searchPageSize} reads in flight,
+	 * instead of one read after the other. Names that are not found are left out of the result.
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public Map<String, Map<String, Set<String>>> getAttributes(SSOToken token, IdType type, Set<String> names, Set<String> attrNames) throws IdRepoException, SSOException {
+		validate(type, IdOperation.READ);
+		final Map<String, Map<String, Set<String>>> res=new HashMap<String, Map<String,Set<String>>>(names.size());
+		final List<String> keys=new ArrayList<String>(names.size());
+		for (String name : names) {
+			if (StringUtils.startsWith(name,"coutner-")) //coutners
+				res.put(name, getAttributes(token, type, name, attrNames));
+			else
+				keys.add(name);
+		}
+		if (keys.isEmpty())
+			return res;
+		if (selectAttributes(type, keys.get(0), attrNames)==null){
+			for (String name : keys) 
+				res.put(name, Collections.EMPTY_MAP);
+			return res;
+		}
+		final List<ListenableFuture<ResultSet>> reads=new ArrayList<ListenableFuture<ResultSet>>(keys.size());
+		try{
+			for (int i=0;i<Math.min(searchPageSize, keys.size());i++)
+				reads.add(new ExecuteCallback(session,selectAttributes(type, keys.get(i), attrNames)).executeAsync());
+			for (int i=0;i<keys.size();i++){
+				if (i+searchPageSize<keys.size())
+					reads.add(new ExecuteCallback(session,selectAttributes(type, keys.get(i+searchPageSize), attrNames)).executeAsync());
+				final Row row=get(reads.get(i)).one();
+				if (row!=null)
+					res.put(keys.get(i), row2Map(row));
+			}
+		}catch(Throwable e){
+			for (ListenableFuture<ResultSet> read : reads) 
+				read.cancel(true);
+			logger.error("getAttributes {} {} {}",type,keys.size(),attrNames,e.getMessage());
+			throw new IdRepoException(e.getMessage());
+		}
+		return res;
+	}
+
 	@Override
 	public Map<String, byte[][]> getBinaryAttributes(SSOToken token, IdType type, String name, Set attrNames) throws IdRepoException, SSOException {
 		//validate(type, IdOperation.READ);
@@ -496,6 +583,98 @@ public class Repo extends IdRepo {
 	}
 	
 
+
+	/**
+	 * Reads the rows found through the row index in pages of {@link #searchPageSize} keys, requesting the next page
+	 * while the current one is being checked, and stops as soon as limit rows have matched.
+	 * @param returnFields columns to read, or null for all columns
+	 * @param phantomIndex row index values used to find the keys, removed for the rows that no longer hold them
+	 */
+	Map<String, Map<String,Set<String>>> searchByKeys(IdType type,List<String> keys,Set<String> returnFields,int limit,Map avPairs,Set<Entry<String,String>> phantomIndex,Set<Entry<String,String>> rowIndexNotFound){
+		final Map<String, Map<String,Set<String>>> users2attr =new ConcurrentHashMap<String, Map<String,Set<String>>>();
+		ListenableFuture<ResultSet> next=searchPage(type, keys, 0, returnFields);
+		for (int from=0;from<keys.size() && users2attr.size()<limit;from+=searchPageSize){
+			final ResultSet rc=get(next);
+			next=(from+searchPageSize<keys.size())?searchPage(type, keys, from+searchPageSize, returnFields):null;
+			final Set<String> missing=new HashSet<String>(keys.subList(from, Math.min(keys.size(), from+searchPageSize)));
+			for (Row row : rc) {
+				final String uid=row.getString(getKeyName(type));
+				final Map<String,Set<String>> attr=row2Map(row);
+				missing.remove(uid);
+				if (users2attr.size()<limit && matches(type, uid, attr, avPairs, phantomIndex, rowIndexNotFound))
+					users2attr.put(uid, attr);
+			}
+			for (String uid : missing) 
+				for (final Entry<String,String> entryIndex : phantomIndex) {
+					logger.warn("remove phantom row index {} {}: {}={}",type,uid,entryIndex.getKey(),entryIndex.getValue());
+					rowIndexDelete(getRowIndex(type, entryIndex.getKey()), entryIndex.getValue(), uid);
+				}
+		}
+		if (next!=null)
+			next.cancel(true);
+		return users2attr;
+	}
+	
+	/**
+	 * Intersects the keys found for each row index value, starting from the most selective one.
+	 * @return the keys found for every value, empty as soon as two values have no key in common
+	 */
+	static Set<String> intersect(Collection<Set<String>> rowIndexFound){
+		final List<Set<String>> found=new ArrayList<Set<String>>(rowIndexFound);
+		Collections.sort(found, new Comparator<Set<String>>() {
+			@Override
+			public int compare(Set<String> o1, Set<String> o2) {
+				return Integer.compare(o1.size(), o2.size());
+			}
+		});
+		Set<String> uids=null;
+		for (final Set<String> keys : found){
+			if (uids==null)
+				uids=new HashSet<String>(keys);
+			else
+				uids.retainAll(keys);
+			if (uids.isEmpty())
+				break;
+		}
+		return (uids==null)?new HashSet<String>():uids;
+	}
+	
+	ListenableFuture<ResultSet> searchPage(IdType type,List<String> keys,int from,Set<String> returnFields){
+		final Statement statement=((returnFields==null)?QueryBuilder.select().all():QueryBuilder.select(returnFields.toArray(new String[0]))).from(keyspace,getTableName(type))
+				.where(QueryBuilder.in(getKeyName(type), keys.subList(from, Math.min(keys.size(), from+searchPageSize)).toArray()));
+		return new ExecuteCallback(session, statement).executeAsync();
+	}
+	
+	/**
+	 * Checks a row against the search filter, restoring missing row index values and removing phantom ones on the way.
+	 */
+	boolean matches(IdType type,String uid,Map<String,Set<String>> attr,Map avPairs,Set<Entry<String,String>> phantomIndex,Set<Entry<String,String>> rowIndexNotFound){
+		for (final Entry<String,String> entryIndex : rowIndexNotFound) { //try restore row index
+			final Set<String> values=attr.get(entryIndex.getKey().replace("\"", ""));
+			if (values!=null && values.contains(entryIndex.getValue())){
+				logger.warn("restore row index {} {}: {}={} ",type,uid,entryIndex.getKey(),entryIndex.getValue());
+				rowIndexAdd(getRowIndex(type, entryIndex.getKey()), entryIndex.getValue(), uid, 0);
+			}
+		}
+		for (final Entry<String,String> entryIndex : phantomIndex) {
+			final Set<String> values=attr.get(entryIndex.getKey().replace("\"", ""));
+			if (values==null || !values.contains(entryIndex.getValue())){
+				logger.warn("remove phantom row index {} {}: {}={}",type,uid,entryIndex.getKey(),entryIndex.getValue());
+				rowIndexDelete(getRowIndex(type, entryIndex.getKey()), entryIndex.getValue(), uid);
+			}
+		}
+		if (avPairs!=null && avPairs.size()>0) //test result where
+			for (final Entry<String, Set<String>> filterEntry : ((Map<String, Set<String>>)avPairs).entrySet())
+				for (String value : filterEntry.getValue()) {
+					final Set<String> values=attr.get(filterEntry.getKey());
+					if (values==null || !values.contains(value)){
+						logger.warn("ignore {}: {}={}",uid,filterEntry.getKey(),filterEntry.getValue());
+						return false;
+					}
+				}
+		return true;
+	}
+
 	@Override
 	public  RepoSearchResults search(SSOToken token, IdType type,
              CrestQuery crestQuery, int maxTime, int maxResults,
@@ -535,6 +714,8 @@ public class Repo extends IdRepo {
 				if (avPairs!=null && avPairs.size()>0){
 					final Set<String> indexFields=new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
 					indexFields.addAll(avPairs.keySet());
+					//start all row index lookups at once
+					final Map<Entry<String,String>,ListenableFuture<Set<String>>> rowIndexLookups=new HashMap<Entry<String,String>,ListenableFuture<Set<String>>>();
 					for (final Entry<String, Set<String>> filterEntry : ((Map<String, Set<String>>)avPairs).entrySet()){ 
 						final String fieldName=getFieldName(type, filterEntry.getKey());
 						if (fieldName!=null){
@@ -544,38 +725,43 @@ public class Repo extends IdRepo {
 									secondaryIndex.add(new AbstractMap.SimpleEntry<String,String>(fieldName, value));
 									continue;
 								}
-								final Set<String> uids=rowIndexGet(type, filterEntry.getKey(), value);
-								if (uids==null)
+								final Integer index=getRowIndex(type, filterEntry.getKey());
+								if (index==null)
 									secondaryIndex.add(new AbstractMap.SimpleEntry<String,String>(fieldName, value));
-								else if ((uids!=null && uids.isEmpty()) || repeatBySecondary==true) //row index empty
+								else if (repeatBySecondary==true)
 									rowIndexNotFound.add(new AbstractMap.SimpleEntry<String,String>(fieldName, value));
-								else  
-									rowIndexFound.put(new AbstractMap.SimpleEntry<String,String>(fieldName, value),uids);
+								else
+									rowIndexLookups.put(new AbstractMap.SimpleEntry<String,String>(fieldName, value), rowIndexGetAsync(index, value));
 							}
 						}
 					}
-					final Set<String> uids=new HashSet<String>();
-					if (!rowIndexFound.isEmpty()){ //by row index
-						for (final Entry<Entry<String,String>,Set<String>> pair : rowIndexFound.entrySet())
-							if (uids.isEmpty())
-								uids.addAll(pair.getValue());
-							else
-								uids.retainAll(pair.getValue());
+					for (final Entry<Entry<String,String>,ListenableFuture<Set<String>>> lookup : rowIndexLookups.entrySet()) {
+						final Set<String> uids=get(lookup.getValue());
+						if (uids.isEmpty()) //row index empty
+							rowIndexNotFound.add(lookup.getKey());
+						else  
+							rowIndexFound.put(lookup.getKey(),uids);
 					}
-					if (!uids.isEmpty()){
-						if (StringUtils.isNotBlank(pattern)&&!StringUtils.equals(pattern, "*"))
-							uids.add(pattern);
-						statement=((Where)statement).and(QueryBuilder.in(getKeyName(type), uids.toArray()));
-					}
-					else{	//by secondary index
-						//where from pattern
-						if (StringUtils.isNotBlank(pattern)&&!StringUtils.equals(pattern, "*"))
-							statement=((Where)statement).and(QueryBuilder.eq(getKeyName(type), pattern));
-						
-						secondaryIndex.addAll(rowIndexNotFound); 
-						for (final Entry<String, String> pair : secondaryIndex) 
-							statement=((Where)statement).and((StringUtils.equalsIgnoreCase(getKeyName(type), pair.getKey()))?QueryBuilder.eq(pair.getKey(), pair.getValue()):QueryBuilder.contains(pair.getKey(), pair.getValue()));
+					if (!rowIndexFound.isEmpty()){ //by row index
+						final Set<String> uids=intersect(rowIndexFound.values());
+						final Map<String, Map<String,Set<String>>> users2attr=uids.isEmpty()
+								?new ConcurrentHashMap<String, Map<String,Set<String>>>()
+								:searchByKeys(type, new ArrayList<String>(uids), returnAllAttrs?null:returnFields, Math.min(32000,Math.max(maxResults,1)), avPairs, rowIndexFound.keySet(), rowIndexNotFound);
+						if (users2attr.isEmpty() && repeatBySecondary==false){
+							repeatBySecondary=true;
+							logger.warn("restart search {} -> {}: {}",rowIndexFound,pattern,avPairs);
+							continue;
+						}
+						return new RepoSearchResults(users2attr.keySet(),(maxResults>0&&users2attr.size()>maxResults)?RepoSearchResults.SIZE_LIMIT_EXCEEDED:RepoSearchResults.SUCCESS,users2attr,type);
 					}
+					//by secondary index
+					//where from pattern
+					if (StringUtils.isNotBlank(pattern)&&!StringUtils.equals(pattern, "*"))
+						statement=((Where)statement).and(QueryBuilder.eq(getKeyName(type), pattern));
+					
+					secondaryIndex.addAll(rowIndexNotFound); 
+					for (final Entry<String, String> pair : secondaryIndex) 
+						statement=((Where)statement).and((StringUtils.equalsIgnoreCase(getKeyName(type), pair.getKey()))?QueryBuilder.eq(pair.getKey(), pair.getValue()):QueryBuilder.contains(pair.getKey(), pair.getValue()));
 				}else
 					if (StringUtils.isNotBlank(pattern)&&!StringUtils.equals(pattern, "*"))
 						statement=((Where)statement).and(QueryBuilder.eq(getKeyName(type), pattern));
@@ -591,25 +777,9 @@ public class Repo extends IdRepo {
 						throw e2;
 					users2attr=ResultSet2Map(type,new ExecuteCallback(session, new SimpleStatement(((Select)statement).allowFiltering().toString())).execute());
 				}
-				for (final Entry<String, Map<String,Set<String>>> entryUid : users2attr.entrySet()) {
-					if (!rowIndexNotFound.isEmpty()) //try restore row index
-						for (final Entry<String,String> entryIndex : rowIndexNotFound) {
-							final Set<String> values=entryUid.getValue().get(entryIndex.getKey().replace("\"", ""));
-							if (values!=null && values.contains(entryIndex.getValue())){
-								logger.warn("restore row index {} {}: {}={} ",type,entryUid.getKey(),entryIndex.getKey(),entryIndex.getValue());
-								rowIndexAdd(getRowIndex(type, entryIndex.getKey()), entryIndex.getValue(), entryUid.getKey(), 0);
-							}
-						}
-					if (avPairs!=null && avPairs.size()>0) //test result where
-						for (final Entry<String, Set<String>> filterEntry : ((Map<String, Set<String>>)avPairs).entrySet())
-							for (String value : filterEntry.getValue()) {
-								final Set<String> values=entryUid.getValue().get(filterEntry.getKey());
-								if (values==null || !values.contains(value)){
-									logger.warn("ignore {}: {}={}",entryUid.getKey(),filterEntry.getKey(),filterEntry.getValue());
-									users2attr.remove(entryUid.getKey());
-								}
-							}
-				}
+				for (final Entry<String, Map<String,Set<String>>> entryUid : users2attr.entrySet()) 
+					if (!matches(type, entryUid.getKey(), entryUid.getValue(), avPairs, Collections.<Entry<String,String>>emptySet(), rowIndexNotFound))
+						users2attr.remove(entryUid.getKey());
 				if (!rowIndexFound.isEmpty() && users2attr.isEmpty() && repeatBySecondary==false){
 					repeatBySecondary=true;
 					logger.warn("restart search {} -> {}: {}",rowIndexFound,pattern,avPairs);
@@ -0,0 +1,247 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.openidentityplatform.openam.cassandra;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.sun.identity.idm.IdOperation;
+import com.sun.identity.idm.IdType;
+import com.sun.identity.idm.RepoSearchResults;
+
+public class RepoSearchTest {
+
+	private IndexedRepo repo;
+	private Session session;
+
+	@Before
+	public void setup() {
+		session = mock(Session.class, RETURNS_DEEP_STUBS);
+		when(session.getState().getConnectedHosts()).thenReturn(Collections.<Host>emptyList());
+		repo = new IndexedRepo();
+		repo.session = session;
+		repo.supportedOps.put(IdType.USER, new HashSet<IdOperation>(Arrays.asList(IdOperation.READ)));
+	}
+
+	@After
+	public void teardown() {
+		repo.shutdown();
+	}
+
+	@Test
+	public void intersectKeepsKeysFoundForEveryValue() {
+		final Set<String> uids = Repo.intersect(Arrays.asList(set("u1", "u2", "u3"), set("u2", "u3"), set("u3", "u4")));
+
+		assertEquals(set("u3"), uids);
+	}
+
+	@Test
+	public void intersectStaysEmptyOnceValuesHaveNoKeyInCommon() {
+		final Set<String> uids = Repo.intersect(Arrays.asList(set("u1"), set("u2"), set("u2", "u3")));
+
+		assertTrue(uids.isEmpty());
+	}
+
+	@Test
+	public void intersectOfNoValuesIsEmpty() {
+		assertTrue(Repo.intersect(Collections.<Set<String>>emptyList()).isEmpty());
+	}
+
+	@Test
+	public void searchReadsOnlyKeysFoundForEveryRowIndexValue() throws Exception {
+		repo.index("cn", 1, "alice", "u1", "u2", "u3");
+		repo.index("mail", 2, "alice@example.com", "u2", "u3");
+		repo.index("sn", 3, "smith", "u3", "u4");
+		repo.row("u1", "cn", "alice");
+		repo.row("u2", "cn", "alice", "mail", "alice@example.com");
+		repo.row("u3", "cn", "alice", "mail", "alice@example.com", "sn", "smith");
+		repo.row("u4", "sn", "smith");
+
+		final RepoSearchResults results = search(10, "cn", "alice", "mail", "alice@example.com", "sn", "smith");
+
+		assertEquals(set("u3"), results.getSearchResults());
+		assertEquals(Arrays.asList(Arrays.asList("u3")), repo.pages);
+		assertTrue(repo.deleted.isEmpty());
+	}
+
+	@Test
+	public void searchFindsNothingWhenRowIndexValuesHaveNoKeyInCommon() throws Exception {
+		repo.index("cn", 1, "alice", "u1");
+		repo.index("mail", 2, "bob@example.com", "u2");
+		repo.index("sn", 3, "smith", "u2", "u3");
+		repo.row("u1", "cn", "alice");
+		repo.row("u2", "mail", "bob@example.com", "sn", "smith");
+		repo.row("u3", "sn", "smith");
+		final ResultSet empty = resultSet();
+		when(session.execute(any(Statement.class))).thenReturn(empty);
+
+		final RepoSearchResults results = search(10, "cn", "alice", "mail", "bob@example.com", "sn", "smith");
+
+		assertTrue(results.getSearchResults().isEmpty());
+		assertTrue(repo.pages.isEmpty());
+		verify(session, times(1)).execute(any(Statement.class));
+	}
+
+	@Test
+	public void searchStopsReadingPagesAtTheLimit() throws Exception {
+		final String[] keys = new String[Repo.searchPageSize * 2 + 50];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = String.format("u%03d", i);
+			repo.row(keys[i], "cn", "alice");
+		}
+		repo.index("cn", 1, "alice", keys);
+
+		final RepoSearchResults results = search(10, "cn", "alice");
+
+		assertEquals(10, results.getSearchResults().size());
+		assertEquals(RepoSearchResults.SUCCESS, results.getErrorCode());
+		assertEquals(2, repo.pages.size());
+		assertEquals(Repo.searchPageSize, repo.pages.get(0).size());
+	}
+
+	@Test
+	public void searchRemovesPhantomRowIndexValues() throws Exception {
+		repo.index("cn", 1, "alice", "u1", "u2", "u3");
+		repo.row("u1", "cn", "alice");
+		repo.row("u2", "cn", "bob");
+
+		final RepoSearchResults results = search(10, "cn", "alice");
+
+		assertEquals(set("u1"), results.getSearchResults());
+		assertEquals(set("cn=alice:u2", "cn=alice:u3"), new HashSet<String>(repo.deleted));
+	}
+
+	private RepoSearchResults search(int maxResults, String... filter) throws Exception {
+		final Map<String, Set<String>> avPairs = new TreeMap<String, Set<String>>(String.CASE_INSENSITIVE_ORDER);
+		for (int i = 0; i < filter.length; i += 2)
+			avPairs.put(filter[i], set(filter[i + 1]));
+		return repo.search(null, IdType.USER, "*", 0, maxResults, null, true, 0, avPairs, false);
+	}
+
+	private static Set<String> set(String... values) {
+		return new LinkedHashSet<String>(Arrays.asList(values));
+	}
+
+	private static ResultSet resultSet(Row... rows) {
+		final ResultSet resultSet = mock(ResultSet.class, RETURNS_DEEP_STUBS);
+		when(resultSet.iterator()).thenReturn(Arrays.asList(rows).iterator());
+		return resultSet;
+	}
+
+	/**
+	 * Serves the row index and the rows from memory, recording the pages read and the row index values removed.
+	 */
+	static class IndexedRepo extends Repo {
+		final Map<String, Integer> fields = new TreeMap<String, Integer>(String.CASE_INSENSITIVE_ORDER);
+		final Map<String, Set<String>> indexData = new HashMap<String, Set<String>>();
+		final Map<String, Map<String, Set<String>>> rows = new HashMap<String, Map<String, Set<String>>>();
+		final List<List<String>> pages = new ArrayList<List<String>>();
+		final List<String> deleted = new ArrayList<String>();
+
+		void index(String field, int index, String value, String... keys) {
+			fields.put(field, index);
+			indexData.put(index + "=" + value, set(keys));
+		}
+
+		void row(String uid, String... attributes) {
+			final Map<String, Set<String>> attr = new TreeMap<String, Set<String>>(String.CASE_INSENSITIVE_ORDER);
+			attr.put("uid", set(uid));
+			for (int i = 0; i < attributes.length; i += 2)
+				attr.put(attributes[i], set(attributes[i + 1]));
+			rows.put(uid, attr);
+		}
+
+		@Override
+		String getKeyName(IdType type) {
+			return "\"uid\"";
+		}
+
+		@Override
+		String getFieldName(IdType type, String name) {
+			return name;
+		}
+
+		@Override
+		public Integer getRowIndex(IdType type, String field) {
+			return fields.get(field);
+		}
+
+		@Override
+		public ListenableFuture<Set<String>> rowIndexGetAsync(Integer index, String value) {
+			final Set<String> keys = indexData.get(index + "=" + value);
+			return Futures.<Set<String>>immediateFuture(keys == null ? new HashSet<String>() : new HashSet<String>(keys));
+		}
+
+		@Override
+		ListenableFuture<ResultSet> searchPage(IdType type, List<String> keys, int from, Set<String> returnFields) {
+			final List<String> page = new ArrayList<String>(keys.subList(from, Math.min(keys.size(), from + searchPageSize)));
+			pages.add(page);
+			final List<Row> found = new ArrayList<Row>();
+			for (String uid : page)
+				if (rows.containsKey(uid)) {
+					final Row row = mock(Row.class);
+					when(row.getString("\"uid\"")).thenReturn(uid);
+					found.add(row);
+				}
+			return Futures.immediateFuture(resultSet(found.toArray(new Row[0])));
+		}
+
+		@Override
+		Map<String, Set<String>> row2Map(Row row) {
+			return rows.get(row.getString("\"uid\""));
+		}
+
+		@Override
+		public void rowIndexDelete(Integer index, String value, String key) {
+			for (Map.Entry<String, Integer> field : fields.entrySet())
+				if (field.getValue().equals(index))
+					deleted.add(field.getKey() + "=" + value + ":" + key);
+		}
+
+		@Override
+		void rowIndexAdd(Integer index, String value, String key, Integer ttl) {
+		}
+	}
+}
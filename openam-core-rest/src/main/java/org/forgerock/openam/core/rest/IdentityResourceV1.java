@@ -101,6 +101,7 @@ import com.sun.identity.idsvcs.IdentityDetails;
 import com.sun.identity.idsvcs.NeedMoreCredentials;
 import com.sun.identity.idsvcs.ObjectNotFound;
 import com.sun.identity.idsvcs.TokenExpired;
+import com.sun.identity.idsvcs.opensso.IdentitySearchHandler;
 import com.sun.identity.idsvcs.opensso.IdentityServicesImpl;
 import com.sun.identity.shared.Constants;
 import com.sun.identity.shared.datastruct.CollectionHelper;
@@ -1214,16 +1215,17 @@ public final class IdentityResourceV1 implements CollectionResourceProvider {
             if (queryId == null || queryId.isEmpty()) {
                 queryId = "*";
             }
-            List<String> users = identityServices.search(new CrestQuery(queryId),
-                                                         getIdentityServicesAttributes(realm), admin);
+            identityServices.search(new CrestQuery(queryId), getIdentityServicesAttributes(realm), admin,
+                    new IdentitySearchHandler<String>() {
+                        @Override
+                        public boolean handleResult(String user) {
+                            JsonValue val = new JsonValue(user);
+                            return handler.handleResource(buildResourceResponse(user, val));
+                        }
+                    });
             String principalName = PrincipalRestUtils.getPrincipalNameFromServerContext(context);
             debug.message("IdentityResource.queryCollection :: QUERY performed on realm={}  by principalName={}", realm,
                     principalName);
-
-            for (final String user : users) {
-                JsonValue val = new JsonValue(user);
-                handler.handleResource(buildResourceResponse(user, val));
-            }
         } catch (Exception ex) {
 
         }
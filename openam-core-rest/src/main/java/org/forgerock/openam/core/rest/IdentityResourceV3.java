@@ -29,6 +29,7 @@ import com.sun.identity.idsvcs.GeneralFailure;
 import com.sun.identity.idsvcs.IdentityDetails;
 import com.sun.identity.idsvcs.ObjectNotFound;
 import com.sun.identity.idsvcs.TokenExpired;
+import com.sun.identity.idsvcs.opensso.IdentitySearchHandler;
 import com.sun.identity.idsvcs.opensso.IdentityServicesImpl;
 import com.sun.identity.shared.debug.Debug;
 import org.forgerock.json.JsonPointer;
@@ -69,7 +70,6 @@ import org.forgerock.util.query.QueryFilter;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -203,39 +203,39 @@ public final class IdentityResourceV3 implements CollectionResourceProvider {
         try {
             SSOToken admin = context.asContext(SSOTokenContext.class).getCallerSSOToken();
             IdentityServicesImpl identityServices = getIdentityServices();
-            List<IdentityDetails> userDetails = null;
+            CrestQuery crestQuery;
 
             // If the user specified _queryFilter, then (convert and) use that, otherwise look for _queryID
             // and if that isn't there either, pretend the user gave a _queryID of "*"
             //
             QueryFilter<JsonPointer> queryFilter = request.getQueryFilter();
             if (queryFilter != null) {
-                CrestQuery crestQuery = new CrestQuery(queryFilter);
-                userDetails = identityServices.searchIdentityDetails(crestQuery,
-                        getIdentityServicesAttributes(realm, objectType),
-                        admin);
+                crestQuery = new CrestQuery(queryFilter);
             } else {
                 String queryId = request.getQueryId();
                 if (queryId == null || queryId.isEmpty()) {
                     queryId = "*";
                 }
-                CrestQuery crestQuery = new CrestQuery(queryId);
-                userDetails = identityServices.searchIdentityDetails(crestQuery,
-                        getIdentityServicesAttributes(realm, objectType),
-                        admin);
+                crestQuery = new CrestQuery(queryId);
             }
 
+            // Each identity is sent on as it is read, rather than holding the whole result set in memory
+            identityServices.searchIdentityDetails(crestQuery, getIdentityServicesAttributes(realm, objectType),
+                    admin, new IdentitySearchHandler<IdentityDetails>() {
+                        @Override
+                        public boolean handleResult(IdentityDetails userDetail) {
+                            return handler.handleResource(
+                                    identityResourceV2.buildResourceResponse(userDetail.getName(), context,
+                                            userDetail));
+                        }
+                    });
+
             String principalName = PrincipalRestUtils.getPrincipalNameFromServerContext(context);
             logger.message("IdentityResourceV3.queryCollection :: QUERY performed on realm "
                     + realm
                     + " by "
                     + principalName);
 
-            for (IdentityDetails userDetail : userDetails) {
-                handler.handleResource(
-                        this.identityResourceV2.buildResourceResponse(userDetail.getName(), context, userDetail));
-            }
-
         } catch (ResourceException resourceException) {
             logger.warning("IdentityResourceV3.queryCollection caught ResourceException", resourceException);
             return resourceException.asPromise();
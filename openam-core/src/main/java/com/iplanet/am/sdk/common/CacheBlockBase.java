@@ -398,6 +398,34 @@ public abstract class CacheBlockBase {
         }
     }
 
+    /**
+     * Removes every cached attribute, and every attribute marked as inaccessible, other than the given ones.
+     *
+     * @param attrNames the names of the attributes to keep
+     */
+    public void retainAttributes(Set attrNames) {
+        writeLock.lock();
+        try {
+            if (stringAttributes == null || byteAttributes == null) {
+                return;
+            }
+            Set retained = new CaseInsensitiveHashSet(attrNames);
+            Set removed = new CaseInsensitiveHashSet();
+            removed.addAll(stringAttributes.keySet());
+            removed.addAll(byteAttributes.keySet());
+            Iterator itr = cacheEntries.values().iterator();
+            while (itr.hasNext()) {
+                CacheEntry ce = (CacheEntry) itr.next();
+                removed.addAll(ce.getReadableAttrNames());
+                removed.addAll(ce.getInaccessibleAttrNames());
+            }
+            removed.removeAll(retained);
+            removeAttributes(removed);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
     private void removeAttributes(String principalDN, Set attrNames) {
         CacheEntry ce = (CacheEntry) cacheEntries.get(principalDN);
         if (ce != null) {
@@ -525,6 +553,10 @@ public abstract class CacheBlockBase {
             return attributesPresent;
         }
 
+        protected Set getInaccessibleAttrNames() {
+            return inAccessibleAttrNames;
+        }
+
         protected void putAttributes(Set attrNames, Set invalidAttrs,
                 boolean isCompleteSet) {
             completeSet = isCompleteSet;
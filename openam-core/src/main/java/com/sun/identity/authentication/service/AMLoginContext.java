@@ -47,6 +47,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.Future;
 
 import javax.security.auth.Subject;
 import javax.security.auth.callback.Callback;
@@ -61,6 +62,10 @@ import org.forgerock.openam.audit.AuditConstants.AuthenticationFailureReason;
 import org.forgerock.openam.authentication.service.JAASModuleDetector;
 import org.forgerock.openam.authentication.service.LoginContext;
 import org.forgerock.openam.authentication.service.LoginContextFactory;
+import org.forgerock.openam.monitoring.metrics.MetricsRegistry;
+import org.forgerock.openam.monitoring.metrics.Timer;
+import org.forgerock.openam.monitoring.tracing.Span;
+import org.forgerock.openam.monitoring.tracing.Tracing;
 import org.forgerock.openam.utils.StringUtils;
 import org.forgerock.util.Reject;
 
@@ -139,8 +144,10 @@ public class AMLoginContext {
     private boolean isFailed = false;
     private boolean internalAuthError = false;
     private boolean processDone = false;
+    // Start of the chain, as the login of a threadless chain is run again on each submit
+    private long loginStartNanos;
     private boolean jaasCheck = false;
-    private Thread jaasThread = null;
+    private Future<?> jaasLogin = null;
     private Callback[] recdCallback;
     private final AuthenticationProcessEventAuditor auditor;
 
@@ -237,6 +244,7 @@ public class AMLoginContext {
      */
     public void executeLogin(Subject subject, IndexType loginIndexType, String loginIndexName, String locale, String redirectUrl)
             throws AuthLoginException {
+        loginStartNanos = System.nanoTime();
         boolean errorState = false;
         internalAuthError = false;
         processDone = false;
@@ -417,9 +425,10 @@ public class AMLoginContext {
 
             if (jaasCheck) {
                 debug.message("Using pure jaas mode.");
-                if (authThread == null) {
-                    authThread = new AuthThreadManager();
-                    authThread.start();
+                synchronized (AMLoginContext.class) {
+                    if (authThread == null) {
+                        authThread = new AuthThreadManager();
+                    }
                 }
             }
 
@@ -525,19 +534,16 @@ public class AMLoginContext {
          */
         try {
             if (isPureJAAS()) {
-                if (jaasThread != null) {
-                    jaasThread.interrupt();
-                    jaasThread = null;
+                if (jaasLogin != null) {
+                    jaasLogin.cancel(true);
+                    jaasLogin = null;
                     errorState = true;
                 } else {
-                    jaasThread = new JAASLoginThread(this);
-                    jaasThread.start();
+                    jaasLogin = authThread.execute(new JAASLoginTask(this));
                 }
             } else {
                 runLogin();
             }
-        } catch (IllegalThreadStateException ite) {
-            errorState = true;
         } catch (Exception e) {
             errorState = true;
         }
@@ -570,6 +576,7 @@ public class AMLoginContext {
         AuthenticationFailureReason failureReason = null;
         AMAccountLockout amAccountLockout;
         boolean loginSuccess = false;
+        Span span = Tracing.start("authentication.login").setAttribute("realm", orgDN);
         try {
             loginContext.login();
             Subject subject = loginContext.getSubject();
@@ -773,9 +780,13 @@ public class AMLoginContext {
             return;
         } catch (Throwable e) {
         		debug.error("Error during login.. ",e);
+        		span.setError(e);
         		throw e;
+        } finally {
+            span.setAttribute("failed", isFailed ? "true" : "false").end();
         }
         debug.message("Came to before if Failed loop");
+        (isFailed ? AuthenticationTimers.FAILURE : AuthenticationTimers.SUCCESS).recordSince(loginStartNanos);
 
         if (isFailed) {
             if (MonitoringUtil.isRunning()) {
@@ -2017,29 +2028,43 @@ public class AMLoginContext {
     }
 
     /**
-     * This thread is created when a pure JAAS module is found in the
-     * authentication chain,  which used to be created in
-     * <code>AMLoginContext</code>.
+     * This task is run by the {@link AuthThreadManager} when a pure JAAS module
+     * is found in the authentication chain.
      */
-    private class JAASLoginThread  extends Thread {
+    private static class JAASLoginTask implements Runnable {
 
-        private AMLoginContext amlc;
+        private final AMLoginContext amlc;
 
         /**
-         * Creates <code>JAASLoginThread</code> object.
+         * Creates <code>JAASLoginTask</code> object.
          *
          * @param amlc <code>AMLoginContext</code> in which the running method is
          *        defined.
          */
-        JAASLoginThread(AMLoginContext amlc) {
+        JAASLoginTask(AMLoginContext amlc) {
             this.amlc = amlc;
         }
 
         /**
-         * Run the thread task which is defined in <code>AMLoginContext</code>.
+         * Run the login which is defined in <code>AMLoginContext</code>.
          */
+        @Override
         public void run() {
             amlc.runLogin();
         }
     }
+
+    /**
+     * Holds the authentication chain timers, looked up on the first login.
+     */
+    private static final class AuthenticationTimers {
+        private static final Timer SUCCESS = getOutcomeTimer("success");
+        private static final Timer FAILURE = getOutcomeTimer("failure");
+
+        private static Timer getOutcomeTimer(String outcome) {
+            return InjectorHolder.getInstance(MetricsRegistry.class).timer("openam_authentication_duration_seconds",
+                    "Time from the start of an authentication chain until it completes, including the time taken "
+                            + "by the user to submit each set of callbacks", "outcome", outcome);
+        }
+    }
 }
@@ -33,79 +33,90 @@ package com.sun.identity.authentication.service;
 
 import static org.forgerock.openam.utils.Time.*;
 
-import java.util.Enumeration;
-import java.util.Hashtable;
-
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.forgerock.guice.core.InjectorHolder;
+import org.forgerock.openam.audit.context.AMExecutorServiceFactory;
+
+import com.iplanet.am.util.SystemProperties;
 import com.sun.identity.shared.debug.Debug;
 
 /**
- * AuthThreadManager sleeps for n milliseconds as set in 
- * iplanet-am-auth-sleep-interval wakes up and checks for each thread 
- * in the timeout Hash for timeout.
- * If thread has timed out adds thread to timedOutHash and removed from
- * timeoutHash. 
+ * AuthThreadManager runs the pure JAAS login conversations and times out the threads waiting on them.
+ * <p>
+ * Each JAAS login runs as a task on a shared pool of login threads, so that threads are reused between logins rather
+ * than created for each one. The stack size of the login threads can be reduced with the
+ * {@value #STACK_SIZE_PROPERTY} system property (in bytes), to lower the memory held by logins that are parked
+ * waiting for the user to submit callbacks.
+ * <p>
+ * When a thread starts waiting for callbacks, a timeout is scheduled for the page timeout of that login. If the
+ * timeout elapses before the thread stops waiting, the thread is marked as timed out and interrupted.
  */
-public class AuthThreadManager extends Thread   {
+public class AuthThreadManager {
 
-    long timeout = 60;
-    static Debug debug = null;
-    static int i=0;
-    Hashtable timeoutHash = new Hashtable();
-    Hashtable timedOutHash = new Hashtable();
-    long lastCallbackSent;
-    long defaultSleepTime = 300000;
+    /**
+     * System property for the stack size of the JAAS login threads, in bytes. 0 uses the JVM default.
+     */
+    static final String STACK_SIZE_PROPERTY = "org.openidentityplatform.openam.authentication.jaasThreadStackSize";
+    static Debug debug = Debug.getInstance("amThreadManager");
+    private final ConcurrentMap<Thread, LoginTimeout> timeouts = new ConcurrentHashMap<>();
+    private final Set<Thread> timedOut = ConcurrentHashMap.newKeySet();
+    private final ExecutorService loginService;
+    private final ScheduledExecutorService timeoutService;
 
     /**
      * Creates <code>AuthThreadManager</code> object.
      */
-    public AuthThreadManager () {
-        debug = Debug.getInstance("amThreadManager");
-        setPriority(MIN_PRIORITY);
-        defaultSleepTime = AuthD.getAuth().getDefaultSleepTime();
-        if (debug.messageEnabled()) {
-            debug.message("Default sleep time : " + defaultSleepTime);
+    public AuthThreadManager() {
+        this(InjectorHolder.getInstance(AMExecutorServiceFactory.class));
+    }
+
+    private AuthThreadManager(AMExecutorServiceFactory executorServiceFactory) {
+        this(executorServiceFactory.createCachedThreadPool(
+                new LoginThreadFactory(SystemProperties.getAsLong(STACK_SIZE_PROPERTY, 0))),
+                executorServiceFactory.createScheduledService(1, "AuthThreadManager"));
+    }
+
+    AuthThreadManager(ExecutorService loginService, ScheduledExecutorService timeoutService) {
+        this.loginService = loginService;
+        this.timeoutService = timeoutService;
+        if (timeoutService instanceof ScheduledThreadPoolExecutor) {
+            // Most timeouts are cancelled, there is no need to keep them queued until they would have elapsed
+            ((ScheduledThreadPoolExecutor) timeoutService).setRemoveOnCancelPolicy(true);
         }
     }
 
     /**
-     * thread sleeps for n milliseconds as set in iplanet-am-auth-sleep-interval
-     * wakes up and checks for each thread in the timeout Hash for timeout.
-     * if thread has timed out adds thread to timedOutHash and removed from
-     * timeoutHash 
+     * Runs a JAAS login on one of the login threads.
+     *
+     * @param login the login to run.
+     * @return the <code>Future</code> of the login, which can be cancelled to interrupt it.
      */
-    public void run() {
-        while (true) {
-            try {
-                sleep(defaultSleepTime);
-                if (debug.messageEnabled()) {
-                    debug.message("Thread Waking up");
-                    debug.message("timeoutHash :" + timeoutHash);
-                }
-
-                if ((timeoutHash != null) && (!timeoutHash.isEmpty())) {
-                    Enumeration timeoutElem = timeoutHash.keys();
-                    while (timeoutElem.hasMoreElements()) {
-                        Object key = timeoutElem.nextElement();
-                        Thread thread = (Thread) key;
-                        Hashtable s = (Hashtable) timeoutHash.get(key);
-                        long timeout = ((Long)s.get("PageTimeout")).longValue();
-                        long lastCallbackSent = 
-                            ((Long) s.get("LastCallbackSent")).longValue();
-
-                        if (isLoginTimeout(lastCallbackSent , timeout)) {
-                            if (debug.messageEnabled()) {
-                                debug.message("Interrupting thread" + thread);
-                            }
-                            thread.interrupt();
-                            timeoutHash.remove(key);
-                            timedOutHash.put(thread, Boolean.TRUE);
-                        }
-                    }
+    public Future<?> execute(final Runnable login) {
+        return loginService.submit(new Runnable() {
+            @Override
+            public void run() {
+                Thread thread = Thread.currentThread();
+                // the thread may have timed out while running a previous login
+                timedOut.remove(thread);
+                try {
+                    login.run();
+                } finally {
+                    removeFromHash(thread, "timeoutHash");
+                    removeFromHash(thread, "timedOutHash");
                 }
-            } catch (Exception e) {
-                debug.message("Error run : " , e);
             }
-        }
+        });
     }
 
     /**
@@ -121,9 +132,9 @@ public class AuthThreadManager extends Thread   {
     }
 
     /**
-     * Stores the thread as key and the time out value &
-     * last callback sent in a Hashtable 
-     * @param currentThread will be stored
+     * Schedules the timeout of a thread that is about to wait for callbacks, replacing any timeout already scheduled
+     * for the thread.
+     * @param currentThread will be interrupted when the timeout elapses
      * @param pageTimeOut configured timeout value
      * @param lastCallbackSent time for last callback was sent
      */
@@ -132,20 +143,15 @@ public class AuthThreadManager extends Thread   {
         long pageTimeOut,
         long lastCallbackSent) {
         if (debug.messageEnabled()) {
-            debug.message("Setting hash... : "  + currentThread);
+            debug.message("Scheduling timeout for thread : " + currentThread);
         }
-        if (timeoutHash.contains(currentThread)) {
-            return;
-        }
-        Hashtable param = new Hashtable();
-        param.put("PageTimeout" , new Long(pageTimeOut));
-        param.put("LastCallbackSent",new Long(lastCallbackSent));
-
-        timeoutHash.put(currentThread,param);    
-
-        if (debug.messageEnabled()){
-            debug.message("timeOutHash is : " + timeoutHash);
+        LoginTimeout timeout = new LoginTimeout(currentThread);
+        LoginTimeout previous = timeouts.put(currentThread, timeout);
+        if (previous != null) {
+            previous.cancel();
         }
+        long delay = lastCallbackSent + (pageTimeOut - 3) * 1000 - currentTimeMillis();
+        timeout.schedule(Math.max(delay, 0));
     }
 
     /**
@@ -154,22 +160,12 @@ public class AuthThreadManager extends Thread   {
      * @return <code>true</code> if the is timed out
      */
     public boolean isTimedOut(Thread thread) {
-        if (debug.messageEnabled()) {
-            debug.message("Timed ut hash has : " + timedOutHash);
-        }
-        if  ((timedOutHash ==  null) || (timedOutHash.isEmpty())) {
-            return false;
-        }
-        try {
-            Boolean timedOut = (Boolean) timedOutHash.get(thread);
-            return timedOut.booleanValue();
-        } catch (Exception e ) {
-            return false;
-        }
+        return timedOut.contains(thread);
     }
     
     /**
-     * Removes thread from <code>Hashtable</code> specified by hashName
+     * Cancels the scheduled timeout of the thread when hashName is <code>timeoutHash</code>, or clears the timed out
+     * state of the thread when hashName is <code>timedOutHash</code>.
      * @param thread will be removed from the hash
      * @param hashName has associated thread
      */
@@ -179,27 +175,70 @@ public class AuthThreadManager extends Thread   {
                 thread + "from hash : " + hashName);
         }
         if (hashName.equals("timeoutHash")) {
-            removeHash(timeoutHash,thread);
-            if (debug.messageEnabled()){
-                debug.message("timeOutHash is : " + timeoutHash);
+            LoginTimeout timeout = timeouts.remove(thread);
+            if (timeout != null) {
+                timeout.cancel();
             }
         }
 
         if (hashName.equals("timedOutHash")) {
-            removeHash(timedOutHash,thread);
-            if (debug.messageEnabled()){
-                debug.message("timedOutHash is : " + timedOutHash);
-            }
+            timedOut.remove(thread);
         } 
     }
 
-    void removeHash(Hashtable hash,Thread thread) {
-        if ((hash == null) || hash.isEmpty()) {
-            return;
+    /**
+     * The scheduled timeout of a single waiting thread.
+     */
+    private final class LoginTimeout implements Runnable {
+
+        private final Thread thread;
+        private volatile ScheduledFuture<?> future;
+
+        private LoginTimeout(Thread thread) {
+            this.thread = thread;
+        }
+
+        private void schedule(long delay) {
+            future = timeoutService.schedule(this, delay, TimeUnit.MILLISECONDS);
+        }
+
+        private void cancel() {
+            ScheduledFuture<?> scheduled = future;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            // only interrupt the thread if it is still waiting for this timeout
+            if (timeouts.remove(thread, this)) {
+                if (debug.messageEnabled()) {
+                    debug.message("Interrupting thread" + thread);
+                }
+                timedOut.add(thread);
+                thread.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Creates the daemon threads running the JAAS logins.
+     */
+    private static final class LoginThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+        private final long stackSize;
+
+        private LoginThreadFactory(long stackSize) {
+            this.stackSize = stackSize;
         }
-        try {
-            hash.remove(thread);
-        } catch (Exception e) {
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(null, runnable, "JAASLoginThread-" + count.incrementAndGet(), stackSize);
+            thread.setDaemon(true);
+            return thread;
         }
     }
 }
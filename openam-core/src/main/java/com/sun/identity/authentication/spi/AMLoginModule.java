@@ -66,6 +66,8 @@ import org.forgerock.openam.audit.model.AuthenticationAuditEntry;
 import org.forgerock.openam.authentication.callbacks.PollingWaitCallback;
 import org.forgerock.openam.identity.idm.IdentityUtils;
 import org.forgerock.openam.ldap.LDAPUtils;
+import org.forgerock.openam.monitoring.tracing.Span;
+import org.forgerock.openam.monitoring.tracing.Tracing;
 import org.forgerock.openam.session.service.access.SessionQueryManager;
 
 import com.iplanet.am.sdk.AMException;
@@ -1037,6 +1039,7 @@ public abstract class AMLoginModule implements LoginModule {
      */
     private int wrapProcess(Callback[] callbacks, int state)
     throws AuthLoginException {
+        Span span = Tracing.start("authentication.module").setAttribute("module", moduleName);
         try {
             if (callbacks != null) {
                 for (int i = 0; i < callbacks.length; i++) {
@@ -1062,16 +1065,22 @@ public abstract class AMLoginModule implements LoginModule {
         } catch (InvalidPasswordException e) {
             setFailureID(e.getTokenId());
             setFailureState();
+            span.setError(e);
             throw e;
         } catch (AuthLoginException e) {
             setFailureState();
+            span.setError(e);
             throw e;
         } catch (LoginException e) {
             setFailureState();
+            span.setError(e);
             throw new AuthLoginException(e);
         } catch (RuntimeException re) {
             setFailureState();
+            span.setError(re);
             throw re;
+        } finally {
+            span.end();
         }
     }
 
@@ -1621,24 +1621,35 @@ public class AgentConfiguration {
         Set agentGroups
     ) throws IdRepoException, SSOException, SMSException {
         if ((agentGroups != null) && !agentGroups.isEmpty()) {
+            AMIdentityRepository repo = new AMIdentityRepository(
+                ssoToken, realm);
             for (Iterator i = agentGroups.iterator(); i.hasNext(); ) {
                 AMIdentity group = (AMIdentity)i.next();
-                unheritPropertyValues(group);
+                unheritPropertyValues(repo, group);
             }
-            AMIdentityRepository repo = new AMIdentityRepository(
-                ssoToken, realm);
             repo.deleteIdentities(agentGroups);
         }
     }
     
-    private static void unheritPropertyValues(AMIdentity group)
-        throws IdRepoException, SSOException, SMSException {
-        Set agents = group.getMembers(IdType.AGENTONLY);
+    private static void unheritPropertyValues(
+        AMIdentityRepository repo,
+        AMIdentity group
+    ) throws IdRepoException, SSOException, SMSException {
+        Set<AMIdentity> agents = group.getMembers(IdType.AGENTONLY);
 
         if ((agents != null) && !agents.isEmpty()) {
-            for (Iterator i = agents.iterator(); i.hasNext(); ) {
-                AMIdentity agent = (AMIdentity)i.next();
-                unheritPropertyValues(group, agent);
+            Set attributeSchemas = getAttributesSchemaNames(group);
+            Map groupProperties = group.getAttributes();
+            // Read the properties of all the agents in one go
+            Map<AMIdentity, Map<String, Set<String>>> agentsProperties =
+                repo.getAttributes(agents, null);
+            for (AMIdentity agent : agents) {
+                Map agentProperties = agentsProperties.get(agent);
+                if (agentProperties == null) {
+                    agentProperties = agent.getAttributes();
+                }
+                unheritPropertyValues(agent, attributeSchemas,
+                    groupProperties, agentProperties);
             }
         }
     }
@@ -1647,11 +1658,19 @@ public class AgentConfiguration {
         AMIdentity group, 
         AMIdentity agent
     ) throws SMSException, SSOException, IdRepoException {
-        Set attributeSchemas = getAttributesSchemaNames(group);
-        Map groupProperties = group.getAttributes();
+        unheritPropertyValues(agent, getAttributesSchemaNames(group),
+            group.getAttributes(), agent.getAttributes());
+    }
+    
+    private static void unheritPropertyValues(
+        AMIdentity agent,
+        Set attributeSchemas,
+        Map groupProperties,
+        Map agentProperties
+    ) throws SMSException, SSOException, IdRepoException {
         Map map = new CaseInsensitiveHashMap();
         map.putAll(groupProperties);
-        map.putAll(agent.getAttributes());
+        map.putAll(agentProperties);
         agent.setAttributes(correctAttributeNames(map, attributeSchemas));
         agent.store();
     }
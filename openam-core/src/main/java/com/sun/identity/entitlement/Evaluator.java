@@ -43,6 +43,8 @@ import org.forgerock.guice.core.InjectorHolder;
 import org.forgerock.openam.entitlement.monitoring.EntitlementConfigurationWrapper;
 import org.forgerock.openam.entitlement.monitoring.PolicyMonitor;
 import org.forgerock.openam.entitlement.monitoring.PolicyMonitoringType;
+import org.forgerock.openam.monitoring.metrics.MetricsRegistry;
+import org.forgerock.openam.monitoring.metrics.Timer;
 
 /**
  * The class evaluates entitlement request and provides decisions. The evaluation of a policy depends on the following
@@ -105,6 +107,19 @@ public class Evaluator {
         }
     }
 
+    /**
+     * Holds the evaluation timers, looked up on the first evaluation in server mode.
+     */
+    private static final class EvaluationTimers {
+        private static final Timer SELF = getEvaluationTimer(PolicyMonitoringType.SELF);
+        private static final Timer SUBTREE = getEvaluationTimer(PolicyMonitoringType.SUBTREE);
+
+        private static Timer getEvaluationTimer(PolicyMonitoringType type) {
+            return InjectorHolder.getInstance(MetricsRegistry.class).timer("openam_policy_evaluation_duration_seconds",
+                    "Time taken to evaluate policies", "type", type.name().toLowerCase());
+        }
+    }
+
     /**
      * Returns <code>true</code> if the subject is granted to an entitlement.
      *
@@ -186,6 +201,7 @@ public class Evaluator {
     ) throws EntitlementException {
 
         long startTime = currentTimeMillis();
+        long startNanos = System.nanoTime();
 
         // Delegation to applications is currently not configurable, passing super admin (see AME-4959)
         Application application = getApplicationService(SUPER_ADMIN_SUBJECT, realm).getApplication(applicationName);
@@ -202,6 +218,11 @@ public class Evaluator {
         List<Entitlement> results = evaluator.evaluate(realm, adminSubject, subject,
                 applicationName, normalisedResourceName, resourceName, environment, recursive);
 
+        if (policyMonitor != null) {
+            Timer timer = recursive ? EvaluationTimers.SUBTREE : EvaluationTimers.SELF;
+            timer.recordSince(startNanos);
+        }
+
         if (configWrapper.isMonitoringRunning()) {
             policyMonitor.addEvaluation(currentTimeMillis() - startTime, realm, applicationName, resourceName,
                     subject, recursive ? PolicyMonitoringType.SUBTREE : PolicyMonitoringType.SELF);
@@ -47,6 +47,8 @@ import javax.security.auth.Subject;
 
 import org.forgerock.openam.entitlement.PolicyConstants;
 import org.forgerock.openam.entitlement.PrivilegeEvaluatorContext;
+import org.forgerock.openam.monitoring.tracing.Span;
+import org.forgerock.openam.monitoring.tracing.Tracing;
 import org.forgerock.openam.session.util.AppTokenHandler;
 import org.forgerock.openam.utils.CollectionUtils;
 
@@ -242,15 +244,22 @@ class PrivilegeEvaluator {
         boolean recursive
     ) throws EntitlementException {
 
-
-        init(adminSubject, subject, realm, applicationName,
-            normalisedResourceName, requestedResourceName, null, envParameters, recursive);
-        indexes = getApplication().getResourceSearchIndex(normalisedResourceName, realm);
-
-        return evaluate(realm);
-
-
-
+        Span span = Tracing.start("policy.evaluate")
+                .setAttribute("realm", realm)
+                .setAttribute("application", applicationName)
+                .setAttribute("recursive", recursive ? "true" : "false");
+        try {
+            init(adminSubject, subject, realm, applicationName,
+                normalisedResourceName, requestedResourceName, null, envParameters, recursive);
+            indexes = getApplication().getResourceSearchIndex(normalisedResourceName, realm);
+
+            return evaluate(realm);
+        } catch (EntitlementException | RuntimeException e) {
+            span.setError(e);
+            throw e;
+        } finally {
+            span.end();
+        }
     }
 
     /**
@@ -267,10 +276,19 @@ class PrivilegeEvaluator {
         final Debug debug = PolicyConstants.DEBUG;
 
         // Search for relevant policies.
-        final SubjectAttributesManager sam = SubjectAttributesManager.getInstance(adminSubject, realm);
-        final Set<String> subjectIndexes = sam.getSubjectSearchFilter(subject, applicationName);
-        final PrivilegeIndexStore indexStore = PrivilegeIndexStore.getInstance(adminSubject, realm);
-        final Iterator<IPrivilege> policyIterator = indexStore.search(realm, indexes, subjectIndexes, recursive);
+        final Iterator<IPrivilege> policyIterator;
+        final Span searchSpan = Tracing.start("policy.index_search");
+        try {
+            final SubjectAttributesManager sam = SubjectAttributesManager.getInstance(adminSubject, realm);
+            final Set<String> subjectIndexes = sam.getSubjectSearchFilter(subject, applicationName);
+            final PrivilegeIndexStore indexStore = PrivilegeIndexStore.getInstance(adminSubject, realm);
+            policyIterator = indexStore.search(realm, indexes, subjectIndexes, recursive);
+        } catch (EntitlementException | RuntimeException e) {
+            searchSpan.setError(e);
+            throw e;
+        } finally {
+            searchSpan.end();
+        }
 
         int totalCount = 0;
         IPrivilege policy;
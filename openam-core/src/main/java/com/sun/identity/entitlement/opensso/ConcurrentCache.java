@@ -0,0 +1,146 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package com.sun.identity.entitlement.opensso;
+
+import java.util.AbstractMap;
+import java.util.Set;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * A bounded, thread safe cache which maps keys to values, backing the policy and index caches used during policy
+ * evaluation.
+ *
+ * Reads do not take any lock. The entries are split across a number of segments, each of which is only locked for
+ * writes and for its own eviction bookkeeping, so evaluations running on many threads no longer queue behind a
+ * single LRU list. Once the maximum size is reached, the least recently used entry of a segment is evicted, which
+ * gives an approximation of a global LRU policy.
+ *
+ * As with the original cache, neither keys nor values may be {@code null}. Hits, misses and evictions are recorded
+ * and may be read with {@link #getStats()}.
+ *
+ * @param <K> the type of keys held by the cache.
+ * @param <V> the type of values held by the cache.
+ */
+public class ConcurrentCache<K, V> extends AbstractMap<K, V> {
+
+    private static final int CONCURRENCY_LEVEL = 16;
+
+    private final String name;
+    private final com.google.common.cache.Cache<K, V> cache;
+
+    /**
+     * Constructs a new, empty cache.
+     *
+     * @param name Name of cache.
+     * @param initCapacity the initial capacity of the cache.
+     * @param maxSize the maximum number of entries held by the cache.
+     * @throws IllegalArgumentException if the capacity or maximum size is less than zero.
+     */
+    public ConcurrentCache(String name, int initCapacity, int maxSize) {
+        if (initCapacity < 0) {
+            throw new IllegalArgumentException("Illegal Capacity: " + initCapacity);
+        }
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Illegal maximum size: " + maxSize);
+        }
+        this.name = name;
+        this.cache = CacheBuilder.newBuilder()
+                .concurrencyLevel(CONCURRENCY_LEVEL)
+                .initialCapacity(Math.min(Math.max(initCapacity, 1), Math.max(maxSize, 1)))
+                .maximumSize(Math.max(maxSize, 1))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns name.
+     *
+     * @return name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the value to which the key is mapped, recording a hit or a miss.
+     *
+     * @param key a key in the cache.
+     * @return the value to which the key is mapped, or {@code null} if the key is not mapped to any value.
+     * @throws NullPointerException if the key is {@code null}.
+     */
+    @Override
+    public V get(Object key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Maps the key to the value. If the cache is full then an entry will be evicted.
+     *
+     * @param key the cache key.
+     * @param value the value.
+     * @return the previous value of the key, or {@code null} if it did not have one.
+     * @throws NullPointerException if the key or value is {@code null}.
+     */
+    @Override
+    public V put(K key, V value) {
+        return cache.asMap().put(key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return cache.asMap().remove(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return cache.asMap().containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return cache.asMap().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return cache.asMap().isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return cache.asMap().entrySet();
+    }
+
+    /**
+     * Returns a snapshot of the hit, miss and eviction counts recorded by this cache.
+     *
+     * @return the cache statistics.
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+}
@@ -30,8 +30,10 @@
  */
 package com.sun.identity.entitlement.opensso;
 
+import java.util.Map;
 import java.util.Set;
 
+import com.google.common.cache.CacheStats;
 import com.sun.identity.entitlement.util.NetworkMonitor;
 import com.sun.identity.shared.stats.StatsListener;
 import com.sun.identity.shared.stats.Stats;
@@ -67,6 +69,14 @@ public class EntitlementsStats implements StatsListener {
 		sb.append(DataStore.getNumberOfPolicies());
 		sb.append("\nTotal referrals: ");
 		sb.append(DataStore.getNumberOfReferrals());
+		for (Map.Entry<String, CacheStats> entry : OpenSSOIndexStore.getCacheStats().entrySet()) {
+			CacheStats cacheStats = entry.getValue();
+			sb.append("\n").append(entry.getKey()).append(": ");
+			sb.append("hit ratio ").append(cacheStats.hitRate());
+			sb.append(", hits ").append(cacheStats.hitCount());
+			sb.append(", misses ").append(cacheStats.missCount());
+			sb.append(", evictions ").append(cacheStats.evictionCount());
+		}
 
         sb.append("\n-----------------------------\n");
 		stats.record(sb.toString());
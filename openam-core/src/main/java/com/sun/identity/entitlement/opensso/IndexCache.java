@@ -28,9 +28,12 @@
  */
 package com.sun.identity.entitlement.opensso;
 
+import com.google.common.cache.CacheStats;
 import com.sun.identity.entitlement.ResourceSaveIndexes;
 import com.sun.identity.entitlement.ResourceSearchIndexes;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -48,10 +51,10 @@ public class IndexCache {
 
     private int size = 1000000;
     private int initCapacity;
-    private Cache subjectIndexCache;
-    private Cache hostIndexCache;
-    private Cache pathIndexCache;
-    private Cache parentPathIndexCache;
+    private ConcurrentCache<String, Set<String>> subjectIndexCache;
+    private ConcurrentCache<String, Set<String>> hostIndexCache;
+    private ConcurrentCache<String, Set<String>> pathIndexCache;
+    private ConcurrentCache<String, Set<String>> parentPathIndexCache;
     private ReadWriteLock rwlock = new ReentrantReadWriteLock();
 
     /**
@@ -84,13 +87,13 @@ public class IndexCache {
         cache(dn, indexes.getParentPathIndexes(), parentPathIndexCache);
     }
 
-    private void cache(String dn, Set<String> indexes, Cache cache) {
+    private void cache(String dn, Set<String> indexes, ConcurrentCache<String, Set<String>> cache) {
         rwlock.writeLock().lock();
 
         try {
             for (String s : indexes) {
                 String lc = s.toLowerCase();
-                Set<String> setDNs = (Set<String>)cache.get(lc);
+                Set<String> setDNs = cache.get(lc);
                 if (setDNs == null) {
                     setDNs = new HashSet<String>();
                     cache.put(lc, setDNs);
@@ -126,11 +129,11 @@ public class IndexCache {
         }
     }
 
-    private void clear(String dn, Set<String> indexes, Cache cache) {
+    private void clear(String dn, Set<String> indexes, ConcurrentCache<String, Set<String>> cache) {
         rwlock.writeLock().lock();
         try {
             for (String s : indexes) {
-                Set<String> setDNs = (Set<String>)cache.get(s);
+                Set<String> setDNs = cache.get(s);
                 if (setDNs != null) {
                     setDNs.remove(dn);
                 }
@@ -143,10 +146,10 @@ public class IndexCache {
     private synchronized void clearCaches() {
         rwlock.writeLock().lock();
         try {
-            subjectIndexCache = new Cache(SUBJECT_ID, initCapacity, size);
-            hostIndexCache = new Cache(HOST_ID, initCapacity, size);
-            pathIndexCache = new Cache(PATH_ID, initCapacity, size);
-            parentPathIndexCache = new Cache(PARENTPATH_ID, initCapacity, size);
+            subjectIndexCache = new ConcurrentCache<String, Set<String>>(SUBJECT_ID, initCapacity, size);
+            hostIndexCache = new ConcurrentCache<String, Set<String>>(HOST_ID, initCapacity, size);
+            pathIndexCache = new ConcurrentCache<String, Set<String>>(PATH_ID, initCapacity, size);
+            parentPathIndexCache = new ConcurrentCache<String, Set<String>>(PARENTPATH_ID, initCapacity, size);
         } finally {
             rwlock.writeLock().unlock();
         }
@@ -174,7 +177,7 @@ public class IndexCache {
 
             if (hasSubjectIndexes) {
                 for (String i : subjectIndexes) {
-                    Set<String> r = (Set<String>)subjectIndexCache.get(i);
+                    Set<String> r = subjectIndexCache.get(i);
                     if (r != null) {
                         results.addAll(r);
                     }
@@ -200,8 +203,7 @@ public class IndexCache {
         Set<String> parentPathIndexes = indexes.getParentPathIndexes();
         Set<String> results = new HashSet<String>();
         for (String i : parentPathIndexes) {
-            Set<String> r = (Set<String>) parentPathIndexCache.get(
-                i.toLowerCase());
+            Set<String> r = parentPathIndexCache.get(i.toLowerCase());
             if (r != null) {
                 results.addAll(r);
             }
@@ -213,7 +215,7 @@ public class IndexCache {
         Set<String> pathIndexes = indexes.getPathIndexes();
         Set<String> results = new HashSet<String>();
         for (String i : pathIndexes) {
-            Set<String> r = (Set<String>) pathIndexCache.get(i.toLowerCase());
+            Set<String> r = pathIndexCache.get(i.toLowerCase());
             if (r != null) {
                 results.addAll(r);
             }
@@ -224,11 +226,30 @@ public class IndexCache {
         Set<String> results = new HashSet<String>();
         Set<String> hostIndexes = indexes.getHostIndexes();
         for (String i : hostIndexes) {
-            Set<String> r = (Set<String>) hostIndexCache.get(i.toLowerCase());
+            Set<String> r = hostIndexCache.get(i.toLowerCase());
             if (r != null) {
                 results.addAll(r);
             }
         }
         return results;
     }
+
+    /**
+     * Returns the hit, miss and eviction statistics of each of the index caches, keyed by cache name.
+     *
+     * @return cache statistics by cache name.
+     */
+    public Map<String, CacheStats> getStats() {
+        rwlock.readLock().lock();
+        try {
+            Map<String, CacheStats> stats = new LinkedHashMap<String, CacheStats>();
+            stats.put(SUBJECT_ID, subjectIndexCache.getStats());
+            stats.put(HOST_ID, hostIndexCache.getStats());
+            stats.put(PATH_ID, pathIndexCache.getStats());
+            stats.put(PARENTPATH_ID, parentPathIndexCache.getStats());
+            return stats;
+        } finally {
+            rwlock.readLock().unlock();
+        }
+    }
 }
@@ -34,6 +34,7 @@ import static org.forgerock.openam.entitlement.PolicyConstants.SUPER_ADMIN_SUBJE
 import static org.forgerock.openam.entitlement.utils.EntitlementUtils.getApplicationService;
 import static org.forgerock.openam.entitlement.utils.EntitlementUtils.getEntitlementConfiguration;
 
+import com.google.common.cache.CacheStats;
 import com.iplanet.sso.SSOException;
 import com.iplanet.sso.SSOToken;
 import com.sun.identity.common.CaseInsensitiveHashMap;
@@ -76,6 +77,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -938,6 +940,37 @@ public class OpenSSOIndexStore extends PrivilegeIndexStore {
         return referralCache.getCount();
     }
 
+    /**
+     * Returns the hit, miss and eviction statistics of the policy, referral and index caches. The statistics of the
+     * index caches are summed across all realms.
+     *
+     * @return cache statistics by cache name.
+     */
+    public static Map<String, CacheStats> getCacheStats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<String, CacheStats>();
+        if (policyCacheSize > 0) {
+            stats.put("PolicyCache", policyCache.getStats());
+            stats.put("ReferralPolicyCache", referralCache.getStats());
+        }
+        if (indexCacheSize > 0) {
+            addIndexCacheStats(stats, "IndexCache", indexCaches);
+            addIndexCacheStats(stats, "ReferralIndexCache", referralIndexCaches);
+        }
+        return stats;
+    }
+
+    private static void addIndexCacheStats(Map<String, CacheStats> stats, String prefix, Map caches) {
+        synchronized (caches) {
+            for (Object cache : caches.values()) {
+                for (Map.Entry<String, CacheStats> entry : ((IndexCache) cache).getStats().entrySet()) {
+                    String name = prefix + "." + entry.getKey();
+                    CacheStats total = stats.get(name);
+                    stats.put(name, total == null ? entry.getValue() : total.plus(entry.getValue()));
+                }
+            }
+        }
+    }
+
     @Override
     public boolean hasPrivilgesWithApplication(
         String realm, String applName) throws EntitlementException {
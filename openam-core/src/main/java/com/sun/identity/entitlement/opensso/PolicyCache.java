@@ -29,6 +29,7 @@
 
 package com.sun.identity.entitlement.opensso;
 
+import com.google.common.cache.CacheStats;
 import com.sun.identity.entitlement.Privilege;
 import java.util.HashMap;
 import com.sun.identity.entitlement.ReferralPrivilege;
@@ -38,15 +39,18 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Policy Cache
+ *
+ * Lookups go straight to the underlying {@link ConcurrentCache} without locking; the lock only keeps the per realm
+ * counts in step with the cached entries.
  */
 class PolicyCache {
-    private Cache cache;
+    private ConcurrentCache<String, Object> cache;
     private HashMap<String, Integer> countByRealm;
     private ReadWriteLock rwlock = new ReentrantReadWriteLock();
 
     PolicyCache(String name, int size) {
         int initCapacity = (int) (size * 0.01d);
-        cache = new Cache(name, initCapacity, size);
+        cache = new ConcurrentCache<String, Object>(name, initCapacity, size);
         countByRealm = new HashMap<String, Integer>();
     }
 
@@ -121,12 +125,7 @@ class PolicyCache {
     }
 
     public Privilege getPolicy(String dn) {
-        rwlock.readLock().lock();
-        try {
-            return (Privilege)cache.get(dn);
-        } finally {
-            rwlock.readLock().unlock();
-        }
+        return (Privilege)cache.get(dn);
     }
     
     /**
@@ -164,11 +163,14 @@ class PolicyCache {
     }
 
     public ReferralPrivilege getReferral(String dn) {
-        rwlock.readLock().lock();
-        try {
-            return (ReferralPrivilege)cache.get(dn);
-        } finally {
-            rwlock.readLock().unlock();
-        }
+        return (ReferralPrivilege)cache.get(dn);
+    }
+
+    /**
+     * Returns the hit, miss and eviction statistics of the cache.
+     * @return cache statistics.
+     */
+    public CacheStats getStats() {
+        return cache.getStats();
     }
 }
@@ -390,6 +390,37 @@ public class AMIdentityRepository {
         return idSearchResults;
     }
 
+    /**
+     * Searches for identities of a certain type in the same way as
+     * {@link #searchIdentities(IdType, CrestQuery, IdSearchControl)}, but
+     * passes each matched identity to the handler as it is read from the data
+     * store instead of collecting the whole result set in memory. The handler
+     * may cancel the search by returning <code>false</code>.
+     *
+     * @param type
+     *            Type of identity being searched for.
+     * @param crestQuery
+     *            Basically just an object which supports both _queryId and _queryFilter
+     * @param ctrl
+     *            IdSearchControl which can be used to set up various search
+     *            controls on the search to be performed.
+     * @param handler
+     *            Receives the matched identities.
+     * @return One of the {@link IdSearchResults} error codes.
+     * @throws IdRepoException
+     *             if there are repository related error conditions.
+     * @throws SSOException
+     *             if user's single sign on token is invalid.
+     */
+    public int searchIdentities(IdType type, CrestQuery crestQuery, IdSearchControl ctrl,
+            IdSearchResultHandler handler) throws IdRepoException, SSOException {
+        if (type.equals(IdType.REALM)) {
+            return searchIdentities(type, crestQuery, ctrl).handleResults(handler);
+        }
+        IdServices idServices = IdServicesFactory.getDataStoreServices();
+        return idServices.search(token, type, ctrl, organizationDN, crestQuery, handler);
+    }
+
     /**
      * @supported.api
      *
@@ -592,6 +623,51 @@ public class AMIdentityRepository {
         }
     }
 
+    /**
+     * Returns the attributes of a set of identities in this realm. The
+     * identities of each type are read from each data store in one operation,
+     * rather than one operation per identity as with
+     * {@link AMIdentity#getAttributes(Set)}.
+     *
+     * @param identities Set of <code>AMIdentity</code> objects to be read.
+     * @param attrNames Names of the attributes to be read, or
+     *        <code>null</code> to read all the attributes.
+     * @return Map of identity to its attribute values. Identities that could
+     *         not be found in any data store are not included.
+     * @throws IdRepoException if there are repository related error conditions.
+     * @throws SSOException if user's single sign on token is invalid.
+     */
+    public Map<AMIdentity, Map<String, Set<String>>> getAttributes(
+            Set<AMIdentity> identities, Set<String> attrNames)
+            throws IdRepoException, SSOException {
+        Map<IdType, Map<String, AMIdentity>> identitiesByType = new HashMap<>();
+        for (AMIdentity id : identities) {
+            Map<String, AMIdentity> names = identitiesByType.get(id.getType());
+            if (names == null) {
+                names = new HashMap<>();
+                identitiesByType.put(id.getType(), names);
+            }
+            names.put(id.getName(), id);
+        }
+
+        IdServices idServices = IdServicesFactory.getDataStoreServices();
+        Map<AMIdentity, Map<String, Set<String>>> results = new HashMap<>();
+        for (Map.Entry<IdType, Map<String, AMIdentity>> entry
+                : identitiesByType.entrySet()) {
+            Map<String, Map> found = idServices.getAttributes(token,
+                    entry.getKey(), entry.getValue().keySet(), attrNames,
+                    organizationDN);
+            for (Map.Entry<String, Map> attrs : found.entrySet()) {
+                AMIdentity id = entry.getValue().get(attrs.getKey());
+                if (id != null) {
+                    results.put(id, (attrNames == null) ? attrs.getValue()
+                            : new CaseInsensitiveHashMap(attrs.getValue()));
+                }
+            }
+        }
+        return results;
+    }
+
     /**
      * Non-javadoc, non-public methods Returns <code>true</code> if the data
      * store has successfully authenticated the identity with the provided
@@ -29,6 +29,7 @@
 package com.sun.identity.idm;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -39,6 +40,7 @@ import com.iplanet.sso.SSOException;
 import com.iplanet.sso.SSOToken;
 import com.sun.identity.sm.SchemaType;
 import org.forgerock.openam.utils.CrestQuery;
+import org.forgerock.opendj.ldap.ResultCode;
 
 /**
  *
@@ -202,6 +204,51 @@ public abstract class IdRepo {
     public abstract Map<String, Set<String>> getAttributes(SSOToken token, IdType type, String name,
             Set<String> attrNames) throws IdRepoException, SSOException;
 
+    /**
+     * Returns requested attributes and values of a set of objects of the same type. Plugins that can read many
+     * objects in one request, such as with a single search, should override this method; the default
+     * implementation reads each object in turn.
+     *
+     * @param token
+     *     Single sign on token of identity performing the task.
+     * @param type
+     *     Identity type of the objects.
+     * @param names
+     *     Names of the objects of interest.
+     * @param attrNames
+     *     Set of attribute names to be read, or <code>null</code> to read all the attributes
+     * @return
+     *     Map of object name to its Map of attribute-values. Objects that could not be found are not included.
+     * @throws IdRepoException If there are repository related error conditions, other than an object not being
+     *     found.
+     * @throws SSOException If identity's single sign on token is invalid.
+     */
+    public Map<String, Map<String, Set<String>>> getAttributes(SSOToken token, IdType type, Set<String> names,
+            Set<String> attrNames) throws IdRepoException, SSOException {
+        Map<String, Map<String, Set<String>>> results = new HashMap<>();
+        for (String name : names) {
+            try {
+                if (attrNames == null || attrNames.isEmpty()) {
+                    results.put(name, getAttributes(token, type, name));
+                } else {
+                    results.put(name, getAttributes(token, type, name, attrNames));
+                }
+            } catch (IdRepoException e) {
+                if (!isNotFound(e)) {
+                    throw e;
+                }
+                // Not found in this repository, leave it out of the results
+            }
+        }
+        return results;
+    }
+
+    private static boolean isNotFound(IdRepoException e) {
+        return IdRepoErrorCode.UNABLE_FIND_ENTRY.equals(e.getErrorCode())
+                || IdRepoErrorCode.TYPE_NOT_FOUND.equals(e.getErrorCode())
+                || e.getLdapErrorIntCode() == ResultCode.NO_SUCH_OBJECT.intValue();
+    }
+
     /**
      * Returns requested binary attributes as an array of bytes.
      *
@@ -368,6 +415,52 @@ public abstract class IdRepo {
                                              Map<String, Set<String>> avPairs, boolean recursive)
             throws IdRepoException, SSOException;
 
+    /**
+     * Search for specific type of identities, passing each matched identity to the provided handler as it is read
+     * rather than collecting the whole result set in memory. Plugins that can stream results from the underlying
+     * repository, such as with paged searches, should override this method; the default implementation performs
+     * a {@link #search(SSOToken, IdType, CrestQuery, int, int, Set, boolean, int, Map, boolean) regular search}
+     * and passes its results to the handler.
+     *
+     * @param token
+     *     Single sign on token of identity performing the task.
+     * @param type
+     *     Identity type of this object.
+     * @param crestQuery
+     *     pattern to search for, of type {@link CrestQuery}.
+     * @param maxTime
+     *     maximum wait time for search.
+     * @param maxResults
+     *     maximum records to return.
+     * @param returnAttrs
+     *     Set of attribute names to return.
+     * @param returnAllAttrs
+     *     return all attributes
+     * @param filterOp
+     *     filter condition.
+     * @param avPairs
+     *     additional search conditions.
+     * @param handler
+     *     Receives the matched identities, and may cancel the search.
+     * @return One of the {@link RepoSearchResults} result codes.
+     * @throws IdRepoException If there are repository related error conditions.
+     * @throws SSOException If identity's single sign on token is invalid.
+     */
+    public int search(SSOToken token, IdType type, CrestQuery crestQuery, int maxTime, int maxResults,
+            Set<String> returnAttrs, boolean returnAllAttrs, int filterOp, Map<String, Set<String>> avPairs,
+            RepoSearchResultHandler handler) throws IdRepoException, SSOException {
+        RepoSearchResults results = search(token, type, crestQuery, maxTime, maxResults, returnAttrs,
+                returnAllAttrs, filterOp, avPairs, false);
+        Map<String, Map<String, Set<String>>> attributes = results.getResultAttributes();
+        for (String name : (Set<String>) results.getSearchResults()) {
+            Map<String, Set<String>> attrs = attributes == null ? null : attributes.get(name);
+            if (!handler.handleResult(name, attrs == null ? Collections.<String, Set<String>>emptyMap() : attrs)) {
+                break;
+            }
+        }
+        return results.getErrorCode();
+    }
+
     /**
      * Modify membership of the identity. Set of members is
      * a set of unique identifiers of other identities.
@@ -0,0 +1,39 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package com.sun.identity.idm;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Receives the results of a streaming identity search one identity at a time, instead of the whole result set
+ * being collected into an {@link IdSearchResults}.
+ *
+ * @see AMIdentityRepository#searchIdentities(IdType, org.forgerock.openam.utils.CrestQuery, IdSearchControl,
+ * IdSearchResultHandler)
+ */
+public interface IdSearchResultHandler {
+
+    /**
+     * Invoked for each identity matched by the search.
+     *
+     * @param identity The matched identity.
+     * @param attributes The requested attributes of the identity, empty if no attributes were requested.
+     * @return <code>true</code> to continue the search, <code>false</code> to cancel it.
+     */
+    boolean handleResult(AMIdentity identity, Map<String, Set<String>> attributes);
+}
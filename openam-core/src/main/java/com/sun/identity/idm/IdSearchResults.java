@@ -145,6 +145,23 @@ public class IdSearchResults {
         errorCode = error;
     }
 
+    /**
+     * Passes each of the identities in this search result to the handler,
+     * until the handler cancels.
+     *
+     * @param handler
+     *            Receives the identities and their attributes.
+     * @return Error code of the search.
+     */
+    public int handleResults(IdSearchResultHandler handler) {
+        for (Object id : searchResults) {
+            if (!handler.handleResult((AMIdentity) id, (Map) resultsMap.get(id))) {
+                break;
+            }
+        }
+        return errorCode;
+    }
+
     protected IdType getType() {
         return searchType;
     }
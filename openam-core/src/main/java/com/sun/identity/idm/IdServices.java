@@ -94,6 +94,30 @@ public interface IdServices {
             String amOrgName, String amsdkDN) throws IdRepoException,
             SSOException;
 
+    /**
+     * Returns the string attributes of a set of identities of the same type,
+     * reading each data store once for the whole set rather than once per
+     * identity.
+     *
+     * @param token
+     *            Single sign on token of identity performing the task.
+     * @param type
+     *            Identity type of the identities.
+     * @param names
+     *            Names of the identities.
+     * @param attrNames
+     *            Attribute names to be read, or <code>null</code> or an empty
+     *            set to read all the attributes.
+     * @param amOrgName
+     *            realm name of the identities.
+     *
+     * @return Map of identity name to its Map of attribute values. Identities
+     *         not found in any data store are not included.
+     */
+    public Map<String, Map> getAttributes(SSOToken token, IdType type,
+            Set<String> names, Set attrNames, String amOrgName)
+            throws IdRepoException, SSOException;
+
     public Set getMembers(SSOToken token, IdType type, String name,
             String amOrgName, IdType membersType, String amsdkDN)
             throws IdRepoException, SSOException;
@@ -136,6 +160,24 @@ public interface IdServices {
             IdSearchControl ctrl, String amOrgName, CrestQuery crestQuery)
             throws IdRepoException, SSOException;
 
+    /**
+     * Searches for identities in the same way as
+     * {@link #search(SSOToken, IdType, IdSearchControl, String, CrestQuery)}, but passes each matched identity to
+     * the handler as it is read from the data store, so that large result sets do not have to be held in memory.
+     *
+     * @param token is the sso token of the person performing this operation.
+     * @param type is the identity type of the name parameter.
+     * @param ctrl the search control
+     * @param amOrgName is the orgname.
+     * @param crestQuery encapsulates _queryId or _queryFilter from the CREST endpoint.
+     * @param handler receives the matched identities, and may cancel the search.
+     * @return one of the {@link IdSearchResults} error codes.
+     * @throws IdRepoException if there are repository related error conditions.
+     * @throws SSOException if user's single sign on token is invalid.
+     */
+    public int search(SSOToken token, IdType type, IdSearchControl ctrl, String amOrgName, CrestQuery crestQuery,
+            IdSearchResultHandler handler) throws IdRepoException, SSOException;
+
     public void setAttributes(SSOToken token, IdType type, String name,
             Map attributes, boolean isAdd, String amOrgName, String amsdkDN,
             boolean isString) throws IdRepoException, SSOException;
@@ -29,7 +29,10 @@
 
 package com.sun.identity.idm.common;
 
+import static org.forgerock.openam.utils.Time.*;
+
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.iplanet.am.sdk.common.CacheBlockBase;
 import com.sun.identity.shared.debug.Debug;
@@ -84,6 +87,11 @@ public class IdCacheBlock extends CacheBlockBase {
     // Variable to store the fully qualified names for identities
     private Set fullyQualifiedNames;
 
+    // Time the block was created or last refreshed, used to refresh the block before it expires from the cache
+    private volatile long loadedTime = currentTimeMillis();
+
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
     static {
         ENTRY_EXPIRATION_ENABLED_FLAG = SystemProperties.getAsBoolean(ENTRY_EXPIRATION_ENABLED_KEY, false);
         if (ENTRY_EXPIRATION_ENABLED_FLAG) {
@@ -117,6 +125,37 @@ public class IdCacheBlock extends CacheBlockBase {
         return DEBUG;
     }
 
+    /**
+     * Returns the time at which this block was created, or last refreshed.
+     *
+     * @return the time in milliseconds
+     */
+    public long getLoadedTime() {
+        return loadedTime;
+    }
+
+    /**
+     * Claims the refresh of this block, so that only one refresh is performed
+     * however many requests find this block due for a refresh.
+     *
+     * @return <code>true</code> if the caller should refresh the block
+     */
+    public boolean startRefresh() {
+        return refreshing.compareAndSet(false, true);
+    }
+
+    /**
+     * Releases the claim on the refresh of this block.
+     *
+     * @param refreshed <code>true</code> if the block was refreshed, which restarts its refresh age
+     */
+    public void endRefresh(boolean refreshed) {
+        if (refreshed) {
+            loadedTime = currentTimeMillis();
+        }
+        refreshing.set(false);
+    }
+
     public IdCacheBlock(String entryDN, boolean validEntry) {
         super(entryDN, validEntry);
     }
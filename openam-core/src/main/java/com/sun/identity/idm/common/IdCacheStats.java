@@ -30,6 +30,8 @@ package com.sun.identity.idm.common;
 
 import com.sun.identity.shared.stats.Stats;
 import com.sun.identity.shared.stats.StatsListener;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /** 
  * <code>IdCacheStats</code> implements the <code>StatsListener</code>
@@ -54,6 +56,17 @@ public class IdCacheStats implements StatsListener {
 
     long totalSearchHits = 0;   // Overall search cache hits
 
+    // Updated concurrently, including from the refresh threads
+    private final LongAdder totalGetMisses = new LongAdder(); // Gets that had to load from the data store
+
+    private final LongAdder totalLoads = new LongAdder(); // Loads from the data store
+
+    private final LongAdder totalLoadTime = new LongAdder(); // Time spent loading, in nanoseconds
+
+    private final LongAdder totalCollapsedLoads = new LongAdder(); // Misses that waited on another load
+
+    private final LongAdder totalRefreshes = new LongAdder(); // Entries reloaded ahead of expiry
+
     private Stats stats = null;
 
 
@@ -99,6 +112,54 @@ public class IdCacheStats implements StatsListener {
         }
     }
 
+    public void incrementGetMissCount() {
+        totalGetMisses.increment();
+    }
+
+    /**
+     * Records a load from the data store.
+     *
+     * @param nanos the time taken by the load
+     */
+    public void updateLoadTime(long nanos) {
+        totalLoads.increment();
+        totalLoadTime.add(nanos);
+    }
+
+    public void incrementCollapsedLoadCount() {
+        totalCollapsedLoads.increment();
+    }
+
+    public void incrementRefreshCount() {
+        totalRefreshes.increment();
+    }
+
+    public long getGetMissCount() {
+        return totalGetMisses.sum();
+    }
+
+    public long getLoadCount() {
+        return totalLoads.sum();
+    }
+
+    /**
+     * Returns the total time spent loading entries from the data store.
+     *
+     * @param unit the unit of the result
+     * @return the total load time
+     */
+    public long getLoadTime(TimeUnit unit) {
+        return unit.convert(totalLoadTime.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    public long getCollapsedLoadCount() {
+        return totalCollapsedLoads.sum();
+    }
+
+    public long getRefreshCount() {
+        return totalRefreshes.sum();
+    }
+
 
     /**
      * Prints the session statistics for the given session table.
@@ -122,6 +183,15 @@ public class IdCacheStats implements StatsListener {
                 + "\nTotal number of FQDN Search hits since server start: "
                 + totalSearchHits + "\nOverall Hit ratio: "
                 + (double) totalSearchHits / (double) totalSearchRequests
+                + "\nTotal number of Get misses since server start: "
+                + totalGetMisses.sum()
+                + "\nTotal number of data store loads since server start: "
+                + totalLoads.sum() + "\nAverage load time (ms): "
+                + (double) getLoadTime(TimeUnit.MICROSECONDS) / 1000 / Math.max(1, totalLoads.sum())
+                + "\nTotal number of loads shared by concurrent misses: "
+                + totalCollapsedLoads.sum()
+                + "\nTotal number of entries refreshed ahead of expiry: "
+                + totalRefreshes.sum()
                 + "\nTotal Cache Size: " + cacheSize + "\n");
 
         // Reset interval hits to 0
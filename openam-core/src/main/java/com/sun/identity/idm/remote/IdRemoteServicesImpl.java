@@ -40,9 +40,11 @@ import com.sun.identity.common.CaseInsensitiveHashSet;
 import com.sun.identity.idm.AMIdentity;
 import com.sun.identity.idm.IdOperation;
 import com.sun.identity.idm.IdRepo;
+import com.sun.identity.idm.IdRepoErrorCode;
 import com.sun.identity.idm.IdRepoException;
 import com.sun.identity.idm.IdSearchControl;
 import com.sun.identity.idm.IdSearchOpModifier;
+import com.sun.identity.idm.IdSearchResultHandler;
 import com.sun.identity.idm.IdSearchResults;
 import com.sun.identity.idm.IdServices;
 import com.sun.identity.idm.IdType;
@@ -62,6 +64,7 @@ import org.forgerock.openam.utils.CrestQuery;
 import javax.security.auth.callback.Callback;
 import java.rmi.RemoteException;
 import java.security.AccessController;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
@@ -308,6 +311,27 @@ public class IdRemoteServicesImpl implements IdServices {
         return res;
     }
 
+    public Map<String, Map> getAttributes(SSOToken token, IdType type, Set<String> names, Set attrNames,
+            String amOrgName) throws IdRepoException, SSOException {
+        // There is no bulk operation in the remote protocol, so read each identity in turn
+        Map<String, Map> results = new HashMap<>();
+        for (String name : names) {
+            try {
+                if (attrNames == null || attrNames.isEmpty()) {
+                    results.put(name, getAttributes(token, type, name, amOrgName, null));
+                } else {
+                    results.put(name, getAttributes(token, type, name, attrNames, amOrgName, null, true));
+                }
+            } catch (IdRepoException ex) {
+                if (!IdRepoErrorCode.UNABLE_FIND_ENTRY.equals(ex.getErrorCode())
+                        && !IdRepoErrorCode.TYPE_NOT_FOUND.equals(ex.getErrorCode())) {
+                    throw ex;
+                }
+            }
+        }
+        return results;
+    }
+
     public void removeAttributes(SSOToken token, IdType type, String name,
             Set attrNames, String amOrgName, String amsdkDN)
             throws IdRepoException, SSOException {
@@ -350,6 +374,13 @@ public class IdRemoteServicesImpl implements IdServices {
         return mapToIdSearchResults(token, type, amOrgName, idResults);
     }
 
+    @Override
+    public int search(SSOToken token, IdType type, IdSearchControl ctrl, String amOrgName, CrestQuery crestQuery,
+            IdSearchResultHandler handler) throws IdRepoException, SSOException {
+        // The remote protocol returns the whole result set in one response
+        return search(token, type, ctrl, amOrgName, crestQuery).handleResults(handler);
+    }
+
     public void setAttributes(SSOToken token, IdType type, String name,
             Map attributes, boolean isAdd, String amOrgName, String amsdkDN,
             boolean isString) throws IdRepoException, SSOException {
@@ -0,0 +1,280 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package com.sun.identity.idm.server;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.forgerock.openam.utils.Time;
+
+import com.google.common.cache.Cache;
+import com.iplanet.am.sdk.AMHashMap;
+import com.iplanet.sso.SSOException;
+import com.iplanet.sso.SSOToken;
+import com.sun.identity.common.DNUtils;
+import com.sun.identity.idm.IdRepoException;
+import com.sun.identity.idm.IdUtils;
+import com.sun.identity.idm.common.IdCacheBlock;
+import com.sun.identity.idm.common.IdCacheStats;
+import com.sun.identity.shared.debug.Debug;
+
+/**
+ * Loads identity attributes from the data stores into the identity cache for {@link IdCachedServicesImpl}.
+ * <p>
+ * Concurrent loads of the same entry, principal and attributes wait for the first caller's load instead of each
+ * going to the data stores. Loads in progress when an entry changes are marked as stale, so that their results are
+ * returned to the callers but not cached.
+ * <p>
+ * When a refresh-ahead age is configured, a cache hit on an older block reloads the requested attributes in the
+ * background and merges them into the block, which restarts its expiry time. The reload is performed with the
+ * token given by the refresh token action, rather than that of the caller whose request triggered it, and is
+ * cached for the principal of that token. The attribute values are shared by every principal in the block, so the
+ * refreshed values are seen by all of them, while the attributes each principal may read are left unchanged.
+ */
+class IdCacheLoader {
+
+    private static final Debug DEBUG = Debug.getInstance("amIdm");
+
+    /**
+     * Reads attributes of an entry from the data stores.
+     */
+    interface AttributeLoader {
+        /**
+         * @param token the token to read the attributes with
+         * @return the attributes read from the data stores
+         */
+        AMHashMap load(SSOToken token) throws IdRepoException, SSOException;
+    }
+
+    // Data store loads in progress, so that concurrent misses for the same entry share one load
+    private final ConcurrentMap<String, AttributeLoad> loads = new ConcurrentHashMap<>();
+
+    private final IdCacheStats cacheStats;
+
+    private final long refreshAfterMillis;
+
+    private final ExecutorService refreshExecutor;
+
+    private final PrivilegedAction<SSOToken> refreshTokenAction;
+
+    /**
+     * @param cacheStats the statistics to record loads in
+     * @param refreshAfterMillis age of a cache block after which a hit triggers a refresh, zero disables refresh
+     * @param refreshExecutor performs the refreshes, may be <code>null</code> when refresh is disabled
+     * @param refreshTokenAction provides the token to perform the refreshes with
+     */
+    IdCacheLoader(IdCacheStats cacheStats, long refreshAfterMillis, ExecutorService refreshExecutor,
+            PrivilegedAction<SSOToken> refreshTokenAction) {
+        this.cacheStats = cacheStats;
+        this.refreshAfterMillis = refreshAfterMillis;
+        this.refreshExecutor = refreshExecutor;
+        this.refreshTokenAction = refreshTokenAction;
+    }
+
+    /**
+     * Gets attributes from the data stores and adds them to the cache. Concurrent calls for the same entry,
+     * principal and attributes wait for the first caller's load instead of each going to the data stores.
+     *
+     * @param cache the cache to add the attributes to
+     * @param dn the universal id of the entry
+     * @param principalDN the universal id of the caller
+     * @param attrNames the requested attributes, or <code>null</code> for the complete set
+     * @param isStringValues <code>true</code> for string values, <code>false</code> for binary values
+     * @param token the token of the caller
+     * @param loader reads the attributes from the data stores
+     * @return the attributes read from the data stores
+     */
+    AMHashMap load(Cache<String, IdCacheBlock> cache, String dn, String principalDN, Set attrNames,
+            boolean isStringValues, SSOToken token, AttributeLoader loader) throws IdRepoException, SSOException {
+        return load(cache, dn, principalDN, attrNames, isStringValues, false, token, loader);
+    }
+
+    private AMHashMap load(Cache<String, IdCacheBlock> cache, String dn, String principalDN, Set attrNames,
+            boolean isStringValues, boolean refresh, SSOToken token, AttributeLoader loader)
+            throws IdRepoException, SSOException {
+        String key = dn + '|' + principalDN + '|' + isStringValues + '|'
+                + (attrNames == null ? "*" : new TreeSet<Object>(attrNames));
+        AttributeLoad load = new AttributeLoad(key, dn);
+        AttributeLoad existing = loads.putIfAbsent(key, load);
+        if (existing != null) {
+            cacheStats.incrementCollapsedLoadCount();
+            return (AMHashMap) existing.await().getCopy();
+        }
+
+        long start = System.nanoTime();
+        try {
+            AMHashMap attributes = loader.load(token);
+            cacheStats.updateLoadTime(System.nanoTime() - start);
+            if (!load.stale) {
+                cacheAttributes(cache, dn, principalDN, attrNames, isStringValues, attributes, refresh);
+            }
+            load.result.complete(attributes);
+            return attributes;
+        } catch (IdRepoException | SSOException | RuntimeException e) {
+            load.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, load);
+        }
+    }
+
+    /**
+     * Adds attributes read from the data stores to the cache.
+     *
+     * @param cache the cache to add the attributes to
+     * @param dn the universal id of the entry
+     * @param principalDN the universal id of the caller
+     * @param attrNames the requested attributes, or <code>null</code> for the complete set
+     * @param isStringValues <code>true</code> for string values, <code>false</code> for binary values
+     * @param attributes the attributes read from the data stores
+     */
+    void cache(Cache<String, IdCacheBlock> cache, String dn, String principalDN, Set attrNames,
+            boolean isStringValues, AMHashMap attributes) {
+        cacheAttributes(cache, dn, principalDN, attrNames, isStringValues, attributes, false);
+    }
+
+    private void cacheAttributes(Cache<String, IdCacheBlock> cache, String dn, String principalDN, Set attrNames,
+            boolean isStringValues, AMHashMap attributes, boolean refresh) {
+        IdCacheBlock cb = cache.getIfPresent(dn);
+        boolean created = cb == null;
+        if (created) {
+            cb = new IdCacheBlock(dn, true);
+        }
+        if (attrNames == null) {
+            cb.putAttributes(principalDN, attributes, null, true, false);
+        } else {
+            if (refresh) {
+                // Putting the block again restarts its expiry time, so it may only keep what has been reloaded
+                cb.retainAttributes(attrNames);
+            }
+            // Add these attributes, may be found in DS or just mark them
+            // as invalid (Attribute level Negative caching)
+            Set missAttrNames = attributes.getMissingAndEmptyKeys(attrNames);
+            cb.putAttributes(principalDN, attributes, missAttrNames, false, !isStringValues);
+        }
+        if (created || refresh) {
+            cache.put(dn, cb);
+        }
+    }
+
+    /**
+     * Reloads the entry in the background once the cache block is older than the refresh-ahead age, and merges
+     * the reloaded attributes into the cache. When only some attributes are reloaded the others are dropped from
+     * the block, so that restarting its expiry time cannot keep them cached forever.
+     *
+     * @param cache the cache the block was found in
+     * @param cb the cache block which was hit
+     * @param dn the universal id of the entry
+     * @param attrNames the requested attributes, or <code>null</code> for the complete set
+     * @param isStringValues <code>true</code> for string values, <code>false</code> for binary values
+     * @param loader reads the attributes from the data stores
+     */
+    void refreshAhead(final Cache<String, IdCacheBlock> cache, final IdCacheBlock cb, final String dn,
+            final Set attrNames, final boolean isStringValues, final AttributeLoader loader) {
+        if (refreshExecutor == null || Time.currentTimeMillis() - cb.getLoadedTime() < refreshAfterMillis
+                || !cb.startRefresh()) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    boolean refreshed = false;
+                    try {
+                        SSOToken token = AccessController.doPrivileged(refreshTokenAction);
+                        load(cache, dn, getPrincipalDN(token), attrNames, isStringValues, true, token, loader);
+                        cacheStats.incrementRefreshCount();
+                        refreshed = true;
+                    } catch (IdRepoException | SSOException | RuntimeException e) {
+                        DEBUG.warning("IdCacheLoader.refreshAhead(): unable to refresh " + dn, e);
+                    } finally {
+                        cb.endRefresh(refreshed);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            cb.endRefresh(false);
+            DEBUG.message("IdCacheLoader.refreshAhead(): refresh rejected for " + dn);
+        }
+    }
+
+    /**
+     * Marks the in-flight data store loads for the given entry, and any entries below it, as stale so that
+     * their results are returned to the waiting callers but not cached.
+     *
+     * @param cachedID the normalized cache id of the changed entry, or an empty string for all entries
+     */
+    void invalidate(String cachedID) {
+        for (AttributeLoad load : loads.values()) {
+            String loadID = DNUtils.normalizeDN(IdCachedServicesImpl.getCacheId(load.dn));
+            if (loadID == null) {
+                loadID = load.dn;
+            }
+            int l1 = loadID.length();
+            int l2 = cachedID.length();
+            if (loadID.regionMatches(true, (l1 - l2), cachedID, 0, l2)) {
+                load.stale = true;
+                loads.remove(load.key, load);
+            }
+        }
+    }
+
+    /**
+     * @param token the token the refresh is performed with
+     * @return the universal id of the principal of the token
+     */
+    String getPrincipalDN(SSOToken token) throws IdRepoException, SSOException {
+        return IdUtils.getUniversalId(IdUtils.getIdentity(token));
+    }
+
+    private static final class AttributeLoad {
+        private final String key;
+        private final String dn;
+        private final CompletableFuture<AMHashMap> result = new CompletableFuture<>();
+        private volatile boolean stale;
+
+        private AttributeLoad(String key, String dn) {
+            this.key = key;
+            this.dn = dn;
+        }
+
+        private AMHashMap await() throws IdRepoException, SSOException {
+            try {
+                return result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdRepoException(e.getMessage());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IdRepoException) {
+                    throw (IdRepoException) cause;
+                } else if (cause instanceof SSOException) {
+                    throw (SSOException) cause;
+                }
+                throw (RuntimeException) cause;
+            }
+        }
+    }
+}
@@ -51,16 +51,21 @@ import com.sun.identity.idm.common.IdCacheStats;
 import com.sun.identity.monitoring.Agent;
 import com.sun.identity.monitoring.MonitoringUtil;
 import com.sun.identity.monitoring.SsoServerIdRepoSvcImpl;
+import com.sun.identity.security.AdminTokenAction;
 import com.sun.identity.shared.stats.Stats;
 import com.sun.identity.sm.ServiceManager;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import org.forgerock.guice.core.InjectorHolder;
+import org.forgerock.openam.audit.context.AMExecutorServiceFactory;
 import org.forgerock.openam.utils.CrestQuery;
 import org.forgerock.util.thread.listener.ShutdownListener;
 import org.forgerock.util.thread.listener.ShutdownManager;
@@ -76,6 +81,17 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
 
     static final int CACHE_MAX_SIZE_INT = 10000;
 
+    static final String CACHE_MAX_TIME_KEY = "org.openidentityplatform.com.iplanet.am.sdk.cache.maxTime";
+
+    /**
+     * Age in seconds after which a cache hit triggers an asynchronous reload of the entry, so that
+     * frequently read entries are replaced before they expire. Zero disables refresh-ahead.
+     */
+    static final String CACHE_REFRESH_AFTER_KEY = "org.openidentityplatform.com.iplanet.am.sdk.cache.refreshAfter";
+
+    static final String CACHE_REFRESH_THREADS_KEY =
+            "org.openidentityplatform.com.iplanet.am.sdk.cache.refreshThreads";
+
     private static int maxSize;
 
     private static IdCachedServicesImpl instance;
@@ -85,6 +101,8 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
 
     private IdCacheStats cacheStats;
 
+    private final IdCacheLoader cacheLoader;
+
     private static Stats stats;
 
     private static SsoServerIdRepoSvcImpl monIdRepo;
@@ -116,10 +134,19 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
         if (MonitoringUtil.isRunning()) {
             monIdRepo = Agent.getIdrepoSvcMBean();
         }
+        long refreshAfterMillis = TimeUnit.SECONDS.toMillis(SystemProperties.getAsInt(CACHE_REFRESH_AFTER_KEY, 0));
+        ExecutorService refreshExecutor = null;
+        if (refreshAfterMillis > 0) {
+            refreshExecutor = InjectorHolder.getInstance(AMExecutorServiceFactory.class)
+                    .createFixedThreadPool(SystemProperties.getAsInt(CACHE_REFRESH_THREADS_KEY, 2), "IdCacheRefresh");
+        }
+        cacheLoader = new IdCacheLoader(cacheStats, refreshAfterMillis, refreshExecutor,
+                AdminTokenAction.getInstance());
     }
 
     private void initializeCache() {
-        idRepoCache = CacheBuilder.newBuilder().maximumSize(maxSize).expireAfterWrite(SystemProperties.getAsInt("org.openidentityplatform.com.iplanet.am.sdk.cache.maxTime", 10), TimeUnit.SECONDS).build();
+        idRepoCache = CacheBuilder.newBuilder().maximumSize(maxSize)
+                .expireAfterWrite(SystemProperties.getAsInt(CACHE_MAX_TIME_KEY, 10), TimeUnit.SECONDS).build();
     }
 
     private void resetCache(int maxCacheSize) {
@@ -224,6 +251,7 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
     public synchronized void clearCache() {
         idRepoCache.invalidateAll();
         initializeCache();
+        cacheLoader.invalidate("");
     }
 
     /**
@@ -298,6 +326,8 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
             }
             break;
         }
+        // Loads started before this event must not put the old values back into the cache
+        cacheLoader.invalidate(cachedID);
         if (DEBUG.messageEnabled()) {
             DEBUG.message("IdCachedServicesImpl.dirtyCache(): Cache "
                     + "dirtied because of Event Notification. Parameters - "
@@ -328,11 +358,12 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
         if (cb != null) {
             cb.clear();
         }
+        cacheLoader.invalidate(getCacheId(key));
     }
 
-    public Map getAttributes(SSOToken token, IdType type, String name,
-        Set attrNames, String amOrgName, String amsdkDN,
-        boolean isStringValues) throws IdRepoException, SSOException {
+    public Map getAttributes(final SSOToken token, final IdType type, final String name,
+        final Set attrNames, final String amOrgName, final String amsdkDN,
+        final boolean isStringValues) throws IdRepoException, SSOException {
 
         // If required attributes is null or empty, call the
         // other interface to get all the attributes
@@ -368,10 +399,18 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
 
         // Attributes to be returned
         AMHashMap attributes;
+        IdCacheLoader.AttributeLoader loader = new IdCacheLoader.AttributeLoader() {
+            @Override
+            public AMHashMap load(SSOToken loadToken) throws IdRepoException, SSOException {
+                return (AMHashMap) IdCachedServicesImpl.super.getAttributes(loadToken, type, name,
+                        attrNames, amOrgName, amsdkDN, isStringValues);
+            }
+        };
 
         // Check in the cache
         IdCacheBlock cb = idRepoCache.getIfPresent(dn);
         if (cb == null) { // Entry not present in cache
+            cacheStats.incrementGetMissCount();
             if (DEBUG.messageEnabled()) {
                 DEBUG.message("IdCachedServicesImpl.getAttributes(): "
                         + "NO entry found in Cachefor key = " + dn
@@ -382,15 +421,8 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
             // If the attributes returned here have an empty set as value, then
             // such attributes do not have a value or invalid attributes.
             // Internally keep track of these attributes.
-            attributes = (AMHashMap) super.getAttributes(token, type, name,
-                    attrNames, amOrgName, amsdkDN, isStringValues);
-
-            // Find the missing attributes and add to cache
-            Set missAttrNames = attributes.getMissingAndEmptyKeys(attrNames);
-            cb = new IdCacheBlock(dn, true);
-            cb.putAttributes(principalDN, attributes, missAttrNames, false,
-                    !isStringValues);
-            idRepoCache.put(dn, cb);
+            attributes = cacheLoader.load(idRepoCache, dn, principalDN, attrNames,
+                    isStringValues, token, loader);
         } else { // Entry present in cache
             attributes = (AMHashMap) cb.getAttributes(principalDN, attrNames,
                     !isStringValues);
@@ -406,17 +438,10 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
                             + "attributes from DS: "
                             + missAttrNames);
                 }
-                AMHashMap dsAttributes = (AMHashMap) super.getAttributes(token,
-                        type, name, attrNames, amOrgName, amsdkDN,
-                        isStringValues);
+                cacheStats.incrementGetMissCount();
+                AMHashMap dsAttributes = cacheLoader.load(idRepoCache, dn, principalDN,
+                        attrNames, isStringValues, token, loader);
                 attributes.putAll(dsAttributes);
-
-                // Add these attributes, may be found in DS or just mark them
-                // as invalid (Attribute level Negative caching)
-                Set newMissAttrNames = dsAttributes
-                        .getMissingAndEmptyKeys(missAttrNames);
-                cb.putAttributes(principalDN, dsAttributes, newMissAttrNames,
-                        false, !isStringValues);
             } else { // All attributes found in cache
                 cacheStats.updateGetHitCount(getSize());
                 if (MonitoringUtil.isRunning() &&
@@ -429,13 +454,15 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
                             + ".getAttributes(): " + amsdkDN
                             + " found all attributes in Cache.");
                 }
+                cacheLoader.refreshAhead(idRepoCache, cb, dn, attrNames, isStringValues,
+                        loader);
             }
         }
         return attributes;
     }
 
-    public Map getAttributes(SSOToken token, IdType type, String name,
-        String amOrgName, String amsdkDN)
+    public Map getAttributes(final SSOToken token, final IdType type,
+        final String name, final String amOrgName, final String amsdkDN)
         throws IdRepoException, SSOException {
 
         cacheStats.incrementGetRequestCount(getSize());
@@ -452,6 +479,14 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
         AMIdentity tokenId = IdUtils.getIdentity(token);
         String principalDN = IdUtils.getUniversalId(tokenId);
 
+        IdCacheLoader.AttributeLoader loader = new IdCacheLoader.AttributeLoader() {
+            @Override
+            public AMHashMap load(SSOToken loadToken) throws IdRepoException, SSOException {
+                return (AMHashMap) IdCachedServicesImpl.super.getAttributes(
+                        loadToken, type, name, amOrgName, amsdkDN);
+            }
+        };
+
         // Get the cache entry
         IdCacheBlock cb = idRepoCache.getIfPresent(dn);
         AMHashMap attributes;
@@ -468,7 +503,9 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
                     + " found all attributes in Cache.");
             }
             attributes = (AMHashMap) cb.getAttributes(principalDN, false);
+            cacheLoader.refreshAhead(idRepoCache, cb, dn, null, true, loader);
         } else {
+            cacheStats.incrementGetMissCount();
             // Get all the attributes from data store
             if (DEBUG.messageEnabled()) {
                 DEBUG.message("IdCachedServicesImpl."
@@ -476,13 +513,8 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
                     + " complete attribute"
                     + " set NOT found in cache. Getting from DS.");
             }
-            attributes = (AMHashMap) super.getAttributes(token, type, name,
-                amOrgName, amsdkDN);
-            if (cb == null) {
-                cb = new IdCacheBlock(dn, true);
-                idRepoCache.put(dn, cb);
-            }
-            cb.putAttributes(principalDN, attributes, null, true, false);
+            attributes = cacheLoader.load(idRepoCache, dn, principalDN, null, true, token,
+                loader);
             if (DEBUG.messageEnabled()) {
                 DEBUG.message("IdCachedServicesImpl.getAttributes(): "
                         + "attributes NOT found in cache. Fetched from DS.");
@@ -491,6 +523,66 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
         return attributes;
     }
 
+    public Map<String, Map> getAttributes(SSOToken token, IdType type,
+        Set<String> names, Set attrNames, String amOrgName)
+        throws IdRepoException, SSOException {
+
+        boolean allAttrs = (attrNames == null) || attrNames.isEmpty();
+        AMIdentity tokenId = IdUtils.getIdentity(token);
+        String principalDN = IdUtils.getUniversalId(tokenId);
+
+        // Answer what we can from the cache and read the rest in one go
+        Map<String, Map> results = new HashMap<>();
+        Map<String, String> missing = new HashMap<>();
+        for (String name : names) {
+            cacheStats.incrementGetRequestCount(getSize());
+            AMIdentity id = new AMIdentity(token, name, type, amOrgName, null);
+            String dn = id.getUniversalId().toLowerCase();
+            IdCacheBlock cb = idRepoCache.getIfPresent(dn);
+            AMHashMap attributes = null;
+            if (cb != null) {
+                if (allAttrs) {
+                    if (cb.hasCompleteSet(principalDN)) {
+                        attributes = (AMHashMap) cb.getAttributes(principalDN, false);
+                    }
+                } else {
+                    attributes = (AMHashMap) cb.getAttributes(principalDN, attrNames, false);
+                    if (!attributes.getMissingKeys(attrNames).isEmpty()) {
+                        attributes = null;
+                    }
+                }
+            }
+            if (attributes != null) {
+                cacheStats.updateGetHitCount(getSize());
+                results.put(name, attributes);
+            } else {
+                cacheStats.incrementGetMissCount();
+                missing.put(name, dn);
+            }
+        }
+        if (DEBUG.messageEnabled()) {
+            DEBUG.message("IdCachedServicesImpl.getAttributes(): found "
+                    + results.size() + " of " + names.size()
+                    + " identities in cache. Getting the rest from DS.");
+        }
+
+        if (!missing.isEmpty()) {
+            long start = System.nanoTime();
+            Map<String, Map> dsResults = super.getAttributes(token, type,
+                    missing.keySet(), attrNames, amOrgName);
+            cacheStats.updateLoadTime(System.nanoTime() - start);
+            for (Map.Entry<String, Map> entry : dsResults.entrySet()) {
+                String dn = missing.get(entry.getKey());
+                if (dn != null && entry.getValue() instanceof AMHashMap) {
+                    cacheLoader.cache(idRepoCache, dn, principalDN, allAttrs ? null : attrNames,
+                            true, (AMHashMap) entry.getValue());
+                }
+                results.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return results;
+    }
+
     public void setActiveStatus(SSOToken token, IdType type, String name,
         String amOrgName, String amsdkDN, boolean active) throws SSOException,
         IdRepoException {
@@ -670,7 +762,7 @@ public class IdCachedServicesImpl extends IdServicesImpl implements IdCachedServ
     }
 
     // strip away amsdkdn from dn.
-    private String getCacheId(String dn) {
+    static String getCacheId(String dn) {
         String cachedId = dn;
         int ind = dn.toLowerCase().indexOf(",amsdkdn=");
         if (ind > -1) {
@@ -53,10 +53,12 @@ import com.sun.identity.idm.IdRepoFatalException;
 import com.sun.identity.idm.IdRepoUnsupportedOpException;
 import com.sun.identity.idm.IdSearchControl;
 import com.sun.identity.idm.IdSearchOpModifier;
+import com.sun.identity.idm.IdSearchResultHandler;
 import com.sun.identity.idm.IdSearchResults;
 import com.sun.identity.idm.IdServices;
 import com.sun.identity.idm.IdType;
 import com.sun.identity.idm.IdUtils;
+import com.sun.identity.idm.RepoSearchResultHandler;
 import com.sun.identity.idm.RepoSearchResults;
 import com.sun.identity.idm.common.IdRepoUtils;
 import com.sun.identity.idm.plugins.internal.SpecialRepo;
@@ -70,7 +72,12 @@ import com.sun.identity.sm.SchemaType;
 import com.sun.identity.sm.ServiceManager;
 import com.sun.identity.sm.ServiceSchema;
 import com.sun.identity.sm.ServiceSchemaManager;
+import org.forgerock.guice.core.InjectorHolder;
 import org.forgerock.openam.ldap.LDAPUtils;
+import org.forgerock.openam.monitoring.metrics.MetricsRegistry;
+import org.forgerock.openam.monitoring.metrics.Timer;
+import org.forgerock.openam.monitoring.tracing.Span;
+import org.forgerock.openam.monitoring.tracing.Tracing;
 import org.forgerock.openam.utils.CollectionUtils;
 import org.forgerock.openam.utils.CrestQuery;
 import org.forgerock.util.thread.listener.ShutdownListener;
@@ -101,6 +108,12 @@ public class IdServicesImpl implements IdServices {
 
    private IdRepoPluginsCache idrepoCache;
 
+   private final Timer authenticateTimer;
+   private final Timer getAttributesTimer;
+   private final Timer getMembershipsTimer;
+   private final Timer isExistsTimer;
+   private final Timer searchTimer;
+
    protected static volatile boolean shutdownCalled;
 
    private static HashSet READ_ACTION = new HashSet(2);
@@ -137,6 +150,18 @@ public class IdServicesImpl implements IdServices {
 
    protected IdServicesImpl() {
        idrepoCache = new IdRepoPluginsCache();
+       MetricsRegistry metricsRegistry = InjectorHolder.getInstance(MetricsRegistry.class);
+       authenticateTimer = getOperationTimer(metricsRegistry, "authenticate");
+       getAttributesTimer = getOperationTimer(metricsRegistry, "get_attributes");
+       getMembershipsTimer = getOperationTimer(metricsRegistry, "get_memberships");
+       isExistsTimer = getOperationTimer(metricsRegistry, "is_exists");
+       searchTimer = getOperationTimer(metricsRegistry, "search");
+   }
+
+   private static Timer getOperationTimer(MetricsRegistry metricsRegistry, String operation) {
+       return metricsRegistry.timer("openam_idrepo_operation_duration_seconds",
+               "Time taken by the identity repository operations, across all the data stores of the realm",
+               "operation", operation);
    }
 
    public void reinitialize() {
@@ -225,7 +250,22 @@ public class IdServicesImpl implements IdServices {
     }
 
     @Override
-   public boolean authenticate(String orgName, Callback[] credentials, IdType idType)
+    public boolean authenticate(String orgName, Callback[] credentials, IdType idType)
+            throws IdRepoException, AuthLoginException {
+        long startNanos = System.nanoTime();
+        Span span = Tracing.start("idrepo.authenticate").setAttribute("realm", orgName);
+        try {
+            return doAuthenticate(orgName, credentials, idType);
+        } catch (IdRepoException | AuthLoginException | RuntimeException e) {
+            span.setError(e);
+            throw e;
+        } finally {
+            span.end();
+            authenticateTimer.recordSince(startNanos);
+        }
+    }
+
+   private boolean doAuthenticate(String orgName, Callback[] credentials, IdType idType)
            throws IdRepoException, AuthLoginException {
        if (DEBUG.messageEnabled()) {
            DEBUG.message(
@@ -619,6 +659,22 @@ public class IdServicesImpl implements IdServices {
    public Map getAttributes(SSOToken token, IdType type, String name,
            Set attrNames, String amOrgName, String amsdkDN, boolean isString)
            throws IdRepoException, SSOException {
+       long startNanos = System.nanoTime();
+       Span span = Tracing.start("idrepo.get_attributes").setAttribute("realm", amOrgName);
+       try {
+           return doGetAttributes(token, type, name, attrNames, amOrgName, amsdkDN, isString);
+       } catch (IdRepoException | SSOException | RuntimeException e) {
+           span.setError(e);
+           throw e;
+       } finally {
+           span.end();
+           getAttributesTimer.recordSince(startNanos);
+       }
+   }
+
+   private Map doGetAttributes(SSOToken token, IdType type, String name,
+           Set attrNames, String amOrgName, String amsdkDN, boolean isString)
+           throws IdRepoException, SSOException {
        IdRepoException origEx = null;
 
        // Check permission first. If allowed then proceed, else the
@@ -731,6 +787,26 @@ public class IdServicesImpl implements IdServices {
        String name,
        String amOrgName,
        String amsdkDN
+   ) throws IdRepoException, SSOException {
+       long startNanos = System.nanoTime();
+       Span span = Tracing.start("idrepo.get_attributes").setAttribute("realm", amOrgName);
+       try {
+           return doGetAttributes(token, type, name, amOrgName, amsdkDN);
+       } catch (IdRepoException | SSOException | RuntimeException e) {
+           span.setError(e);
+           throw e;
+       } finally {
+           span.end();
+           getAttributesTimer.recordSince(startNanos);
+       }
+   }
+
+   private Map doGetAttributes(
+       SSOToken token,
+       IdType type,
+       String name,
+       String amOrgName,
+       String amsdkDN
    ) throws IdRepoException, SSOException {
        IdRepoException origEx = null;
 
@@ -839,6 +915,122 @@ public class IdServicesImpl implements IdServices {
        }
    }
 
+   /*
+    * (non-Javadoc)
+    */
+   public Map<String, Map> getAttributes(SSOToken token, IdType type,
+           Set<String> names, Set attrNames, String amOrgName)
+           throws IdRepoException, SSOException {
+       IdRepoException origEx = null;
+       Map<String, Map> results = new HashMap<>();
+       if ((names == null) || names.isEmpty()) {
+           return results;
+       }
+       boolean allAttrs = (attrNames == null) || attrNames.isEmpty();
+
+       // Get the list of plugins that support the read operation
+       Set configuredPluginClasses = idrepoCache.getIdRepoPlugins(amOrgName,
+           IdOperation.READ, type);
+       if ((configuredPluginClasses == null) ||
+           configuredPluginClasses.isEmpty()) {
+           throw new IdRepoException(IdRepoBundle.BUNDLE_NAME, IdRepoErrorCode.NO_PLUGINS_CONFIGURED, null);
+       }
+
+       // Check permission for each identity, and read internal/special
+       // identities from the special plugin only
+       Set<String> repoNames = new HashSet<>();
+       for (String name : names) {
+           checkPermission(token, amOrgName, name, attrNames,
+                   IdOperation.READ, type);
+           Map specialAttrs = null;
+           if (isSpecialIdentity(token, name, type, amOrgName)) {
+               specialAttrs = getSpecialAttributes(token, type, name,
+                       allAttrs ? null : attrNames, configuredPluginClasses);
+           }
+           if (specialAttrs != null) {
+               results.put(name, specialAttrs);
+           } else {
+               repoNames.add(name);
+           }
+       }
+       if (repoNames.isEmpty()) {
+           return results;
+       }
+
+       Map<String, Set<Map>> attrMapsByName = new HashMap<>();
+       int noOfSuccess = configuredPluginClasses.size();
+       for (Iterator it = configuredPluginClasses.iterator(); it.hasNext();) {
+           IdRepo idRepo = (IdRepo) it.next();
+           try {
+               Map cMap = idRepo.getConfiguration();
+               Set mappedAttributeNames = allAttrs ? null
+                       : mapAttributeNames(attrNames, cMap);
+               Map<String, Map<String, Set<String>>> found = idRepo
+                       .getAttributes(token, type, repoNames,
+                       mappedAttributeNames);
+               for (Map.Entry<String, Map<String, Set<String>>> entry
+                       : found.entrySet()) {
+                   Set<Map> attrMapsSet = attrMapsByName.get(entry.getKey());
+                   if (attrMapsSet == null) {
+                       attrMapsSet = new HashSet<>();
+                       attrMapsByName.put(entry.getKey(), attrMapsSet);
+                   }
+                   attrMapsSet.add(reverseMapAttributeNames(entry.getValue(),
+                           cMap));
+               }
+           } catch (IdRepoFatalException idf) {
+               // fatal ..throw it all the way up
+               DEBUG.error("IdServicesImpl.getAttributes: "
+                       + "Fatal Exception ", idf);
+               throw idf;
+           } catch (IdRepoException ide) {
+               if (DEBUG.warningEnabled()) {
+                   DEBUG.warning("IdServicesImpl.getAttributes: "
+                       + "Unable to read identities in the following "
+                       + "repository " + idRepo.getClass().getName() + " :: "
+                       + ide.getMessage());
+               }
+               noOfSuccess--;
+               origEx = (origEx == null) ? ide : origEx;
+           }
+       }
+       if (noOfSuccess == 0) {
+           if (DEBUG.warningEnabled()) {
+               DEBUG.warning("IdServicesImpl.getAttributes: "
+                   + "Unable to get attributes for " + repoNames.size() + " "
+                   + type.getName() + " identities in any configured data "
+                   + "store", origEx);
+           }
+           throw origEx;
+       }
+
+       for (Map.Entry<String, Set<Map>> entry : attrMapsByName.entrySet()) {
+           results.put(entry.getKey(), combineAttrMaps(entry.getValue(), true));
+       }
+       return results;
+   }
+
+   private Map getSpecialAttributes(SSOToken token, IdType type, String name,
+           Set attrNames, Set configuredPluginClasses) {
+       try {
+           for (Iterator items = configuredPluginClasses.iterator();
+               items.hasNext();) {
+               IdRepo idRepo = (IdRepo) items.next();
+               if (idRepo.getClass().getName().equals(
+                   IdConstants.SPECIAL_PLUGIN)) {
+                   Set attrMapsSet = new HashSet();
+                   attrMapsSet.add((attrNames == null)
+                       ? idRepo.getAttributes(token, type, name)
+                       : idRepo.getAttributes(token, type, name, attrNames));
+                   return (combineAttrMaps(attrMapsSet, true));
+               }
+           }
+       } catch (Exception e) {
+           // Ignore and continue
+       }
+       return null;
+   }
+
    /*
     * (non-Javadoc)
     */
@@ -943,6 +1135,27 @@ public class IdServicesImpl implements IdServices {
        IdType membershipType,
        String amOrgName,
        String amsdkDN
+   ) throws IdRepoException, SSOException {
+       long startNanos = System.nanoTime();
+       Span span = Tracing.start("idrepo.get_memberships").setAttribute("realm", amOrgName);
+       try {
+           return doGetMemberships(token, type, name, membershipType, amOrgName, amsdkDN);
+       } catch (IdRepoException | SSOException | RuntimeException e) {
+           span.setError(e);
+           throw e;
+       } finally {
+           span.end();
+           getMembershipsTimer.recordSince(startNanos);
+       }
+   }
+
+   private Set doGetMemberships(
+       SSOToken token,
+       IdType type,
+       String name,
+       IdType membershipType,
+       String amOrgName,
+       String amsdkDN
    ) throws IdRepoException, SSOException {
        IdRepoException origEx = null;
 
@@ -1053,6 +1266,21 @@ public class IdServicesImpl implements IdServices {
     */
    public boolean isExists(SSOToken token, IdType type, String name,
            String amOrgName) throws SSOException, IdRepoException {
+       long startNanos = System.nanoTime();
+       Span span = Tracing.start("idrepo.is_exists").setAttribute("realm", amOrgName);
+       try {
+           return doIsExists(token, type, name, amOrgName);
+       } catch (IdRepoException | SSOException | RuntimeException e) {
+           span.setError(e);
+           throw e;
+       } finally {
+           span.end();
+           isExistsTimer.recordSince(startNanos);
+       }
+   }
+
+   private boolean doIsExists(SSOToken token, IdType type, String name,
+           String amOrgName) throws SSOException, IdRepoException {
        // Check permission first. If allowed then proceed, else the
        // checkPermission method throws an "402" exception.
        checkPermission(token, amOrgName, name, null, IdOperation.READ, type);
@@ -1474,6 +1702,22 @@ public class IdServicesImpl implements IdServices {
     public IdSearchResults search(SSOToken token, IdType type, IdSearchControl ctrl, String amOrgName,
                                  CrestQuery crestQuery)
        throws IdRepoException, SSOException {
+       long startNanos = System.nanoTime();
+       Span span = Tracing.start("idrepo.search").setAttribute("realm", amOrgName);
+       try {
+           return doSearch(token, type, ctrl, amOrgName, crestQuery);
+       } catch (IdRepoException | SSOException | RuntimeException e) {
+           span.setError(e);
+           throw e;
+       } finally {
+           span.end();
+           searchTimer.recordSince(startNanos);
+       }
+   }
+
+    private IdSearchResults doSearch(SSOToken token, IdType type, IdSearchControl ctrl, String amOrgName,
+                                 CrestQuery crestQuery)
+       throws IdRepoException, SSOException {
 
        IdRepoException origEx = null;
 
@@ -1610,6 +1854,86 @@ public class IdServicesImpl implements IdServices {
        return res;
     }
 
+    /**
+     * Streams the search results of the data store to the handler when a single data store is configured for the
+     * realm. When several data stores are configured their results have to be merged by identity name, hence the
+     * results are read in full and then passed to the handler.
+     */
+    @Override
+    public int search(SSOToken token, final IdType type, IdSearchControl ctrl, final String amOrgName,
+            CrestQuery crestQuery, final IdSearchResultHandler handler) throws IdRepoException, SSOException {
+
+       Set configuredPluginClasses = idrepoCache.getIdRepoPlugins(amOrgName, IdOperation.READ, type);
+       if ((configuredPluginClasses == null) || (configuredPluginClasses.size() != 1)) {
+           return search(token, type, ctrl, amOrgName, crestQuery).handleResults(handler);
+       }
+       IdRepo idRepo = (IdRepo) configuredPluginClasses.iterator().next();
+       if (idRepo.getClass().getName().equals(IdConstants.AMSDK_PLUGIN)) {
+           return search(token, type, ctrl, amOrgName, crestQuery).handleResults(handler);
+       }
+
+       // Same permission handling as the search above, when the caller may
+       // not search the permissions are checked on each matched object.
+       boolean checkPermissionOnObjects = false;
+       final SSOToken userToken = token;
+       try {
+           checkPermission(token, amOrgName, null, null, IdOperation.READ, type);
+       } catch (IdRepoException ire) {
+           Map filter = ctrl.getSearchModifierMap();
+           if ((!ire.getErrorCode().equals(IdRepoErrorCode.ACCESS_DENIED)) || (filter == null) ||
+               (filter.isEmpty())) {
+               throw (ire);
+           }
+           checkPermissionOnObjects = true;
+           token = (SSOToken) AccessController.doPrivileged(AdminTokenAction.getInstance());
+       }
+
+       final boolean checkObjects = checkPermissionOnObjects;
+       final SSOToken searchToken = token;
+       final Set returnAttrs = ctrl.getReturnAttributes();
+       final Map cMap = idRepo.getConfiguration();
+       IdSearchOpModifier modifier = ctrl.getSearchModifier();
+       int filterOp = IdRepo.NO_MOD;
+       if (modifier.equals(IdSearchOpModifier.AND)) {
+           filterOp = IdRepo.AND_MOD;
+       } else if (modifier.equals(IdSearchOpModifier.OR)) {
+           filterOp = IdRepo.OR_MOD;
+       }
+
+       RepoSearchResultHandler repoHandler = new RepoSearchResultHandler() {
+           @Override
+           public boolean handleResult(String name, Map<String, Set<String>> attributes) {
+               String mname = DNUtils.DNtoName(name, false);
+               if (checkObjects) {
+                   try {
+                       checkPermission(userToken, amOrgName, mname, returnAttrs, IdOperation.READ, type);
+                   } catch (Exception e) {
+                       // Not permitted, skip this identity
+                       return true;
+                   }
+               }
+               Map attrMap = reverseMapAttributeNames(attributes, cMap);
+               AMIdentity id = new AMIdentity(searchToken, mname, type, amOrgName, null);
+               return handler.handleResult(id, combineAttrMaps(Collections.singleton(attrMap), true));
+           }
+       };
+
+       try {
+           return idRepo.search(token, type, crestQuery, ctrl.getTimeOut(), ctrl.getMaxResults(), returnAttrs,
+                   ctrl.isGetAllReturnAttributesEnabled(), filterOp, ctrl.getSearchModifierMap(), repoHandler);
+       } catch (IdRepoFatalException idf) {
+           // fatal ..throw it all the way up
+           DEBUG.error("IdServicesImpl.search: Fatal Exception ", idf);
+           throw idf;
+       } catch (IdRepoException ide) {
+           if (DEBUG.warningEnabled()) {
+               DEBUG.warning("IdServicesImpl.search: Unable to search for identity " + type.getName()
+                   + ":: using " + crestQuery + " in " + idRepo.getClass().getName(), ide);
+           }
+           throw ide;
+       }
+    }
+
 
    public IdSearchResults getSpecialIdentities(SSOToken token, IdType type,
            String orgName) throws IdRepoException, SSOException {
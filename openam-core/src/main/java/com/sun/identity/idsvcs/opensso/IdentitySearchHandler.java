@@ -0,0 +1,33 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package com.sun.identity.idsvcs.opensso;
+
+/**
+ * Receives the results of a streaming identity search from {@link IdentityServicesImpl} one at a time.
+ *
+ * @param <T> The type of the results.
+ */
+public interface IdentitySearchHandler<T> {
+
+    /**
+     * Invoked for each identity matched by the search.
+     *
+     * @param result The matched identity.
+     * @return <code>true</code> to continue the search, <code>false</code> to cancel it.
+     */
+    boolean handleResult(T result);
+}
@@ -71,6 +71,7 @@ import com.sun.identity.idm.IdRepoErrorCode;
 import com.sun.identity.idm.IdRepoException;
 import com.sun.identity.idm.IdSearchControl;
 import com.sun.identity.idm.IdSearchOpModifier;
+import com.sun.identity.idm.IdSearchResultHandler;
 import com.sun.identity.idm.IdSearchResults;
 import com.sun.identity.idm.IdType;
 import com.sun.identity.idm.IdUtils;
@@ -529,6 +530,107 @@ public class IdentityServicesImpl implements com.sun.identity.idsvcs.IdentitySer
         }
     }
 
+    /**
+     * Searches the identity repository to find all identities that match the search criteria, passing the
+     * identifier of each one to the handler as it is read rather than collecting them in a list.
+     *
+     * @param crestQuery A CREST Query object which will contain either a _queryId or a _queryFilter.
+     * @param searchModifiers The search modifiers
+     * @param admin Your SSO token.
+     * @param handler Receives the matching identifiers, and may cancel the search.
+     * @throws ResourceException
+     */
+    public void search(CrestQuery crestQuery, Map<String, Set<String>> searchModifiers, SSOToken admin,
+            final IdentitySearchHandler<String> handler) throws ResourceException {
+
+        try {
+            String realm = "/";
+            String objectType = "User";
+            if (searchModifiers != null) {
+                realm = attractValues("realm", searchModifiers, "/");
+                objectType = attractValues("objecttype", searchModifiers, "User");
+            }
+
+            AMIdentityRepository repo = getRepo(admin, realm);
+            IdType idType = getIdType(objectType);
+
+            if (idType == null) {
+                debug.error("IdentityServicesImpl:search unsupported IdType" + objectType);
+                throw new BadRequestException("search unsupported IdType: " + objectType);
+            }
+            final Set<String> specialUserNames = idType.equals(IdType.USER)
+                    ? getSpecialUserNames(realm) : Collections.<String>emptySet();
+            searchAMIdentities(idType, crestQuery, repo, searchModifiers, new IdSearchResultHandler() {
+                @Override
+                public boolean handleResult(AMIdentity identity, Map<String, Set<String>> attributes) {
+                    String name = identity.getName();
+                    return specialUserNames.contains(name) || handler.handleResult(name);
+                }
+            });
+        } catch (IdRepoException e) {
+            debug.error("IdentityServicesImpl:search", e);
+            throw new InternalServerErrorException(e.getMessage());
+        } catch (SSOException e) {
+            debug.error("IdentityServicesImpl:search", e);
+            throw new InternalServerErrorException(e.getMessage());
+        }
+    }
+
+    /**
+     * Searches the identity repository to find all identities that match the search criteria, passing each one to
+     * the handler as it is read rather than collecting them in a list.
+     *
+     * @param crestQuery A CREST Query object which will contain either a _queryId or a _queryFilter.
+     * @param searchModifiers The search modifiers
+     * @param admin Your SSO token.
+     * @param handler Receives the matching identities, and may cancel the search.
+     * @throws ResourceException
+     */
+    public void searchIdentityDetails(CrestQuery crestQuery, Map<String, Set<String>> searchModifiers,
+            SSOToken admin, final IdentitySearchHandler<IdentityDetails> handler) throws ResourceException {
+
+        try {
+            String realm = "/";
+            String objectType = "User";
+            if (searchModifiers != null) {
+                realm = attractValues("realm", searchModifiers, "/");
+                objectType = attractValues("objecttype", searchModifiers, "User");
+            }
+            AMIdentityRepository repo = getRepo(admin, realm);
+            IdType idType = getIdType(objectType);
+
+            if (idType == null) {
+                debug.error("IdentityServicesImpl.searchIdentities unsupported IdType " + objectType);
+                throw new BadRequestException("searchIdentities: unsupported IdType " + objectType);
+            }
+            // The identity details are read for each identity, so the handler cannot throw the checked exceptions
+            // of the conversion, they are held and thrown once the search has been cancelled
+            final Exception[] failure = new Exception[1];
+            searchAMIdentities(idType, crestQuery, repo, searchModifiers, new IdSearchResultHandler() {
+                @Override
+                public boolean handleResult(AMIdentity identity, Map<String, Set<String>> attributes) {
+                    try {
+                        return handler.handleResult(convertToIdentityDetails(identity, null));
+                    } catch (IdRepoException | SSOException e) {
+                        failure[0] = e;
+                        return false;
+                    }
+                }
+            });
+            if (failure[0] instanceof IdRepoException) {
+                throw (IdRepoException) failure[0];
+            } else if (failure[0] instanceof SSOException) {
+                throw (SSOException) failure[0];
+            }
+        } catch (IdRepoException e) {
+            debug.error("IdentityServicesImpl.searchIdentities", e);
+            throw new InternalServerErrorException(e.getMessage());
+        } catch (SSOException e) {
+            debug.error("IdentityServicesImpl.searchIdentities", e);
+            throw new InternalServerErrorException(e.getMessage());
+        }
+    }
+
     @Override
     public LogResponse log(Token app, Token subject, String logName, String message) throws AccessDenied, TokenExpired,
             GeneralFailure {
@@ -1023,6 +1125,21 @@ public class IdentityServicesImpl implements com.sun.identity.idsvcs.IdentitySer
         return identities;
     }
 
+    private void searchAMIdentities(IdType type, CrestQuery crestQuery, AMIdentityRepository repo,
+            Map searchModifiers, IdSearchResultHandler handler) throws IdRepoException, SSOException {
+
+        if (!isOperationSupported(repo, type, IdOperation.READ)) {
+            return;
+        }
+        // The attributes of each identity are read when it is converted, so none are requested by the search
+        IdSearchControl searchControl = new IdSearchControl();
+        searchControl.setAllReturnAttributes(false);
+        if (searchModifiers != null) {
+            searchControl.setSearchModifiers(IdSearchOpModifier.AND, searchModifiers);
+        }
+        repo.searchIdentities(type, crestQuery, searchControl, handler);
+    }
+
    private AMIdentity getAMIdentity(SSOToken ssoToken, AMIdentityRepository repo, String guid, IdType idType)
             throws IdRepoException, SSOException {
         try {
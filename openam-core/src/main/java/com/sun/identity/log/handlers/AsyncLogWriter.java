@@ -0,0 +1,358 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package com.sun.identity.log.handlers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.forgerock.guice.core.InjectorHolder;
+import org.forgerock.openam.monitoring.metrics.Counter;
+import org.forgerock.openam.monitoring.metrics.Gauge;
+import org.forgerock.openam.monitoring.metrics.MetricsRegistry;
+import org.forgerock.util.thread.listener.ShutdownListener;
+import org.forgerock.util.thread.listener.ShutdownPriority;
+
+import com.iplanet.am.util.SystemProperties;
+import com.sun.identity.common.ShutdownManager;
+import com.sun.identity.log.spi.Debug;
+import com.sun.identity.monitoring.MonitoringUtil;
+import com.sun.identity.monitoring.SsoServerLoggingHdlrEntryImpl;
+
+/**
+ * Decouples the threads publishing log records from the file I/O of a log handler.
+ * <p>
+ * Publishing threads offer records to a {@link LogRecordRingBuffer} without taking any lock, and a dedicated writer
+ * thread drains the buffer in batches, handing each batch to the handler's {@link Sink} so that it can be written
+ * (and optionally synced to disk) in one go. When the buffer is full the publishing thread waits for the writer to
+ * catch up for at most {@value #OFFER_TIMEOUT_PROPERTY} milliseconds (forever by default) before the record is
+ * dropped.
+ * <p>
+ * Batches are written while holding the consumer lock supplied by the handler, so that the handler can exclude other
+ * threads (such as the secure log signer and verifier) from the log file while a batch is being written.
+ * <p>
+ * Each writer reports its queue depth and how often publishing threads had to wait for space in the
+ * {@link MetricsRegistry}, labelled with the handler and log names.
+ *
+ * @param <T> The type of the records written by the handler.
+ */
+final class AsyncLogWriter<T> {
+
+    /**
+     * System property to enable the asynchronous write mode of the file based log handlers.
+     */
+    static final String ENABLED_PROPERTY = "org.openidentityplatform.openam.log.async.enabled";
+    /**
+     * System property for the number of records that can be waiting to be written for each log file.
+     */
+    static final String QUEUE_SIZE_PROPERTY = "org.openidentityplatform.openam.log.async.queueSize";
+    /**
+     * System property for the maximum number of records written in a single batch.
+     */
+    static final String BATCH_SIZE_PROPERTY = "org.openidentityplatform.openam.log.async.batchSize";
+    /**
+     * System property for how long a publishing thread waits for space in a full queue, in milliseconds, before the
+     * record is dropped. A negative value waits forever.
+     */
+    static final String OFFER_TIMEOUT_PROPERTY = "org.openidentityplatform.openam.log.async.offerTimeout";
+    /**
+     * System property to sync the log file to disk after each batch.
+     */
+    static final String FSYNC_PROPERTY = "org.openidentityplatform.openam.log.async.fsync";
+    private static final int DEFAULT_QUEUE_SIZE = 8192;
+    private static final int DEFAULT_BATCH_SIZE = 256;
+    private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * Writes batches of records to the log file.
+     *
+     * @param <T> The type of the records.
+     */
+    interface Sink<T> {
+
+        /**
+         * Writes the records to the log file, in order.
+         *
+         * @param records The records to write.
+         */
+        void write(List<T> records);
+    }
+
+    private final String name;
+    private final LogRecordRingBuffer<T> buffer;
+    private final int batchSize;
+    private final long offerTimeoutMillis;
+    private final Object consumerLock;
+    private final Sink<T> sink;
+    private final SsoServerLoggingHdlrEntryImpl monitor;
+    private final Gauge queueDepth;
+    private final Counter backpressureCount;
+    private final List<T> batch;
+    private final Thread thread;
+    private final ShutdownListener shutdownListener = new ShutdownListener() {
+        @Override
+        public void shutdown() {
+            stop();
+        }
+    };
+    private volatile boolean running = true;
+    private volatile boolean idle = false;
+    private volatile long written = 0;
+    private boolean writing = false;
+
+    /**
+     * Creates a writer configured from the system properties.
+     *
+     * @param name The name of the log, used to name the writer thread.
+     * @param handlerName The name of the log handler, such as {@code File Handler}.
+     * @param consumerLock The lock held while writing a batch.
+     * @param sink Writes the batches.
+     * @param monitor Monitoring entry of the handler, may be null.
+     * @param <T> The type of the records.
+     * @return The writer, not yet started.
+     */
+    static <T> AsyncLogWriter<T> create(String name, String handlerName, Object consumerLock, Sink<T> sink,
+            SsoServerLoggingHdlrEntryImpl monitor) {
+        MetricsRegistry metrics = InjectorHolder.getInstance(MetricsRegistry.class);
+        return new AsyncLogWriter<>(name,
+                SystemProperties.getAsInt(QUEUE_SIZE_PROPERTY, DEFAULT_QUEUE_SIZE),
+                SystemProperties.getAsInt(BATCH_SIZE_PROPERTY, DEFAULT_BATCH_SIZE),
+                SystemProperties.getAsLong(OFFER_TIMEOUT_PROPERTY, -1),
+                consumerLock, sink, monitor,
+                metrics.gauge("openam_log_handler_queue_depth",
+                        "Log records queued by the asynchronous writer and not yet written",
+                        "handler", handlerName, "log", name),
+                metrics.counter("openam_log_handler_backpressure_total",
+                        "Log records which had to wait for space in the queue of the asynchronous writer",
+                        "handler", handlerName, "log", name));
+    }
+
+    /**
+     * Whether the file based log handlers should write asynchronously.
+     *
+     * @return <code>true</code> if asynchronous writes are enabled.
+     */
+    static boolean isEnabled() {
+        return SystemProperties.getAsBoolean(ENABLED_PROPERTY, false);
+    }
+
+    /**
+     * Whether the log files should be synced to disk after each batch.
+     *
+     * @return <code>true</code> if the log files should be synced.
+     */
+    static boolean isFsyncEnabled() {
+        return SystemProperties.getAsBoolean(FSYNC_PROPERTY, false);
+    }
+
+    AsyncLogWriter(String name, int queueSize, int batchSize, long offerTimeoutMillis, Object consumerLock,
+            Sink<T> sink, SsoServerLoggingHdlrEntryImpl monitor, Gauge queueDepth, Counter backpressureCount) {
+        this.name = name;
+        this.buffer = new LogRecordRingBuffer<>(queueSize);
+        this.batchSize = Math.max(batchSize, 1);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.consumerLock = consumerLock;
+        this.sink = sink;
+        this.monitor = monitor;
+        this.queueDepth = queueDepth;
+        this.backpressureCount = backpressureCount;
+        this.batch = new ArrayList<>(this.batchSize);
+        this.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runWriter();
+            }
+        }, "AsyncLogWriter-" + name);
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the writer thread.
+     */
+    void start() {
+        thread.start();
+        ShutdownManager.getInstance().addShutdownListener(shutdownListener, ShutdownPriority.LOWEST);
+    }
+
+    /**
+     * Queues a record to be written.
+     *
+     * @param record The record.
+     * @return <code>false</code> if the record was dropped because the queue stayed full or the writer is stopped.
+     */
+    boolean offer(T record) {
+        if (running && buffer.offer(record)) {
+            queued(1);
+            return true;
+        }
+        if (running) {
+            backpressure();
+            long deadline = offerTimeoutMillis < 0 ? Long.MAX_VALUE
+                    : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+            while (running && System.nanoTime() - deadline < 0) {
+                if (Thread.holdsLock(consumerLock)) {
+                    // the writer needs the lock this thread holds, so make room by writing on this thread
+                    drain();
+                } else {
+                    LockSupport.unpark(thread);
+                    LockSupport.parkNanos(BACKOFF_NANOS);
+                }
+                if (buffer.offer(record)) {
+                    queued(1);
+                    return true;
+                }
+            }
+        }
+        if (Debug.warningEnabled()) {
+            Debug.warning(name + ":AsyncLogWriter: dropping log record, queue is full or writer is stopped");
+        }
+        if (MonitoringUtil.isRunning() && monitor != null) {
+            monitor.incHandlerDroppedCount(1);
+        }
+        return false;
+    }
+
+    /**
+     * Waits until all the records queued before this call have been written.
+     */
+    void flush() {
+        long target = buffer.getOffered();
+        if (Thread.currentThread() == thread) {
+            return;
+        }
+        if (Thread.holdsLock(consumerLock) || !thread.isAlive()) {
+            drain();
+            return;
+        }
+        while (written < target && thread.isAlive()) {
+            LockSupport.unpark(thread);
+            LockSupport.parkNanos(BACKOFF_NANOS);
+        }
+        if (written < target) {
+            drain();
+        }
+    }
+
+    /**
+     * Writes all the queued records on the calling thread. Does nothing if called by the sink while it is writing a
+     * batch.
+     */
+    void drain() {
+        synchronized (consumerLock) {
+            if (writing) {
+                return;
+            }
+            while (writeBatch() > 0) {
+                // keep going until the buffer is empty
+            }
+        }
+    }
+
+    /**
+     * Writes the queued records and stops the writer thread.
+     */
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+        if (Thread.currentThread() != thread) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        drain();
+    }
+
+    /**
+     * Stops the writer and unregisters it from the shutdown manager.
+     */
+    void close() {
+        stop();
+        try {
+            ShutdownManager.getInstance().removeShutdownListener(shutdownListener);
+        } catch (IllegalMonitorStateException e) {
+            // already shutting down
+        }
+    }
+
+    /**
+     * Returns the number of records waiting to be written.
+     *
+     * @return The queue depth.
+     */
+    int getQueueDepth() {
+        return buffer.size();
+    }
+
+    private void runWriter() {
+        while (running) {
+            int count;
+            synchronized (consumerLock) {
+                count = writeBatch();
+            }
+            if (count == 0) {
+                idle = true;
+                if (running && buffer.size() == 0) {
+                    LockSupport.parkNanos(IDLE_WAIT_NANOS);
+                }
+                idle = false;
+            }
+        }
+        if (Debug.messageEnabled()) {
+            Debug.message(name + ":AsyncLogWriter: writer thread stopped");
+        }
+    }
+
+    /**
+     * Must be called while holding the consumer lock.
+     */
+    private int writeBatch() {
+        batch.clear();
+        int count = buffer.drainTo(batch, batchSize);
+        if (count > 0) {
+            writing = true;
+            try {
+                sink.write(batch);
+            } catch (RuntimeException e) {
+                Debug.error(name + ":AsyncLogWriter: could not write log records", e);
+                if (MonitoringUtil.isRunning() && monitor != null) {
+                    monitor.incHandlerFailureCount(count);
+                }
+            } finally {
+                writing = false;
+                batch.clear();
+                written += count;
+                queued(-count);
+            }
+        }
+        return count;
+    }
+
+    private void queued(int count) {
+        if (count > 0 && idle) {
+            LockSupport.unpark(thread);
+        }
+        queueDepth.add(count);
+    }
+
+    private void backpressure() {
+        backpressureCount.increment();
+    }
+}
@@ -45,6 +45,7 @@ import java.text.SimpleDateFormat;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Date;
+import java.util.List;
 import java.util.logging.Formatter;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
@@ -101,6 +102,8 @@ public class FileHandler extends java.util.logging.Handler {
     private static String headerString = null;
     private SsoServerLoggingSvcImpl logServiceImplForMonitoring = null;
     private SsoServerLoggingHdlrEntryImpl fileLogHandlerForMonitoring = null;
+    private AsyncLogWriter<String> asyncWriter = null;
+    private boolean fsyncEnabled = false;
 
     private int rotationInterval = -1;
     private long lastRotation;
@@ -115,10 +118,11 @@ public class FileHandler extends java.util.logging.Handler {
 
         OutputStream out;
         String filename = null;
+        FileOutputStream fout;
 
         MeteredStream(File fileName, boolean append) throws IOException {
             this.filename = fileName.toString();
-            FileOutputStream fout = new FileOutputStream(filename, append);
+            this.fout = new FileOutputStream(filename, append);
             this.out = StringUtils.endsWith(filename, ".gz")|StringUtils.endsWith(filename, ".gzip")?new GZIPOutputStream(fout,1*1024): new BufferedOutputStream(fout);
         }
 
@@ -163,6 +167,14 @@ public class FileHandler extends java.util.logging.Handler {
             out.flush();
         }
 
+        /**
+         * Forces the flushed content of the file to the storage device.
+         * @throws IOException if it fails to sync the file.
+         */
+        void sync() throws IOException {
+            fout.getChannel().force(false);
+        }
+
         /**
          * close the current output stream.
          * @throws IOException if it fails to close output stream.
@@ -387,10 +399,6 @@ public class FileHandler extends java.util.logging.Handler {
 
         recordBuffer = new LinkedList();
 
-        if (timeBufferingEnabled) {
-            startTimeBufferingThread();
-        }
-
         if (MonitoringUtil.isRunning()) {
             logServiceImplForMonitoring =
                 Agent.getLoggingSvcMBean();
@@ -398,6 +406,19 @@ public class FileHandler extends java.util.logging.Handler {
                 logServiceImplForMonitoring.getHandler(
                     SsoServerLoggingSvcImpl.FILE_HANDLER_NAME);
         }
+
+        if (writer != null && AsyncLogWriter.isEnabled()) {
+            fsyncEnabled = AsyncLogWriter.isFsyncEnabled();
+            asyncWriter = AsyncLogWriter.create(this.fileName, SsoServerLoggingSvcImpl.FILE_HANDLER_NAME, new Object(),
+                    new AsyncLogWriter.Sink<String>() {
+                        public void write(List<String> messages) {
+                            writeMessages(messages);
+                        }
+                    }, fileLogHandlerForMonitoring);
+            asyncWriter.start();
+        } else if (timeBufferingEnabled) {
+            startTimeBufferingThread();
+        }
     }
 
     private String wrapFilename(String fileName) {
@@ -447,6 +468,9 @@ public class FileHandler extends java.util.logging.Handler {
      * Flush any buffered messages and Close all the files.
      */
     public void close() {
+        if (asyncWriter != null) {
+            asyncWriter.close();
+        }
         flush();
         if (writer != null) {
             try {
@@ -481,6 +505,10 @@ public class FileHandler extends java.util.logging.Handler {
         }
         Formatter formatter = getFormatter();
         String message = formatter.format(lrecord);
+        if (asyncWriter != null) {
+            asyncWriter.offer(message);
+            return;
+        }
         synchronized (this) {        
             recordBuffer.add(message);
             if (recordBuffer.size() >= recCountLimit) {
@@ -529,6 +557,9 @@ public class FileHandler extends java.util.logging.Handler {
     }
 
     public void flush() {
+        if (asyncWriter != null) {
+            asyncWriter.flush();
+        }
         synchronized (this) {
             if (recordBuffer.size() <= 0) {
                 return;
@@ -566,11 +597,66 @@ public class FileHandler extends java.util.logging.Handler {
         }        
     }
 
+    /**
+     * Writes a batch of messages queued by the asynchronous writer, flushing
+     * (and optionally syncing) the file once for the whole batch.
+     */
+    private void writeMessages(List<String> messages) {
+        if (writer == null) {
+            Debug.error(fileName + ":FileHandler: Writer is null");
+            if (MonitoringUtil.isRunning() && fileLogHandlerForMonitoring !=
+                null) {
+                fileLogHandlerForMonitoring.incHandlerDroppedCount(
+                    messages.size());
+            }
+            return;
+        }
+        long pending = 0;
+        int success = 0;
+        for (String message : messages) {
+            if (needsRotation(message, pending)) {
+                rotate();
+                pending = 0;
+            }
+            try {
+                if (!headerWritten) {
+                    writer.write(getHeaderString());
+                    headerWritten = true;
+                }
+                writer.write(message);
+                pending += message.length();
+                success++;
+            } catch (IOException ex) {
+                Debug.error(fileName +
+                    ":FileHandler: could not write to file: ", ex);
+            }
+        }
+        cleanup();
+        if (fsyncEnabled) {
+            try {
+                meteredStream.sync();
+            } catch (IOException ex) {
+                Debug.error(fileName + ":FileHandler: could not sync file", ex);
+            }
+        }
+        if (MonitoringUtil.isRunning() && fileLogHandlerForMonitoring != null) {
+            fileLogHandlerForMonitoring.incHandlerSuccessCount(success);
+        }
+    }
+
     private boolean needsRotation(String message) {
+        return needsRotation(message, 0);
+    }
+
+    /**
+     * @param pending the length of the messages written but not yet flushed
+     * to the current file.
+     */
+    private boolean needsRotation(String message, long pending) {
         if (rotateEnabled) {
             if (rotatingBySize) {
                 if (!message.isEmpty()
-                        && new File(meteredStream.filename).length() >= maxFileSize
+                        && new File(meteredStream.filename).length() + pending >= maxFileSize
                                 - message.length()) {
                     return true;
                 }
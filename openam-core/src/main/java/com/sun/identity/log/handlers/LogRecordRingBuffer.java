@@ -0,0 +1,121 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package com.sun.identity.log.handlers;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded ring buffer which many threads can offer elements to without locking, and which a single thread at a time
+ * drains in batches.
+ * <p>
+ * Producers claim a sequence number with a compare-and-set on the tail and then publish their element into the slot
+ * for that sequence. The consumer takes elements in sequence order, stopping at the first slot that has been claimed
+ * but not yet published.
+ *
+ * @param <T> The type of the buffered elements.
+ */
+final class LogRecordRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    /**
+     * Creates a ring buffer holding at least the given number of elements.
+     *
+     * @param capacity The minimum capacity, rounded up to the next power of two.
+     */
+    LogRecordRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an element to the buffer, unless the buffer is full.
+     *
+     * @param element The non-null element to add.
+     * @return <code>true</code> if the element was added, <code>false</code> if the buffer is full.
+     */
+    boolean offer(T element) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head > mask) {
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+        slots.lazySet((int) (sequence & mask), element);
+        return true;
+    }
+
+    /**
+     * Moves up to <code>max</code> published elements from the buffer into the batch, in the order they were
+     * offered. Must only be called by one thread at a time.
+     *
+     * @param batch The list to add the elements to.
+     * @param max The maximum number of elements to move.
+     * @return The number of elements moved.
+     */
+    int drainTo(List<T> batch, int max) {
+        long sequence = head;
+        int count = 0;
+        while (count < max) {
+            int index = (int) (sequence & mask);
+            T element = slots.get(index);
+            if (element == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            batch.add(element);
+            sequence++;
+            count++;
+        }
+        head = sequence;
+        return count;
+    }
+
+    /**
+     * Returns the total number of elements that have been offered to the buffer since it was created.
+     *
+     * @return The sequence number of the next element offered.
+     */
+    long getOffered() {
+        return tail.get();
+    }
+
+    /**
+     * Returns the number of elements in the buffer, including those claimed but not yet published.
+     *
+     * @return The number of elements in the buffer.
+     */
+    int size() {
+        return (int) (tail.get() - head);
+    }
+
+    /**
+     * Returns the maximum number of elements in the buffer.
+     *
+     * @return The capacity of the buffer.
+     */
+    int capacity() {
+        return mask + 1;
+    }
+}
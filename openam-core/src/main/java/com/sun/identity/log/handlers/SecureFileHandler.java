@@ -45,6 +45,7 @@ import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.Vector;
@@ -97,6 +98,9 @@ public class SecureFileHandler extends java.util.logging.Handler {
     private OutputStream output;
     private Writer writer;
     private MeteredStream meteredStream;
+    private FileOutputStream fileOutput;
+    private AsyncLogWriter<LogRecord> asyncWriter = null;
+    private boolean fsyncEnabled = false;
     private static Hashtable archiverTable = new Hashtable();
     private static Map currentFileList = new HashMap();
     private static Hashtable helperTable = new Hashtable();
@@ -313,6 +317,7 @@ public class SecureFileHandler extends java.util.logging.Handler {
         int len = 0;
         len = (int)fileName.length();
         FileOutputStream fout = new FileOutputStream(fileName.toString(), true);
+        fileOutput = fout;
         
         BufferedOutputStream bout = new BufferedOutputStream(fout);
         meteredStream = new MeteredStream(bout, len);
@@ -362,13 +367,34 @@ public class SecureFileHandler extends java.util.logging.Handler {
 		logServiceImplForMonitoring.getHandler(
                     SsoServerLoggingSvcImpl.SECURE_FILE_HANDLER_NAME);
         }
-        
+
+        // Batches are formatted (which computes their MACs) and written
+        // holding only the handler lock, so that logging threads holding the
+        // logger lock just queue their records. The signer takes the handler
+        // lock as well as the logger lock to keep the writer out of the file.
+        if (writer != null && AsyncLogWriter.isEnabled()) {
+            fsyncEnabled = AsyncLogWriter.isFsyncEnabled();
+            asyncWriter = AsyncLogWriter.create(logName, SsoServerLoggingSvcImpl.SECURE_FILE_HANDLER_NAME, this,
+                    new AsyncLogWriter.Sink<LogRecord>() {
+                        public void write(List<LogRecord> records) {
+                            writeRecords(records);
+                        }
+                    }, sfLogHandlerForMonitoring);
+            asyncWriter.start();
+        }
     }
     
     /**
      * Flush any buffered messages.
      */
     public void flush() {
+        if (asyncWriter != null) {
+            asyncWriter.flush();
+        }
+        flushWriter();
+    }
+
+    private synchronized void flushWriter() {
         if (writer != null) {
             try {
                 writer.flush();
@@ -386,6 +412,9 @@ public class SecureFileHandler extends java.util.logging.Handler {
         if (Debug.messageEnabled()) {
             Debug.message(logName+":SecureFileHandler: close() called");
         }
+        if (asyncWriter != null) {
+            asyncWriter.close();
+        }
         flush();
         try {
             if (writer != null) {
@@ -419,15 +448,46 @@ public class SecureFileHandler extends java.util.logging.Handler {
      * beginning of the file.
      * @param lrecord the log record to be published.
      */
-    public synchronized void publish(LogRecord lrecord) {
+    public void publish(LogRecord lrecord) {
         if (MonitoringUtil.isRunning() && sfLogHandlerForMonitoring != null) {
             sfLogHandlerForMonitoring.incHandlerRequestCount(1);
         }
-        if (writer == null) {
-            Debug.warning(logName+":SecureFileHandler: Writer is null");
+        if (!isLoggable(lrecord)) {
             return;
         }
-        if (!isLoggable(lrecord)) {
+        if (asyncWriter != null) {
+            asyncWriter.offer(lrecord);
+            return;
+        }
+        write(lrecord, true);
+    }
+
+    /**
+     * Writes a batch of records queued by the asynchronous writer, flushing
+     * (and optionally syncing) the file once for the whole batch.
+     */
+    private synchronized void writeRecords(List<LogRecord> records) {
+        for (LogRecord lrecord : records) {
+            write(lrecord, false);
+        }
+        flushWriter();
+        if (fsyncEnabled && fileOutput != null) {
+            try {
+                fileOutput.getChannel().force(false);
+            } catch (IOException ex) {
+                Debug.error(logName +
+                    ":SecureFileHandler: could not sync file", ex);
+            }
+        }
+    }
+
+    /**
+     * Formats the record, which computes its MAC, and writes it to the file.
+     * Records must be written in the order they are formatted.
+     */
+    private synchronized void write(LogRecord lrecord, boolean flush) {
+        if (writer == null) {
+            Debug.warning(logName+":SecureFileHandler: Writer is null");
             return;
         }
         String message = "";
@@ -448,7 +508,9 @@ public class SecureFileHandler extends java.util.logging.Handler {
                 sfLogHandlerForMonitoring.incHandlerDroppedCount(1);
             }
         }
-        flush();
+        if (flush) {
+            flushWriter();
+        }
         // This flag is set only when the Verification is on and at that time
         // the last line for the logger is not set for the duration of the 
         // verification.
@@ -544,7 +606,7 @@ public class SecureFileHandler extends java.util.logging.Handler {
             Debug.error(logName +
                 ":SecureLogHelper: could not write signature to file", ioe);
         }
-        flush();
+        flushWriter();
         try {
             if (writer != null) {
                 writer.close();
@@ -583,7 +645,7 @@ public class SecureFileHandler extends java.util.logging.Handler {
             Debug.error(logName +
                 ":SecureFileHandler: could not write to file", ex);
         }
-        flush();
+        flushWriter();
     }
     
     private void checkForHeaderWritten(String fileName) {
@@ -1013,55 +1075,64 @@ public class SecureFileHandler extends java.util.logging.Handler {
             try {
                 Logger.rwLock.readRequest();
                 synchronized(logger) {
-                    try {
-                        String[][] result = LogReader.read(PREFIX + logName, 
-                                        new LogQuery(1), 
-                                        Token.createToken("Auditor", 
-                                        new String(logPassword.getChars())));
-                        if (!((result == null) || (result.length == 0))) {
-                            LogSign logSign = new LogSign(logName);
-                            int signPos=-1;
-                            String signFieldName = 
-                                        LogConstants.SIGNATURE_FIELDNAME;
-                            for(int j = 0; j < result[0].length; j++){
-                                if(result[0][j].equalsIgnoreCase(signFieldName)
-                                ) {
-                                    signPos = j;
-                                    break;
-                                }
-                            }
-                            if (signPos == -1) {
-                                Debug.error("Could not locate sign header");
-                                return;
+                    synchronized (SecureFileHandler.this) {
+                        try {
+                            if (asyncWriter != null) {
+                                // sign what has been logged so far
+                                asyncWriter.drain();
                             }
-                            // If last record was also a signature then don't 
-                            // generate a signature.
-                            if((result.length > 1) && 
-                               (result[1][signPos].trim().equals("-"))) {
-                                String signature = logSign.sign();
-                                if(!((signature == null) || 
-                                      signature.equals(""))){
-                                    com.sun.identity.log.LogRecord lr =
-                                    new com.sun.identity.log.LogRecord(
-                                            Level.SEVERE, "Signature");
-                                    ((com.sun.identity.log.LogRecord)lr).
-                                    addLogInfo(LogConstants.SIGNATURE_FIELDNAME,
-                                        signature);
-                                    publish(lr);
+                            String[][] result = LogReader.read(PREFIX + logName, 
+                                            new LogQuery(1), 
+                                            Token.createToken("Auditor", 
+                                            new String(logPassword.getChars())));
+                            if (!((result == null) || (result.length == 0))) {
+                                LogSign logSign = new LogSign(logName);
+                                int signPos=-1;
+                                String signFieldName = 
+                                            LogConstants.SIGNATURE_FIELDNAME;
+                                for(int j = 0; j < result[0].length; j++){
+                                    if(result[0][j].equalsIgnoreCase(signFieldName)
+                                    ) {
+                                        signPos = j;
+                                        break;
+                                    }
+                                }
+                                if (signPos == -1) {
+                                    Debug.error("Could not locate sign header");
+                                    return;
+                                }
+                                // If last record was also a signature then don't 
+                                // generate a signature.
+                                if((result.length > 1) && 
+                                   (result[1][signPos].trim().equals("-"))) {
+                                    String signature = logSign.sign();
+                                    if(!((signature == null) || 
+                                          signature.equals(""))){
+                                        com.sun.identity.log.LogRecord lr =
+                                        new com.sun.identity.log.LogRecord(
+                                                Level.SEVERE, "Signature");
+                                        ((com.sun.identity.log.LogRecord)lr).
+                                        addLogInfo(LogConstants.SIGNATURE_FIELDNAME,
+                                            signature);
+                                        publish(lr);
+                                        if (asyncWriter != null) {
+                                            asyncWriter.drain();
+                                        }
+                                    } else {
+                                        Debug.warning(logName+"Signature is Null");
+                                    }
                                 } else {
-                                    Debug.warning(logName+"Signature is Null");
+                                    Debug.message(logName +
+                                        ": Read returned only header or last " +
+                                        "record was a signature ");
                                 }
                             } else {
-                                Debug.message(logName +
-                                    ": Read returned only header or last " +
-                                    "record was a signature ");
+                                Debug.message(
+                                    logName + ": Read returned null records");
                             }
-                        } else {
-                            Debug.message(
-                                logName + ": Read returned null records");
+                        }catch (Exception e) {
+                            Debug.error(logName+":Error Writing Signature", e);
                         }
-                    }catch (Exception e) {
-                        Debug.error(logName+":Error Writing Signature", e);
                     }
                 }// End of synchronized Logger
             } finally {
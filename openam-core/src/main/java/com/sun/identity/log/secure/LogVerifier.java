@@ -229,6 +229,9 @@ public class LogVerifier{
         String[][] tmpResult = new String[1][1];
         Object token = new Object();
         synchronized(logger) {
+            // Write the records queued by an asynchronous handler, no more
+            // can be queued while the logger lock is held.
+            logger.flush();
             verificationOn = true;
             long start = currentTimeMillis();
             helper = SecureFileHandler.getSecureLogHelper(name);
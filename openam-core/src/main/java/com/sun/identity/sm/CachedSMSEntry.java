@@ -42,6 +42,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.google.common.collect.Ordering;
 import org.forgerock.opendj.ldap.DN;
@@ -71,8 +72,7 @@ public class CachedSMSEntry implements SMSEventListener {
     private final Set<SMSEntryUpdateListener> serviceObjects = new ConcurrentSkipListSet<>(Ordering.arbitrary());
     private final SMSEventListenerManager.Subscription subscription;
 
-    protected Set principals = Collections.synchronizedSet(
-        new HashSet(10)); // Principals who have read access
+    protected Set principals = ConcurrentHashMap.newKeySet(10); // Principals who have read access
 
     protected SSOToken token; // Valid SSOToken used for read
 
@@ -86,9 +86,17 @@ public class CachedSMSEntry implements SMSEventListener {
     private boolean valid;
     
     // Flag to determine if the cached entry is dirty and 
-    // must be refreshed along with the last update time & TTL
-    private boolean dirty;
-    private Object dirtyLock = new Object();
+    // must be refreshed along with the last update time & TTL.
+    // Readers only ever perform a volatile read, the lock serialises
+    // refreshes of the entry.
+    private volatile boolean dirty;
+    private final Object dirtyLock = new Object();
+
+    // Immutable copy of the attributes, replaced on every refresh
+    private volatile Snapshot snapshot;
+
+    // Set while a rebuild triggered by a notification is queued
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
     static boolean ttlEnabled;
     static long lastUpdate;
     static long ttl = 1800000;  // 30 minutes
@@ -106,7 +114,8 @@ public class CachedSMSEntry implements SMSEventListener {
 
         // Set the SMSEntry as read only
         smsEntry.setReadOnly();
-        
+        publishSnapshot();
+
         // Register for notifications
         subscription = SMSEventListenerManager.registerForNotifyChangesToNode(smsEntry.getDN(), this);
 
@@ -128,9 +137,7 @@ public class CachedSMSEntry implements SMSEventListener {
     public boolean isDirty() {
         if (ttlEnabled && !dirty &&
             ((currentTimeMillis() - lastUpdate) > ttl)) {
-            synchronized (dirtyLock) {
-                dirty = true;
-            }
+            dirty = true;
         }
         return dirty;
     }
@@ -145,8 +152,47 @@ public class CachedSMSEntry implements SMSEventListener {
             SMSEntry.debug.message("CachedSMSEntry: update "
                     + "method called: " + dn2Str );
         }
+        dirty = true;
+    }
+
+    /**
+     * Refreshes the entry only if it is still dirty once the refresh lock
+     * has been obtained, so that concurrent readers of a dirty entry cause
+     * a single read from the datastore.
+     */
+    void refreshIfDirty() {
+        if (!isDirty()) {
+            return;
+        }
         synchronized (dirtyLock) {
-            dirty = true;
+            if (dirty) {
+                refresh();
+            }
+        }
+    }
+
+    /**
+     * Marks the entry as dirty and queues a refresh on the
+     * <code>SMSThreadPool</code>, so that the attributes are read again
+     * outside of the request threads. Readers that get to the entry before
+     * the refresh has run will refresh it themselves.
+     */
+    private void scheduleRebuild() {
+        update();
+        if (!valid || !rebuildScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        boolean scheduled = SMSThreadPool.scheduleTask(new Runnable() {
+            @Override
+            public void run() {
+                rebuildScheduled.set(false);
+                if (valid) {
+                    refreshIfDirty();
+                }
+            }
+        });
+        if (!scheduled) {
+            rebuildScheduled.set(false);
         }
     }
     
@@ -161,9 +207,11 @@ public class CachedSMSEntry implements SMSEventListener {
                     + "method called: " + dn2Str );
             }
 
-            // Read the LDAP attributes and update listeners
+            // Read the LDAP attributes and update listeners. The flag is
+            // cleared before the read, so a change notified while the read
+            // is running marks the entry dirty again and is not lost.
             boolean updated = false;
-            dirty = true;
+            dirty = false;
             try {
                 SSOToken t = getValidSSOToken();
                 if (t != null) {
@@ -185,6 +233,7 @@ public class CachedSMSEntry implements SMSEventListener {
                 SMSEntry.debug.error("SSOToken problem in reading entry "
                     + "attributes: " + dn2Str, ssoe);
             }
+            publishSnapshot();
             if (!updated) {
                 // No valid SSOToken were foung
                 // this entry is no long valid, remove from cache
@@ -192,7 +241,6 @@ public class CachedSMSEntry implements SMSEventListener {
             }
 
             updateServiceListeners();
-            dirty = false;
         }
     }
     
@@ -204,9 +252,10 @@ public class CachedSMSEntry implements SMSEventListener {
      */
     void refresh(SMSEntry e) throws SMSException {
         synchronized (dirtyLock) {
+            dirty = false;
             smsEntry.refresh(e);
+            publishSnapshot();
             updateServiceListeners();
-            dirty = false;
         }
     }
     
@@ -227,9 +276,7 @@ public class CachedSMSEntry implements SMSEventListener {
         // this entry is no long valid, remove from cache
         subscription.cancel();
         valid = false;
-        synchronized(dirtyLock) {
-            dirty = true;
-        }
+        dirty = true;
         // Remove from cache
         if (removeFromCache) {
             smsEntries.remove(dnRFCStr);
@@ -241,18 +288,16 @@ public class CachedSMSEntry implements SMSEventListener {
         // Check if the cached SSOToken is valid
         if (!SMSEntry.tm.isValidToken(token)) {
             // Get a valid ssoToken from cached TokenIDs
-            synchronized (principals) {
-                for (Iterator items = principals.iterator(); items.hasNext();) {
-                    String tokenID = (String) items.next();
-                    try {
-                        token = SMSEntry.tm.createSSOToken(tokenID);
-                        if (SMSEntry.tm.isValidToken(token)) {
-                            break;
-                        }
-                    } catch (SSOException ssoe) {
-                        // SSOToken has expired, remove from list
-                        items.remove();
+            for (Iterator items = principals.iterator(); items.hasNext();) {
+                String tokenID = (String) items.next();
+                try {
+                    token = SMSEntry.tm.createSSOToken(tokenID);
+                    if (SMSEntry.tm.isValidToken(token)) {
+                        break;
                     }
+                } catch (SSOException ssoe) {
+                    // SSOToken has expired, remove from list
+                    items.remove();
                 }
             }
         }
@@ -263,6 +308,15 @@ public class CachedSMSEntry implements SMSEventListener {
         return (token);
     }
 
+    /**
+     * Replaces the snapshot with a copy of the current attributes of the
+     * SMSEntry. Must be called while holding <code>dirtyLock</code>, or
+     * from the constructor.
+     */
+    private void publishSnapshot() {
+        snapshot = Snapshot.of(SMSUtils.getAttrsFromEntry(smsEntry));
+    }
+
     /**
      * Sends notifications to any object that has added itself as a listener.
      */
@@ -296,8 +350,7 @@ public class CachedSMSEntry implements SMSEventListener {
         }
     }
 
-    synchronized void addPrincipal(SSOToken t) {
-        // Making a local copy to avoid synchronization problems
+    void addPrincipal(SSOToken t) {
         principals.add(t.getTokenID().toString());
     }
 
@@ -309,10 +362,17 @@ public class CachedSMSEntry implements SMSEventListener {
         return (smsEntry);
     }
 
+    /**
+     * Returns the attributes of the entry as of its last refresh. The
+     * snapshot is immutable and is replaced, never modified, when the entry
+     * is refreshed, hence can be read without any locking.
+     */
+    Snapshot getSnapshot() {
+        return snapshot;
+    }
+
     public SMSEntry getClonedSMSEntry() {
-        if (isDirty()) {
-            refresh();
-        }
+        refreshIfDirty();
         try {
             return ((SMSEntry) smsEntry.clone());
         } catch (CloneNotSupportedException c) {
@@ -322,9 +382,7 @@ public class CachedSMSEntry implements SMSEventListener {
     }
 
     boolean isNewEntry() {
-        if (isDirty()) {
-            refresh();
-        }
+        refreshIfDirty();
         return (smsEntry.isNewEntry());
     }
 
@@ -455,7 +513,39 @@ public class CachedSMSEntry implements SMSEventListener {
 
     @Override
     public void notifySMSEvent(DN dn, int event) {
-        update();
+        scheduleRebuild();
+    }
+
+    /**
+     * An immutable copy of the attributes of an SMS entry.
+     */
+    static final class Snapshot {
+
+        private final Map<String, Set<String>> attributes;
+
+        private Snapshot(Map<String, Set<String>> attributes) {
+            this.attributes = attributes;
+        }
+
+        /**
+         * Copies the given attributes, so later changes to them are not
+         * seen by readers of the snapshot.
+         */
+        static Snapshot of(Map<String, Set<String>> attributes) {
+            Map<String, Set<String>> copy = new HashMap<String, Set<String>>(attributes.size());
+            for (Entry<String, Set<String>> attribute : attributes.entrySet()) {
+                copy.put(attribute.getKey(),
+                        Collections.unmodifiableSet(new HashSet<String>(attribute.getValue())));
+            }
+            return new Snapshot(Collections.unmodifiableMap(copy));
+        }
+
+        /**
+         * Returns the unmodifiable attributes of the entry.
+         */
+        Map<String, Set<String>> getAttributes() {
+            return attributes;
+        }
     }
 
     /**
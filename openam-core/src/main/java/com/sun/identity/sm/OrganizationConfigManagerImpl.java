@@ -364,11 +364,12 @@ class OrganizationConfigManagerImpl implements SMSObjectListener {
     }
     
     boolean isValid() throws SMSException {
-        if ((smsEntry.isValid() && smsEntry.isDirty()) ||
-            ServiceManager.isCoexistenceMode()) {
+        if (ServiceManager.isCoexistenceMode()) {
             // If in co-exist mode, SMS will not get updates for org
             // hence have to update the SMSEntry
             smsEntry.refresh();
+        } else if (smsEntry.isValid()) {
+            smsEntry.refreshIfDirty();
         }
         // Check if the organization still exists
         if (smsEntry.isNewEntry()) {
@@ -80,9 +80,9 @@ class ServiceConfigImpl implements ServiceListener, CachedSMSEntry.SMSEntryUpdat
 
     private int priority;
 
-    private Map<String, Set<String>> attributes;
+    private volatile Map<String, Set<String>> attributes;
 
-    private Map<String, Set<String>> attributesWithoutDefaults;
+    private volatile Map<String, Set<String>> attributesWithoutDefaults;
 
     private CachedSMSEntry smsEntry;
 
@@ -337,8 +337,8 @@ class ServiceConfigImpl implements ServiceListener, CachedSMSEntry.SMSEntryUpdat
             return false;
         }
 
-        if (smsEntry.isValid() && smsEntry.isDirty()) {
-            smsEntry.refresh();
+        if (smsEntry.isValid()) {
+            smsEntry.refreshIfDirty();
         }
         return (smsEntry.isValid());
     }
@@ -405,9 +405,10 @@ class ServiceConfigImpl implements ServiceListener, CachedSMSEntry.SMSEntryUpdat
         // Get the SMSEntry
         SMSEntry entry = smsEntry.getSMSEntry();
 
-        // Read the attributes
-        Map<String, Set<String>> origAttributes = SMSUtils.getAttrsFromEntry(entry);
-        Map<String, Set<String>> origAttributesWithoutDefaults = SMSUtils.getAttrsFromEntry(entry);
+        // Read the attributes from the entry's snapshot
+        Map<String, Set<String>> snapshot = smsEntry.getSnapshot().getAttributes();
+        Map<String, Set<String>> origAttributes = SMSUtils.copyAttributes(snapshot);
+        Map<String, Set<String>> origAttributesWithoutDefaults = SMSUtils.copyAttributes(snapshot);
         // Add default values, if attribute not present
         // and decrypt password attributes
         String validate = ss.getValidate();
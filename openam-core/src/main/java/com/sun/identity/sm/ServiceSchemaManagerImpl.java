@@ -131,9 +131,7 @@ public class ServiceSchemaManagerImpl implements SMSObjectListener, CachedSMSEnt
     public boolean isValid() throws SMSException {
         // if cache is not valid, don't bother checking the rest
     	if (smsEntry.isValid()) {
-    	    if (smsEntry.isDirty()) {
-                smsEntry.refresh();
-            }
+    	    smsEntry.refreshIfDirty();
             // Check if entry exists i.e service name with version exists
             if (smsEntry.isNewEntry()) {
                 String[] msgs = { serviceName };
@@ -0,0 +1,283 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.blacklist;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnull;
+
+import org.forgerock.bloomfilter.BloomFilter;
+import org.forgerock.bloomfilter.BloomFilters;
+import org.forgerock.bloomfilter.ConcurrencyStrategy;
+import org.forgerock.util.Reject;
+import org.forgerock.util.annotations.VisibleForTesting;
+import org.forgerock.util.time.TimeService;
+
+import com.google.common.hash.Funnel;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.PrimitiveSink;
+import com.iplanet.am.util.SystemProperties;
+import com.sun.identity.shared.debug.Debug;
+
+/**
+ * A blacklist decorator which uses bloom filters to avoid checking the underlying blacklist for entries which have
+ * definitely not been blacklisted, and which partitions the entries into buckets by expiry time.
+ * <p/>
+ * Each bucket covers a fixed window of expiry times and has its own bloom filter. Once every entry in a bucket has
+ * expired, the whole bucket is dropped at once, so expired entries never need to be found and removed individually
+ * and no bloom filter ever needs to be rebuilt. Buckets are created and dropped without locking.
+ * <p/>
+ * An entry can only be in the bucket covering its own expiry time plus the purge delay, so a lookup probes the bloom
+ * filter of that one bucket. Neither the cost of a lookup nor its false positive rate depends on how many buckets are
+ * live. Only entries that might be blacklisted are checked against the underlying blacklist.
+ * <p/>
+ * The buckets are populated from the notifications of the underlying blacklist, which replays the existing
+ * blacklisted entries from the CTS when this blacklist subscribes, and then reports entries blacklisted on any
+ * server in the cluster.
+ *
+ * @param <T> The blacklist type.
+ */
+public final class BucketedBlacklist<T extends Blacklistable> implements Blacklist<T> {
+
+    /**
+     * System property setting the width, in milliseconds, of the expiry time window covered by each bucket.
+     */
+    public static final String BUCKET_WIDTH_PROPERTY = "org.forgerock.openam.blacklist.bucketWidth";
+
+    /**
+     * Default width of the expiry time window covered by each bucket.
+     */
+    public static final long DEFAULT_BUCKET_WIDTH_MS = 5 * 60 * 1000L;
+
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.001d; // 0.1%
+    private static final int NUM_EXPECTED_ENTRIES_PER_BUCKET = 1000;
+    private static final int CAPACITY_GROWTH_FACTOR = 2;
+    private static final double FALSE_POSITIVE_PROBABILITY_SCALE_FACTOR = 0.6d;
+
+    private static final Debug DEBUG = Debug.getInstance("blacklist");
+
+    private final ConcurrentNavigableMap<Long, Bucket> buckets = new ConcurrentSkipListMap<>();
+    private final AtomicLong nextPurgeTime = new AtomicLong(0);
+    private final Blacklist<T> delegate;
+    private final long purgeDelayMs;
+    private final long bucketWidthMs;
+    private final TimeService clock;
+
+    @VisibleForTesting
+    BucketedBlacklist(Blacklist<T> delegate, long purgeDelayMs, long bucketWidthMs, TimeService clock) {
+        Reject.ifNull(delegate, clock);
+        Reject.ifFalse(purgeDelayMs >= 0, "purgeDelayMs must be >= 0");
+        Reject.ifFalse(bucketWidthMs > 0, "bucketWidthMs must be > 0");
+        this.delegate = delegate;
+        this.purgeDelayMs = purgeDelayMs;
+        this.bucketWidthMs = bucketWidthMs;
+        this.clock = clock;
+
+        delegate.subscribe(new Listener() {
+            @Override
+            public void onBlacklisted(String id, long expiryTime) {
+                DEBUG.message("BucketedBlacklist: Blacklisting entry from event: {}", id);
+                add(id, expiryTime);
+            }
+        });
+    }
+
+    /**
+     * Creates the bucketed blacklist using the given delegate blacklist to confirm membership. The delegate must
+     * notify this blacklist of all blacklisted entries, including those blacklisted on other servers, to avoid
+     * false negatives. The expiry times notified by the delegate must include the purge delay. The bucket width is
+     * read from the {@link #BUCKET_WIDTH_PROPERTY} system property.
+     *
+     * @param delegate the definitive blacklist.
+     * @param purgeDelayMs the purge delay added by the delegate to the expiry time of each entry.
+     */
+    public BucketedBlacklist(Blacklist<T> delegate, long purgeDelayMs) {
+        this(delegate, purgeDelayMs, SystemProperties.getAsLong(BUCKET_WIDTH_PROPERTY, DEFAULT_BUCKET_WIDTH_MS),
+                TimeService.SYSTEM);
+    }
+
+    @Override
+    public void blacklist(T entry) throws BlacklistException {
+        // Just delegate - the event listener on the delegate will add the entry to its bucket
+        delegate.blacklist(entry);
+    }
+
+    @Override
+    public boolean isBlacklisted(T entry) throws BlacklistException {
+        DEBUG.message("BucketedBlacklist: checking blacklist");
+        purgeExpiredBuckets();
+        Bucket bucket = buckets.get(bucketIndex(entry.getBlacklistExpiryTime() + purgeDelayMs));
+        if (bucket != null && bucket.mightContain(entry.getStableStorageID())) {
+            return delegate.isBlacklisted(entry);
+        }
+        return false;
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        delegate.subscribe(listener);
+    }
+
+    /**
+     * Reports the number of entries and the estimated memory used by each live bucket.
+     *
+     * @return Statistics for each live bucket, ordered by expiry time.
+     */
+    public List<BucketStatistics> getBucketStatistics() {
+        List<BucketStatistics> statistics = new ArrayList<>(buckets.size());
+        for (Map.Entry<Long, Bucket> entry : buckets.entrySet()) {
+            long start = entry.getKey() * bucketWidthMs;
+            statistics.add(new BucketStatistics(start, start + bucketWidthMs, entry.getValue().size()));
+        }
+        return Collections.unmodifiableList(statistics);
+    }
+
+    private void add(String id, long expiryTime) {
+        if (expiryTime < clock.now()) {
+            return;
+        }
+        Long index = bucketIndex(expiryTime);
+        Bucket bucket = buckets.get(index);
+        if (bucket == null) {
+            Bucket created = new Bucket();
+            bucket = buckets.putIfAbsent(index, created);
+            if (bucket == null) {
+                bucket = created;
+            }
+        }
+        bucket.add(id);
+        purgeExpiredBuckets();
+    }
+
+    private long bucketIndex(long expiryTime) {
+        return expiryTime / bucketWidthMs;
+    }
+
+    /**
+     * Drops every bucket whose entries have all expired. At most one caller performs the purge in each bucket
+     * width; everyone else returns immediately.
+     */
+    private void purgeExpiredBuckets() {
+        long now = clock.now();
+        long next = nextPurgeTime.get();
+        if (now < next || !nextPurgeTime.compareAndSet(next, now + bucketWidthMs)) {
+            return;
+        }
+        // A bucket has expired when the end of its window has passed.
+        ConcurrentNavigableMap<Long, Bucket> expired = buckets.headMap(bucketIndex(now));
+        if (!expired.isEmpty() && DEBUG.messageEnabled()) {
+            DEBUG.message("BucketedBlacklist: Dropping {} expired buckets", expired.size());
+        }
+        expired.clear();
+    }
+
+    /**
+     * The entries which expire within one bucket width.
+     */
+    private static final class Bucket {
+        private final BloomFilter<String> filter = BloomFilters.create(IdFunnel.INSTANCE)
+                .withFalsePositiveProbability(FALSE_POSITIVE_PROBABILITY)
+                .withInitialCapacity(NUM_EXPECTED_ENTRIES_PER_BUCKET)
+                .withCapacityGrowthFactor(CAPACITY_GROWTH_FACTOR)
+                .withFalsePositiveProbabilityScaleFactor(FALSE_POSITIVE_PROBABILITY_SCALE_FACTOR)
+                .withConcurrencyStrategy(ConcurrencyStrategy.ATOMIC)
+                .build();
+        private final AtomicLong size = new AtomicLong(0);
+
+        void add(String id) {
+            filter.add(id);
+            size.incrementAndGet();
+        }
+
+        boolean mightContain(String id) {
+            return filter.mightContain(id);
+        }
+
+        long size() {
+            return size.get();
+        }
+    }
+
+    /**
+     * Adapter to allow stable ids to be stored in the bloom filters, using their UTF-8 encoded bytes.
+     */
+    private enum IdFunnel implements Funnel<String> {
+        INSTANCE;
+
+        private static final Funnel<CharSequence> UTF8FUNNEL = Funnels.stringFunnel(Charset.forName("UTF-8"));
+
+        @Override
+        public void funnel(@Nonnull String id, @Nonnull PrimitiveSink primitiveSink) {
+            UTF8FUNNEL.funnel(id, primitiveSink);
+        }
+    }
+
+    /**
+     * The size of a single bucket.
+     */
+    public static final class BucketStatistics {
+        private final long startTime;
+        private final long endTime;
+        private final long entries;
+
+        BucketStatistics(long startTime, long endTime, long entries) {
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.entries = entries;
+        }
+
+        /**
+         * @return The earliest expiry time (in milliseconds from UTC epoch) of entries in the bucket.
+         */
+        public long getStartTime() {
+            return startTime;
+        }
+
+        /**
+         * @return The time (in milliseconds from UTC epoch) after which the whole bucket is dropped.
+         */
+        public long getEndTime() {
+            return endTime;
+        }
+
+        /**
+         * @return The number of entries added to the bucket.
+         */
+        public long getEntries() {
+            return entries;
+        }
+
+        /**
+         * The memory used by the bucket's bloom filter, estimated from the number of entries and the false positive
+         * probability. The bloom filter grows in steps, so the actual memory used may be up to twice this.
+         *
+         * @return The estimated size in bytes.
+         */
+        public long getEstimatedMemoryBytes() {
+            long expected = Math.max(entries, NUM_EXPECTED_ENTRIES_PER_BUCKET);
+            double bits = -expected * Math.log(FALSE_POSITIVE_PROBABILITY) / (Math.log(2) * Math.log(2));
+            return (long) Math.ceil(bits / Byte.SIZE);
+        }
+    }
+}
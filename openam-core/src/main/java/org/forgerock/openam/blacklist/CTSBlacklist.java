@@ -66,7 +66,7 @@ import com.sun.identity.shared.debug.Debug;
  * In addition to blacklisting entries and checking the blacklist, this class also periodically polls the CTS for
  * blacklist changes made on other servers since the last check. This is used to send local notifications to
  * subscribed blacklist {@link Listener}s for <em>all</em> blacklist entries, not just local ones. This feature is
- * essential for correct operation of the {@link BloomFilterBlacklist}, which would otherwise report false
+ * essential for correct operation of the {@link BucketedBlacklist}, which would otherwise report false
  * negatives.
  *
  * @param <T> The blacklist type.
@@ -90,7 +90,7 @@ public class ConfigurableSessionBlacklist implements Blacklist<Session> {
         }
 
         if (pollIntervalMs > 0) {
-            blacklist = new BloomFilterBlacklist<>(blacklist, purgeDelayMs);
+            blacklist = new BucketedBlacklist<>(blacklist, purgeDelayMs);
         }
 
         this.delegate = blacklist;
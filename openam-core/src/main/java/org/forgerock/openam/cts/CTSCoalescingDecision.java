@@ -0,0 +1,35 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.cts;
+
+/**
+ * The decisions the CTS asynchronous queue can make when coalescing tasks for the same token before they are
+ * written to the persistent store.
+ *
+ * @see org.forgerock.openam.cts.impl.queue.TaskCoalescer
+ */
+public enum CTSCoalescingDecision {
+
+    /**
+     * A queued update was replaced by a newer update for the same token.
+     */
+    UPDATE_REPLACED,
+    /**
+     * A queued update was cancelled by a delete for the same token.
+     */
+    UPDATE_CANCELLED
+}
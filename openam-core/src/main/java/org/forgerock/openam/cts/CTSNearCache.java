@@ -0,0 +1,347 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.cts;
+
+import static org.forgerock.openam.cts.api.CTSOptions.OPTIMISTIC_CONCURRENCY_CHECK_OPTION;
+
+import java.text.MessageFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.forgerock.openam.cts.api.CoreTokenConstants;
+import org.forgerock.openam.cts.api.filter.TokenFilter;
+import org.forgerock.openam.cts.api.filter.TokenFilterBuilder;
+import org.forgerock.openam.cts.api.tokens.Token;
+import org.forgerock.openam.cts.continuous.ChangeType;
+import org.forgerock.openam.cts.continuous.ContinuousQueryListener;
+import org.forgerock.openam.cts.exceptions.CoreTokenException;
+import org.forgerock.openam.cts.impl.CoreTokenAdapter;
+import org.forgerock.openam.sm.datalayer.api.DataLayerException;
+import org.forgerock.openam.tokens.CoreTokenField;
+import org.forgerock.openam.utils.ConfigListener;
+import org.forgerock.opendj.ldap.Attribute;
+import org.forgerock.util.Options;
+import org.forgerock.util.annotations.VisibleForTesting;
+import org.forgerock.util.query.QueryFilter;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.sun.identity.shared.debug.Debug;
+
+/**
+ * An optional, bounded cache of Tokens which allows the {@link CTSPersistentStoreImpl} to serve reads without
+ * going to the store.
+ *
+ * Entries are populated by reads and by the results of synchronous creates and updates, which carry the ETag
+ * assigned by the store. They are invalidated by local writes and deletes, and by a continuous query over all
+ * Tokens which reports changes made by any server in the cluster. A change whose ETag matches the cached Token is
+ * the echo of a write this server has already cached, and is ignored. Every entry also expires after the configured
+ * staleness bound, which limits how long a change missed by the continuous query can be served.
+ *
+ * A read carrying an {@link org.forgerock.openam.cts.api.CTSOptions#OPTIMISTIC_CONCURRENCY_CHECK_OPTION} is only
+ * served from the cache if the cached ETag matches, as the assertion made by the store would then also succeed.
+ *
+ * The cache is disabled by default, see {@link CoreTokenConfig#isNearCacheEnabled()}. It is not used until the
+ * continuous query has been registered, and is disabled if the continuous query fails.
+ */
+@Singleton
+public class CTSNearCache implements ContinuousQueryListener<Attribute>, ConfigListener {
+
+    /**
+     * The continuous query used to invalidate the cache, which matches every Token.
+     */
+    static final TokenFilter INVALIDATION_FILTER = new TokenFilterBuilder()
+            .returnAttribute(CoreTokenField.TOKEN_ID)
+            .returnAttribute(CoreTokenField.ETAG)
+            .withQuery(QueryFilter.<CoreTokenField>alwaysTrue())
+            .build();
+
+    private static final int STRIPES = 64;
+
+    // Bumped on every invalidation, so that a read which raced with a change does not cache what it read.
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+    private final Object[] locks = newLocks();
+    private final CoreTokenAdapter adapter;
+    private final CoreTokenConfig config;
+    private final Debug debug;
+    private volatile Cache<String, Token> cache;
+    private volatile boolean listening = false;
+    private volatile boolean failed = false;
+
+    /**
+     * Creates a new near-cache, configured from the {@link CoreTokenConfig}.
+     *
+     * @param adapter Required to register the continuous query.
+     * @param config Required to determine whether the cache is enabled, its size and staleness bound.
+     * @param debug Required for debugging.
+     */
+    @Inject
+    public CTSNearCache(CoreTokenAdapter adapter, CoreTokenConfig config,
+            @Named(CoreTokenConstants.CTS_DEBUG) Debug debug) {
+        this.adapter = adapter;
+        this.config = config;
+        this.debug = debug;
+        configChanged();
+        config.addListener(this);
+    }
+
+    /**
+     * Rebuilds the cache from the current configuration, discarding any cached Tokens.
+     */
+    @Override
+    public synchronized void configChanged() {
+        if (!config.isNearCacheEnabled()) {
+            cache = null;
+            return;
+        }
+        cache = CacheBuilder.newBuilder()
+                .concurrencyLevel(16)
+                .maximumSize(config.getNearCacheSize())
+                .expireAfterWrite(config.getNearCacheStaleness(), TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        debug("Near-cache enabled, size {0}, staleness {1}ms",
+                String.valueOf(config.getNearCacheSize()), String.valueOf(config.getNearCacheStaleness()));
+    }
+
+    /**
+     * Returns a copy of the cached Token, if it can be used for a read with the given options.
+     *
+     * @param tokenId Non null Token ID.
+     * @param options Non null Options of the read.
+     * @return A copy of the cached Token, or null if the read must go to the store.
+     */
+    public Token get(String tokenId, Options options) {
+        Cache<String, Token> current = activeCache();
+        if (current == null) {
+            return null;
+        }
+        Token token = current.getIfPresent(tokenId);
+        if (token == null) {
+            return null;
+        }
+        String etag = options.get(OPTIMISTIC_CONCURRENCY_CHECK_OPTION);
+        if (etag != null && !etag.equals(token.getAttribute(CoreTokenField.ETAG))) {
+            return null;
+        }
+        return new Token(token);
+    }
+
+    /**
+     * Captures the version of a Token before it is read from the store, for use with
+     * {@link #cacheRead(Token, long)}.
+     *
+     * @param tokenId Non null Token ID.
+     * @return The current version.
+     */
+    public long version(String tokenId) {
+        return versions.get(stripe(tokenId));
+    }
+
+    /**
+     * Caches a Token read from the store, unless it has been invalidated since the read began.
+     *
+     * @param token Non null Token read from the store.
+     * @param version The version returned by {@link #version(String)} before the read.
+     */
+    public void cacheRead(Token token, long version) {
+        Cache<String, Token> current = activeCache();
+        if (current == null || token.getAttribute(CoreTokenField.ETAG) == null) {
+            return;
+        }
+        String tokenId = token.getTokenId();
+        Token copy = new Token(token);
+        synchronized (stripeLock(tokenId)) {
+            if (versions.get(stripe(tokenId)) == version) {
+                current.put(tokenId, copy);
+            }
+        }
+    }
+
+    /**
+     * Caches the result of a synchronous create or update, which carries the ETag assigned by the store.
+     *
+     * @param token The Token returned by the store, may be null.
+     */
+    public void cacheWrite(Token token) {
+        Cache<String, Token> current = activeCache();
+        if (current == null || token == null) {
+            return;
+        }
+        if (token.getAttribute(CoreTokenField.ETAG) == null) {
+            invalidate(token.getTokenId());
+            return;
+        }
+        String tokenId = token.getTokenId();
+        Token copy = new Token(token);
+        synchronized (stripeLock(tokenId)) {
+            versions.incrementAndGet(stripe(tokenId));
+            current.put(tokenId, copy);
+        }
+    }
+
+    /**
+     * Discards any cached copy of the Token.
+     *
+     * @param tokenId Non null Token ID.
+     */
+    public void invalidate(String tokenId) {
+        Cache<String, Token> current = cache;
+        synchronized (stripeLock(tokenId)) {
+            versions.incrementAndGet(stripe(tokenId));
+            if (current != null) {
+                current.invalidate(tokenId);
+            }
+        }
+    }
+
+    /**
+     * Discards all cached Tokens.
+     */
+    public void invalidateAll() {
+        Cache<String, Token> current = cache;
+        for (int ii = 0; ii < STRIPES; ii++) {
+            versions.incrementAndGet(ii);
+        }
+        if (current != null) {
+            current.invalidateAll();
+        }
+    }
+
+    /**
+     * @return The number of cached Tokens.
+     */
+    public long size() {
+        Cache<String, Token> current = cache;
+        return current == null ? 0 : current.size();
+    }
+
+    /**
+     * @return Hit, miss and eviction counts for the cache, all zero if the cache is disabled.
+     */
+    public CacheStats getStats() {
+        Cache<String, Token> current = cache;
+        return current == null ? new CacheStats(0, 0, 0, 0, 0, 0) : current.stats();
+    }
+
+    @Override
+    public void objectChanged(String tokenId, Map<String, Attribute> changeSet, ChangeType changeType) {
+        String id = getValue(changeSet, CoreTokenField.TOKEN_ID);
+        if (id == null) {
+            // Without the Token ID the change cannot be matched to an entry.
+            invalidateAll();
+            return;
+        }
+        if (changeType != ChangeType.DELETE) {
+            Cache<String, Token> current = cache;
+            Token cached = current == null ? null : current.getIfPresent(id);
+            String etag = getValue(changeSet, CoreTokenField.ETAG);
+            if (cached != null && etag != null && etag.equals(cached.getAttribute(CoreTokenField.ETAG))) {
+                return;
+            }
+        }
+        invalidate(id);
+    }
+
+    @Override
+    public void objectsChanged(Set<String> tokenIds) {
+        for (String tokenId : tokenIds) {
+            invalidate(tokenId);
+        }
+    }
+
+    @Override
+    public void connectionLost() {
+        debug("Continuous query connection lost, clearing near-cache");
+        invalidateAll();
+    }
+
+    @Override
+    public void processError(DataLayerException error) {
+        debug.error(CoreTokenConstants.DEBUG_HEADER + "Near-cache continuous query failed, near-cache disabled",
+                error);
+        failed = true;
+        invalidateAll();
+    }
+
+    /**
+     * @return The cache, or null if it is disabled or cannot be kept consistent.
+     */
+    private Cache<String, Token> activeCache() {
+        Cache<String, Token> current = cache;
+        if (current == null || failed) {
+            return null;
+        }
+        if (!listening) {
+            register();
+        }
+        return listening && !failed ? current : null;
+    }
+
+    private synchronized void register() {
+        if (listening || failed) {
+            return;
+        }
+        try {
+            adapter.continuousQuery(this, INVALIDATION_FILTER);
+            listening = true;
+            debug("Near-cache continuous query registered");
+        } catch (CoreTokenException e) {
+            debug.error(CoreTokenConstants.DEBUG_HEADER + "Unable to register near-cache continuous query", e);
+            failed = true;
+        }
+    }
+
+    @VisibleForTesting
+    boolean isListening() {
+        return listening;
+    }
+
+    private Object stripeLock(String tokenId) {
+        return locks[stripe(tokenId)];
+    }
+
+    private static Object[] newLocks() {
+        Object[] locks = new Object[STRIPES];
+        for (int ii = 0; ii < STRIPES; ii++) {
+            locks[ii] = new Object();
+        }
+        return locks;
+    }
+
+    private static int stripe(String tokenId) {
+        return (tokenId.hashCode() & Integer.MAX_VALUE) % STRIPES;
+    }
+
+    private static String getValue(Map<String, Attribute> changeSet, CoreTokenField field) {
+        Attribute attribute = changeSet.get(field.toString());
+        return attribute == null || attribute.isEmpty() ? null : attribute.firstValueAsString();
+    }
+
+    private void debug(String format, String... args) {
+        if (debug.messageEnabled()) {
+            debug.message(MessageFormat.format(CoreTokenConstants.DEBUG_HEADER + format, args));
+        }
+    }
+}
@@ -33,6 +33,8 @@ import org.forgerock.openam.cts.continuous.ContinuousQueryListener;
 import org.forgerock.openam.cts.exceptions.CoreTokenException;
 import org.forgerock.openam.cts.exceptions.DeleteFailedException;
 import org.forgerock.openam.cts.impl.CoreTokenAdapter;
+import org.forgerock.openam.monitoring.tracing.Span;
+import org.forgerock.openam.monitoring.tracing.Tracing;
 import org.forgerock.openam.sm.datalayer.api.ResultHandler;
 import org.forgerock.openam.sm.datalayer.api.query.PartialToken;
 import org.forgerock.openam.tokens.CoreTokenField;
@@ -45,6 +47,9 @@ import org.forgerock.util.Options;
  * related tasks.
  * This is detailed in the {@link CoreTokenAdapter} in more detail.
  *
+ * Reads may optionally be served by the {@link CTSNearCache}, which is kept up to date by the writes made through
+ * this store and by a continuous query for changes made elsewhere.
+ *
  * @see Token
  * @see CoreTokenAdapter
  */
@@ -52,17 +57,21 @@ import org.forgerock.util.Options;
 public class CTSPersistentStoreImpl implements CTSPersistentStore {
 
     private final CoreTokenAdapter adapter;
+    private final CTSNearCache nearCache;
     private final Debug debug;
 
     /**
      * Creates a default implementation of the CTSPersistentStoreImpl.
      *
      * @param adapter Required for CTS operations.
+     * @param nearCache Required to serve reads locally when enabled.
      * @param debug Required for debugging.
      */
     @Inject
-    public CTSPersistentStoreImpl(CoreTokenAdapter adapter, @Named(CoreTokenConstants.CTS_DEBUG) Debug debug) {
+    public CTSPersistentStoreImpl(CoreTokenAdapter adapter, CTSNearCache nearCache,
+            @Named(CoreTokenConstants.CTS_DEBUG) Debug debug) {
         this.adapter = adapter;
+        this.nearCache = nearCache;
         this.debug = debug;
     }
 
@@ -86,9 +95,18 @@ public class CTSPersistentStoreImpl implements CTSPersistentStore {
      */
     @Override
     public void create(Token token, Options options) throws CoreTokenException {
-        final ResultHandler<Token, CoreTokenException> createHandler = adapter.create(token, options);
-        createHandler.getResults();
-        debug("Token {0} created", token.getTokenId());
+        Span span = Tracing.start("cts.create");
+        try {
+            nearCache.invalidate(token.getTokenId());
+            final ResultHandler<Token, CoreTokenException> createHandler = adapter.create(token, options);
+            nearCache.cacheWrite(createHandler.getResults());
+            debug("Token {0} created", token.getTokenId());
+        } catch (CoreTokenException | RuntimeException e) {
+            span.setError(e);
+            throw e;
+        } finally {
+            span.end();
+        }
     }
 
     @Override
@@ -98,6 +116,7 @@ public class CTSPersistentStoreImpl implements CTSPersistentStore {
 
     @Override
     public void createAsync(Token token, Options options) throws CoreTokenException {
+        nearCache.invalidate(token.getTokenId());
         adapter.create(token, options);
         debug("Token {0} queued for creation", token.getTokenId());
     }
@@ -109,14 +128,31 @@ public class CTSPersistentStoreImpl implements CTSPersistentStore {
 
     @Override
     public Token read(String tokenId, Options options) throws CoreTokenException {
-        Token token = adapter.read(tokenId, options);
-        if (token == null) {
-            debug("Token {0} did not exist", tokenId);
-            return null;
-        }
+        Span span = Tracing.start("cts.read");
+        try {
+            Token token = nearCache.get(tokenId, options);
+            if (token != null) {
+                debug("Token {0} read from near-cache", tokenId);
+                span.setAttribute("cts.near_cache", "hit");
+                return token;
+            }
+
+            long version = nearCache.version(tokenId);
+            token = adapter.read(tokenId, options);
+            if (token == null) {
+                debug("Token {0} did not exist", tokenId);
+                return null;
+            }
 
-        debug("Token {0} read", tokenId);
-        return token;
+            debug("Token {0} read", tokenId);
+            nearCache.cacheRead(token, version);
+            return token;
+        } catch (CoreTokenException | RuntimeException e) {
+            span.setError(e);
+            throw e;
+        } finally {
+            span.end();
+        }
     }
 
     @Override
@@ -126,10 +162,19 @@ public class CTSPersistentStoreImpl implements CTSPersistentStore {
 
     @Override
     public void update(Token token, Options options) throws CoreTokenException {
-        final ResultHandler<Token, CoreTokenException> updateHandler = adapter.updateOrCreate(token, options);
-        //block until we get the results, and ignore non-exception results
-        updateHandler.getResults();
-        debug("Token {0} updated", token.getTokenId());
+        Span span = Tracing.start("cts.update");
+        try {
+            nearCache.invalidate(token.getTokenId());
+            final ResultHandler<Token, CoreTokenException> updateHandler = adapter.updateOrCreate(token, options);
+            //block until we get the results, and cache the token with its new etag
+            nearCache.cacheWrite(updateHandler.getResults());
+            debug("Token {0} updated", token.getTokenId());
+        } catch (CoreTokenException | RuntimeException e) {
+            span.setError(e);
+            throw e;
+        } finally {
+            span.end();
+        }
     }
 
     @Override
@@ -139,6 +184,7 @@ public class CTSPersistentStoreImpl implements CTSPersistentStore {
 
     @Override
     public void updateAsync(Token token, Options options) throws CoreTokenException {
+        nearCache.invalidate(token.getTokenId());
         adapter.updateOrCreate(token, options);
         debug("Token {0} queued for update", token.getTokenId());
     }
@@ -160,10 +206,19 @@ public class CTSPersistentStoreImpl implements CTSPersistentStore {
 
     @Override
     public void delete(String tokenId, Options options) throws CoreTokenException {
-        final ResultHandler<PartialToken, CoreTokenException> deleteHandler = adapter.delete(tokenId, options);
-        //block until we get the results, and ignore non-exception results
-        deleteHandler.getResults();
-        debug("Token {0} deleted", tokenId);
+        Span span = Tracing.start("cts.delete");
+        try {
+            nearCache.invalidate(tokenId);
+            final ResultHandler<PartialToken, CoreTokenException> deleteHandler = adapter.delete(tokenId, options);
+            //block until we get the results, and ignore non-exception results
+            deleteHandler.getResults();
+            debug("Token {0} deleted", tokenId);
+        } catch (CoreTokenException | RuntimeException e) {
+            span.setError(e);
+            throw e;
+        } finally {
+            span.end();
+        }
     }
 
     @Override
@@ -173,6 +228,7 @@ public class CTSPersistentStoreImpl implements CTSPersistentStore {
 
     @Override
     public void deleteAsync(String tokenId, Options options) throws CoreTokenException {
+        nearCache.invalidate(tokenId);
         adapter.delete(tokenId, options);
         debug("Token {0} queued for deletion", tokenId);
     }
@@ -237,14 +293,30 @@ public class CTSPersistentStoreImpl implements CTSPersistentStore {
 
     @Override
     public Collection<Token> query(TokenFilter tokenFilter) throws CoreTokenException {
-        debug("Query: {0}", tokenFilter.toString());
-        return adapter.query(tokenFilter);
+        Span span = Tracing.start("cts.query");
+        try {
+            debug("Query: {0}", tokenFilter.toString());
+            return adapter.query(tokenFilter);
+        } catch (CoreTokenException | RuntimeException e) {
+            span.setError(e);
+            throw e;
+        } finally {
+            span.end();
+        }
     }
 
     @Override
     public Collection<PartialToken> attributeQuery(TokenFilter tokenFilter) throws CoreTokenException {
-        debug("AttributeQuery: {0}", tokenFilter.toString());
-        return adapter.attributeQuery(tokenFilter);
+        Span span = Tracing.start("cts.attribute_query");
+        try {
+            debug("AttributeQuery: {0}", tokenFilter.toString());
+            return adapter.attributeQuery(tokenFilter);
+        } catch (CoreTokenException | RuntimeException e) {
+            span.setError(e);
+            throw e;
+        } finally {
+            span.end();
+        }
     }
 
     @Override
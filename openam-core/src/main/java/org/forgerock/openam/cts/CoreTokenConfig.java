@@ -47,6 +47,16 @@ public class CoreTokenConfig {
     private volatile int cleanupPageSize;
     private volatile int sleepInterval;
 
+    private volatile boolean reaperBatchEnabled;
+    private volatile int reaperMaxPageSize;
+    private volatile int reaperMaxConcurrency;
+    private volatile int reaperTargetLatency;
+    private volatile int reaperLiveRateThreshold;
+
+    private volatile boolean nearCacheEnabled;
+    private volatile int nearCacheSize;
+    private volatile int nearCacheStaleness;
+
     // Token Blob strategy flags
     private volatile boolean tokensEncrypted;
     private volatile boolean tokensCompressed;
@@ -69,7 +79,15 @@ public class CoreTokenConfig {
                 Constants.SESSION_REPOSITORY_ATTRIBUTE_NAME_COMPRESSION,
                 Constants.CORE_TOKEN_RESOURCE_ENABLED,
                 CLEANUP_PERIOD,
-                HEALTH_CHECK_PERIOD
+                HEALTH_CHECK_PERIOD,
+                CTS_REAPER_BATCH_ENABLED,
+                CTS_REAPER_BATCH_MAX_PAGE_SIZE,
+                CTS_REAPER_BATCH_MAX_CONCURRENCY,
+                CTS_REAPER_BATCH_TARGET_LATENCY,
+                CTS_REAPER_BATCH_LIVE_RATE_THRESHOLD,
+                CTS_NEAR_CACHE_ENABLED,
+                CTS_NEAR_CACHE_SIZE,
+                CTS_NEAR_CACHE_STALENESS
         };
         ConfigurationListener listener = new ConfigurationListener() {
             @Override
@@ -117,6 +135,19 @@ public class CoreTokenConfig {
         // Controls the size of pages requested for CTS Reaper
         cleanupPageSize = 1000;
 
+        // Controls pipelined deletion of expired tokens by the CTS Reaper
+        reaperBatchEnabled = SystemProperties.getAsBoolean(CTS_REAPER_BATCH_ENABLED);
+        reaperMaxPageSize = Math.max(cleanupPageSize,
+                SystemProperties.getAsInt(CTS_REAPER_BATCH_MAX_PAGE_SIZE, 10 * cleanupPageSize));
+        reaperMaxConcurrency = Math.max(1, SystemProperties.getAsInt(CTS_REAPER_BATCH_MAX_CONCURRENCY, 4));
+        reaperTargetLatency = Math.max(1, SystemProperties.getAsInt(CTS_REAPER_BATCH_TARGET_LATENCY, 2000));
+        reaperLiveRateThreshold = Math.max(0, SystemProperties.getAsInt(CTS_REAPER_BATCH_LIVE_RATE_THRESHOLD, 0));
+
+        // Controls the near-cache in front of CTS reads
+        nearCacheEnabled = SystemProperties.getAsBoolean(CTS_NEAR_CACHE_ENABLED);
+        nearCacheSize = Math.max(1, getSystemManagerPropertyAsInt(CTS_NEAR_CACHE_SIZE, 10000));
+        nearCacheStaleness = Math.max(1, getSystemManagerPropertyAsInt(CTS_NEAR_CACHE_STALENESS, 5000));
+
         // Whether or not use of the CoreTokenResource is enabled.
         coreTokenResourceEnabled = SystemProperties.getAsBoolean(Constants.CORE_TOKEN_RESOURCE_ENABLED);
     }
@@ -233,6 +264,62 @@ public class CoreTokenConfig {
         return cleanupPageSize;
     }
 
+    /**
+     * @return True if the CTS Reaper should pipeline its deletes and adapt its pace. False is the default.
+     */
+    public boolean isReaperBatchEnabled() {
+        return reaperBatchEnabled;
+    }
+
+    /**
+     * @return The largest page size the CTS Reaper may request when batch deletion is enabled.
+     */
+    public int getReaperMaxPageSize() {
+        return reaperMaxPageSize;
+    }
+
+    /**
+     * @return The largest number of pages of deletes the CTS Reaper may have outstanding at once.
+     */
+    public int getReaperMaxConcurrency() {
+        return reaperMaxConcurrency;
+    }
+
+    /**
+     * @return The time in milliseconds within which the CTS Reaper aims to complete a page of deletes.
+     */
+    public int getReaperTargetLatency() {
+        return reaperTargetLatency;
+    }
+
+    /**
+     * @return The live CTS operations per second above which the CTS Reaper backs off, or zero to ignore live load.
+     */
+    public int getReaperLiveRateThreshold() {
+        return reaperLiveRateThreshold;
+    }
+
+    /**
+     * @return True if CTS reads may be served from the local near-cache. False is the default.
+     */
+    public boolean isNearCacheEnabled() {
+        return nearCacheEnabled;
+    }
+
+    /**
+     * @return The maximum number of Tokens held in the CTS near-cache.
+     */
+    public int getNearCacheSize() {
+        return nearCacheSize;
+    }
+
+    /**
+     * @return The time in milliseconds after which a Token held in the CTS near-cache is read again from the store.
+     */
+    public int getNearCacheStaleness() {
+        return nearCacheStaleness;
+    }
+
     /**
      * Register a listener to be notified when {@link CoreTokenConfig} changes.
      *
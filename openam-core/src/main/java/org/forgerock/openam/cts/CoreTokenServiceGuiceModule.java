@@ -15,7 +15,8 @@
  */
 package org.forgerock.openam.cts;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 
@@ -28,6 +29,7 @@ import org.forgerock.openam.audit.context.AMExecutorServiceFactory;
 import org.forgerock.openam.core.guice.CTSObjectMapperProvider;
 import org.forgerock.openam.cts.api.CTSOptions;
 import org.forgerock.openam.cts.api.CoreTokenConstants;
+import org.forgerock.openam.cts.impl.CTSDataLayerConfiguration;
 import org.forgerock.openam.cts.impl.DeletePreReadOptionFunction;
 import org.forgerock.openam.cts.impl.ETagAssertionCTSOptionFunction;
 import org.forgerock.openam.cts.impl.LdapOptionFunction;
@@ -54,6 +56,7 @@ import org.forgerock.openam.sm.datalayer.api.DataLayer;
 import org.forgerock.openam.sm.datalayer.api.DataLayerConstants;
 import org.forgerock.openam.sm.datalayer.api.DataLayerException;
 import org.forgerock.openam.sm.datalayer.api.QueueConfiguration;
+import org.forgerock.openam.sm.datalayer.impl.ldap.LdapDataLayerConfiguration;
 import org.forgerock.util.Option;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -211,11 +214,16 @@ public class CoreTokenServiceGuiceModule extends PrivateModule {
     CTSWorkerTaskProvider getWorkerTaskProvider(
             @Named(CTSWorkerConstants.DELETE_ALL_MAX_EXPIRED) CTSWorkerTask deleteExpiredTokensTask,
             @Named(CTSWorkerConstants.MAX_SESSION_TIME_EXPIRED) CTSWorkerTask maxSessionTimeExpiredTask,
-            @Named(CTSWorkerConstants.SESSION_IDLE_TIME_EXPIRED) CTSWorkerTask sessionIdleTimeExpiredTask) {
-        return new CTSWorkerTaskProvider(Arrays.asList(
-                deleteExpiredTokensTask,
-                maxSessionTimeExpiredTask,
-                sessionIdleTimeExpiredTask));
+            @Named(CTSWorkerConstants.SESSION_IDLE_TIME_EXPIRED) CTSWorkerTask sessionIdleTimeExpiredTask,
+            @DataLayer(ConnectionType.CTS_EXPIRY_DATE_WORKER) LdapDataLayerConfiguration expiryDateConfiguration) {
+        List<CTSWorkerTask> tasks = new ArrayList<>();
+        if (!(expiryDateConfiguration instanceof CTSDataLayerConfiguration
+                && ((CTSDataLayerConfiguration) expiryDateConfiguration).isExpiryManagedByStore())) {
+            tasks.add(deleteExpiredTokensTask);
+        }
+        tasks.add(maxSessionTimeExpiredTask);
+        tasks.add(sessionIdleTimeExpiredTask);
+        return new CTSWorkerTaskProvider(tasks);
     }
 
     @Provides @Inject @Singleton
@@ -126,6 +126,64 @@ public final class CoreTokenConstants {
      */
     public static final String CTS_ASYNC_QUEUE_SIZE = "org.forgerock.services.cts.async.queue.size";
 
+    /**
+     * The asynchronous task executor implementation to use, either {@code series} or {@code workstealing}.
+     */
+    public static final String CTS_ASYNC_QUEUE_EXECUTOR = "org.forgerock.services.cts.async.queue.executor";
+
+    /**
+     * The maximum number of tasks a work stealing processor will drain from a token's queue in one pass.
+     */
+    public static final String CTS_ASYNC_QUEUE_BATCH_SIZE = "org.forgerock.services.cts.async.queue.batch.size";
+
+    /**
+     * Enable/disable coalescing of queued update and delete tasks for the same token.
+     */
+    public static final String CTS_ASYNC_QUEUE_COALESCE = "org.forgerock.services.cts.async.queue.coalesce";
+
+    /**
+     * Enable/disable pipelined, adaptively paced deletion of expired tokens by the CTS Reaper.
+     */
+    public static final String CTS_REAPER_BATCH_ENABLED = "org.forgerock.services.cts.reaper.batch.enabled";
+
+    /**
+     * The largest page of expired tokens the CTS Reaper will request when batch deletion is enabled.
+     */
+    public static final String CTS_REAPER_BATCH_MAX_PAGE_SIZE = "org.forgerock.services.cts.reaper.batch.maxPageSize";
+
+    /**
+     * The largest number of pages of deletes the CTS Reaper will have outstanding when batch deletion is enabled.
+     */
+    public static final String CTS_REAPER_BATCH_MAX_CONCURRENCY =
+            "org.forgerock.services.cts.reaper.batch.maxConcurrency";
+
+    /**
+     * The time in milliseconds within which the CTS Reaper aims to complete a page of deletes.
+     */
+    public static final String CTS_REAPER_BATCH_TARGET_LATENCY =
+            "org.forgerock.services.cts.reaper.batch.targetLatency";
+
+    /**
+     * The rate of live CTS operations per second above which the CTS Reaper backs off. Zero disables the check.
+     */
+    public static final String CTS_REAPER_BATCH_LIVE_RATE_THRESHOLD =
+            "org.forgerock.services.cts.reaper.batch.liveRateThreshold";
+
+    /**
+     * Enable/disable the near-cache which serves CTS reads locally.
+     */
+    public static final String CTS_NEAR_CACHE_ENABLED = "org.forgerock.services.cts.nearcache.enabled";
+
+    /**
+     * The maximum number of Tokens held in the CTS near-cache.
+     */
+    public static final String CTS_NEAR_CACHE_SIZE = "org.forgerock.services.cts.nearcache.size";
+
+    /**
+     * The time in milliseconds after which a Token in the CTS near-cache is always read again from the store.
+     */
+    public static final String CTS_NEAR_CACHE_STALENESS = "org.forgerock.services.cts.nearcache.staleness";
+
     /**
      * Binding constant for the CTS Jackson Object Mapper.
      */
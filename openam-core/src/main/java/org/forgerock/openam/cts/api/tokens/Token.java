@@ -155,6 +155,8 @@ public class Token {
      * This ensures that attributes that are not modelled at the Token level can still be
      * persisted.
      *
+     * The array is not copied, so callers must not modify it.
+     *
      * @return The the serialised binary object for this Token.
      */
     public byte[] getBlob() {
@@ -162,6 +164,8 @@ public class Token {
     }
 
     /**
+     * The array is held by reference rather than copied, so the caller must not modify it afterwards.
+     *
      * @param data Assign the binary data that represents the object being stored in the Token.
      */
     public void setBlob(byte[] data) {
@@ -272,6 +276,48 @@ public class Token {
         put(field, value);
     }
 
+    /**
+     * Accessor for the stored form of a single-valued, non-binary field, without decoding it.
+     *
+     * Dates are returned in LDAP Generalized Time format, integers as decimal strings and the
+     * Token Type as its enum name.
+     *
+     * @param field The CoreTokenField to request the value for.
+     * @return The encoded value which may be null.
+     * @throws IllegalArgumentException If the field is multi-valued or binary.
+     */
+    public String getEncodedAttribute(CoreTokenField field) {
+        validateEncodedField(field);
+        return (String) attributes.get(field.toString());
+    }
+
+    /**
+     * Mutator which stores a single-valued, non-binary field in its encoded form. The value is
+     * not parsed until it is first read through {@link #getAttribute(CoreTokenField)}, which
+     * allows a Token to be populated from storage without decoding fields nobody reads.
+     *
+     * @param field The CoreTokenField field to store the value against.
+     * @param value The possibly null value in the form described by {@link #getEncodedAttribute(CoreTokenField)}.
+     * @throws IllegalArgumentException If the field is read only, multi-valued or binary.
+     */
+    public void setEncodedAttribute(CoreTokenField field, String value) {
+        if (isFieldReadOnly(field)) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "Token Field {0} is read only and cannot be set.",
+                    field.toString()));
+        }
+        validateEncodedField(field);
+        attributes.put(field.toString(), value);
+    }
+
+    private static void validateEncodedField(CoreTokenField field) {
+        if (CoreTokenFieldTypes.isMulti(field) || CoreTokenFieldTypes.isByteArray(field)) {
+            throw new IllegalArgumentException(MessageFormat.format(
+                    "Token Field {0} does not have a single encoded form.",
+                    field.toString()));
+        }
+    }
+
     /**
      * Clear a set attribute.
      *
@@ -305,6 +351,9 @@ public class Token {
     private void put(CoreTokenField field, Object value) {
         if (CoreTokenFieldTypes.isMulti(field)) {
             putMulti(field, (Set) value);
+        } else if (CoreTokenFieldTypes.isByteArray(field)) {
+            // Held as is to avoid encoding the blob on every write, Jackson will Base64 encode it when required.
+            attributes.put(field.toString(), value);
         } else {
 
             String s;
@@ -314,8 +363,6 @@ public class Token {
                 s = ((TokenType) value).name();
             } else if (CoreTokenFieldTypes.isCalendar(field)) {
                 s = GeneralizedTime.valueOf((Calendar) value).toString();
-            } else if (CoreTokenFieldTypes.isByteArray(field)) {
-                s = Base64.encode((byte[]) value);
             } else if (CoreTokenFieldTypes.isInteger(field)) {
                 s = Integer.toString((Integer) value);
             } else {
@@ -338,7 +385,11 @@ public class Token {
         if (CoreTokenFieldTypes.isMulti(field)) {
             return getMulti(field);
         }
-        String s = (String) attributes.get(field.toString());
+        Object value = attributes.get(field.toString());
+        if (value instanceof byte[]) {
+            return value;
+        }
+        String s = (String) value;
         if (s == null) {
             return null;
         } else if (CoreTokenField.TOKEN_TYPE.equals(field)) {
@@ -346,6 +397,7 @@ public class Token {
         } else if (CoreTokenFieldTypes.isCalendar(field)) {
             return GeneralizedTime.valueOf(s).toCalendar();
         } else if (CoreTokenFieldTypes.isByteArray(field)) {
+            // Tokens deserialised from JSON hold the blob Base64 encoded.
             return Base64.decode(s);
         } else if (CoreTokenFieldTypes.isInteger(field)) {
             return Integer.parseInt(s);
@@ -22,12 +22,15 @@ import javax.inject.Inject;
 
 import org.forgerock.openam.cts.api.CoreTokenConstants;
 import org.forgerock.openam.cts.impl.queue.config.CTSQueueConfiguration;
+import org.forgerock.openam.cts.impl.queue.config.CTSTaskExecutorProvider;
 import org.forgerock.openam.cts.monitoring.CTSConnectionMonitoringStore;
 import org.forgerock.openam.cts.monitoring.impl.connections.MonitoredCTSConnectionFactory;
 import org.forgerock.openam.sm.datalayer.api.ConnectionFactory;
 import org.forgerock.openam.sm.datalayer.api.QueueConfiguration;
+import org.forgerock.openam.sm.datalayer.api.TaskExecutor;
 import org.forgerock.openam.sm.datalayer.impl.SeriesTaskExecutor;
 import org.forgerock.openam.sm.datalayer.impl.SeriesTaskExecutorThreadFactory;
+import org.forgerock.openam.sm.datalayer.impl.WorkStealingTaskExecutor;
 import org.forgerock.openam.sm.datalayer.providers.DataLayerConnectionFactoryCache;
 
 import com.google.inject.Key;
@@ -50,6 +53,13 @@ public class CTSAsyncConnectionModule extends CTSConnectionModule {
         super.configureTaskExecutor(binder);
     }
 
+    @Override
+    protected void bindTaskExecutor(PrivateBinder binder, Class<? extends TaskExecutor> executorType) {
+        binder.bind(SeriesTaskExecutor.class);
+        binder.bind(WorkStealingTaskExecutor.class);
+        binder.bind(TaskExecutor.class).toProvider(CTSTaskExecutorProvider.class);
+    }
+
     @Override
     protected Class<? extends javax.inject.Provider<ConnectionFactory>> getConnectionFactoryProviderType() {
         return CTSConnectionFactoryProvider.class;
@@ -63,6 +63,16 @@ public class CTSDataLayerConfiguration extends LdapDataLayerConfiguration {
         affinityEnabled.set(SystemProperties.getAsBoolean(CoreTokenConstants.CTS_STORE_AFFINITY_ENABLED, false));
     }
 
+    /**
+     * Whether the token store removes tokens itself once they have expired, in which case the CTS worker which
+     * deletes expired tokens is not started.
+     *
+     * @return False, LDAP token stores rely on the CTS worker to delete expired tokens.
+     */
+    public boolean isExpiryManagedByStore() {
+        return false;
+    }
+
     @Override
     protected DN setDefaultTokenDNPrefix(DN root) {
         return getTokenRootDN(root);
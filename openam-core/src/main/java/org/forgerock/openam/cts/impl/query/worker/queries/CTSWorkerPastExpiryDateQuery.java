@@ -22,6 +22,7 @@ import javax.inject.Inject;
 import java.util.Calendar;
 
 import org.forgerock.openam.cts.CoreTokenConfig;
+import org.forgerock.openam.cts.worker.process.CTSReaperPacing;
 import org.forgerock.openam.sm.datalayer.api.ConnectionFactory;
 import org.forgerock.openam.sm.datalayer.api.ConnectionType;
 import org.forgerock.openam.sm.datalayer.api.DataLayer;
@@ -40,16 +41,17 @@ import org.forgerock.util.query.QueryFilter;
 public class CTSWorkerPastExpiryDateQuery<C> extends CTSWorkerBaseQuery {
 
     private final QueryFactory<C, CoreTokenField> queryFactory;
-    private final int pageSize;
+    private final CTSReaperPacing pacing;
 
     @Inject
     public CTSWorkerPastExpiryDateQuery(@DataLayer(CTS_EXPIRY_DATE_WORKER) ConnectionFactory factory,
-            @DataLayer(CTS_EXPIRY_DATE_WORKER) QueryFactory queryFactory, CoreTokenConfig config) {
+            @DataLayer(CTS_EXPIRY_DATE_WORKER) QueryFactory queryFactory, CoreTokenConfig config,
+            CTSReaperPacing pacing) {
         super(factory);
         Reject.ifTrue(config.getCleanupPageSize() <= 0);
 
         this.queryFactory = queryFactory;
-        this.pageSize = config.getCleanupPageSize();
+        this.pacing = pacing;
     }
 
     @Override
@@ -60,7 +62,7 @@ public class CTSWorkerPastExpiryDateQuery<C> extends CTSWorkerBaseQuery {
 
         return queryFactory.createInstance()
                 .withFilter(filter.accept(queryFactory.createFilterConverter(), null))
-                .pageResultsBy(pageSize)
+                .pageResultsBy(pacing.getPageSize())
                 .returnTheseAttributes(CoreTokenField.TOKEN_ID);
     }
 
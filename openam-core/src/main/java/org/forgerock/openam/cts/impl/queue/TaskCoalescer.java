@@ -0,0 +1,397 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.cts.impl.queue;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.forgerock.openam.cts.CTSCoalescingDecision;
+import org.forgerock.openam.cts.api.CTSOptions;
+import org.forgerock.openam.cts.api.tokens.Token;
+import org.forgerock.openam.cts.exceptions.CoreTokenException;
+import org.forgerock.openam.cts.impl.queue.config.CTSQueueConfiguration;
+import org.forgerock.openam.cts.monitoring.CTSOperationsMonitoringStore;
+import org.forgerock.openam.sm.datalayer.api.AsyncTask;
+import org.forgerock.openam.sm.datalayer.api.AsyncTokenStorageAdapter;
+import org.forgerock.openam.sm.datalayer.api.DataLayerException;
+import org.forgerock.openam.sm.datalayer.api.ResultHandler;
+import org.forgerock.openam.sm.datalayer.api.Task;
+import org.forgerock.openam.sm.datalayer.api.TokenStorageAdapter;
+import org.forgerock.openam.sm.datalayer.api.query.PartialToken;
+import org.forgerock.openam.sm.datalayer.impl.tasks.TaskFactory;
+import org.forgerock.util.Options;
+import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.Promises;
+
+/**
+ * Coalesces update and delete tasks for the same token while they are waiting on the asynchronous queue, so that
+ * repeated changes to a token result in as few writes to the persistent store as possible.
+ *
+ * While an update for a token is still queued, a newer update for the same token replaces the token that will be
+ * written. Because an update always writes the complete token the end state of the store is unchanged. The callers
+ * of the replaced updates are notified with the result of the update that was written.
+ *
+ * A delete for a token cancels any update for the token that is still queued. The delete itself is always queued,
+ * as the token may already have been persisted. The callers of the cancelled update are notified once the delete
+ * has been performed: with the token they asked to write if the delete succeeded, or with the error of the delete
+ * if it failed.
+ *
+ * Updates and deletes which carry a {@link CTSOptions#OPTIMISTIC_CONCURRENCY_CHECK_OPTION} are never coalesced, as
+ * the assertion depends on the exact sequence of writes.
+ *
+ * @see org.forgerock.openam.cts.impl.queue.config.CTSQueueConfiguration#isCoalescingEnabled()
+ */
+@Singleton
+public class TaskCoalescer {
+
+    private final ConcurrentMap<String, PendingUpdate> pending = new ConcurrentHashMap<>();
+    private final CTSQueueConfiguration configuration;
+    private final CTSOperationsMonitoringStore monitoringStore;
+
+    /**
+     * @param configuration Required to determine whether coalescing is enabled.
+     * @param monitoringStore Required to record coalescing decisions.
+     */
+    @Inject
+    public TaskCoalescer(CTSQueueConfiguration configuration, CTSOperationsMonitoringStore monitoringStore) {
+        this.configuration = configuration;
+        this.monitoringStore = monitoringStore;
+    }
+
+    /**
+     * Attempts to merge the update into an update for the same token which is still queued.
+     *
+     * @param token Non null token to update.
+     * @param options Non null Options for the operation.
+     * @param handler Non null ResultHandler to notify.
+     * @return True if the update was merged and must not be queued, otherwise false.
+     */
+    public boolean replace(Token token, Options options, ResultHandler<Token, ?> handler) {
+        if (!configuration.isCoalescingEnabled() || isConditional(options)) {
+            return false;
+        }
+        PendingUpdate existing = pending.get(token.getTokenId());
+        if (existing != null && existing.replace(token, options, handler)) {
+            monitoringStore.addCoalescedOperation(CTSCoalescingDecision.UPDATE_REPLACED);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Creates the task to queue for an update which could not be merged into an existing update.
+     *
+     * Once the task has been successfully queued, {@link #register(String, Task)} must be called to allow later
+     * operations on the token to be coalesced with it.
+     *
+     * @param taskFactory Non null factory used to create the update task when the queued task is executed.
+     * @param token Non null token to update.
+     * @param options Non null Options for the operation.
+     * @param handler Non null ResultHandler to notify.
+     * @return Non null task to queue.
+     */
+    public Task update(TaskFactory taskFactory, Token token, Options options, ResultHandler<Token, ?> handler) {
+        if (!configuration.isCoalescingEnabled() || isConditional(options)) {
+            return taskFactory.update(token, options, handler);
+        }
+        return new PendingUpdate(taskFactory, token, options, handler);
+    }
+
+    /**
+     * Makes a queued update task available for coalescing.
+     *
+     * @param tokenId Non null Token ID of the update.
+     * @param task The task returned by {@link #update(TaskFactory, Token, Options, ResultHandler)}.
+     */
+    public void register(String tokenId, Task task) {
+        if (task instanceof PendingUpdate) {
+            ((PendingUpdate) task).register(tokenId);
+        }
+    }
+
+    /**
+     * Cancels any update for the token which is still queued, ahead of a delete for the token.
+     *
+     * The callers of a cancelled update are notified with the outcome of the delete, so the returned handler must
+     * be used for the delete task in place of the given handler.
+     *
+     * @param tokenId Non null Token ID being deleted.
+     * @param options Non null Options for the delete operation.
+     * @param handler Non null ResultHandler of the delete operation.
+     * @return Non null ResultHandler to use for the delete task. The given handler if no update was cancelled.
+     */
+    public ResultHandler<PartialToken, ?> cancel(String tokenId, Options options,
+            ResultHandler<PartialToken, ?> handler) {
+        if (!configuration.isCoalescingEnabled() || isConditional(options)) {
+            return handler;
+        }
+        PendingUpdate existing = pending.get(tokenId);
+        if (existing == null) {
+            return handler;
+        }
+        List<ResultHandler<Token, ?>> cancelled = existing.cancel();
+        if (cancelled.isEmpty()) {
+            return handler;
+        }
+        monitoringStore.addCoalescedOperation(CTSCoalescingDecision.UPDATE_CANCELLED);
+        return new CancellingDeleteResultHandler<>(handler, existing.token, cancelled);
+    }
+
+    /**
+     * Notifies the callers of an update cancelled by {@link #cancel} that the delete could not be queued. The caller
+     * of the delete is not notified, as the failure is thrown to it instead.
+     *
+     * @param deleteHandler The ResultHandler returned by {@link #cancel}.
+     * @param error The reason the delete could not be queued.
+     */
+    static void cancelFailed(ResultHandler<PartialToken, ?> deleteHandler, Exception error) {
+        if (deleteHandler instanceof CancellingDeleteResultHandler) {
+            ((CancellingDeleteResultHandler<?>) deleteHandler).processCancelledError(error);
+        }
+    }
+
+    private static boolean isConditional(Options options) {
+        return options.get(CTSOptions.OPTIMISTIC_CONCURRENCY_CHECK_OPTION) != null;
+    }
+
+    /**
+     * A queued update whose token may be replaced, or which may be cancelled, up until the point at which it is
+     * executed.
+     */
+    private final class PendingUpdate implements AsyncTask {
+        private final TaskFactory taskFactory;
+        private final List<ResultHandler<Token, ?>> handlers = new ArrayList<>();
+        private Token token;
+        private Options options;
+        private String tokenId;
+        private boolean taken = false;
+        private boolean cancelled = false;
+
+        private PendingUpdate(TaskFactory taskFactory, Token token, Options options, ResultHandler<Token, ?> handler) {
+            this.taskFactory = taskFactory;
+            this.token = token;
+            this.options = options;
+            this.handlers.add(handler);
+        }
+
+        private synchronized void register(String tokenId) {
+            if (!taken) {
+                this.tokenId = tokenId;
+                pending.putIfAbsent(tokenId, this);
+            }
+        }
+
+        private synchronized boolean replace(Token token, Options options, ResultHandler<Token, ?> handler) {
+            if (taken) {
+                return false;
+            }
+            this.token = token;
+            this.options = options;
+            this.handlers.add(handler);
+            return true;
+        }
+
+        /**
+         * Prevents the update from being performed.
+         *
+         * @return The handlers of the cancelled update, empty if the update has already been picked up.
+         */
+        private synchronized List<ResultHandler<Token, ?>> cancel() {
+            if (taken) {
+                return Collections.emptyList();
+            }
+            taken = true;
+            cancelled = true;
+            unregister();
+            return handlers;
+        }
+
+        /**
+         * Prevents any further coalescing, called once the task has been picked up for execution.
+         *
+         * @return False if the update has been cancelled and should not be performed.
+         */
+        private synchronized boolean take() {
+            if (cancelled) {
+                return false;
+            }
+            taken = true;
+            unregister();
+            return true;
+        }
+
+        private void unregister() {
+            if (tokenId != null) {
+                pending.remove(tokenId, this);
+            }
+        }
+
+        @Override
+        public void execute(TokenStorageAdapter adapter) throws DataLayerException {
+            if (take()) {
+                taskFactory.update(token, options, new CoalescedResultHandler(handlers, configuration))
+                        .execute(adapter);
+            }
+        }
+
+        @Override
+        public Promise<Void, DataLayerException> executeAsync(AsyncTokenStorageAdapter adapter) {
+            if (!take()) {
+                return Promises.newResultPromise(null);
+            }
+            Task update = taskFactory.update(token, options, new CoalescedResultHandler(handlers, configuration));
+            if (update instanceof AsyncTask) {
+                return ((AsyncTask) update).executeAsync(adapter);
+            }
+            try {
+                update.execute(adapter);
+                return Promises.newResultPromise(null);
+            } catch (DataLayerException e) {
+                return Promises.newExceptionPromise(e);
+            }
+        }
+
+        @Override
+        public void processError(DataLayerException error) {
+            if (take()) {
+                for (ResultHandler<Token, ?> handler : handlers) {
+                    handler.processError(error);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return MessageFormat.format("CoalescedUpdateTask: {0}", token.getTokenId());
+        }
+    }
+
+    /**
+     * Notifies the callers of every update that was coalesced into a single write.
+     *
+     * The outcome of the write is also retained so that it can be collected with {@link #getResults()}.
+     */
+    private static final class CoalescedResultHandler implements ResultHandler<Token, CoreTokenException> {
+        private final List<ResultHandler<Token, ?>> handlers;
+        private final CTSQueueConfiguration configuration;
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile Token result;
+        private volatile Exception error;
+
+        private CoalescedResultHandler(List<ResultHandler<Token, ?>> handlers,
+                CTSQueueConfiguration configuration) {
+            this.handlers = handlers;
+            this.configuration = configuration;
+        }
+
+        /**
+         * Blocking call to wait for the result of the coalesced write.
+         *
+         * @return {@inheritDoc}
+         * @throws CoreTokenException {@inheritDoc}
+         */
+        @Override
+        public Token getResults() throws CoreTokenException {
+            try {
+                if (!completed.await(configuration.getQueueTimeout(), TimeUnit.SECONDS)) {
+                    throw new CoreTokenException("Timed out whilst waiting for result");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CoreTokenException("Interrupted whilst waiting for a async operation", e);
+            }
+            if (error instanceof CoreTokenException) {
+                throw (CoreTokenException) error;
+            }
+            if (error != null) {
+                throw new CoreTokenException(error.getMessage(), error);
+            }
+            return result;
+        }
+
+        @Override
+        public void processResults(Token result) {
+            this.result = result;
+            completed.countDown();
+            for (ResultHandler<Token, ?> handler : handlers) {
+                handler.processResults(result);
+            }
+        }
+
+        @Override
+        public void processError(Exception error) {
+            this.error = error;
+            completed.countDown();
+            for (ResultHandler<Token, ?> handler : handlers) {
+                handler.processError(error);
+            }
+        }
+    }
+
+    /**
+     * Notifies the callers of the updates cancelled by a delete once the delete has been performed, as well as the
+     * caller of the delete itself.
+     */
+    private static final class CancellingDeleteResultHandler<E extends Exception>
+            implements ResultHandler<PartialToken, E> {
+        private final ResultHandler<PartialToken, E> delegate;
+        private final Token cancelledToken;
+        private final List<ResultHandler<Token, ?>> cancelled;
+
+        @SuppressWarnings("unchecked")
+        private CancellingDeleteResultHandler(ResultHandler<PartialToken, ?> delegate, Token cancelledToken,
+                List<ResultHandler<Token, ?>> cancelled) {
+            this.delegate = (ResultHandler<PartialToken, E>) delegate;
+            this.cancelledToken = cancelledToken;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        public PartialToken getResults() throws E {
+            return delegate.getResults();
+        }
+
+        @Override
+        public void processResults(PartialToken result) {
+            delegate.processResults(result);
+            for (ResultHandler<Token, ?> handler : cancelled) {
+                handler.processResults(cancelledToken);
+            }
+        }
+
+        @Override
+        public void processError(Exception error) {
+            delegate.processError(error);
+            processCancelledError(error);
+        }
+
+        private void processCancelledError(Exception error) {
+            for (ResultHandler<Token, ?> handler : cancelled) {
+                handler.processError(error);
+            }
+        }
+    }
+}
@@ -62,6 +62,7 @@ public class TaskDispatcher {
 
     private final TaskFactory taskFactory;
     private final TaskExecutor taskExecutor;
+    private final TaskCoalescer coalescer;
 
     /**
      * The usage of Promise here allows access to the result of the Task as it is executed.
@@ -73,12 +74,14 @@ public class TaskDispatcher {
      *
      * @param taskFactory Required to create Task instances.
      * @param taskExecutor Required for execution of the tasks.
+     * @param coalescer Required for coalescing queued update and delete tasks.
      */
     @Inject
     public TaskDispatcher(@DataLayer(ConnectionType.CTS_ASYNC) TaskFactory taskFactory,
-            @DataLayer(ConnectionType.CTS_ASYNC) TaskExecutor taskExecutor) {
+            @DataLayer(ConnectionType.CTS_ASYNC) TaskExecutor taskExecutor, TaskCoalescer coalescer) {
         this.taskFactory = taskFactory;
         this.taskExecutor = taskExecutor;
+        this.coalescer = coalescer;
         this.continuousQueries = new ConcurrentHashMap<>();
     }
 
@@ -141,6 +144,8 @@ public class TaskDispatcher {
     /**
      * The CTS Token to update in the persistent store.
      *
+     * If an update for the same Token ID is still queued, the queued update will be replaced with this one.
+     *
      * @see TaskDispatcher
      * @see org.forgerock.openam.cts.impl.queue.config.CTSQueueConfiguration#getQueueTimeout()
      *
@@ -152,8 +157,13 @@ public class TaskDispatcher {
      */
     public void update(Token token, Options options, ResultHandler<Token, ?> handler) throws CoreTokenException {
         Reject.ifNull(token, options, handler);
+        if (coalescer.replace(token, options, handler)) {
+            return;
+        }
         try {
-            taskExecutor.execute(token.getTokenId(), taskFactory.update(token, options, handler));
+            Task task = coalescer.update(taskFactory, token, options, handler);
+            taskExecutor.execute(token.getTokenId(), task);
+            coalescer.register(token.getTokenId(), task);
         } catch (DataLayerException e) {
             throw new CoreTokenException("Error in data layer", e);
         }
@@ -178,6 +188,9 @@ public class TaskDispatcher {
     /**
      * The Token ID, for a specific revision of the token, to delete from the persistent store.
      *
+     * Any update for the same Token ID that is still queued will be cancelled, and its callers notified with the
+     * outcome of the delete.
+     *
      * @see TaskDispatcher
      * @see org.forgerock.openam.cts.impl.queue.config.CTSQueueConfiguration#getQueueTimeout()
      *
@@ -190,9 +203,12 @@ public class TaskDispatcher {
      */
     public void delete(String tokenId, Options options, ResultHandler<PartialToken, ?> handler) throws CoreTokenException {
         Reject.ifNull(tokenId, options, handler);
+        ResultHandler<PartialToken, ?> deleteHandler = coalescer.cancel(tokenId, options, handler);
         try {
-            taskExecutor.execute(tokenId, taskFactory.delete(tokenId, options, handler));
+            taskExecutor.execute(tokenId, taskFactory.delete(tokenId, options, deleteHandler));
         } catch (DataLayerException e) {
+            // The callers of the cancelled update are otherwise never notified
+            TaskCoalescer.cancelFailed(deleteHandler, e);
             throw new CoreTokenException("Error in data layer", e);
         }
     }
@@ -41,6 +41,18 @@ import org.forgerock.openam.sm.exceptions.InvalidConfigurationException;
 public class CTSQueueConfiguration implements QueueConfiguration {
     public static final int DEFAULT_TIMEOUT = 15;
     public static final int DEFAULT_QUEUE_SIZE = 5000;
+    public static final int DEFAULT_BATCH_SIZE = 16;
+
+    /**
+     * The {@link org.forgerock.openam.sm.datalayer.api.TaskExecutor} implementations available to the
+     * CTS asynchronous queue.
+     */
+    public enum ExecutorType {
+        /** One fixed queue and processor per token hash, see {@code SeriesTaskExecutor}. */
+        SERIES,
+        /** Per token task chains which idle processors may steal, see {@code WorkStealingTaskExecutor}. */
+        WORKSTEALING
+    }
 
     private final ConnectionConfigFactory dataLayerConfig;
     private final Debug debug;
@@ -84,6 +96,49 @@ public class CTSQueueConfiguration implements QueueConfiguration {
         return queueSize;
     }
 
+    /**
+     * The task executor implementation that should be used for the CTS asynchronous queue.
+     *
+     * @return Non null executor type. Default is {@link ExecutorType#SERIES}.
+     */
+    public ExecutorType getExecutorType() {
+        String value = SystemProperties.get(CoreTokenConstants.CTS_ASYNC_QUEUE_EXECUTOR);
+        if (value == null || value.trim().isEmpty()) {
+            return ExecutorType.SERIES;
+        }
+        try {
+            return ExecutorType.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            debug("Executor type {0} was invalid, using default {1}", value, ExecutorType.SERIES);
+            return ExecutorType.SERIES;
+        }
+    }
+
+    /**
+     * The maximum number of tasks for a single token that a processor will take in one pass
+     * before giving other tokens a turn.
+     *
+     * @return A positive batch size. Default is {@link #DEFAULT_BATCH_SIZE}.
+     */
+    public int getBatchSize() {
+        int batchSize = SystemProperties.getAsInt(CoreTokenConstants.CTS_ASYNC_QUEUE_BATCH_SIZE, DEFAULT_BATCH_SIZE);
+        if (batchSize <= 0) {
+            debug("Batch size {0} was invalid, using default {1}", batchSize, DEFAULT_BATCH_SIZE);
+            return DEFAULT_BATCH_SIZE;
+        }
+        return batchSize;
+    }
+
+    /**
+     * Whether updates queued for a token may be replaced by a newer update, or cancelled by a delete, for the
+     * same token before they reach the persistent store.
+     *
+     * @return True if coalescing is enabled. Default is true.
+     */
+    public boolean isCoalescingEnabled() {
+        return SystemProperties.getAsBoolean(CoreTokenConstants.CTS_ASYNC_QUEUE_COALESCE, true);
+    }
+
     @Override
     public int getProcessors() throws DataLayerException {
         try {
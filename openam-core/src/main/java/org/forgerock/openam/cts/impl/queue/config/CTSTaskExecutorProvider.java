@@ -0,0 +1,59 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.cts.impl.queue.config;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+
+import org.forgerock.openam.sm.datalayer.api.TaskExecutor;
+import org.forgerock.openam.sm.datalayer.impl.SeriesTaskExecutor;
+import org.forgerock.openam.sm.datalayer.impl.WorkStealingTaskExecutor;
+
+/**
+ * Provides the CTS asynchronous {@link TaskExecutor} implementation selected by
+ * {@link CTSQueueConfiguration#getExecutorType()}.
+ */
+public class CTSTaskExecutorProvider implements Provider<TaskExecutor> {
+
+    private final CTSQueueConfiguration configuration;
+    private final Provider<SeriesTaskExecutor> seriesProvider;
+    private final Provider<WorkStealingTaskExecutor> workStealingProvider;
+
+    /**
+     * @param configuration Required to determine which executor to use.
+     * @param seriesProvider Provides the default series executor.
+     * @param workStealingProvider Provides the work stealing executor.
+     */
+    @Inject
+    public CTSTaskExecutorProvider(CTSQueueConfiguration configuration,
+            Provider<SeriesTaskExecutor> seriesProvider,
+            Provider<WorkStealingTaskExecutor> workStealingProvider) {
+        this.configuration = configuration;
+        this.seriesProvider = seriesProvider;
+        this.workStealingProvider = workStealingProvider;
+    }
+
+    @Override
+    public TaskExecutor get() {
+        switch (configuration.getExecutorType()) {
+            case WORKSTEALING:
+                return workStealingProvider.get();
+            default:
+                return seriesProvider.get();
+        }
+    }
+}
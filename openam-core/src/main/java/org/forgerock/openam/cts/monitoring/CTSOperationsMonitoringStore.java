@@ -16,6 +16,7 @@
 
 package org.forgerock.openam.cts.monitoring;
 
+import org.forgerock.openam.cts.CTSCoalescingDecision;
 import org.forgerock.openam.cts.CTSOperation;
 import org.forgerock.openam.tokens.TokenType;
 import org.forgerock.openam.cts.api.tokens.Token;
@@ -141,4 +142,19 @@ public interface CTSOperationsMonitoringStore {
      * @return the maximum observed failure rate of the given operation in the current monitoring period.
      */
     long getMaximumOperationFailuresPerPeriod(CTSOperation operation);
+
+    /**
+     * Records that the CTS asynchronous queue coalesced a task rather than sending it to the persistent store.
+     *
+     * @param decision The coalescing decision that was made.
+     */
+    void addCoalescedOperation(CTSCoalescingDecision decision);
+
+    /**
+     * Gets the cumulative count of the given coalescing decision since server startup.
+     *
+     * @param decision The coalescing decision to get the count for.
+     * @return The total number of times the decision has been made since server startup.
+     */
+    long getCoalescedOperationsCumulativeCount(CTSCoalescingDecision decision);
 }
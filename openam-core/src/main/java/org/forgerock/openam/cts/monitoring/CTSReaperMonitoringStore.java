@@ -41,4 +41,33 @@ public interface CTSReaperMonitoringStore {
      * @return The rate of session deletion by the CTS Reaper.
      */
     double getRateOfDeletedSessions();
+
+    /**
+     * Records that the CTS Reaper has queued a page of expired tokens for deletion.
+     *
+     * @param count The number of tokens queued.
+     */
+    void addQueuedReaperDeletes(long count);
+
+    /**
+     * Records that a page of deletes queued by the CTS Reaper has completed.
+     *
+     * @param count The number of tokens in the page.
+     * @param latency The time in milliseconds between the page being queued and its last delete completing.
+     */
+    void addCompletedReaperDeletes(long count, long latency);
+
+    /**
+     * Gets the number of expired tokens the CTS Reaper has queued for deletion which have not yet been deleted.
+     *
+     * @return The current reaper backlog.
+     */
+    long getReaperBacklog();
+
+    /**
+     * Gets the recent rate at which the CTS Reaper has been deleting tokens.
+     *
+     * @return Tokens deleted per second, averaged over recently completed pages.
+     */
+    double getReaperThroughput();
 }
@@ -17,6 +17,7 @@
 package org.forgerock.openam.cts.monitoring.impl;
 
 import com.sun.identity.shared.debug.Debug;
+import org.forgerock.openam.cts.CTSCoalescingDecision;
 import org.forgerock.openam.cts.CTSOperation;
 import org.forgerock.openam.cts.api.CoreTokenConstants;
 import org.forgerock.openam.tokens.TokenType;
@@ -25,6 +26,7 @@ import org.forgerock.openam.cts.monitoring.CTSConnectionMonitoringStore;
 import org.forgerock.openam.cts.monitoring.CTSOperationsMonitoringStore;
 import org.forgerock.openam.cts.monitoring.CTSReaperMonitoringStore;
 import org.forgerock.openam.cts.monitoring.impl.connections.ConnectionStore;
+import org.forgerock.openam.cts.monitoring.impl.operations.CoalescingStore;
 import org.forgerock.openam.cts.monitoring.impl.operations.TokenOperationsStore;
 import org.forgerock.openam.cts.monitoring.impl.reaper.ReaperMonitor;
 
@@ -56,6 +58,7 @@ public class CTSMonitoringStoreImpl implements CTSOperationsMonitoringStore, CTS
     private final ExecutorService executorService;
     private final ReaperMonitor reaperMonitor;
     private final ConnectionStore connectionStore;
+    private final CoalescingStore coalescingStore;
 
     /**
      * Constructs an instance of the CTSMonitoringStoreImpl.
@@ -64,18 +67,22 @@ public class CTSMonitoringStoreImpl implements CTSOperationsMonitoringStore, CTS
      * @param executorService An instance of an ExecutorService.
      * @param tokenOperationsStore An instance of the TokenOperationsStore.
      * @param reaperMonitor An instance of the ReaperMonitor.
+     * @param connectionStore An instance of the ConnectionStore.
+     * @param coalescingStore An instance of the CoalescingStore.
      */
     @Inject
     public CTSMonitoringStoreImpl(@Named(EXECUTOR_BINDING_NAME) final ExecutorService executorService,
                                   final TokenOperationsStore tokenOperationsStore,
                                   final ReaperMonitor reaperMonitor,
                                   final ConnectionStore connectionStore,
+                                  final CoalescingStore coalescingStore,
                                   @Named(CoreTokenConstants.CTS_DEBUG) final Debug debug) {
         this.debug = debug;
         this.executorService = executorService;
         this.tokenOperationsStore = tokenOperationsStore;
         this.reaperMonitor = reaperMonitor;
         this.connectionStore = connectionStore;
+        this.coalescingStore = coalescingStore;
     }
 
     /**
@@ -190,6 +197,16 @@ public class CTSMonitoringStoreImpl implements CTSOperationsMonitoringStore, CTS
         return tokenOperationsStore.getMaximumOperationFailuresPerPeriod(operation);
     }
 
+    @Override
+    public void addCoalescedOperation(CTSCoalescingDecision decision) {
+        coalescingStore.add(decision);
+    }
+
+    @Override
+    public long getCoalescedOperationsCumulativeCount(CTSCoalescingDecision decision) {
+        return coalescingStore.getCumulativeCount(decision);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -206,6 +223,26 @@ public class CTSMonitoringStoreImpl implements CTSOperationsMonitoringStore, CTS
         return reaperMonitor.getRateOfDeletion();
     }
 
+    @Override
+    public void addQueuedReaperDeletes(long count) {
+        reaperMonitor.addQueued(count);
+    }
+
+    @Override
+    public void addCompletedReaperDeletes(long count, long latency) {
+        reaperMonitor.addCompleted(count, latency);
+    }
+
+    @Override
+    public long getReaperBacklog() {
+        return reaperMonitor.getBacklog();
+    }
+
+    @Override
+    public double getReaperThroughput() {
+        return reaperMonitor.getThroughput();
+    }
+
     @Override
     public void addConnection(boolean success) {
         connectionStore.addConnection(success);
@@ -0,0 +1,63 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.cts.monitoring.impl.operations;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Singleton;
+
+import org.forgerock.openam.cts.CTSCoalescingDecision;
+
+/**
+ * An internal data structure for the CTSOperationsMonitoringStore to store the cumulative count of each
+ * {@link CTSCoalescingDecision} made by the CTS asynchronous queue.
+ */
+@Singleton
+public class CoalescingStore {
+
+    private final Map<CTSCoalescingDecision, AtomicLong> counts = new EnumMap<>(CTSCoalescingDecision.class);
+
+    /**
+     * Constructs a new instance of the CoalescingStore.
+     */
+    public CoalescingStore() {
+        for (CTSCoalescingDecision decision : CTSCoalescingDecision.values()) {
+            counts.put(decision, new AtomicLong());
+        }
+    }
+
+    /**
+     * Records a coalescing decision.
+     *
+     * @param decision The decision that was made.
+     */
+    public void add(CTSCoalescingDecision decision) {
+        counts.get(decision).incrementAndGet();
+    }
+
+    /**
+     * Gets the cumulative count of the given decision since server startup.
+     *
+     * @param decision The decision to get the count for.
+     * @return The number of times the decision has been made.
+     */
+    public long getCumulativeCount(CTSCoalescingDecision decision) {
+        return counts.get(decision).get();
+    }
+}
@@ -17,6 +17,8 @@ package org.forgerock.openam.cts.monitoring.impl.queue;
 
 import org.forgerock.openam.cts.CTSOperation;
 import org.forgerock.openam.cts.monitoring.CTSOperationsMonitoringStore;
+import org.forgerock.openam.monitoring.metrics.Counter;
+import org.forgerock.openam.monitoring.metrics.Timer;
 import org.forgerock.openam.sm.datalayer.api.ResultHandler;
 
 /**
@@ -28,6 +30,9 @@ public class DefaultMonitoringResultHandler<T, E extends Exception> implements R
     private final ResultHandler<T, E> handler;
     private final CTSOperationsMonitoringStore store;
     private final CTSOperation operation;
+    private final Timer timer;
+    private final Counter failures;
+    private final long startNanos;
 
     /**
      * @param handler The result handler being wrapped.
@@ -35,9 +40,24 @@ public class DefaultMonitoringResultHandler<T, E extends Exception> implements R
      * @param operation The CTS Operation to report to the store.
      */
     public DefaultMonitoringResultHandler(ResultHandler<T, E> handler, CTSOperationsMonitoringStore store, CTSOperation operation) {
+        this(handler, store, operation, null, null);
+    }
+
+    /**
+     * @param handler The result handler being wrapped.
+     * @param store The monitoring store to notify.
+     * @param operation The CTS Operation to report to the store.
+     * @param timer Timer to record the latency of the operation with, from now until it completes. May be null.
+     * @param failures Counter of failed operations. May be null.
+     */
+    public DefaultMonitoringResultHandler(ResultHandler<T, E> handler, CTSOperationsMonitoringStore store,
+            CTSOperation operation, Timer timer, Counter failures) {
         this.handler = handler;
         this.store = store;
         this.operation = operation;
+        this.timer = timer;
+        this.failures = failures;
+        this.startNanos = timer == null ? 0 : System.nanoTime();
     }
 
     /**
@@ -56,6 +76,9 @@ public class DefaultMonitoringResultHandler<T, E extends Exception> implements R
      */
     @Override
     public void processResults(T result) {
+        if (timer != null) {
+            timer.recordSince(startNanos);
+        }
         store.addTokenOperation(null, operation, true);
         handler.processResults(result);
     }
@@ -66,6 +89,12 @@ public class DefaultMonitoringResultHandler<T, E extends Exception> implements R
      */
     @Override
     public void processError(Exception error) {
+        if (timer != null) {
+            timer.recordSince(startNanos);
+        }
+        if (failures != null) {
+            failures.increment();
+        }
         store.addTokenOperation(null, operation, false);
         handler.processError(error);
     }
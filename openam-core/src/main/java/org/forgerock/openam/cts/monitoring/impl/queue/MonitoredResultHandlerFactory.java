@@ -23,9 +23,15 @@ import org.forgerock.openam.cts.impl.queue.AsyncResultHandlerFactory;
 import org.forgerock.openam.sm.datalayer.api.ResultHandler;
 import org.forgerock.openam.cts.impl.queue.ResultHandlerFactory;
 import org.forgerock.openam.cts.monitoring.CTSOperationsMonitoringStore;
+import org.forgerock.openam.monitoring.metrics.Counter;
+import org.forgerock.openam.monitoring.metrics.MetricsRegistry;
+import org.forgerock.openam.monitoring.metrics.Timer;
 
 import javax.inject.Inject;
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Implementation enables monitoring of each operation that is processed by the asynchronous task
@@ -34,15 +40,26 @@ import java.util.Collection;
 public class MonitoredResultHandlerFactory implements ResultHandlerFactory {
     private final AsyncResultHandlerFactory factory;
     private final CTSOperationsMonitoringStore store;
+    private final Map<CTSOperation, Timer> timers = new EnumMap<>(CTSOperation.class);
+    private final Map<CTSOperation, Counter> failures = new EnumMap<>(CTSOperation.class);
 
     /**
      * @param factory Non null implementation to delegate to.
      * @param store Non null store to report operations to.
+     * @param metricsRegistry Non null registry of the operation latency and failure metrics.
      */
     @Inject
-    public MonitoredResultHandlerFactory(AsyncResultHandlerFactory factory, CTSOperationsMonitoringStore store) {
+    public MonitoredResultHandlerFactory(AsyncResultHandlerFactory factory, CTSOperationsMonitoringStore store,
+            MetricsRegistry metricsRegistry) {
         this.factory = factory;
         this.store = store;
+        for (CTSOperation operation : CTSOperation.values()) {
+            String name = operation.name().toLowerCase(Locale.ROOT);
+            timers.put(operation, metricsRegistry.timer("openam_cts_operation_duration_seconds",
+                    "Time from queueing a CTS operation until its result is available", "operation", name));
+            failures.put(operation, metricsRegistry.counter("openam_cts_operation_failures_total",
+                    "Number of failed CTS operations", "operation", name));
+        }
     }
 
     /**
@@ -50,7 +67,8 @@ public class MonitoredResultHandlerFactory implements ResultHandlerFactory {
      */
     @Override
     public ResultHandler<Token, CoreTokenException> getCreateHandler() {
-        return new TokenMonitoringResultHandler(factory.getCreateHandler(), store, CTSOperation.CREATE);
+        return new TokenMonitoringResultHandler(factory.getCreateHandler(), store, CTSOperation.CREATE,
+                timers.get(CTSOperation.CREATE), failures.get(CTSOperation.CREATE));
     }
 
     /**
@@ -58,7 +76,8 @@ public class MonitoredResultHandlerFactory implements ResultHandlerFactory {
      */
     @Override
     public ResultHandler<Token, CoreTokenException> getReadHandler() {
-        return new TokenMonitoringResultHandler(factory.getReadHandler(), store, CTSOperation.READ);
+        return new TokenMonitoringResultHandler(factory.getReadHandler(), store, CTSOperation.READ,
+                timers.get(CTSOperation.READ), failures.get(CTSOperation.READ));
     }
 
     /**
@@ -66,7 +85,8 @@ public class MonitoredResultHandlerFactory implements ResultHandlerFactory {
      */
     @Override
     public ResultHandler<Token, CoreTokenException> getUpdateHandler() {
-        return new TokenMonitoringResultHandler(factory.getUpdateHandler(), store, CTSOperation.UPDATE);
+        return new TokenMonitoringResultHandler(factory.getUpdateHandler(), store, CTSOperation.UPDATE,
+                timers.get(CTSOperation.UPDATE), failures.get(CTSOperation.UPDATE));
     }
 
     /**
@@ -74,7 +94,8 @@ public class MonitoredResultHandlerFactory implements ResultHandlerFactory {
      */
     @Override
     public ResultHandler<PartialToken, CoreTokenException> getDeleteHandler() {
-        return new DefaultMonitoringResultHandler<>(factory.getDeleteHandler(), store, CTSOperation.DELETE);
+        return new DefaultMonitoringResultHandler<>(factory.getDeleteHandler(), store, CTSOperation.DELETE,
+                timers.get(CTSOperation.DELETE), failures.get(CTSOperation.DELETE));
     }
 
     /**
@@ -83,7 +104,8 @@ public class MonitoredResultHandlerFactory implements ResultHandlerFactory {
     @Override
     public ResultHandler<Collection<Token>, CoreTokenException> getQueryHandler() {
         return new DefaultMonitoringResultHandler<>(
-                factory.getQueryHandler(), store, CTSOperation.LIST);
+                factory.getQueryHandler(), store, CTSOperation.LIST,
+                timers.get(CTSOperation.LIST), failures.get(CTSOperation.LIST));
     }
 
     /**
@@ -92,7 +114,8 @@ public class MonitoredResultHandlerFactory implements ResultHandlerFactory {
     @Override
     public ResultHandler<Collection<PartialToken>, CoreTokenException> getPartialQueryHandler() {
         return new DefaultMonitoringResultHandler<>(
-                factory.getPartialQueryHandler(), store, CTSOperation.LIST);
+                factory.getPartialQueryHandler(), store, CTSOperation.LIST,
+                timers.get(CTSOperation.LIST), failures.get(CTSOperation.LIST));
     }
 
     /**
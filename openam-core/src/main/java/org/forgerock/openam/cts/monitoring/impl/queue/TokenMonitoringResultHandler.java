@@ -20,6 +20,8 @@ import org.forgerock.openam.cts.api.tokens.Token;
 import org.forgerock.openam.cts.exceptions.CoreTokenException;
 import org.forgerock.openam.sm.datalayer.api.ResultHandler;
 import org.forgerock.openam.cts.monitoring.CTSOperationsMonitoringStore;
+import org.forgerock.openam.monitoring.metrics.Counter;
+import org.forgerock.openam.monitoring.metrics.Timer;
 
 /**
  * A monitoring based handler suitable for monitoring token based operations.
@@ -28,6 +30,9 @@ public class TokenMonitoringResultHandler implements ResultHandler<Token, CoreTo
     private final ResultHandler<Token, CoreTokenException> handler;
     private final CTSOperationsMonitoringStore store;
     private final CTSOperation operation;
+    private final Timer timer;
+    private final Counter failures;
+    private final long startNanos;
 
     /**
      * @param handler Non null handler to delegate to.
@@ -36,9 +41,24 @@ public class TokenMonitoringResultHandler implements ResultHandler<Token, CoreTo
      */
     public TokenMonitoringResultHandler(ResultHandler<Token, CoreTokenException> handler, CTSOperationsMonitoringStore store,
                                         CTSOperation operation) {
+        this(handler, store, operation, null, null);
+    }
+
+    /**
+     * @param handler Non null handler to delegate to.
+     * @param store Non null store to report operations to.
+     * @param operation Non null operation type to signal to the store.
+     * @param timer Timer to record the latency of the operation with, from now until it completes. May be null.
+     * @param failures Counter of failed operations. May be null.
+     */
+    public TokenMonitoringResultHandler(ResultHandler<Token, CoreTokenException> handler, CTSOperationsMonitoringStore store,
+                                        CTSOperation operation, Timer timer, Counter failures) {
         this.handler = handler;
         this.store = store;
         this.operation = operation;
+        this.timer = timer;
+        this.failures = failures;
+        this.startNanos = timer == null ? 0 : System.nanoTime();
     }
 
     /**
@@ -55,6 +75,9 @@ public class TokenMonitoringResultHandler implements ResultHandler<Token, CoreTo
      */
     @Override
     public void processResults(Token result) {
+        if (timer != null) {
+            timer.recordSince(startNanos);
+        }
         store.addTokenOperation(result, operation, true);
         handler.processResults(result);
     }
@@ -64,6 +87,12 @@ public class TokenMonitoringResultHandler implements ResultHandler<Token, CoreTo
      */
     @Override
     public void processError(Exception error) {
+        if (timer != null) {
+            timer.recordSince(startNanos);
+        }
+        if (failures != null) {
+            failures.increment();
+        }
         store.addTokenOperation(null, operation, false);
         handler.processError(error);
     }
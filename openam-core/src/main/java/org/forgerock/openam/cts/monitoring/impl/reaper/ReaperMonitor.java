@@ -16,8 +16,11 @@
 
 package org.forgerock.openam.cts.monitoring.impl.reaper;
 
+import static org.forgerock.openam.utils.Time.currentTimeMillis;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class maintains a store of information about each CTS Reaper run since server start up.
@@ -26,7 +29,15 @@ import java.util.List;
  */
 public class ReaperMonitor {
 
+    /**
+     * Weight given to the most recent page when averaging the reaper throughput.
+     */
+    static final double THROUGHPUT_SMOOTHING = 0.2D;
+
     private final List<ReaperRun> reaperRuns = new ArrayList<ReaperRun>();
+    private final AtomicLong backlog = new AtomicLong();
+    private double throughput = 0D;
+    private long lastCompleted = 0L;
 
     /**
      * {@inheritDoc}
@@ -51,6 +62,49 @@ public class ReaperMonitor {
         return numDeletedSessions / reaperRuns.size();
     }
 
+    /**
+     * Records that a page of expired tokens has been queued for deletion.
+     *
+     * @param count The number of tokens queued.
+     */
+    public void addQueued(final long count) {
+        backlog.addAndGet(count);
+    }
+
+    /**
+     * Records that a page of deletes has completed, updating the backlog and the smoothed throughput.
+     *
+     * As pages may complete concurrently, the rate of a page is measured over the time since the previous page
+     * completed, unless the page itself took less time than that.
+     *
+     * @param count The number of tokens in the page.
+     * @param latency The time in milliseconds taken to complete the page.
+     */
+    public void addCompleted(final long count, final long latency) {
+        backlog.addAndGet(-count);
+        synchronized (this) {
+            long now = currentTimeMillis();
+            long elapsed = lastCompleted == 0L ? latency : Math.min(latency, now - lastCompleted);
+            lastCompleted = now;
+            double rate = count * 1000D / Math.max(1L, elapsed);
+            throughput = throughput == 0D ? rate : throughput + THROUGHPUT_SMOOTHING * (rate - throughput);
+        }
+    }
+
+    /**
+     * @return The number of tokens queued for deletion which have not yet been deleted.
+     */
+    public long getBacklog() {
+        return Math.max(0L, backlog.get());
+    }
+
+    /**
+     * @return The smoothed number of tokens deleted per second over recently completed pages.
+     */
+    public synchronized double getThroughput() {
+        return throughput;
+    }
+
     /**
      * Models a run by the CTS Reaper and holds information about when the run started and stopped and the number of
      * sessions the run deleted.
@@ -17,6 +17,7 @@ package org.forgerock.openam.cts.utils;
 
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
@@ -32,8 +33,10 @@ import org.forgerock.openam.tokens.TokenType;
 import org.forgerock.openam.utils.CollectionUtils;
 import org.forgerock.opendj.ldap.Attribute;
 import org.forgerock.opendj.ldap.AttributeDescription;
+import org.forgerock.opendj.ldap.ByteString;
 import org.forgerock.opendj.ldap.DN;
 import org.forgerock.opendj.ldap.Entry;
+import org.forgerock.opendj.ldap.LinkedAttribute;
 import org.forgerock.opendj.ldap.LinkedHashMapEntry;
 
 /**
@@ -54,6 +57,17 @@ public class LdapTokenAttributeConversion {
      */
     static final String EMPTY = "-empty-";
 
+    /**
+     * Attribute descriptions are parsed once rather than for every attribute of every Token.
+     */
+    private static final Map<CoreTokenField, AttributeDescription> DESCRIPTIONS = new EnumMap<>(CoreTokenField.class);
+
+    static {
+        for (CoreTokenField field : CoreTokenField.values()) {
+            DESCRIPTIONS.put(field, AttributeDescription.valueOf(field.toString()));
+        }
+    }
+
     // Injected
     private final LDAPDataConversion conversion;
     private final LdapDataLayerConfiguration dataLayerConfiguration;
@@ -78,37 +92,25 @@ public class LdapTokenAttributeConversion {
 
         for (CoreTokenField field : token.getAttributeNames()) {
 
-            String key = field.toString();
-
-            // Token Type special case is an Enum
-            if (CoreTokenField.TOKEN_TYPE.equals(field)) {
-                TokenType type = token.getAttribute(field);
-                entry.addAttribute(key, type.name());
-                continue;
-            }
+            AttributeDescription description = DESCRIPTIONS.get(field);
 
             if (CoreTokenFieldTypes.isMulti(field)) {
                 Object[] addition = getMultiAttribute(token, field);
                 if (addition.length > 0) {
-                    entry.addAttribute(key, addition);
+                    entry.addAttribute(new LinkedAttribute(description, addition));
                 }
-            } else if (CoreTokenFieldTypes.isCalendar(field)) {
-                Calendar calendar = token.getAttribute(field);
-                String dateString = conversion.toLDAPDate(calendar);
-                entry.addAttribute(key, dateString);
             } else if (CoreTokenFieldTypes.isByteArray(field)) {
+                // Wrap rather than copy the blob, the Entry is only read by the LDAP request.
                 byte[] array = token.getAttribute(field);
-                entry.addAttribute(key, array);
-            } else if (CoreTokenFieldTypes.isInteger(field)) {
-                Integer value = token.getAttribute(field);
-                entry.addAttribute(key, value);
+                entry.addAttribute(new LinkedAttribute(description, ByteString.wrap(array)));
             } else if (CoreTokenFieldTypes.isString(field)) {
-                String value = token.getAttribute(field);
+                String value = token.getEncodedAttribute(field);
                 if (!value.isEmpty()) {
-                    entry.addAttribute(key, value);
+                    entry.addAttribute(new LinkedAttribute(description, value));
                 }
             } else {
-                throw new IllegalStateException();
+                // Token Type, dates and integers are already held in their LDAP form.
+                entry.addAttribute(new LinkedAttribute(description, token.getEncodedAttribute(field)));
             }
         }
 
@@ -220,33 +222,49 @@ public class LdapTokenAttributeConversion {
      * @see #mapFromEntry(org.forgerock.opendj.ldap.Entry)
      */
     public Token tokenFromEntry(Entry entry) {
-        Map<CoreTokenField, Object> map = mapFromEntry(entry);
+        String tokenId = entry.getAttribute(DESCRIPTIONS.get(CoreTokenField.TOKEN_ID)).firstValueAsString();
+        String type = entry.getAttribute(DESCRIPTIONS.get(CoreTokenField.TOKEN_TYPE)).firstValueAsString();
 
-        String tokenId = (String) map.get(CoreTokenField.TOKEN_ID);
-        TokenType type = (TokenType) map.get(CoreTokenField.TOKEN_TYPE);
+        Token token = new Token(tokenId, TokenType.valueOf(type));
 
-        Token token = new Token(tokenId, type);
-
-        for (Map.Entry<CoreTokenField, Object> e : map.entrySet()) {
-            CoreTokenField key = e.getKey();
-            Object value = e.getValue();
+        // Single pass over the Entry, values are handed to the Token in their LDAP form and are only
+        // decoded if they are read.
+        for (Attribute attribute : entry.getAllAttributes()) {
+            String name = attribute.getAttributeDescriptionAsString();
+            if (CoreTokenConstants.OBJECT_CLASS.equalsIgnoreCase(name)) {
+                continue;
+            }
 
-            if (Token.isFieldReadOnly(key)) {
+            CoreTokenField field = CoreTokenField.fromLDAPAttribute(name);
+            if (Token.isFieldReadOnly(field)) {
                 continue;
             }
 
-            if (Collection.class.isAssignableFrom(value.getClass())) {
-                Collection collection = (Collection) value;
-                for (Object content : collection) {
-                    token.setMultiAttribute(key, content);
+            if (CoreTokenFieldTypes.isMulti(field)) {
+                for (ByteString value : attribute) {
+                    token.setMultiAttribute(field, parseMultiValue(field, value));
                 }
+            } else if (CoreTokenFieldTypes.isByteArray(field)) {
+                token.setAttribute(field, attribute.firstValue().toByteArray());
+            } else if (CoreTokenFieldTypes.isString(field)) {
+                token.setEncodedAttribute(field, resolveEmpty(attribute.firstValueAsString()));
             } else {
-                token.setAttribute(key, value);
+                token.setEncodedAttribute(field, attribute.firstValueAsString());
             }
         }
         return token;
     }
 
+    private Object parseMultiValue(CoreTokenField field, ByteString value) {
+        if (CoreTokenFieldTypes.isString(field)) {
+            return resolveEmpty(value.toString());
+        } else if (CoreTokenFieldTypes.isInteger(field)) {
+            return Integer.valueOf(value.toString());
+        } else {
+            throw new IllegalStateException("New parser for multi-value type required for field : " + field);
+        }
+    }
+
     /**
      * Only adds the ObjectClass if it hasn't already been added.
      *
@@ -0,0 +1,158 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.cts.worker.process;
+
+import static org.forgerock.openam.utils.Time.currentTimeMillis;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.forgerock.openam.cts.CTSOperation;
+import org.forgerock.openam.cts.CoreTokenConfig;
+import org.forgerock.openam.cts.api.CoreTokenConstants;
+import org.forgerock.openam.cts.monitoring.CTSOperationsMonitoringStore;
+
+import com.sun.identity.shared.debug.Debug;
+
+/**
+ * Decides how large a page of expired tokens the CTS Reaper requests and how many pages of deletes it may have
+ * outstanding at once.
+ * <p>
+ * When batch deletion is disabled the reaper keeps its original behaviour: pages of
+ * {@link CoreTokenConfig#getCleanupPageSize()} tokens, with each page deleted before the next is requested.
+ * <p>
+ * When enabled, the pace is adjusted after every completed page, growing additively while pages complete well within
+ * {@link CoreTokenConfig#getReaperTargetLatency()} and halving when a page is slower than the target. The page size
+ * stays between a tenth of the default page size and {@link CoreTokenConfig#getReaperMaxPageSize()}. If a live
+ * operation rate threshold is configured and the rate of creates, reads and updates seen by the CTS exceeds it, the
+ * reaper falls back to a single outstanding page so that it does not compete with live traffic.
+ * <p>
+ * A page size change takes effect from the next reaper run, as the page size of a running query is fixed.
+ */
+@Singleton
+public class CTSReaperPacing {
+
+    /**
+     * Reads, creates and updates are only issued by live traffic, whereas deletes are also issued by the reaper.
+     */
+    private static final CTSOperation[] LIVE_OPERATIONS = {
+            CTSOperation.CREATE, CTSOperation.READ, CTSOperation.UPDATE
+    };
+
+    private final CoreTokenConfig config;
+    private final CTSOperationsMonitoringStore operationsStore;
+    private final Debug debug;
+
+    private int pageSize;
+    private int concurrency = 1;
+    private long lastLiveCount = -1L;
+    private long lastLiveSample;
+
+    /**
+     * @param config Required to determine the reaper limits.
+     * @param operationsStore Required to observe the live CTS operation rate.
+     * @param debug Debug output.
+     */
+    @Inject
+    public CTSReaperPacing(CoreTokenConfig config, CTSOperationsMonitoringStore operationsStore,
+            @Named(CoreTokenConstants.CTS_REAPER_DEBUG) Debug debug) {
+        this.config = config;
+        this.operationsStore = operationsStore;
+        this.debug = debug;
+        this.pageSize = config.getCleanupPageSize();
+    }
+
+    /**
+     * @return The number of expired tokens to request per page.
+     */
+    public synchronized int getPageSize() {
+        if (!config.isReaperBatchEnabled()) {
+            return config.getCleanupPageSize();
+        }
+        return pageSize;
+    }
+
+    /**
+     * @return The number of pages of deletes which may be outstanding before the reaper waits for the oldest.
+     */
+    public synchronized int getMaxOutstandingBatches() {
+        if (!config.isReaperBatchEnabled()) {
+            return 1;
+        }
+        return concurrency;
+    }
+
+    /**
+     * Adjusts the pace of the reaper following completion of a page of deletes.
+     *
+     * @param count The number of tokens in the completed page.
+     * @param latency The time in milliseconds taken to complete the page.
+     */
+    public synchronized void batchCompleted(int count, long latency) {
+        if (!config.isReaperBatchEnabled()) {
+            return;
+        }
+
+        int minPageSize = Math.max(1, config.getCleanupPageSize() / 10);
+        int maxPageSize = config.getReaperMaxPageSize();
+        int maxConcurrency = config.getReaperMaxConcurrency();
+        long targetLatency = config.getReaperTargetLatency();
+
+        if (isLiveRateExceeded()) {
+            concurrency = 1;
+            pageSize = Math.max(minPageSize, pageSize / 2);
+        } else if (latency > targetLatency) {
+            concurrency = Math.max(1, concurrency / 2);
+            pageSize = Math.max(minPageSize, pageSize / 2);
+        } else if (latency < targetLatency / 2) {
+            concurrency = Math.min(maxConcurrency, concurrency + 1);
+            pageSize = Math.min(maxPageSize, pageSize + config.getCleanupPageSize());
+        }
+
+        if (debug.messageEnabled()) {
+            debug.message("Reaper page of {0} completed in {1}ms, page size {2}, concurrency {3}",
+                    Integer.toString(count), Long.toString(latency), Integer.toString(pageSize),
+                    Integer.toString(concurrency));
+        }
+    }
+
+    /**
+     * Samples the cumulative count of live operations and compares the rate since the previous sample against the
+     * configured threshold.
+     */
+    private boolean isLiveRateExceeded() {
+        int threshold = config.getReaperLiveRateThreshold();
+        if (threshold <= 0) {
+            return false;
+        }
+
+        long liveCount = 0;
+        for (CTSOperation operation : LIVE_OPERATIONS) {
+            liveCount += operationsStore.getOperationsCumulativeCount(null, operation);
+        }
+        long now = currentTimeMillis();
+        boolean exceeded = false;
+        if (lastLiveCount >= 0 && now > lastLiveSample) {
+            double rate = (liveCount - lastLiveCount) * 1000D / (now - lastLiveSample);
+            exceeded = rate > threshold;
+        }
+        lastLiveCount = liveCount;
+        lastLiveSample = now;
+        return exceeded;
+    }
+}
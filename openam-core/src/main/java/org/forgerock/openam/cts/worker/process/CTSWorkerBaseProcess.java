@@ -15,7 +15,9 @@
  */
 package org.forgerock.openam.cts.worker.process;
 
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.concurrent.CountDownLatch;
 
 import org.apache.commons.lang.time.StopWatch;
@@ -38,6 +40,7 @@ public abstract class CTSWorkerBaseProcess implements CTSWorkerProcess {
         StopWatch waitingStopWatch = new StopWatch();
 
         long total = 0;
+        Deque<CountDownLatch> outstanding = new ArrayDeque<>();
         waitingStopWatch.start();
         waitingStopWatch.suspend();
         queryStopWatch.start();
@@ -55,15 +58,19 @@ public abstract class CTSWorkerBaseProcess implements CTSWorkerProcess {
                 total += filteredTokens.size();
                 queryStopWatch.suspend();
 
-                // process the results; as handleBatch is an asynchronous call, await its completion
+                // process the results; as handleBatch is an asynchronous call, await its completion once the
+                // limit of outstanding batches is reached
                 // - retrieving and processing all results pages may cause an OutOfMemory error
                 waitingStopWatch.resume();
-                CountDownLatch latch = handleBatch(filteredTokens);
-                latch.await();
+                outstanding.addLast(handleBatch(filteredTokens));
+                awaitOutstanding(outstanding, Math.max(1, getMaxOutstandingBatches()));
                 waitingStopWatch.suspend();
 
                 queryStopWatch.resume();
             }
+            queryStopWatch.suspend();
+            waitingStopWatch.resume();
+            awaitOutstanding(outstanding, 1);
             queryStopWatch.stop();
             waitingStopWatch.stop();
 
@@ -76,6 +83,24 @@ public abstract class CTSWorkerBaseProcess implements CTSWorkerProcess {
         }
     }
 
+    private void awaitOutstanding(Deque<CountDownLatch> outstanding, int limit) throws InterruptedException {
+        while (outstanding.size() >= limit) {
+            outstanding.removeFirst().await();
+        }
+    }
+
+    /**
+     * The number of batches which may be processing at once before the next page of results is requested. By
+     * default each batch is completed before the next page is requested.
+     * <p>
+     * This method can be overridden by subclasses whose batches may safely be pipelined.
+     *
+     * @return the maximum number of outstanding batches.
+     */
+    protected int getMaxOutstandingBatches() {
+        return 1;
+    }
+
     /**
      * Hook method allowing subclasses to define the actual work to be carried out by this {@link CTSWorkerProcess}.
      *
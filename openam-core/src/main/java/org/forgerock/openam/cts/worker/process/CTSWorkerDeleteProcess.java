@@ -15,8 +15,11 @@
  */
 package org.forgerock.openam.cts.worker.process;
 
+import static org.forgerock.openam.utils.Time.currentTimeMillis;
+
 import java.util.Collection;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -40,11 +43,15 @@ import com.sun.identity.shared.debug.Debug;
  * A process which defines the deletion of tokens returned from a CTS worker query, having applied the provided
  * filter to them. This process is monitored, and will add reaper run information to the monitoring store as
  * appropriate.
+ * <p>
+ * The number of pages of deletes left outstanding while the next page is requested is decided by the
+ * {@link CTSReaperPacing}, which is told how long each page took to complete.
  */
 public class CTSWorkerDeleteProcess extends CTSWorkerBaseProcess {
 
     private TokenDeletion tokenDeletion;
     private CTSReaperMonitoringStore monitoringStore;
+    private CTSReaperPacing pacing;
     private Debug debug;
 
     /**
@@ -53,20 +60,46 @@ public class CTSWorkerDeleteProcess extends CTSWorkerBaseProcess {
      *
      * @param tokenDeletion Batch deletion of tokens utility.
      * @param monitoringStore Utility to record monitoring information.
+     * @param pacing Decides how many pages of deletes may be outstanding.
      * @param debug Debug output.
      */
     @Inject
     public CTSWorkerDeleteProcess(TokenDeletion tokenDeletion,
                                   CTSReaperMonitoringStore monitoringStore,
+                                  CTSReaperPacing pacing,
                                   @Named(CoreTokenConstants.CTS_DEBUG) Debug debug) {
         this.tokenDeletion = tokenDeletion;
         this.monitoringStore = monitoringStore;
+        this.pacing = pacing;
         this.debug = debug;
     }
 
     @Override
     protected CountDownLatch handleBatch(final Collection<PartialToken> batch) throws CoreTokenException {
-        return tokenDeletion.deleteBatch(batch);
+        final int count = batch.size();
+        final long queued = currentTimeMillis();
+        monitoringStore.addQueuedReaperDeletes(count);
+        return tokenDeletion.deleteBatch(batch, new TokenDeletion.BatchCallback() {
+            @Override
+            public void notQueued(int unqueued) {
+                monitoringStore.addQueuedReaperDeletes(-unqueued);
+            }
+
+            @Override
+            public void completed(int processed) {
+                if (processed == 0) {
+                    return;
+                }
+                long latency = currentTimeMillis() - queued;
+                monitoringStore.addCompletedReaperDeletes(processed, latency);
+                pacing.batchCompleted(processed, latency);
+            }
+        });
+    }
+
+    @Override
+    protected int getMaxOutstandingBatches() {
+        return pacing.getMaxOutstandingBatches();
     }
 
     @Override
@@ -109,13 +142,109 @@ public class CTSWorkerDeleteProcess extends CTSWorkerBaseProcess {
          * @throws CoreTokenException If there was any problem queuing the delete operation.
          */
         public CountDownLatch deleteBatch(Collection<PartialToken> tokens) throws CoreTokenException {
+            return deleteBatch(tokens, null);
+        }
+
+        /**
+         * Performs a delete against a batch of Token IDs in the search results, notifying the given callback once
+         * every delete queued for the batch has been processed.
+         *
+         * @param tokens PartialToken objects containing the IDs of the tokens to delete.
+         * @param callback Notified of the progress of the batch. May be null.
+         *
+         * @return CountDownLatch A CountDownLatch which can be blocked on to ensure that
+         * the delete tasks have been completed.
+         *
+         * @throws CoreTokenException If there was any problem queuing the delete operation.
+         */
+        public CountDownLatch deleteBatch(Collection<PartialToken> tokens, BatchCallback callback)
+                throws CoreTokenException {
             CountDownLatch latch = new CountDownLatch(tokens.size());
-            ResultHandler<PartialToken, CoreTokenException> handler = new CountDownHandler<>(latch);
-            for (PartialToken token : tokens) {
-                String tokenId = token.getValue(CoreTokenField.TOKEN_ID);
-                queue.delete(tokenId, handler);
+            CompletionHandler completionHandler = callback == null
+                    ? null : new CompletionHandler(latch, tokens.size(), callback);
+            ResultHandler<PartialToken, CoreTokenException> handler = completionHandler == null
+                    ? new CountDownHandler<PartialToken>(latch) : completionHandler;
+            if (tokens.isEmpty() && callback != null) {
+                callback.completed(0);
+            }
+            int queued = 0;
+            try {
+                for (PartialToken token : tokens) {
+                    String tokenId = token.getValue(CoreTokenField.TOKEN_ID);
+                    queue.delete(tokenId, handler);
+                    queued++;
+                }
+            } catch (CoreTokenException | RuntimeException e) {
+                if (completionHandler != null) {
+                    int unqueued = tokens.size() - queued;
+                    callback.notQueued(unqueued);
+                    completionHandler.notQueued(unqueued);
+                }
+                throw e;
             }
             return latch;
         }
+
+        /**
+         * Notified of the progress of a batch of deletes.
+         */
+        public interface BatchCallback {
+
+            /**
+             * Called when queuing the batch failed part way through, before the failure is thrown.
+             *
+             * @param unqueued The number of tokens in the batch which were not queued for deletion.
+             */
+            void notQueued(int unqueued);
+
+            /**
+             * Called by the thread processing the last queued delete of the batch, or by the queuing thread if no
+             * deletes remain to be processed.
+             *
+             * @param processed The number of deletes processed, which is less than the size of the batch if queuing
+             * the batch failed part way through.
+             */
+            void completed(int processed);
+        }
+
+        /**
+         * Counts down the batch latch and notifies the callback when the last queued delete has been processed.
+         */
+        private static final class CompletionHandler extends CountDownHandler<PartialToken> {
+            private final AtomicInteger remaining;
+            private final AtomicInteger processed = new AtomicInteger();
+            private final BatchCallback callback;
+
+            private CompletionHandler(CountDownLatch latch, int size, BatchCallback callback) {
+                super(latch);
+                this.remaining = new AtomicInteger(size);
+                this.callback = callback;
+            }
+
+            @Override
+            public void processResults(PartialToken result) {
+                completed();
+                super.processResults(result);
+            }
+
+            @Override
+            public void processError(Exception error) {
+                completed();
+                super.processError(error);
+            }
+
+            private void notQueued(int unqueued) {
+                if (unqueued > 0 && remaining.addAndGet(-unqueued) == 0) {
+                    callback.completed(processed.get());
+                }
+            }
+
+            private void completed() {
+                processed.incrementAndGet();
+                if (remaining.decrementAndGet() == 0) {
+                    callback.completed(processed.get());
+                }
+            }
+        }
     }
 }
@@ -22,6 +22,7 @@ import com.sun.identity.authentication.spi.AuthLoginException;
 import com.sun.identity.idm.AMIdentity;
 import com.sun.identity.idm.IdRepoException;
 import com.sun.identity.idm.IdSearchControl;
+import com.sun.identity.idm.IdSearchResultHandler;
 import com.sun.identity.idm.IdSearchResults;
 import com.sun.identity.idm.IdServices;
 import com.sun.identity.idm.IdType;
@@ -107,6 +108,15 @@ public class IdServicesDecorator implements IdServices {
         return delegate.getAttributes(token, type, name, amOrgName, amsdkDN);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Map> getAttributes(SSOToken token, IdType type, Set<String> names, Set attrNames,
+            String amOrgName) throws IdRepoException, SSOException {
+        return delegate.getAttributes(token, type, names, attrNames, amOrgName);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -181,6 +191,15 @@ public class IdServicesDecorator implements IdServices {
         return delegate.search(token, type, ctrl, amOrgName, crestQuery);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int search(SSOToken token, IdType type, IdSearchControl ctrl, String amOrgName, CrestQuery crestQuery,
+            IdSearchResultHandler handler) throws IdRepoException, SSOException {
+        return delegate.search(token, type, ctrl, amOrgName, crestQuery, handler);
+    }
+
     /**
      * {@inheritDoc}
      */
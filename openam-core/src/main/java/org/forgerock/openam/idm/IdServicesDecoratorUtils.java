@@ -18,6 +18,7 @@ package org.forgerock.openam.idm;
 
 import com.iplanet.am.sdk.AMHashMap;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -47,6 +48,24 @@ public final class IdServicesDecoratorUtils {
         return attrs;
     }
 
+    /**
+     * Converts all attribute names in the given map of identity name to attributes to lower case.
+     *
+     * @param attrsByName the attributes of each identity to convert to lower case.
+     * @return a copy of the given map with the attribute names of each identity converted to lower case, or null if
+     * the input is null.
+     */
+    public static Map<String, Map> toLowerCaseAttributeNames(Map<String, Map> attrsByName) {
+        if (attrsByName != null) {
+            Map<String, Map> lowerCaseMap = new LinkedHashMap<>();
+            for (Map.Entry<String, Map> entry : attrsByName.entrySet()) {
+                lowerCaseMap.put(entry.getKey(), toLowerCaseKeys(entry.getValue()));
+            }
+            return lowerCaseMap;
+        }
+        return attrsByName;
+    }
+
     /**
      * Determines whether the given map contains binary values or not.
      *
@@ -25,6 +25,7 @@ import com.sun.identity.idm.IdType;
 import java.util.Map;
 import java.util.Set;
 
+import static org.forgerock.openam.idm.IdServicesDecoratorUtils.toLowerCaseAttributeNames;
 import static org.forgerock.openam.idm.IdServicesDecoratorUtils.toLowerCaseKeys;
 
 /**
@@ -62,4 +63,13 @@ public class LowerCaseIdServicesDecorator extends IdServicesDecorator {
             throws IdRepoException, SSOException {
         return toLowerCaseKeys(super.getAttributes(token, type, name, amOrgName, amsdkDN));
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Map> getAttributes(SSOToken token, IdType type, Set<String> names, Set attrNames,
+            String amOrgName) throws IdRepoException, SSOException {
+        return toLowerCaseAttributeNames(super.getAttributes(token, type, names, attrNames, amOrgName));
+    }
 }
@@ -0,0 +1,50 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.monitoring.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A value which can go up as well as down, such as the number of items waiting in a queue. Backed by a
+ * {@link LongAdder} so that concurrent updates from many threads do not contend on a single memory location.
+ */
+public final class Gauge extends Metric {
+
+    private final LongAdder value = new LongAdder();
+
+    Gauge(String name, String labels) {
+        super(name, labels);
+    }
+
+    /**
+     * Adds the given amount to the value.
+     *
+     * @param amount The amount to add, negative to decrease the value.
+     */
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    /**
+     * Returns the current value.
+     *
+     * @return The value.
+     */
+    public long getValue() {
+        return value.sum();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.monitoring.metrics;
+
+/**
+ * Base class of the metrics held by the {@link MetricsRegistry}, identified by a name and a set of labels.
+ */
+public abstract class Metric {
+
+    private final String name;
+    private final String labels;
+
+    Metric(String name, String labels) {
+        this.name = name;
+        this.labels = labels;
+    }
+
+    /**
+     * Returns the name of the metric.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the labels of the metric in the Prometheus exposition format, for example
+     * <code>operation="read",outcome="success"</code>.
+     *
+     * @return The labels, empty if the metric has no labels.
+     */
+    public String getLabels() {
+        return labels;
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.monitoring.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.sun.identity.shared.debug.Debug;
+
+/**
+ * Holds the counters, gauges and latency timers of the server, so that they can be exposed in one place, in the
+ * Prometheus text format (see {@link PrometheusMetricsServlet}) and over JMX.
+ * <p>
+ * Metrics are created on first use and then shared: asking for the same name and labels again returns the same
+ * instance, so callers should look up their metrics once and keep a reference to them rather than looking them up
+ * on every update. Metric names follow the Prometheus conventions, for example
+ * <code>openam_cts_operation_duration_seconds</code>, and labels are given as alternating names and values.
+ */
+@Singleton
+public class MetricsRegistry implements MetricsRegistryMXBean {
+
+    /**
+     * The name under which the registry is registered with the platform MBean server.
+     */
+    public static final String OBJECT_NAME = "OpenAM:type=Metrics";
+
+    private static final Debug DEBUG = Debug.getInstance("amMonitoring");
+    private static final Pattern NAME_PATTERN = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final Pattern LABEL_NAME_PATTERN = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+    private static final Comparator<Metric> BY_LABELS = new Comparator<Metric>() {
+        @Override
+        public int compare(Metric first, Metric second) {
+            return first.getLabels().compareTo(second.getLabels());
+        }
+    };
+
+    private final ConcurrentMap<String, Metric> metrics = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Family> families = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the registry and registers it with the platform MBean server. If a registry is already registered, it
+     * is replaced.
+     */
+    public MetricsRegistry() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (Exception e) {
+            DEBUG.error("MetricsRegistry: Unable to register MBean", e);
+        }
+    }
+
+    /**
+     * Returns the counter with the given name and labels, creating it if needed.
+     *
+     * @param name The name of the counter, which should end in <code>_total</code>.
+     * @param help A description of the counter.
+     * @param labels Alternating label names and values.
+     * @return The counter.
+     * @throws IllegalArgumentException If the name or labels are not valid, or the name is already used by another
+     * type of metric.
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return register(name, help, labels, Counter.class);
+    }
+
+    /**
+     * Returns the gauge with the given name and labels, creating it if needed.
+     *
+     * @param name The name of the gauge.
+     * @param help A description of the gauge.
+     * @param labels Alternating label names and values.
+     * @return The gauge.
+     * @throws IllegalArgumentException If the name or labels are not valid, or the name is already used by another
+     * type of metric.
+     */
+    public Gauge gauge(String name, String help, String... labels) {
+        return register(name, help, labels, Gauge.class);
+    }
+
+    /**
+     * Returns the timer with the given name and labels, creating it if needed.
+     *
+     * @param name The name of the timer, which should end in <code>_seconds</code>.
+     * @param help A description of the timer.
+     * @param labels Alternating label names and values.
+     * @return The timer.
+     * @throws IllegalArgumentException If the name or labels are not valid, or the name is already used by another
+     * type of metric.
+     */
+    public Timer timer(String name, String help, String... labels) {
+        return register(name, help, labels, Timer.class);
+    }
+
+    private <T extends Metric> T register(String name, String help, String[] labels, Class<T> type) {
+        String labelText = formatLabels(labels);
+        String key = labelText.isEmpty() ? name : name + "{" + labelText + "}";
+        Metric metric = metrics.get(key);
+        if (metric == null) {
+            if (!NAME_PATTERN.matcher(name).matches()) {
+                throw new IllegalArgumentException("Invalid metric name: " + name);
+            }
+            Family family = new Family(help, type);
+            Family existing = families.putIfAbsent(name, family);
+            if (existing != null && existing.type != type) {
+                throw new IllegalArgumentException("Metric " + name + " is already registered as a "
+                        + existing.type.getSimpleName());
+            }
+            Metric created = newMetric(type, name, labelText);
+            metric = metrics.putIfAbsent(key, created);
+            if (metric == null) {
+                metric = created;
+            }
+        }
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a "
+                    + metric.getClass().getSimpleName());
+        }
+        return type.cast(metric);
+    }
+
+    private Metric newMetric(Class<? extends Metric> type, String name, String labelText) {
+        if (type == Counter.class) {
+            return new Counter(name, labelText);
+        } else if (type == Gauge.class) {
+            return new Gauge(name, labelText);
+        }
+        return new Timer(name, labelText);
+    }
+
+    private String formatLabels(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be given as name and value pairs");
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (!LABEL_NAME_PATTERN.matcher(labels[i]).matches()) {
+                throw new IllegalArgumentException("Invalid label name: " + labels[i]);
+            }
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(labels[i]).append("=\"");
+            String value = labels[i + 1] == null ? "" : labels[i + 1];
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                if (c == '\\' || c == '"') {
+                    builder.append('\\').append(c);
+                } else if (c == '\n') {
+                    builder.append("\\n");
+                } else {
+                    builder.append(c);
+                }
+            }
+            builder.append('"');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns the description given when the metric with the given name was first registered.
+     *
+     * @param name The name of the metric.
+     * @return The description, or <code>null</code> if there is no metric with that name.
+     */
+    public String getHelp(String name) {
+        Family family = families.get(name);
+        return family == null ? null : family.help;
+    }
+
+    /**
+     * Returns all the metrics, grouped by name, in name and then label order.
+     *
+     * @return The metrics, keyed by name.
+     */
+    public Map<String, List<Metric>> getMetrics() {
+        Map<String, List<Metric>> result = new TreeMap<>();
+        for (Metric metric : metrics.values()) {
+            List<Metric> family = result.get(metric.getName());
+            if (family == null) {
+                family = new ArrayList<>();
+                result.put(metric.getName(), family);
+            }
+            family.add(metric);
+        }
+        for (List<Metric> family : result.values()) {
+            Collections.sort(family, BY_LABELS);
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
+            if (entry.getValue() instanceof Counter) {
+                result.put(entry.getKey(), ((Counter) entry.getValue()).getCount());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getGauges() {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
+            if (entry.getValue() instanceof Gauge) {
+                result.put(entry.getKey(), ((Gauge) entry.getValue()).getValue());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, TimerSnapshot> getTimers() {
+        Map<String, TimerSnapshot> result = new TreeMap<>();
+        for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
+            if (entry.getValue() instanceof Timer) {
+                result.put(entry.getKey(), ((Timer) entry.getValue()).getSnapshot());
+            }
+        }
+        return result;
+    }
+
+    private static final class Family {
+        private final String help;
+        private final Class<? extends Metric> type;
+
+        private Family(String help, Class<? extends Metric> type) {
+            this.help = help;
+            this.type = type;
+        }
+    }
+}
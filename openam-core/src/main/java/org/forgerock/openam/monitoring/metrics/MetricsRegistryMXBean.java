@@ -0,0 +1,46 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.monitoring.metrics;
+
+import java.util.Map;
+
+/**
+ * Exposes the metrics of the {@link MetricsRegistry} to JMX clients such as JConsole or VisualVM.
+ */
+public interface MetricsRegistryMXBean {
+
+    /**
+     * Returns the current value of every counter, keyed by the counter name and labels.
+     *
+     * @return The counters.
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * Returns the current value of every gauge, keyed by the gauge name and labels.
+     *
+     * @return The gauges.
+     */
+    Map<String, Long> getGauges();
+
+    /**
+     * Returns a snapshot of every timer, keyed by the timer name and labels.
+     *
+     * @return The timers.
+     */
+    Map<String, TimerSnapshot> getTimers();
+}
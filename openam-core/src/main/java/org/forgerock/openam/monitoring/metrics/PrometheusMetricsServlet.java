@@ -0,0 +1,61 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.monitoring.metrics;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.forgerock.guice.core.InjectorHolder;
+
+import com.iplanet.am.util.SystemProperties;
+
+/**
+ * Serves the metrics of the {@link MetricsRegistry} in the Prometheus text exposition format.
+ * <p>
+ * The endpoint is not protected by authentication, so it is disabled unless the
+ * {@value #ENABLED_PROPERTY} system property is set to <code>true</code>; access to it should then be restricted
+ * at the network or container level.
+ */
+public class PrometheusMetricsServlet extends HttpServlet {
+
+    /**
+     * System property to enable the Prometheus metrics endpoint.
+     */
+    public static final String ENABLED_PROPERTY = "org.openidentityplatform.openam.metrics.prometheus.enabled";
+
+    private transient MetricsRegistry registry;
+
+    @Override
+    public void init() throws ServletException {
+        registry = InjectorHolder.getInstance(MetricsRegistry.class);
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!SystemProperties.getAsBoolean(ENABLED_PROPERTY, false)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setContentType(PrometheusTextFormat.CONTENT_TYPE);
+        response.setHeader("Cache-Control", "no-cache");
+        PrometheusTextFormat.write(registry, response.getWriter());
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.monitoring.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the metrics of a {@link MetricsRegistry} in the Prometheus text exposition format. Counters and gauges are
+ * written as such and timers as summaries, with their quantiles, sum and count in seconds.
+ */
+final class PrometheusTextFormat {
+
+    /**
+     * The content type of the text exposition format.
+     */
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private PrometheusTextFormat() {
+    }
+
+    /**
+     * Writes all the metrics of the registry.
+     *
+     * @param registry The registry.
+     * @param writer The writer to write to.
+     * @throws IOException If the writer fails.
+     */
+    static void write(MetricsRegistry registry, Writer writer) throws IOException {
+        for (Map.Entry<String, List<Metric>> family : registry.getMetrics().entrySet()) {
+            String name = family.getKey();
+            List<Metric> metrics = family.getValue();
+            writer.write("# HELP ");
+            writer.write(name);
+            writer.write(' ');
+            writeHelp(registry.getHelp(name), writer);
+            writer.write('\n');
+            writer.write("# TYPE ");
+            writer.write(name);
+            writer.write(' ');
+            writer.write(typeOf(metrics.get(0)));
+            writer.write('\n');
+            for (Metric metric : metrics) {
+                if (metric instanceof Timer) {
+                    writeTimer((Timer) metric, writer);
+                } else if (metric instanceof Gauge) {
+                    writeSample(name, metric.getLabels(), null, ((Gauge) metric).getValue(), writer);
+                } else {
+                    writeSample(name, metric.getLabels(), null, ((Counter) metric).getCount(), writer);
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private static String typeOf(Metric metric) {
+        if (metric instanceof Timer) {
+            return "summary";
+        } else if (metric instanceof Gauge) {
+            return "gauge";
+        }
+        return "counter";
+    }
+
+    private static void writeTimer(Timer timer, Writer writer) throws IOException {
+        TimerSnapshot snapshot = timer.getSnapshot();
+        String name = timer.getName();
+        String labels = timer.getLabels();
+        writeSample(name, labels, "quantile=\"0.5\"", toSeconds(snapshot.getP50Nanos()), writer);
+        writeSample(name, labels, "quantile=\"0.99\"", toSeconds(snapshot.getP99Nanos()), writer);
+        writeSample(name, labels, "quantile=\"0.999\"", toSeconds(snapshot.getP999Nanos()), writer);
+        writeSample(name + "_sum", labels, null, toSeconds(snapshot.getTotalNanos()), writer);
+        writeSample(name + "_count", labels, null, snapshot.getCount(), writer);
+    }
+
+    private static void writeSample(String name, String labels, String extraLabel, Object value, Writer writer)
+            throws IOException {
+        writer.write(name);
+        if (!labels.isEmpty() || extraLabel != null) {
+            writer.write('{');
+            writer.write(labels);
+            if (extraLabel != null) {
+                if (!labels.isEmpty()) {
+                    writer.write(',');
+                }
+                writer.write(extraLabel);
+            }
+            writer.write('}');
+        }
+        writer.write(' ');
+        writer.write(String.valueOf(value));
+        writer.write('\n');
+    }
+
+    private static void writeHelp(String help, Writer writer) throws IOException {
+        if (help == null) {
+            return;
+        }
+        for (int i = 0; i < help.length(); i++) {
+            char c = help.charAt(i);
+            if (c == '\\') {
+                writer.write("\\\\");
+            } else if (c == '\n') {
+                writer.write("\\n");
+            } else {
+                writer.write(c);
+            }
+        }
+    }
+
+    private static double toSeconds(long nanos) {
+        return nanos / NANOS_PER_SECOND;
+    }
+}
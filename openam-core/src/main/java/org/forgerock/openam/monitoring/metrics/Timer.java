@@ -0,0 +1,133 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.monitoring.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.forgerock.util.annotations.VisibleForTesting;
+import org.forgerock.util.time.TimeService;
+
+/**
+ * Records the latency of an operation in a high dynamic range histogram.
+ * <p>
+ * Recording is wait-free: durations are written to a {@link Recorder}, and are only merged into the histograms of the
+ * sliding window when a snapshot is taken, so the cost of computing percentiles is paid by the reader rather than by
+ * the threads being measured. Percentiles are accurate to two significant digits, for durations of up to an hour.
+ * <p>
+ * The count and total cover every duration recorded, but the percentiles and maximum only cover the durations merged
+ * into the window during roughly the last {@value #WINDOW_SLOTS} minutes, so that they follow changes in latency
+ * rather than settling on the average since the server started.
+ */
+public final class Timer extends Metric {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.HOURS.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final int WINDOW_SLOTS = 5;
+    private static final long SLOT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final Histogram[] slots = new Histogram[WINDOW_SLOTS];
+    private final Histogram window = new Histogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+    private final TimeService clock;
+    private Histogram interval;
+    private int currentSlot;
+    private long currentSlotStart;
+
+    Timer(String name, String labels) {
+        this(name, labels, TimeService.SYSTEM);
+    }
+
+    @VisibleForTesting
+    Timer(String name, String labels, TimeService clock) {
+        super(name, labels);
+        this.clock = clock;
+        for (int i = 0; i < WINDOW_SLOTS; i++) {
+            slots[i] = new Histogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+        }
+        this.currentSlotStart = clock.now();
+    }
+
+    /**
+     * Records the duration of an operation.
+     *
+     * @param durationNanos The duration, in nanoseconds.
+     */
+    public void record(long durationNanos) {
+        if (durationNanos < 0) {
+            return;
+        }
+        recorder.recordValue(Math.min(durationNanos, HIGHEST_TRACKABLE_NANOS));
+        count.increment();
+        totalNanos.add(durationNanos);
+    }
+
+    /**
+     * Records the duration of an operation that started at the given time.
+     *
+     * @param startNanos The start of the operation, as returned by {@link System#nanoTime()}.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns the number of durations recorded.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the count and total of all the durations recorded so far, and the percentiles and maximum of the
+     * durations in the sliding window.
+     *
+     * @return The snapshot.
+     */
+    public synchronized TimerSnapshot getSnapshot() {
+        advanceWindow();
+        interval = recorder.getIntervalHistogram(interval);
+        slots[currentSlot].add(interval);
+        window.reset();
+        for (Histogram slot : slots) {
+            window.add(slot);
+        }
+        return new TimerSnapshot(count.sum(), totalNanos.sum(), window.getValueAtPercentile(50),
+                window.getValueAtPercentile(99), window.getValueAtPercentile(99.9), window.getMaxValue());
+    }
+
+    /**
+     * Moves on to a new slot for each slot period which has passed, clearing the oldest slots.
+     */
+    private void advanceWindow() {
+        long elapsedSlots = (clock.now() - currentSlotStart) / SLOT_MILLIS;
+        if (elapsedSlots <= 0) {
+            return;
+        }
+        for (long i = 0; i < Math.min(elapsedSlots, WINDOW_SLOTS); i++) {
+            currentSlot = (currentSlot + 1) % WINDOW_SLOTS;
+            slots[currentSlot].reset();
+        }
+        currentSlotStart += elapsedSlots * SLOT_MILLIS;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.monitoring.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * The state of a {@link Timer} at a point in time. All durations are in nanoseconds.
+ */
+public final class TimerSnapshot {
+
+    private final long count;
+    private final long totalNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    /**
+     * Creates a new snapshot.
+     *
+     * @param count The number of durations recorded.
+     * @param totalNanos The sum of the durations recorded.
+     * @param p50Nanos The median duration.
+     * @param p99Nanos The 99th percentile duration.
+     * @param p999Nanos The 99.9th percentile duration.
+     * @param maxNanos The longest duration.
+     */
+    @ConstructorProperties({"count", "totalNanos", "p50Nanos", "p99Nanos", "p999Nanos", "maxNanos"})
+    public TimerSnapshot(long count, long totalNanos, long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * @return The number of durations recorded.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The sum of the durations recorded.
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return The median duration.
+     */
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    /**
+     * @return The 99th percentile duration.
+     */
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    /**
+     * @return The 99.9th percentile duration.
+     */
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    /**
+     * @return The longest duration.
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+}
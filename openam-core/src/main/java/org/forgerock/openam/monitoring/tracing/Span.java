@@ -0,0 +1,185 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.monitoring.tracing;
+
+import java.util.Arrays;
+
+/**
+ * A timed operation within the processing of a request.
+ * <p>
+ * Spans are started with {@link Tracing#start(String)} and must be ended on the same thread, in a
+ * <code>finally</code> block:
+ * <pre>
+ * Span span = Tracing.start("cts.read");
+ * try {
+ *     ...
+ * } catch (CoreTokenException e) {
+ *     span.setError(e);
+ *     throw e;
+ * } finally {
+ *     span.end();
+ * }
+ * </pre>
+ * When tracing is disabled, or the request is not sampled, the shared {@link #NOOP} span is returned and all of its
+ * methods do nothing.
+ */
+public final class Span {
+
+    /**
+     * The span returned when the current request is not traced.
+     */
+    static final Span NOOP = new Span();
+
+    private final Tracer tracer;
+    private final Span parent;
+    private final String name;
+    private final String transactionId;
+    private final String traceId;
+    private final long spanId;
+    private final long parentSpanId;
+    private final long startEpochNanos;
+    private long endEpochNanos;
+    private String[] attributes;
+    private int attributeCount;
+    private String error;
+
+    private Span() {
+        this.tracer = null;
+        this.parent = null;
+        this.name = null;
+        this.transactionId = null;
+        this.traceId = null;
+        this.spanId = 0;
+        this.parentSpanId = 0;
+        this.startEpochNanos = 0;
+    }
+
+    Span(Tracer tracer, Span parent, String name, String transactionId, String traceId, long spanId,
+            long startEpochNanos) {
+        this.tracer = tracer;
+        this.parent = parent;
+        this.name = name;
+        this.transactionId = transactionId;
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parent == null ? 0 : parent.spanId;
+        this.startEpochNanos = startEpochNanos;
+    }
+
+    /**
+     * Whether this span is being recorded. Callers can use this to avoid building attribute values for spans that
+     * are not recorded.
+     *
+     * @return <code>true</code> if the span will be exported.
+     */
+    public boolean isRecording() {
+        return tracer != null;
+    }
+
+    /**
+     * Adds an attribute to the span.
+     *
+     * @param key The attribute name.
+     * @param value The attribute value.
+     * @return This span.
+     */
+    public Span setAttribute(String key, String value) {
+        if (tracer == null || value == null) {
+            return this;
+        }
+        if (attributes == null) {
+            attributes = new String[8];
+        } else if (attributeCount * 2 == attributes.length) {
+            attributes = Arrays.copyOf(attributes, attributes.length * 2);
+        }
+        attributes[attributeCount * 2] = key;
+        attributes[attributeCount * 2 + 1] = value;
+        attributeCount++;
+        return this;
+    }
+
+    /**
+     * Marks the span as failed. Only the type of the error is recorded, as exception messages may contain user data.
+     *
+     * @param t The cause of the failure.
+     * @return This span.
+     */
+    public Span setError(Throwable t) {
+        if (tracer != null) {
+            error = t == null ? "" : t.getClass().getName();
+        }
+        return this;
+    }
+
+    /**
+     * Ends the span and queues it for export. Ending a span more than once has no effect.
+     */
+    public void end() {
+        if (tracer != null && endEpochNanos == 0) {
+            endEpochNanos = tracer.now();
+            tracer.end(this);
+        }
+    }
+
+    Span getParent() {
+        return parent;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getTransactionId() {
+        return transactionId;
+    }
+
+    String getTraceId() {
+        return traceId;
+    }
+
+    long getSpanId() {
+        return spanId;
+    }
+
+    long getParentSpanId() {
+        return parentSpanId;
+    }
+
+    long getStartEpochNanos() {
+        return startEpochNanos;
+    }
+
+    long getEndEpochNanos() {
+        return endEpochNanos;
+    }
+
+    int getAttributeCount() {
+        return attributeCount;
+    }
+
+    String getAttributeKey(int index) {
+        return attributes[index * 2];
+    }
+
+    String getAttributeValue(int index) {
+        return attributes[index * 2 + 1];
+    }
+
+    String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.monitoring.tracing;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed size ring of ended spans waiting to be exported. When the exporter falls behind the oldest spans are
+ * overwritten, so recording a span never blocks or allocates.
+ */
+final class SpanBuffer {
+
+    private final AtomicReferenceArray<Span> slots;
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+    private final AtomicLong overwritten = new AtomicLong();
+
+    /**
+     * Creates a buffer holding at least the given number of spans.
+     *
+     * @param capacity The minimum capacity, rounded up to a power of two.
+     */
+    SpanBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an ended span, overwriting the oldest span if the buffer is full.
+     *
+     * @param span The span.
+     */
+    void add(Span span) {
+        int index = (int) (next.getAndIncrement() & mask);
+        if (slots.getAndSet(index, span) != null) {
+            overwritten.incrementAndGet();
+        }
+    }
+
+    /**
+     * Removes all the spans from the buffer.
+     *
+     * @param spans The collection to add the spans to, in no particular order.
+     * @return The number of spans removed.
+     */
+    int drainTo(Collection<Span> spans) {
+        int count = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            Span span = slots.getAndSet(i, null);
+            if (span != null) {
+                spans.add(span);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of spans that were overwritten before they could be exported.
+     *
+     * @return The number of lost spans.
+     */
+    long getOverwritten() {
+        return overwritten.get();
+    }
+
+    /**
+     * Returns the number of spans the buffer can hold.
+     *
+     * @return The capacity.
+     */
+    int getCapacity() {
+        return slots.length();
+    }
+}
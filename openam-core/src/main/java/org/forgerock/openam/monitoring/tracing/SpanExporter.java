@@ -0,0 +1,272 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.monitoring.tracing;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.util.thread.listener.ShutdownListener;
+import org.forgerock.util.thread.listener.ShutdownPriority;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.identity.common.ShutdownManager;
+import com.sun.identity.shared.debug.Debug;
+
+/**
+ * Periodically writes the spans in a {@link SpanBuffer} to files in the OTLP JSON encoding.
+ * <p>
+ * Each file holds a single <code>ExportTraceServiceRequest</code> on one line, which is the format read by the
+ * OpenTelemetry collector's <code>otlpjsonfile</code> receiver. Files are written under a temporary name and then
+ * renamed, so that a collector never reads a partially written file, and only the most recent files are kept.
+ */
+final class SpanExporter {
+
+    private static final Debug DEBUG = Debug.getInstance("amMonitoring");
+    private static final String FILE_PREFIX = "spans-";
+    private static final String FILE_SUFFIX = ".json";
+    private static final String SCOPE_NAME = "org.forgerock.openam";
+    private static final int SPAN_KIND_INTERNAL = 1;
+    private static final int STATUS_CODE_ERROR = 2;
+    private static final Comparator<Span> BY_START = new Comparator<Span>() {
+        @Override
+        public int compare(Span first, Span second) {
+            return Long.compare(first.getStartEpochNanos(), second.getStartEpochNanos());
+        }
+    };
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final SpanBuffer buffer;
+    private final File directory;
+    private final int maxFiles;
+    private final long intervalMillis;
+    private final String[] resourceAttributes;
+    private final List<Span> pending = new ArrayList<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private long lastOverwritten = 0;
+    private long lastFileTime = 0;
+
+    /**
+     * Creates an exporter.
+     *
+     * @param buffer The buffer to export the spans of.
+     * @param directory The directory to write the files to.
+     * @param maxFiles The number of files to keep.
+     * @param intervalMillis How often to write a file, in milliseconds.
+     * @param resourceAttributes Alternating names and values of the attributes describing this server.
+     */
+    SpanExporter(SpanBuffer buffer, File directory, int maxFiles, long intervalMillis, String... resourceAttributes) {
+        this.buffer = buffer;
+        this.directory = directory;
+        this.maxFiles = Math.max(maxFiles, 1);
+        this.intervalMillis = Math.max(intervalMillis, 100);
+        this.resourceAttributes = resourceAttributes;
+        this.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runExporter();
+            }
+        }, "SpanExporter");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the exporter thread, which writes the remaining spans when the server shuts down.
+     */
+    void start() {
+        thread.start();
+        ShutdownManager.getInstance().addShutdownListener(new ShutdownListener() {
+            @Override
+            public void shutdown() {
+                stop();
+            }
+        }, ShutdownPriority.LOWEST);
+    }
+
+    /**
+     * Stops the exporter thread and writes the remaining spans.
+     */
+    void stop() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        export();
+    }
+
+    private void runExporter() {
+        while (running) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                // stopping
+            }
+            export();
+        }
+    }
+
+    /**
+     * Writes the spans currently in the buffer to a new file.
+     */
+    synchronized void export() {
+        pending.clear();
+        if (buffer.drainTo(pending) == 0) {
+            return;
+        }
+        long overwritten = buffer.getOverwritten();
+        if (overwritten > lastOverwritten && DEBUG.warningEnabled()) {
+            DEBUG.warning("SpanExporter: " + (overwritten - lastOverwritten) + " spans were lost as the buffer of "
+                    + buffer.getCapacity() + " spans was full, consider a lower sample rate or export interval");
+        }
+        lastOverwritten = overwritten;
+        Collections.sort(pending, BY_START);
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Unable to create directory " + directory);
+            }
+            // file names must be unique and sort in the order they were written
+            lastFileTime = Math.max(System.currentTimeMillis(), lastFileTime + 1);
+            String name = FILE_PREFIX + lastFileTime;
+            File temp = new File(directory, name + ".tmp");
+            try (OutputStream out = new FileOutputStream(temp)) {
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                write(pending, writer);
+                writer.write('\n');
+                writer.flush();
+            }
+            File target = new File(directory, name + FILE_SUFFIX);
+            if (!temp.renameTo(target)) {
+                throw new IOException("Unable to rename " + temp + " to " + target);
+            }
+            deleteOldFiles();
+        } catch (IOException | RuntimeException e) {
+            DEBUG.error("SpanExporter: Unable to export " + pending.size() + " spans to " + directory, e);
+        } finally {
+            pending.clear();
+        }
+    }
+
+    private void deleteOldFiles() {
+        File[] files = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+            }
+        });
+        if (files == null || files.length <= maxFiles) {
+            return;
+        }
+        Arrays.sort(files);
+        for (int i = 0; i < files.length - maxFiles; i++) {
+            if (!files[i].delete() && DEBUG.warningEnabled()) {
+                DEBUG.warning("SpanExporter: Unable to delete " + files[i]);
+            }
+        }
+    }
+
+    /**
+     * Writes the spans as a single OTLP JSON <code>ExportTraceServiceRequest</code>.
+     *
+     * @param spans The ended spans.
+     * @param writer The writer to write to. It is not closed.
+     * @throws IOException If the writer fails.
+     */
+    void write(List<Span> spans, Writer writer) throws IOException {
+        JsonGenerator json = jsonFactory.createGenerator(writer);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.writeStartObject();
+        json.writeArrayFieldStart("resourceSpans");
+        json.writeStartObject();
+        json.writeObjectFieldStart("resource");
+        json.writeArrayFieldStart("attributes");
+        for (int i = 0; i + 1 < resourceAttributes.length; i += 2) {
+            writeAttribute(json, resourceAttributes[i], resourceAttributes[i + 1]);
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeArrayFieldStart("scopeSpans");
+        json.writeStartObject();
+        json.writeObjectFieldStart("scope");
+        json.writeStringField("name", SCOPE_NAME);
+        json.writeEndObject();
+        json.writeArrayFieldStart("spans");
+        for (Span span : spans) {
+            writeSpan(json, span);
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeEndArray();
+        json.writeEndObject();
+        json.flush();
+    }
+
+    private void writeSpan(JsonGenerator json, Span span) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("traceId", span.getTraceId());
+        json.writeStringField("spanId", Tracer.toSpanId(span.getSpanId()));
+        if (span.getParentSpanId() != 0) {
+            json.writeStringField("parentSpanId", Tracer.toSpanId(span.getParentSpanId()));
+        }
+        json.writeStringField("name", span.getName());
+        json.writeNumberField("kind", SPAN_KIND_INTERNAL);
+        json.writeStringField("startTimeUnixNano", Long.toString(span.getStartEpochNanos()));
+        json.writeStringField("endTimeUnixNano", Long.toString(span.getEndEpochNanos()));
+        json.writeArrayFieldStart("attributes");
+        writeAttribute(json, "openam.transaction_id", span.getTransactionId());
+        for (int i = 0; i < span.getAttributeCount(); i++) {
+            writeAttribute(json, span.getAttributeKey(i), span.getAttributeValue(i));
+        }
+        json.writeEndArray();
+        if (span.getError() != null) {
+            json.writeObjectFieldStart("status");
+            json.writeNumberField("code", STATUS_CODE_ERROR);
+            json.writeStringField("message", span.getError());
+            json.writeEndObject();
+        }
+        json.writeEndObject();
+    }
+
+    private void writeAttribute(JsonGenerator json, String key, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        json.writeStartObject();
+        json.writeStringField("key", key);
+        json.writeObjectFieldStart("value");
+        json.writeStringField("stringValue", value);
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.monitoring.tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.openam.audit.context.AuditRequestContext;
+
+/**
+ * Starts and records the spans of sampled requests.
+ * <p>
+ * Requests are identified by the transaction ID of their {@link AuditRequestContext}, which is propagated to the
+ * threads that work on the request. The sampling decision is a hash of the root of the transaction ID, so every span
+ * of a request, on any thread or server, makes the same decision without any coordination, and all the spans of a
+ * request share a trace ID derived from the same value.
+ */
+final class Tracer {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_SECOND_BASIS = 0x84222325cbf29ce4L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final String HEX = "0123456789abcdef";
+
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+    private final double sampleRate;
+    private final SpanBuffer buffer;
+    private final long epochOffsetNanos;
+
+    /**
+     * Creates a tracer.
+     *
+     * @param sampleRate The fraction of requests to trace, between 0 and 1.
+     * @param buffer The buffer to add the ended spans to.
+     */
+    Tracer(double sampleRate, SpanBuffer buffer) {
+        this.sampleRate = sampleRate;
+        this.buffer = buffer;
+        this.epochOffsetNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()) - System.nanoTime();
+    }
+
+    /**
+     * Starts a span for the request of the current thread. The span is a child of the innermost span of the same
+     * request still open on this thread, if any.
+     *
+     * @param name The name of the operation.
+     * @return The span, or {@link Span#NOOP} if the request is not sampled.
+     */
+    Span start(String name) {
+        String transactionId = AuditRequestContext.getTransactionIdValue();
+        Span parent = current.get();
+        String traceId;
+        if (parent != null && parent.getTransactionId().equals(transactionId)) {
+            traceId = parent.getTraceId();
+        } else if (isSampled(transactionId)) {
+            // any open span on this thread belongs to an earlier request
+            parent = null;
+            traceId = toTraceId(transactionId);
+        } else {
+            return Span.NOOP;
+        }
+        Span span = new Span(this, parent, name, transactionId, traceId, newSpanId(), now());
+        current.set(span);
+        return span;
+    }
+
+    /**
+     * Records an ended span and makes its parent the innermost span of this thread again.
+     *
+     * @param span The span.
+     */
+    void end(Span span) {
+        current.set(span.getParent());
+        buffer.add(span);
+    }
+
+    /**
+     * Returns the current time in nanoseconds since the epoch, with the resolution of {@link System#nanoTime()}.
+     *
+     * @return The time.
+     */
+    long now() {
+        return System.nanoTime() + epochOffsetNanos;
+    }
+
+    /**
+     * Whether the request with the given transaction ID is traced.
+     *
+     * @param transactionId The transaction ID.
+     * @return <code>true</code> if spans should be recorded for the request.
+     */
+    boolean isSampled(String transactionId) {
+        if (sampleRate >= 1) {
+            return true;
+        } else if (sampleRate <= 0) {
+            return false;
+        }
+        return (hash(transactionId, FNV_OFFSET_BASIS) >>> 11) * 0x1.0p-53 < sampleRate;
+    }
+
+    /**
+     * Derives the 128 bit trace ID of a request from the root of its transaction ID. Transaction IDs generated by
+     * the server are random UUIDs, which are used as they are.
+     *
+     * @param transactionId The transaction ID.
+     * @return The trace ID, as 32 lower case hexadecimal digits.
+     */
+    static String toTraceId(String transactionId) {
+        int end = rootLength(transactionId);
+        StringBuilder builder = new StringBuilder(32);
+        for (int i = 0; i < end; i++) {
+            char c = Character.toLowerCase(transactionId.charAt(i));
+            if (HEX.indexOf(c) >= 0) {
+                builder.append(c);
+            } else if (c != '-') {
+                builder.setLength(0);
+                break;
+            }
+        }
+        if (builder.length() != 32) {
+            builder.setLength(0);
+            appendHex(builder, hash(transactionId, FNV_OFFSET_BASIS));
+            appendHex(builder, hash(transactionId, FNV_SECOND_BASIS));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Formats a span ID as 16 lower case hexadecimal digits.
+     *
+     * @param spanId The span ID.
+     * @return The formatted span ID.
+     */
+    static String toSpanId(long spanId) {
+        StringBuilder builder = new StringBuilder(16);
+        appendHex(builder, spanId);
+        return builder.toString();
+    }
+
+    private static long newSpanId() {
+        long spanId;
+        do {
+            spanId = ThreadLocalRandom.current().nextLong();
+        } while (spanId == 0);
+        return spanId;
+    }
+
+    /**
+     * FNV-1a hash of the root of the transaction ID, which is the part before any sub transaction suffix.
+     */
+    private static long hash(String transactionId, long basis) {
+        long hash = basis;
+        int end = rootLength(transactionId);
+        for (int i = 0; i < end; i++) {
+            hash ^= transactionId.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static int rootLength(String transactionId) {
+        int slash = transactionId.indexOf('/');
+        return slash < 0 ? transactionId.length() : slash;
+    }
+
+    private static void appendHex(StringBuilder builder, long value) {
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            builder.append(HEX.charAt((int) (value >>> shift) & 0xf));
+        }
+    }
+}
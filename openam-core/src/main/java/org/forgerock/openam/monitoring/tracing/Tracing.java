@@ -0,0 +1,128 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.monitoring.tracing;
+
+import java.io.File;
+
+import com.iplanet.am.util.SystemProperties;
+import com.sun.identity.shared.Constants;
+import com.sun.identity.shared.debug.Debug;
+
+/**
+ * Entry point for recording tracing spans on the server's hot paths.
+ * <p>
+ * Tracing is configured once, when this class is first used, from the following system properties:
+ * <ul>
+ *     <li>{@value #ENABLED_PROPERTY}: whether spans are recorded at all, <code>false</code> by default.</li>
+ *     <li>{@value #SAMPLE_RATE_PROPERTY}: the fraction of requests to trace, <code>0.1</code> by default.</li>
+ *     <li>{@value #BUFFER_SIZE_PROPERTY}: the number of spans held until the next export.</li>
+ *     <li>{@value #EXPORT_INTERVAL_PROPERTY}: how often the spans are written to a file, in seconds.</li>
+ *     <li>{@value #DIRECTORY_PROPERTY}: where the files are written, the <code>traces</code> folder of the debug
+ *     directory by default.</li>
+ *     <li>{@value #MAX_FILES_PROPERTY}: how many files are kept.</li>
+ * </ul>
+ * When tracing is disabled {@link #start(String)} returns a shared span without looking up the request, so
+ * instrumented code allocates nothing.
+ */
+public final class Tracing {
+
+    /**
+     * System property to enable tracing.
+     */
+    public static final String ENABLED_PROPERTY = "org.openidentityplatform.openam.tracing.enabled";
+    /**
+     * System property for the fraction of requests to trace.
+     */
+    public static final String SAMPLE_RATE_PROPERTY = "org.openidentityplatform.openam.tracing.sampleRate";
+    /**
+     * System property for the number of spans held in memory until the next export.
+     */
+    public static final String BUFFER_SIZE_PROPERTY = "org.openidentityplatform.openam.tracing.bufferSize";
+    /**
+     * System property for the interval between exports, in seconds.
+     */
+    public static final String EXPORT_INTERVAL_PROPERTY = "org.openidentityplatform.openam.tracing.exportInterval";
+    /**
+     * System property for the directory the span files are written to.
+     */
+    public static final String DIRECTORY_PROPERTY = "org.openidentityplatform.openam.tracing.directory";
+    /**
+     * System property for the number of span files kept in the directory.
+     */
+    public static final String MAX_FILES_PROPERTY = "org.openidentityplatform.openam.tracing.maxFiles";
+    private static final double DEFAULT_SAMPLE_RATE = 0.1;
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final int DEFAULT_EXPORT_INTERVAL = 10;
+    private static final int DEFAULT_MAX_FILES = 100;
+
+    private static final Tracer TRACER = createTracer();
+
+    private Tracing() {
+    }
+
+    /**
+     * Starts a span for the request being processed by the current thread. The span must be ended by calling
+     * {@link Span#end()} on the same thread.
+     *
+     * @param name The name of the operation, such as <code>cts.read</code>.
+     * @return The span, which does nothing if tracing is disabled or the request is not sampled.
+     */
+    public static Span start(String name) {
+        return TRACER == null ? Span.NOOP : TRACER.start(name);
+    }
+
+    /**
+     * Whether tracing is enabled.
+     *
+     * @return <code>true</code> if sampled requests are traced.
+     */
+    public static boolean isEnabled() {
+        return TRACER != null;
+    }
+
+    private static Tracer createTracer() {
+        if (!SystemProperties.getAsBoolean(ENABLED_PROPERTY, false)) {
+            return null;
+        }
+        Debug debug = Debug.getInstance("amMonitoring");
+        double sampleRate = DEFAULT_SAMPLE_RATE;
+        String rate = SystemProperties.get(SAMPLE_RATE_PROPERTY);
+        if (rate != null) {
+            try {
+                sampleRate = Double.parseDouble(rate.trim());
+            } catch (NumberFormatException e) {
+                debug.error("Tracing: Invalid value for " + SAMPLE_RATE_PROPERTY + ": " + rate);
+            }
+        }
+        String directory = SystemProperties.get(DIRECTORY_PROPERTY);
+        if (directory == null) {
+            directory = SystemProperties.get(Constants.SERVICES_DEBUG_DIRECTORY) + File.separator + "traces";
+        }
+        SpanBuffer buffer = new SpanBuffer(SystemProperties.getAsInt(BUFFER_SIZE_PROPERTY, DEFAULT_BUFFER_SIZE));
+        SpanExporter exporter = new SpanExporter(buffer, new File(directory),
+                SystemProperties.getAsInt(MAX_FILES_PROPERTY, DEFAULT_MAX_FILES),
+                SystemProperties.getAsLong(EXPORT_INTERVAL_PROPERTY, DEFAULT_EXPORT_INTERVAL) * 1000,
+                "service.name", "openam",
+                "service.instance.id", SystemProperties.getServerInstanceName(),
+                "host.name", SystemProperties.get(Constants.AM_SERVER_HOST));
+        exporter.start();
+        if (debug.messageEnabled()) {
+            debug.message("Tracing: Sampling " + sampleRate + " of requests, exporting to " + directory);
+        }
+        return new Tracer(sampleRate, buffer);
+    }
+}
@@ -15,17 +15,20 @@
  */
 package org.forgerock.openam.session.stateless.cache;
 
-import java.util.Collections;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.forgerock.openam.session.stateless.StatelessConfig;
-import org.forgerock.openam.utils.collections.LeastRecentlyUsed;
 import org.forgerock.util.Reject;
 import org.forgerock.util.annotations.VisibleForTesting;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 import com.iplanet.dpro.session.service.SessionServiceConfig;
 import com.iplanet.dpro.session.share.SessionInfo;
 import com.iplanet.services.naming.ServiceListeners;
@@ -36,21 +39,40 @@ import com.iplanet.services.naming.ServiceListeners;
  * This cache acts as a performance enhancement which will reduce the number of times JWT
  * tokens need to be decrypted and decoded.
  *
- * This cache is intentionally unable to perform the reverse lookup of SessionInfo to
- * JWT, as we expect the JWT to change each time the SessionInfo changes.
+ * The cache is bounded by {@link StatelessConfig#getJWTCacheSize()} and evicts the least
+ * recently used entries once full. A reverse index from SessionInfo instance to JWT is
+ * maintained alongside the cache so that {@link #contains(SessionInfo)} does not need to
+ * scan the cached values. The index is keyed on SessionInfo identity rather than equality,
+ * as we expect the JWT to change each time the SessionInfo changes.
  *
  * Assumption: There is only one representation of a JWT to the SessionInfo it contains.
  *
- * Thread Safety: This class uses a synchronized data structure and so is thread safe.
+ * Thread Safety: This class uses a segmented concurrent cache and so is thread safe, without
+ * a single lock shared by all readers.
  */
 @Singleton
 public class StatelessJWTCache {
-    private final Map<String, SessionInfo> sessionInfoCache;
+
+    private static final int CONCURRENCY_LEVEL = 16;
+
+    private final Cache<String, SessionInfo> sessionInfoCache;
+    private final ConcurrentMap<SessionInfoKey, String> jwtIndex = new ConcurrentHashMap<>();
 
     @Inject
     public StatelessJWTCache(StatelessConfig config, ServiceListeners listeners) {
-        sessionInfoCache = Collections.synchronizedMap(
-                new LeastRecentlyUsed<String, SessionInfo>(config.getJWTCacheSize()));
+        sessionInfoCache = CacheBuilder.newBuilder()
+                .concurrencyLevel(CONCURRENCY_LEVEL)
+                .maximumSize(Math.max(0, config.getJWTCacheSize()))
+                .recordStats()
+                .removalListener(new RemovalListener<String, SessionInfo>() {
+                    @Override
+                    public void onRemoval(RemovalNotification<String, SessionInfo> notification) {
+                        if (notification.getValue() != null) {
+                            jwtIndex.remove(new SessionInfoKey(notification.getValue()), notification.getKey());
+                        }
+                    }
+                })
+                .build();
 
         // Responds to configuration changes, preventing possibly invalid keys from remaining in the cache
         final ServiceListeners.Action action = new ServiceListeners.Action() {
@@ -70,6 +92,7 @@ public class StatelessJWTCache {
      */
     public void cache(SessionInfo info, String jwtToken) {
         Reject.ifNull(info, jwtToken, "Arguments cannot be null.");
+        jwtIndex.put(new SessionInfoKey(info), jwtToken);
         sessionInfoCache.put(jwtToken, info);
     }
 
@@ -78,15 +101,18 @@ public class StatelessJWTCache {
      * @return Possibly null. Cached SessionInfo that corresponds to the given JWT token.
      */
     public SessionInfo getSessionInfo(String jwt) {
-        return sessionInfoCache.get(jwt);
+        if (jwt == null) {
+            return null;
+        }
+        return sessionInfoCache.getIfPresent(jwt);
     }
 
     /**
-     * @param info Non null SessionInfo to test.
-     * @return True if there is a JWT representation for this SessionInfo.
+     * @param info Possibly null SessionInfo to test.
+     * @return True if there is a JWT representation for this SessionInfo instance.
      */
     public boolean contains(SessionInfo info) {
-        return sessionInfoCache.containsValue(info);
+        return info != null && jwtIndex.containsKey(new SessionInfoKey(info));
     }
 
     /**
@@ -94,7 +120,7 @@ public class StatelessJWTCache {
      * @return True if this JWT has been stored in the cache previously.
      */
     public boolean contains(String jwtToken) {
-        return sessionInfoCache.containsKey(jwtToken);
+        return jwtToken != null && sessionInfoCache.asMap().containsKey(jwtToken);
     }
 
     /**
@@ -103,7 +129,30 @@ public class StatelessJWTCache {
      * @param jwt the JWT to remove from the cache.
      */
     public void remove(String jwt) {
-        sessionInfoCache.remove(jwt);
+        if (jwt != null) {
+            sessionInfoCache.invalidate(jwt);
+        }
+    }
+
+    /**
+     * @return The number of lookups which found a cached SessionInfo.
+     */
+    public long getHitCount() {
+        return sessionInfoCache.stats().hitCount();
+    }
+
+    /**
+     * @return The number of lookups which did not find a cached SessionInfo.
+     */
+    public long getMissCount() {
+        return sessionInfoCache.stats().missCount();
+    }
+
+    /**
+     * @return The number of entries evicted because the cache was full.
+     */
+    public long getEvictionCount() {
+        return sessionInfoCache.stats().evictionCount();
     }
 
     /**
@@ -114,6 +163,28 @@ public class StatelessJWTCache {
      */
     @VisibleForTesting
     void clear() {
-        sessionInfoCache.clear();
+        sessionInfoCache.invalidateAll();
+        jwtIndex.clear();
+    }
+
+    /**
+     * Identity based key for the reverse index, as SessionInfo equality changes with its mutable state.
+     */
+    private static final class SessionInfoKey {
+        private final SessionInfo info;
+
+        private SessionInfoKey(SessionInfo info) {
+            this.info = info;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof SessionInfoKey && ((SessionInfoKey) o).info == info;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(info);
+        }
     }
-}
\ No newline at end of file
+}
@@ -15,11 +15,15 @@
  */
 package org.forgerock.openam.sm.datalayer.api;
 
+import org.forgerock.util.Function;
+import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.Promises;
+
 /**
  * Abstract task processed by the Task Processor.
  * @param <T> Connection to use.
  */
-public abstract class AbstractTask<T> implements Task {
+public abstract class AbstractTask<T> implements AsyncTask {
 
     protected final ResultHandler<T, ?> handler;
     private boolean isError = false;
@@ -53,6 +57,52 @@ public abstract class AbstractTask<T> implements Task {
         }
     }
 
+    @Override
+    public Promise<Void, DataLayerException> executeAsync(AsyncTokenStorageAdapter adapter) {
+        if (isError) {
+            return Promises.newResultPromise(null);
+        }
+
+        Promise<? extends T, DataLayerException> result = performTaskAsync(adapter);
+        if (result == null) {
+            try {
+                performTask(adapter);
+                return Promises.newResultPromise(null);
+            } catch (DataLayerException e) {
+                processError(e);
+                return Promises.newExceptionPromise(e);
+            }
+        }
+
+        return result.then(
+                new Function<T, Void, DataLayerException>() {
+                    @Override
+                    public Void apply(T value) {
+                        handler.processResults(value);
+                        return null;
+                    }
+                },
+                new Function<DataLayerException, Void, DataLayerException>() {
+                    @Override
+                    public Void apply(DataLayerException e) throws DataLayerException {
+                        processError(e);
+                        throw e;
+                    }
+                });
+    }
+
+    /**
+     * Starts the task without blocking. The result handler is notified by the caller once the returned
+     * promise completes.
+     *
+     * @param adapter Required for datalayer operations.
+     * @return The pending result, or null if this task can only be performed synchronously, in which case
+     * {@link #performTask(TokenStorageAdapter)} is used instead.
+     */
+    protected Promise<? extends T, DataLayerException> performTaskAsync(AsyncTokenStorageAdapter adapter) {
+        return null;
+    }
+
     /**
      * Performs a task.
      *
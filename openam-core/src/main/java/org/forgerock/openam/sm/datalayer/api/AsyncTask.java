@@ -0,0 +1,34 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.sm.datalayer.api;
+
+import org.forgerock.util.promise.Promise;
+
+/**
+ * A {@link Task} which can be performed against an {@link AsyncTokenStorageAdapter} without blocking the
+ * executing thread.
+ */
+public interface AsyncTask extends Task {
+
+    /**
+     * Start the task. The task's result handler is notified before the returned promise completes.
+     *
+     * @param adapter Connection-coupled utility functions to perform the task with.
+     * @return A promise which completes once the task has finished, successfully or not.
+     */
+    Promise<Void, DataLayerException> executeAsync(AsyncTokenStorageAdapter adapter);
+}
@@ -0,0 +1,75 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.sm.datalayer.api;
+
+import org.forgerock.openam.cts.api.tokens.Token;
+import org.forgerock.openam.sm.datalayer.api.query.PartialToken;
+import org.forgerock.util.Options;
+import org.forgerock.util.promise.Promise;
+
+/**
+ * A {@link TokenStorageAdapter} which can also perform the single token operations without blocking the
+ * calling thread.
+ *
+ * Each operation has the same semantics as its synchronous counterpart. Failures are signalled through the
+ * returned promise rather than thrown.
+ *
+ * @see AsyncTask
+ */
+public interface AsyncTokenStorageAdapter extends TokenStorageAdapter {
+
+    /**
+     * Create the Token in the database.
+     *
+     * @param token Non null Token to create.
+     * @param options Non null Options for the operations.
+     * @return A promise of the newly created token.
+     * @see #create(Token, Options)
+     */
+    Promise<Token, DataLayerException> createAsync(Token token, Options options);
+
+    /**
+     * Reads the Token with the given id.
+     *
+     * @param tokenId The id of the Token to read.
+     * @param options Non null Options for the operations.
+     * @return A promise of the Token, or of null if it was not found.
+     * @see #read(String, Options)
+     */
+    Promise<Token, DataLayerException> readAsync(String tokenId, Options options);
+
+    /**
+     * Update the Token based on whether there were any changes between the two.
+     *
+     * @param previous The non null previous Token to check against.
+     * @param updated The non null Token to update with.
+     * @param options The non null Options for the operation.
+     * @return A promise of the updated token.
+     * @see #update(Token, Token, Options)
+     */
+    Promise<Token, DataLayerException> updateAsync(Token previous, Token updated, Options options);
+
+    /**
+     * Performs a delete against the Token ID provided.
+     *
+     * @param tokenId The non null Token ID to delete.
+     * @param options The non null Options for the operation.
+     * @return A promise of a {@link PartialToken} containing at least the Token ID, or of null if it was not found.
+     * @see #delete(String, Options)
+     */
+    Promise<PartialToken, DataLayerException> deleteAsync(String tokenId, Options options);
+}
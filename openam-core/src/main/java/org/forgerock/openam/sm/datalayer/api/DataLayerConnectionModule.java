@@ -108,7 +108,7 @@ public abstract class DataLayerConnectionModule extends PrivateModule {
     protected void configureTaskExecutor(PrivateBinder binder) {
         if (executorType != null) {
             binder.bind(TokenStorageAdapter.class).to(adapterType);
-            binder.bind(TaskExecutor.class).to(executorType);
+            bindTaskExecutor(binder, executorType);
             binder.bind(TaskFactory.class).in(Singleton.class);
         }
         if (PooledTaskExecutor.class.equals(executorType)) {
@@ -118,6 +118,17 @@ public abstract class DataLayerConnectionModule extends PrivateModule {
         }
     }
 
+    /**
+     * Binds the {@link TaskExecutor} for this connection type. By default this is a direct binding to the
+     * executor type given on construction, subclasses may override this to select an implementation at runtime.
+     *
+     * @param binder The module's binder.
+     * @param executorType The executor type given on construction. Never null.
+     */
+    protected void bindTaskExecutor(PrivateBinder binder, Class<? extends TaskExecutor> executorType) {
+        binder.bind(TaskExecutor.class).to(executorType);
+    }
+
     /**
      * If the connection type requires a data store, it can be bound here.
      */
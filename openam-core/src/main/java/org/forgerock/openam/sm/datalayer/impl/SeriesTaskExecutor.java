@@ -32,12 +32,15 @@ import org.forgerock.openam.cts.api.CoreTokenConstants;
 import org.forgerock.openam.cts.impl.queue.QueueSelector;
 import org.forgerock.openam.cts.impl.queue.config.CTSQueueConfiguration;
 import org.forgerock.openam.shared.concurrency.ThreadMonitor;
+import org.forgerock.openam.sm.datalayer.api.AsyncTask;
+import org.forgerock.openam.sm.datalayer.api.AsyncTokenStorageAdapter;
 import org.forgerock.openam.sm.datalayer.api.DataLayerConstants;
 import org.forgerock.openam.sm.datalayer.api.DataLayerException;
 import org.forgerock.openam.sm.datalayer.api.QueueTimeoutException;
 import org.forgerock.openam.sm.datalayer.api.Task;
 import org.forgerock.openam.sm.datalayer.api.TaskExecutor;
 import org.forgerock.openam.sm.datalayer.api.TokenStorageAdapter;
+import org.forgerock.util.promise.Promise;
 
 import com.sun.identity.shared.debug.Debug;
 
@@ -195,6 +198,20 @@ public class SeriesTaskExecutor implements TaskExecutor {
         return new AuditRequestContextPropagatingTask(task);
     }
 
+    /**
+     * Decorates the task so that the caller's thread local {@link AuditRequestContext} is propagated to the thread
+     * which performs the task. Tasks which implement {@link AsyncTask} remain asynchronous.
+     *
+     * @param task Non null task, created on the caller's thread.
+     * @return Non null decorated task.
+     */
+    public static Task propagateAuditRequestContext(Task task) {
+        if (task instanceof AsyncTask) {
+            return new AuditRequestContextPropagatingAsyncTask((AsyncTask) task);
+        }
+        return new AuditRequestContextPropagatingTask(task);
+    }
+
     /**
      * <code>Task</code> Decorator that propagates thread local {@link AuditRequestContext} to worker thread.
      */
@@ -224,6 +241,36 @@ public class SeriesTaskExecutor implements TaskExecutor {
         public void processError(DataLayerException error) {
             delegate.processError(error);
         }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+
+    /**
+     * <code>AsyncTask</code> Decorator that propagates thread local {@link AuditRequestContext} to the thread which
+     * starts the task.
+     */
+    static class AuditRequestContextPropagatingAsyncTask extends AuditRequestContextPropagatingTask
+            implements AsyncTask {
+
+        private final AsyncTask delegate;
+
+        AuditRequestContextPropagatingAsyncTask(AsyncTask delegate) {
+            super(delegate);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Promise<Void, DataLayerException> executeAsync(AsyncTokenStorageAdapter adapter) {
+            setContext();
+            try {
+                return delegate.executeAsync(adapter);
+            } finally {
+                revertContext();
+            }
+        }
     }
 
 }
@@ -0,0 +1,373 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.sm.datalayer.impl;
+
+import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.forgerock.openam.cts.api.CoreTokenConstants;
+import org.forgerock.openam.cts.impl.queue.QueueSelector;
+import org.forgerock.openam.cts.impl.queue.config.CTSQueueConfiguration;
+import org.forgerock.openam.shared.concurrency.ThreadMonitor;
+import org.forgerock.openam.sm.datalayer.api.DataLayerConstants;
+import org.forgerock.openam.sm.datalayer.api.DataLayerException;
+import org.forgerock.openam.sm.datalayer.api.QueueTimeoutException;
+import org.forgerock.openam.sm.datalayer.api.Task;
+import org.forgerock.openam.sm.datalayer.api.TaskExecutor;
+
+import com.sun.identity.shared.debug.Debug;
+
+/**
+ * A {@link TaskExecutor} which, like the {@link SeriesTaskExecutor}, guarantees that tasks for a single
+ * {@link org.forgerock.openam.cts.api.tokens.Token} are processed in order, but which does not tie a Token ID to
+ * a single processor for the lifetime of the server.
+ *
+ * Tasks are grouped into a chain per Token ID. A chain exists for as long as there are outstanding tasks for its
+ * Token ID and is only ever held by one processor at a time, which gives the ordering guarantee. New chains are
+ * placed on the deque of the processor selected by the {@link QueueSelector}, but a processor that has run out of
+ * work will steal whole chains from the tail of the other processors' deques. This prevents a small number of hot
+ * tokens from backing up one queue while the remaining processors sit idle.
+ *
+ * A processor drains up to {@link CTSQueueConfiguration#getBatchSize()} tasks from a chain in one pass, executing
+ * them back to back on its own connection, before returning the chain to its deque so that other chains get a turn.
+ *
+ * The total number of queued tasks is bounded by the number of processors multiplied by
+ * {@link CTSQueueConfiguration#getQueueSize()}. When that bound is reached the caller is required to block, giving
+ * the same throttling behaviour as the {@link SeriesTaskExecutor}.
+ *
+ * @see org.forgerock.openam.cts.impl.queue.config.CTSQueueConfiguration#getExecutorType()
+ */
+public class WorkStealingTaskExecutor implements TaskExecutor {
+
+    /**
+     * How long an idle processor waits on its own deque before looking for work to steal.
+     */
+    static final long STEAL_INTERVAL_MILLIS = 5;
+
+    private final ConcurrentMap<String, TaskChain> chains = new ConcurrentHashMap<>();
+    private final Debug debug;
+    private final ExecutorService poolService;
+    private final Provider<SimpleTaskExecutor> executorProvider;
+    private final ThreadMonitor monitor;
+    private final CTSQueueConfiguration configuration;
+    private List<BlockingDeque<TaskChain>> deques;
+    private Semaphore capacity;
+    private int processors;
+    private int batchSize;
+    private boolean initialised = false;
+
+    /**
+     * Create a default instance of the WorkStealingTaskExecutor.
+     *
+     * @param poolService Required to schedule worker threads.
+     * @param executorProvider Required to provide each worker thread with its own executor.
+     * @param monitor Required to ensure threads are restarted.
+     * @param configuration Required to determine runtime configuration options.
+     * @param debug Required for debugging.
+     */
+    @Inject
+    public WorkStealingTaskExecutor(
+            ExecutorService poolService,
+            Provider<SimpleTaskExecutor> executorProvider,
+            ThreadMonitor monitor,
+            CTSQueueConfiguration configuration,
+            @Named(DataLayerConstants.DATA_LAYER_DEBUG) Debug debug) {
+        this.poolService = poolService;
+        this.executorProvider = executorProvider;
+        this.monitor = monitor;
+        this.configuration = configuration;
+        this.debug = debug;
+    }
+
+    /**
+     * Create a processor thread for all configured connections, each with its own deque.
+     * Ensure each thread is monitored by {@link ThreadMonitor}.
+     *
+     * Synchronized to ensure that only one set of threads are initialised.
+     */
+    @Override
+    public synchronized void start() {
+        if (initialised) {
+            return;
+        }
+
+        try {
+            processors = configuration.getProcessors();
+        } catch (DataLayerException e) {
+            throw new RuntimeException(e);
+        }
+        batchSize = configuration.getBatchSize();
+        capacity = new Semaphore(processors * configuration.getQueueSize());
+
+        List<BlockingDeque<TaskChain>> created = new ArrayList<>(processors);
+        for (int ii = 0; ii < processors; ii++) {
+            created.add(new LinkedBlockingDeque<TaskChain>());
+        }
+        deques = Collections.unmodifiableList(created);
+
+        for (int ii = 0; ii < processors; ii++) {
+            monitor.watchThread(poolService, new Processor(ii, executorProvider.get()));
+        }
+        debug("Created {0} work stealing Task Processors", processors);
+
+        initialised = true;
+    }
+
+    @Override
+    public void execute(String tokenId, Task task) throws DataLayerException {
+        acquire(task);
+        Task wrapped = wrap(task);
+
+        if (tokenId == null) {
+            TaskChain chain = new TaskChain(null);
+            chain.append(wrapped);
+            schedule(chain, ThreadLocalRandom.current().nextInt(processors));
+            return;
+        }
+
+        while (true) {
+            TaskChain chain = chains.get(tokenId);
+            if (chain == null) {
+                TaskChain created = new TaskChain(tokenId);
+                created.append(wrapped);
+                if (chains.putIfAbsent(tokenId, created) == null) {
+                    schedule(created, QueueSelector.select(tokenId, processors));
+                    return;
+                }
+            } else if (chain.append(wrapped)) {
+                return;
+            }
+            // The chain for this token was closed between lookup and append, so try again.
+        }
+    }
+
+    /**
+     * Reserve space for the task, waiting up to the configured queue timeout.
+     * @param task Task being queued.
+     * @throws QueueTimeoutException If the timeout expired before space became available.
+     */
+    private void acquire(Task task) throws QueueTimeoutException {
+        try {
+            debug("Queuing Task {0}", task);
+            if (!capacity.tryAcquire(configuration.getQueueTimeout(), TimeUnit.SECONDS)) {
+                throw new QueueTimeoutException(task);
+            }
+        } catch (InterruptedException e) {
+            throw new QueueTimeoutException(task, e);
+        }
+    }
+
+    private void schedule(TaskChain chain, int processor) {
+        debug("Select Queue: Token ID {0} - Queue {1}", chain.tokenId, processor);
+        deques.get(processor).offerLast(chain);
+    }
+
+    /**
+     * Take a chain from the tail of another processor's deque, starting from a random victim.
+     *
+     * @param thief Index of the processor looking for work.
+     * @return A stolen chain, or null if no other processor had queued work.
+     */
+    private TaskChain steal(int thief) {
+        int start = ThreadLocalRandom.current().nextInt(processors);
+        for (int ii = 0; ii < processors; ii++) {
+            int victim = (start + ii) % processors;
+            if (victim == thief) {
+                continue;
+            }
+            TaskChain chain = deques.get(victim).pollLast();
+            if (chain != null) {
+                debug("Processor {0} stole Token ID {1} from Queue {2}", thief, chain.tokenId, victim);
+                return chain;
+            }
+        }
+        return null;
+    }
+
+    private void debug(String format, Object... args) {
+        if (debug.messageEnabled()) {
+            debug.message(MessageFormat.format(
+                    CoreTokenConstants.DEBUG_ASYNC_HEADER + format, args));
+        }
+    }
+
+    Task wrap(Task task) {
+        return new SeriesTaskExecutor.AuditRequestContextPropagatingTask(task);
+    }
+
+    /**
+     * The outstanding tasks for a single Token ID. Once all of its tasks have been executed the chain is closed and
+     * removed, and any further tasks for the Token ID start a new chain.
+     */
+    final class TaskChain {
+        private final String tokenId;
+        private final Deque<Task> tasks = new ArrayDeque<>();
+        private boolean closed = false;
+
+        TaskChain(String tokenId) {
+            this.tokenId = tokenId;
+        }
+
+        synchronized boolean append(Task task) {
+            if (closed) {
+                return false;
+            }
+            tasks.add(task);
+            return true;
+        }
+
+        /**
+         * Put tasks that were drained but not executed back at the head of the chain, in their original order.
+         * @param remaining The tasks to return.
+         */
+        synchronized void requeue(List<Task> remaining) {
+            for (int ii = remaining.size() - 1; ii >= 0; ii--) {
+                tasks.addFirst(remaining.get(ii));
+            }
+        }
+
+        synchronized List<Task> drain(int max) {
+            List<Task> batch = new ArrayList<>(Math.min(max, tasks.size()));
+            while (batch.size() < max && !tasks.isEmpty()) {
+                batch.add(tasks.poll());
+            }
+            return batch;
+        }
+
+        /**
+         * Must only be called by the processor holding the chain, once all drained tasks have been executed.
+         * @return True if the chain had no outstanding tasks and has been closed.
+         */
+        synchronized boolean closeIfEmpty() {
+            if (!tasks.isEmpty()) {
+                return false;
+            }
+            closed = true;
+            if (tokenId != null) {
+                chains.remove(tokenId, this);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Processes chains from its own deque, stealing from other processors when its own deque is empty.
+     *
+     * Thread Policy: This runnable will respond to Thread interrupts and will exit cleanly in the event of an
+     * interrupt.
+     */
+    final class Processor implements Runnable {
+        private final int index;
+        private final SimpleTaskExecutor taskExecutor;
+
+        Processor(int index, SimpleTaskExecutor taskExecutor) {
+            this.index = index;
+            this.taskExecutor = taskExecutor;
+        }
+
+        @Override
+        public void run() {
+            try {
+                taskExecutor.start();
+            } catch (DataLayerException e) {
+                throw new IllegalStateException("Cannot start task executor", e);
+            }
+
+            BlockingDeque<TaskChain> deque = deques.get(index);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    TaskChain chain = deque.pollFirst();
+                    if (chain == null) {
+                        chain = steal(index);
+                    }
+                    if (chain == null) {
+                        chain = deque.pollFirst(STEAL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    }
+                    if (chain != null) {
+                        process(chain, deque);
+                    }
+                } catch (InterruptedException e) {
+                    debug.error(CoreTokenConstants.DEBUG_ASYNC_HEADER + "Task Processor Error: interrupt detected",
+                            e);
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            debug("Processor {0} thread shutdown.", index);
+        }
+
+        private void process(TaskChain chain, BlockingDeque<TaskChain> deque) {
+            List<Task> batch = chain.drain(batchSize);
+            int completed = 0;
+            try {
+                while (completed < batch.size()) {
+                    Task task = batch.get(completed);
+                    try {
+                        execute(task);
+                    } finally {
+                        completed++;
+                        capacity.release();
+                    }
+                }
+            } finally {
+                if (completed < batch.size()) {
+                    // An error escaped a task, keep the rest of the batch queued for the next processor.
+                    chain.requeue(batch.subList(completed, batch.size()));
+                }
+                // Only close once the batch has completed so that a new chain for this token cannot be started
+                // concurrently, otherwise give the other chains on this deque a turn.
+                if (!chain.closeIfEmpty()) {
+                    deque.offerLast(chain);
+                }
+            }
+        }
+
+        /**
+         * Execute a single task, reporting any unexpected failure to the task rather than letting it end the
+         * processor, which would strand the chain it is holding.
+         */
+        private void execute(Task task) {
+            debug("process Task {0}", task);
+            try {
+                taskExecutor.execute(null, task);
+            } catch (RuntimeException e) {
+                debug.error(CoreTokenConstants.DEBUG_ASYNC_HEADER + "Task Processor Error: processing task", e);
+                try {
+                    task.processError(new DataLayerException("Unexpected error processing task", e));
+                } catch (RuntimeException re) {
+                    debug.error(CoreTokenConstants.DEBUG_ASYNC_HEADER + "Task Processor Error: reporting error", re);
+                }
+            }
+        }
+    }
+}
@@ -19,10 +19,12 @@ import java.text.MessageFormat;
 
 import org.forgerock.openam.cts.api.tokens.Token;
 import org.forgerock.openam.sm.datalayer.api.AbstractTask;
+import org.forgerock.openam.sm.datalayer.api.AsyncTokenStorageAdapter;
 import org.forgerock.openam.sm.datalayer.api.DataLayerException;
 import org.forgerock.openam.sm.datalayer.api.ResultHandler;
 import org.forgerock.openam.sm.datalayer.api.TokenStorageAdapter;
 import org.forgerock.util.Options;
+import org.forgerock.util.promise.Promise;
 
 /**
  * Responsible for creating a Token in persistence layer.
@@ -57,6 +59,11 @@ public class CreateTask extends AbstractTask {
         handler.processResults(created);
     }
 
+    @Override
+    protected Promise<Token, DataLayerException> performTaskAsync(AsyncTokenStorageAdapter adapter) {
+        return adapter.createAsync(token, options);
+    }
+
     @Override
     public String toString() {
         return MessageFormat.format("CreateTask: {0}", token.getTokenId());
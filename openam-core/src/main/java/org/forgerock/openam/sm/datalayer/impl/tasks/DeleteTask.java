@@ -20,11 +20,13 @@ import java.util.Collections;
 
 import org.forgerock.openam.cts.api.CTSOptions;
 import org.forgerock.openam.sm.datalayer.api.AbstractTask;
+import org.forgerock.openam.sm.datalayer.api.AsyncTokenStorageAdapter;
 import org.forgerock.openam.sm.datalayer.api.DataLayerException;
 import org.forgerock.openam.sm.datalayer.api.ResultHandler;
 import org.forgerock.openam.sm.datalayer.api.TokenStorageAdapter;
 import org.forgerock.openam.sm.datalayer.api.query.PartialToken;
 import org.forgerock.util.Options;
+import org.forgerock.util.promise.Promise;
 
 /**
  * Deletes a given Token from the persistence layer.
@@ -58,6 +60,11 @@ public class DeleteTask extends AbstractTask<PartialToken> {
         handler.processResults(token);
     }
 
+    @Override
+    protected Promise<PartialToken, DataLayerException> performTaskAsync(AsyncTokenStorageAdapter adapter) {
+        return adapter.deleteAsync(tokenId, options);
+    }
+
     @Override
     public String toString() {
         return MessageFormat.format("DeleteTask: {0}", tokenId);
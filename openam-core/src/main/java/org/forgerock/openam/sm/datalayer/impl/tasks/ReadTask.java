@@ -19,10 +19,12 @@ import java.text.MessageFormat;
 
 import org.forgerock.openam.cts.api.tokens.Token;
 import org.forgerock.openam.sm.datalayer.api.AbstractTask;
+import org.forgerock.openam.sm.datalayer.api.AsyncTokenStorageAdapter;
 import org.forgerock.openam.sm.datalayer.api.DataLayerException;
 import org.forgerock.openam.sm.datalayer.api.ResultHandler;
 import org.forgerock.openam.sm.datalayer.api.TokenStorageAdapter;
 import org.forgerock.util.Options;
+import org.forgerock.util.promise.Promise;
 
 /**
  * Performs a Read against the persistence layer.
@@ -59,6 +61,11 @@ public class ReadTask extends AbstractTask {
         handler.processResults(token);
     }
 
+    @Override
+    protected Promise<Token, DataLayerException> performTaskAsync(AsyncTokenStorageAdapter adapter) {
+        return adapter.readAsync(tokenId, options);
+    }
+
     @Override
     public String toString() {
         return MessageFormat.format("ReadTask: {0}", tokenId);
@@ -19,10 +19,13 @@ import java.text.MessageFormat;
 
 import org.forgerock.openam.cts.api.tokens.Token;
 import org.forgerock.openam.sm.datalayer.api.AbstractTask;
+import org.forgerock.openam.sm.datalayer.api.AsyncTokenStorageAdapter;
 import org.forgerock.openam.sm.datalayer.api.DataLayerException;
 import org.forgerock.openam.sm.datalayer.api.ResultHandler;
 import org.forgerock.openam.sm.datalayer.api.TokenStorageAdapter;
+import org.forgerock.util.AsyncFunction;
 import org.forgerock.util.Options;
+import org.forgerock.util.promise.Promise;
 
 /**
  * Responsible for updating the persistence layer with the provided Token.
@@ -64,6 +67,27 @@ public class UpdateTask extends AbstractTask {
         handler.processResults(updated);
     }
 
+    /**
+     * Asynchronous form of {@link #performTask(TokenStorageAdapter)}, the create or update is only issued once
+     * the read has completed.
+     *
+     * @param adapter Non null for connection-coupled operations.
+     * @return The pending result of the create or update.
+     */
+    @Override
+    protected Promise<Token, DataLayerException> performTaskAsync(final AsyncTokenStorageAdapter adapter) {
+        return adapter.readAsync(token.getTokenId(), options).thenAsync(
+                new AsyncFunction<Token, Token, DataLayerException>() {
+                    @Override
+                    public Promise<Token, DataLayerException> apply(Token previous) {
+                        if (previous == null) {
+                            return adapter.createAsync(token, options);
+                        }
+                        return adapter.updateAsync(previous, token, options);
+                    }
+                });
+    }
+
     @Override
     public String toString() {
         return MessageFormat.format("UpdateTask: {0}", token.getTokenId());
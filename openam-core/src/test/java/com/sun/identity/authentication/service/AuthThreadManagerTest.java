@@ -0,0 +1,117 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package com.sun.identity.authentication.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class AuthThreadManagerTest {
+
+    private ExecutorService loginService;
+    private ScheduledThreadPoolExecutor timeoutService;
+    private AuthThreadManager manager;
+
+    @BeforeMethod
+    public void setup() {
+        loginService = Executors.newCachedThreadPool();
+        timeoutService = new ScheduledThreadPoolExecutor(1);
+        manager = new AuthThreadManager(loginService, timeoutService);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        loginService.shutdownNow();
+        timeoutService.shutdownNow();
+    }
+
+    @Test
+    public void shouldInterruptWaitingLoginWhenPageTimeoutElapses() throws Exception {
+        // Given
+        final CountDownLatch submitted = new CountDownLatch(1);
+        final AtomicBoolean timedOut = new AtomicBoolean();
+        Runnable login = new Runnable() {
+            @Override
+            public void run() {
+                Thread thread = Thread.currentThread();
+                manager.setHash(thread, 3, System.currentTimeMillis());
+                try {
+                    submitted.await();
+                } catch (InterruptedException e) {
+                    timedOut.set(manager.isTimedOut(thread));
+                }
+            }
+        };
+
+        // When
+        Future<?> result = manager.execute(login);
+
+        // Then
+        result.get(5, TimeUnit.SECONDS);
+        assertThat(timedOut.get()).isTrue();
+    }
+
+    @Test
+    public void shouldNotInterruptThreadOnceItStopsWaiting() throws Exception {
+        // Given
+        Thread thread = Thread.currentThread();
+        manager.setHash(thread, 4, System.currentTimeMillis() - 800);
+
+        // When
+        manager.removeFromHash(thread, "timeoutHash");
+        Thread.sleep(400);
+
+        // Then
+        assertThat(Thread.interrupted()).isFalse();
+        assertThat(manager.isTimedOut(thread)).isFalse();
+        assertThat(timeoutService.getQueue()).isEmpty();
+    }
+
+    @Test
+    public void shouldClearTimedOutStateWhenLoginCompletes() throws Exception {
+        // Given
+        final Thread[] loginThread = new Thread[1];
+        Runnable login = new Runnable() {
+            @Override
+            public void run() {
+                loginThread[0] = Thread.currentThread();
+                manager.setHash(loginThread[0], 3, System.currentTimeMillis());
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(5));
+                } catch (InterruptedException e) {
+                    // timed out
+                }
+            }
+        };
+
+        // When
+        manager.execute(login).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(manager.isTimedOut(loginThread[0])).isFalse();
+    }
+}
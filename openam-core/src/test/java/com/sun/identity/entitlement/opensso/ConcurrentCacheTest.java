@@ -0,0 +1,138 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package com.sun.identity.entitlement.opensso;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.annotations.Test;
+
+public class ConcurrentCacheTest {
+
+    @Test
+    public void shouldReturnPreviousValueOnPut() {
+        // Given
+        ConcurrentCache<String, String> cache = new ConcurrentCache<String, String>("test", 1, 10);
+        cache.put("key", "first");
+
+        // When
+        String previous = cache.put("key", "second");
+
+        // Then
+        assertThat(previous).isEqualTo("first");
+        assertThat(cache.get("key")).isEqualTo("second");
+        assertThat(cache).hasSize(1);
+    }
+
+    @Test
+    public void shouldReturnRemovedValue() {
+        // Given
+        ConcurrentCache<String, String> cache = new ConcurrentCache<String, String>("test", 1, 10);
+        cache.put("key", "value");
+
+        // When
+        String removed = cache.remove("key");
+
+        // Then
+        assertThat(removed).isEqualTo("value");
+        assertThat(cache.get("key")).isNull();
+        assertThat(cache.isEmpty()).isTrue();
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void shouldRejectNullValues() {
+        new ConcurrentCache<String, String>("test", 1, 10).put("key", null);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldRejectNegativeMaximumSize() {
+        new ConcurrentCache<String, String>("test", 1, -1);
+    }
+
+    @Test
+    public void shouldRecordHitsAndMisses() {
+        // Given
+        ConcurrentCache<String, String> cache = new ConcurrentCache<String, String>("test", 1, 10);
+        cache.put("key", "value");
+
+        // When
+        cache.get("key");
+        cache.get("key");
+        cache.get("other");
+
+        // Then
+        assertThat(cache.getStats().hitCount()).isEqualTo(2);
+        assertThat(cache.getStats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldEvictEntriesWhenFull() {
+        // Given
+        ConcurrentCache<Integer, Integer> cache = new ConcurrentCache<Integer, Integer>("test", 1, 100);
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, i);
+        }
+
+        // When
+        cache.put(100, 100);
+
+        // Then
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+        assertThat(cache.getStats().evictionCount()).isGreaterThanOrEqualTo(1);
+        assertThat(cache.get(100)).isEqualTo(100);
+    }
+
+    @Test
+    public void shouldStayWithinMaximumSizeUnderConcurrentAccess() throws Exception {
+        // Given
+        final ConcurrentCache<Integer, Integer> cache = new ConcurrentCache<Integer, Integer>("test", 1, 1000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Void>> futures = new ArrayList<Future<Void>>();
+
+        // When
+        try {
+            for (int t = 0; t < 8; t++) {
+                final int offset = t * 10000;
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int i = 0; i < 10000; i++) {
+                            cache.put(offset + i, i);
+                            cache.get(offset + i / 2);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertThat(cache.size()).isLessThanOrEqualTo(1000);
+        assertThat(cache.getStats().requestCount()).isEqualTo(80000);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package com.sun.identity.idm;
+
+import static java.util.Collections.singleton;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.forgerock.opendj.ldap.ResultCode;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.iplanet.sso.SSOToken;
+
+public class IdRepoTest {
+
+    private static final Set<String> ATTR_NAMES = singleton("mail");
+    private static final Map<String, Set<String>> ATTRIBUTES =
+            Collections.singletonMap("mail", singleton("demo@example.com"));
+
+    private IdRepo repo;
+    private SSOToken token;
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        repo = mock(IdRepo.class, CALLS_REAL_METHODS);
+        token = mock(SSOToken.class);
+        willReturn(ATTRIBUTES).given(repo).getAttributes(token, IdType.USER, "demo", ATTR_NAMES);
+    }
+
+    @Test
+    public void shouldLeaveOutIdentitiesWhichDoNotExist() throws Exception {
+        // Given
+        willThrow(new IdRepoException(IdRepoBundle.BUNDLE_NAME, IdRepoErrorCode.UNABLE_FIND_ENTRY, null))
+                .given(repo).getAttributes(token, IdType.USER, "missing", ATTR_NAMES);
+        willThrow(new IdRepoException(IdRepoBundle.BUNDLE_NAME, IdRepoErrorCode.TYPE_NOT_FOUND, null))
+                .given(repo).getAttributes(token, IdType.USER, "wrongtype", ATTR_NAMES);
+        willThrow(new IdRepoException(IdRepoBundle.BUNDLE_NAME, IdRepoErrorCode.LDAP_EXCEPTION,
+                ResultCode.NO_SUCH_OBJECT, null)).given(repo).getAttributes(token, IdType.USER, "deleted", ATTR_NAMES);
+
+        // When
+        Map<String, Map<String, Set<String>>> result = repo.getAttributes(token, IdType.USER,
+                names("demo", "missing", "wrongtype", "deleted"), ATTR_NAMES);
+
+        // Then
+        assertThat(result).containsOnlyKeys("demo");
+        assertThat(result.get("demo")).isEqualTo(ATTRIBUTES);
+    }
+
+    @Test(expectedExceptions = IdRepoException.class)
+    public void shouldRethrowOtherErrors() throws Exception {
+        // Given
+        willThrow(new IdRepoException(IdRepoBundle.BUNDLE_NAME, IdRepoErrorCode.LDAP_EXCEPTION,
+                ResultCode.UNAVAILABLE, null)).given(repo).getAttributes(token, IdType.USER, "unavailable", ATTR_NAMES);
+
+        // When
+        repo.getAttributes(token, IdType.USER, names("demo", "unavailable"), ATTR_NAMES);
+    }
+
+    private static Set<String> names(String... names) {
+        Set<String> result = new LinkedHashSet<>();
+        Collections.addAll(result, names);
+        return result;
+    }
+}
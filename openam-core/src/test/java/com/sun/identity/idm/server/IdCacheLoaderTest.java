@@ -0,0 +1,391 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package com.sun.identity.idm.server;
+
+import static java.util.Collections.singleton;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.mock;
+import static org.mockito.BDDMockito.timeout;
+import static org.mockito.BDDMockito.verify;
+
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.forgerock.openam.utils.TimeTravelUtil;
+import org.forgerock.openam.utils.TimeTravelUtil.FastForwardTimeService;
+import org.forgerock.util.time.TimeService;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.iplanet.am.sdk.AMHashMap;
+import com.iplanet.sso.SSOToken;
+import com.sun.identity.idm.IdRepoException;
+import com.sun.identity.idm.common.IdCacheBlock;
+import com.sun.identity.idm.common.IdCacheStats;
+
+public class IdCacheLoaderTest {
+
+    private static final String ENTRY_DN = "id=demo,ou=user,dc=openam,dc=forgerock,dc=org";
+    private static final String PRINCIPAL_DN = "id=caller,ou=user,dc=openam,dc=forgerock,dc=org";
+    private static final String OTHER_PRINCIPAL_DN = "id=other,ou=user,dc=openam,dc=forgerock,dc=org";
+    private static final String ADMIN_DN = "id=dsameuser,ou=user,dc=openam,dc=forgerock,dc=org";
+    private static final long REFRESH_AFTER_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private Cache<String, IdCacheBlock> cache;
+    private IdCacheStats stats;
+    private SSOToken callerToken;
+    private SSOToken adminToken;
+    private ExecutorService executor;
+    private IdCacheLoader loader;
+
+    @BeforeMethod
+    public void setup() {
+        TimeTravelUtil.setBackingTimeService(FastForwardTimeService.INSTANCE);
+        cache = CacheBuilder.newBuilder().build();
+        stats = mock(IdCacheStats.class);
+        callerToken = mock(SSOToken.class);
+        adminToken = mock(SSOToken.class);
+        executor = Executors.newFixedThreadPool(2);
+        loader = newLoader(MoreExecutors.newDirectExecutorService());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        executor.shutdownNow();
+        TimeTravelUtil.setBackingTimeService(TimeService.SYSTEM);
+    }
+
+    @Test
+    public void shouldCacheLoadedAttributes() throws Exception {
+        // When
+        AMHashMap result = loader.load(cache, ENTRY_DN, PRINCIPAL_DN, singleton("mail"), true, callerToken,
+                new FixedAttributeLoader(attributes("mail", "demo@example.com")));
+
+        // Then
+        assertThat(result.get("mail")).isEqualTo(singleton("demo@example.com"));
+        assertThat(cache.getIfPresent(ENTRY_DN).getAttributes(PRINCIPAL_DN, singleton("mail"), false).get("mail"))
+                .isEqualTo(singleton("demo@example.com"));
+    }
+
+    @Test
+    public void shouldCollapseConcurrentLoadsOfSameEntry() throws Exception {
+        // Given
+        final BlockingAttributeLoader attributeLoader = new BlockingAttributeLoader(
+                attributes("mail", "demo@example.com"));
+        Future<AMHashMap> first = executor.submit(loadWith(attributeLoader));
+        attributeLoader.started.await(10, TimeUnit.SECONDS);
+
+        // When
+        Future<AMHashMap> second = executor.submit(loadWith(attributeLoader));
+        verify(stats, timeout(10000)).incrementCollapsedLoadCount();
+        attributeLoader.release.countDown();
+
+        // Then
+        assertThat(first.get(10, TimeUnit.SECONDS).get("mail")).isEqualTo(singleton("demo@example.com"));
+        assertThat(second.get(10, TimeUnit.SECONDS).get("mail")).isEqualTo(singleton("demo@example.com"));
+        assertThat(second.get()).isNotSameAs(first.get());
+        assertThat(attributeLoader.loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotCacheLoadInvalidatedWhilstInProgress() throws Exception {
+        // Given
+        IdCacheLoader.AttributeLoader attributeLoader = new IdCacheLoader.AttributeLoader() {
+            @Override
+            public AMHashMap load(SSOToken token) {
+                loader.invalidate(ENTRY_DN);
+                return attributes("mail", "old@example.com");
+            }
+        };
+
+        // When
+        AMHashMap result = loader.load(cache, ENTRY_DN, PRINCIPAL_DN, singleton("mail"), true, callerToken,
+                attributeLoader);
+
+        // Then
+        assertThat(result.get("mail")).isEqualTo(singleton("old@example.com"));
+        assertThat(cache.getIfPresent(ENTRY_DN)).isNull();
+    }
+
+    @Test
+    public void shouldNotCacheLoadOfEntryBelowInvalidatedEntry() throws Exception {
+        // Given
+        IdCacheLoader.AttributeLoader attributeLoader = new IdCacheLoader.AttributeLoader() {
+            @Override
+            public AMHashMap load(SSOToken token) {
+                loader.invalidate("dc=openam,dc=forgerock,dc=org");
+                return attributes("mail", "old@example.com");
+            }
+        };
+
+        // When
+        loader.load(cache, ENTRY_DN, PRINCIPAL_DN, singleton("mail"), true, callerToken, attributeLoader);
+
+        // Then
+        assertThat(cache.getIfPresent(ENTRY_DN)).isNull();
+    }
+
+    @Test
+    public void shouldCacheLoadWhenUnrelatedEntryIsInvalidated() throws Exception {
+        // Given
+        IdCacheLoader.AttributeLoader attributeLoader = new IdCacheLoader.AttributeLoader() {
+            @Override
+            public AMHashMap load(SSOToken token) {
+                loader.invalidate("id=someoneelse,ou=user,dc=openam,dc=forgerock,dc=org");
+                return attributes("mail", "demo@example.com");
+            }
+        };
+
+        // When
+        loader.load(cache, ENTRY_DN, PRINCIPAL_DN, singleton("mail"), true, callerToken, attributeLoader);
+
+        // Then
+        assertThat(cache.getIfPresent(ENTRY_DN)).isNotNull();
+    }
+
+    @Test
+    public void shouldNotRefreshBlockBeforeRefreshAge() throws Exception {
+        // Given
+        IdCacheBlock cb = cachedBlock();
+        FixedAttributeLoader attributeLoader = new FixedAttributeLoader(attributes("mail", "new@example.com"));
+
+        // When
+        loader.refreshAhead(cache, cb, ENTRY_DN, singleton("mail"), true, attributeLoader);
+
+        // Then
+        assertThat(attributeLoader.tokens).isEmpty();
+    }
+
+    @Test
+    public void shouldMergeRefreshedAttributesIntoExistingBlock() throws Exception {
+        // Given
+        IdCacheBlock cb = cachedBlock();
+        FastForwardTimeService.INSTANCE.fastForward(REFRESH_AFTER_MILLIS, TimeUnit.MILLISECONDS);
+        FixedAttributeLoader attributeLoader = new FixedAttributeLoader(attributes("mail", "new@example.com"));
+
+        // When
+        loader.refreshAhead(cache, cb, ENTRY_DN, singleton("mail"), true, attributeLoader);
+
+        // Then
+        assertThat(cache.getIfPresent(ENTRY_DN)).isSameAs(cb);
+        assertThat(cb.getAttributes(PRINCIPAL_DN, singleton("mail"), false).get("mail"))
+                .isEqualTo(singleton("new@example.com"));
+        verify(stats).incrementRefreshCount();
+    }
+
+    @Test
+    public void shouldDropAttributesNotReloadedByRefresh() throws Exception {
+        // Given
+        IdCacheBlock cb = cachedBlock();
+        FastForwardTimeService.INSTANCE.fastForward(REFRESH_AFTER_MILLIS, TimeUnit.MILLISECONDS);
+        FixedAttributeLoader attributeLoader = new FixedAttributeLoader(attributes("mail", "new@example.com"));
+
+        // When
+        loader.refreshAhead(cache, cb, ENTRY_DN, singleton("mail"), true, attributeLoader);
+
+        // Then
+        assertThat(cb.getAttributes(OTHER_PRINCIPAL_DN, singleton("cn"), false)).isEmpty();
+        assertThat(cb.hasCache(OTHER_PRINCIPAL_DN)).isTrue();
+    }
+
+    @Test
+    public void shouldKeepAllAttributesWhenRefreshReloadsCompleteSet() throws Exception {
+        // Given
+        IdCacheBlock cb = cachedBlock();
+        FastForwardTimeService.INSTANCE.fastForward(REFRESH_AFTER_MILLIS, TimeUnit.MILLISECONDS);
+        AMHashMap reloaded = attributes("mail", "new@example.com");
+        reloaded.put("cn", new HashSet<>(singleton("Demo")));
+        FixedAttributeLoader attributeLoader = new FixedAttributeLoader(reloaded);
+
+        // When
+        loader.refreshAhead(cache, cb, ENTRY_DN, null, true, attributeLoader);
+
+        // Then
+        assertThat(cache.getIfPresent(ENTRY_DN)).isSameAs(cb);
+        assertThat(cb.getAttributes(OTHER_PRINCIPAL_DN, singleton("cn"), false).get("cn"))
+                .isEqualTo(singleton("Demo"));
+        assertThat(cb.hasCompleteSet(ADMIN_DN)).isTrue();
+    }
+
+    @Test
+    public void shouldRefreshWithRefreshTokenRatherThanCallersToken() throws Exception {
+        // Given
+        IdCacheBlock cb = cachedBlock();
+        FastForwardTimeService.INSTANCE.fastForward(REFRESH_AFTER_MILLIS, TimeUnit.MILLISECONDS);
+        FixedAttributeLoader attributeLoader = new FixedAttributeLoader(attributes("mail", "new@example.com"));
+
+        // When
+        loader.refreshAhead(cache, cb, ENTRY_DN, singleton("mail"), true, attributeLoader);
+
+        // Then
+        assertThat(attributeLoader.tokens).containsExactly(adminToken);
+        assertThat(cb.hasCache(ADMIN_DN)).isTrue();
+    }
+
+    @Test
+    public void shouldRestartRefreshAgeOnceRefreshed() throws Exception {
+        // Given
+        IdCacheBlock cb = cachedBlock();
+        FastForwardTimeService.INSTANCE.fastForward(REFRESH_AFTER_MILLIS, TimeUnit.MILLISECONDS);
+        FixedAttributeLoader attributeLoader = new FixedAttributeLoader(attributes("mail", "new@example.com"));
+        loader.refreshAhead(cache, cb, ENTRY_DN, singleton("mail"), true, attributeLoader);
+
+        // When
+        loader.refreshAhead(cache, cb, ENTRY_DN, singleton("mail"), true, attributeLoader);
+
+        // Then
+        assertThat(attributeLoader.tokens).hasSize(1);
+    }
+
+    @Test
+    public void shouldRefreshAgainAfterFailedRefresh() throws Exception {
+        // Given
+        IdCacheBlock cb = cachedBlock();
+        FastForwardTimeService.INSTANCE.fastForward(REFRESH_AFTER_MILLIS, TimeUnit.MILLISECONDS);
+        final AtomicInteger attempts = new AtomicInteger();
+        IdCacheLoader.AttributeLoader failingLoader = new IdCacheLoader.AttributeLoader() {
+            @Override
+            public AMHashMap load(SSOToken token) throws IdRepoException {
+                attempts.incrementAndGet();
+                throw new IdRepoException("data store unavailable");
+            }
+        };
+        loader.refreshAhead(cache, cb, ENTRY_DN, singleton("mail"), true, failingLoader);
+
+        // When
+        loader.refreshAhead(cache, cb, ENTRY_DN, singleton("mail"), true, failingLoader);
+
+        // Then
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(cb.getAttributes(PRINCIPAL_DN, singleton("mail"), false).get("mail"))
+                .isEqualTo(singleton("demo@example.com"));
+    }
+
+    @Test
+    public void shouldNotRefreshWhenDisabled() throws Exception {
+        // Given
+        loader = new IdCacheLoader(stats, 0, null, adminTokenAction());
+        IdCacheBlock cb = cachedBlock();
+        FastForwardTimeService.INSTANCE.fastForward(REFRESH_AFTER_MILLIS, TimeUnit.MILLISECONDS);
+        FixedAttributeLoader attributeLoader = new FixedAttributeLoader(attributes("mail", "new@example.com"));
+
+        // When
+        loader.refreshAhead(cache, cb, ENTRY_DN, singleton("mail"), true, attributeLoader);
+
+        // Then
+        assertThat(attributeLoader.tokens).isEmpty();
+    }
+
+    private IdCacheLoader newLoader(ExecutorService refreshExecutor) {
+        return new IdCacheLoader(stats, REFRESH_AFTER_MILLIS, refreshExecutor, adminTokenAction()) {
+            @Override
+            String getPrincipalDN(SSOToken token) {
+                return token == adminToken ? ADMIN_DN : PRINCIPAL_DN;
+            }
+        };
+    }
+
+    private PrivilegedAction<SSOToken> adminTokenAction() {
+        return new PrivilegedAction<SSOToken>() {
+            @Override
+            public SSOToken run() {
+                return adminToken;
+            }
+        };
+    }
+
+    /**
+     * @return A block holding the mail attribute for the caller, and the cn attribute for another principal.
+     */
+    private IdCacheBlock cachedBlock() {
+        IdCacheBlock cb = new IdCacheBlock(ENTRY_DN, true);
+        cb.putAttributes(PRINCIPAL_DN, attributes("mail", "demo@example.com"), null, false, false);
+        cb.putAttributes(OTHER_PRINCIPAL_DN, attributes("cn", "Demo"), null, false, false);
+        cache.put(ENTRY_DN, cb);
+        return cb;
+    }
+
+    private Callable<AMHashMap> loadWith(final IdCacheLoader.AttributeLoader attributeLoader) {
+        return new Callable<AMHashMap>() {
+            @Override
+            public AMHashMap call() throws Exception {
+                return loader.load(cache, ENTRY_DN, PRINCIPAL_DN, singleton("mail"), true, callerToken,
+                        attributeLoader);
+            }
+        };
+    }
+
+    private static AMHashMap attributes(String name, String value) {
+        AMHashMap attributes = new AMHashMap(false);
+        Set<String> values = new HashSet<>(Collections.singleton(value));
+        attributes.put(name, values);
+        return attributes;
+    }
+
+    private static final class FixedAttributeLoader implements IdCacheLoader.AttributeLoader {
+        private final AMHashMap attributes;
+        private final List<SSOToken> tokens = new ArrayList<>();
+
+        private FixedAttributeLoader(AMHashMap attributes) {
+            this.attributes = attributes;
+        }
+
+        @Override
+        public AMHashMap load(SSOToken token) {
+            tokens.add(token);
+            return (AMHashMap) attributes.getCopy();
+        }
+    }
+
+    private static final class BlockingAttributeLoader implements IdCacheLoader.AttributeLoader {
+        private final AMHashMap attributes;
+        private final AtomicInteger loads = new AtomicInteger();
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private BlockingAttributeLoader(AMHashMap attributes) {
+            this.attributes = attributes;
+        }
+
+        @Override
+        public AMHashMap load(SSOToken token) throws IdRepoException {
+            loads.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IdRepoException(e.getMessage());
+            }
+            return (AMHashMap) attributes.getCopy();
+        }
+    }
+}
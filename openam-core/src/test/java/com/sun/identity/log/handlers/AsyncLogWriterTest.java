@@ -0,0 +1,134 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package com.sun.identity.log.handlers;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.openam.monitoring.metrics.Counter;
+import org.forgerock.openam.monitoring.metrics.Gauge;
+import org.forgerock.openam.monitoring.metrics.MetricsRegistry;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class AsyncLogWriterTest {
+
+    private final List<String> written = Collections.synchronizedList(new ArrayList<String>());
+    private AsyncLogWriter<String> writer;
+    private Gauge queueDepth;
+    private Counter backpressureCount;
+
+    @BeforeMethod
+    public void setup() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        queueDepth = metrics.gauge("test_queue_depth", "Queue depth");
+        backpressureCount = metrics.counter("test_backpressure_total", "Backpressure");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    @Test
+    public void shouldWriteRecordsInOrderBeforeFlushReturns() {
+        // Given
+        writer = new AsyncLogWriter<>("test", 16, 4, -1, new Object(), new RecordingSink(), null, queueDepth,
+                backpressureCount);
+        writer.start();
+
+        // When
+        for (int ii = 0; ii < 100; ii++) {
+            assertThat(writer.offer(Integer.toString(ii))).isTrue();
+        }
+        writer.flush();
+
+        // Then
+        List<String> expected = new ArrayList<>();
+        for (int ii = 0; ii < 100; ii++) {
+            expected.add(Integer.toString(ii));
+        }
+        assertThat(written).containsExactlyElementsOf(expected);
+        assertThat(writer.getQueueDepth()).isZero();
+        assertThat(queueDepth.getValue()).isZero();
+    }
+
+    @Test
+    public void shouldDropRecordWhenQueueStaysFull() throws Exception {
+        // Given
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        writer = new AsyncLogWriter<>("test", 2, 1, 10, new Object(), new AsyncLogWriter.Sink<String>() {
+            @Override
+            public void write(List<String> records) {
+                blocked.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                written.addAll(records);
+            }
+        }, null, queueDepth, backpressureCount);
+        writer.start();
+        writer.offer("blocking");
+        assertThat(blocked.await(10, TimeUnit.SECONDS)).isTrue();
+        writer.offer("first");
+        writer.offer("second");
+
+        // When
+        boolean result = writer.offer("dropped");
+
+        // Then
+        assertThat(result).isFalse();
+        assertThat(backpressureCount.getCount()).isEqualTo(1);
+        release.countDown();
+        writer.flush();
+        assertThat(written).containsExactly("blocking", "first", "second");
+    }
+
+    @Test
+    public void shouldWriteQueuedRecordsWhenStopped() {
+        // Given
+        writer = new AsyncLogWriter<>("test", 16, 4, -1, new Object(), new RecordingSink(), null, queueDepth,
+                backpressureCount);
+        writer.offer("first");
+        writer.offer("second");
+
+        // When
+        writer.stop();
+
+        // Then
+        assertThat(written).containsExactly("first", "second");
+        assertThat(writer.offer("third")).isFalse();
+    }
+
+    private final class RecordingSink implements AsyncLogWriter.Sink<String> {
+        @Override
+        public void write(List<String> records) {
+            written.addAll(records);
+        }
+    }
+}
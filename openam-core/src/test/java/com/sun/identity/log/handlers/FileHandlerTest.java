@@ -0,0 +1,215 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package com.sun.identity.log.handlers;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+
+import org.forgerock.guice.core.GuiceTestCase;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.iplanet.am.util.SystemProperties;
+import com.sun.identity.log.LogConstants;
+import com.sun.identity.log.LogManagerUtil;
+import com.sun.identity.log.Logger;
+
+public class FileHandlerTest extends GuiceTestCase {
+
+    private static final AtomicInteger LOG_COUNT = new AtomicInteger();
+    private File directory;
+    private String logName;
+    private Logger logger;
+    private FileHandler handler;
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("FileHandlerTest").toFile();
+        logName = "FileHandlerTest" + LOG_COUNT.incrementAndGet() + ".access";
+        SystemProperties.initializeProperties(AsyncLogWriter.ENABLED_PROPERTY, "true");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        if (handler != null) {
+            handler.close();
+        }
+        SystemProperties.initializeProperties(AsyncLogWriter.ENABLED_PROPERTY, "false");
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void shouldWriteRecordsPublishedByConcurrentThreadsBeforeFlushReturns() throws Exception {
+        // Given
+        handler = newHandler(1000000);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Void>> publishers = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < 4; thread++) {
+                publishers.add(executor.submit(publish("thread" + thread, 250)));
+            }
+            for (Future<Void> publisher : publishers) {
+                publisher.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // When
+        handler.flush();
+
+        // Then
+        List<String> records = readRecords(new File(directory, logName));
+        assertThat(records).hasSize(1000);
+        for (int thread = 0; thread < 4; thread++) {
+            List<String> expected = new ArrayList<>();
+            for (int ii = 0; ii < 250; ii++) {
+                expected.add("thread" + thread + "-" + ii);
+            }
+            assertThat(recordsStartingWith(records, "thread" + thread + "-")).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    public void shouldWriteQueuedRecordsWhenClosed() throws Exception {
+        // Given
+        handler = newHandler(1000000);
+        publish("record", 100).call();
+
+        // When
+        handler.close();
+        handler = null;
+
+        // Then
+        assertThat(readRecords(new File(directory, logName))).hasSize(100).startsWith("record-0").endsWith("record-99");
+    }
+
+    @Test
+    public void shouldRotateBySizeWithinBatch() throws Exception {
+        // Given
+        handler = newHandler(400);
+
+        // When
+        publish("record", 50).call();
+        handler.flush();
+
+        // Then
+        File current = new File(directory, logName);
+        File rotated = new File(directory, logName + "-1");
+        assertThat(rotated.exists()).isTrue();
+        assertThat(current.length()).isLessThan(400 + MessageFormatter.HEADER.length());
+        assertThat(rotated.length()).isLessThan(400 + MessageFormatter.HEADER.length());
+        assertThat(readRecords(current)).endsWith("record-49");
+    }
+
+    private FileHandler newHandler(long maxFileSize) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(LogConstants.LOG_LOCATION, directory.getAbsolutePath());
+        properties.setProperty(LogConstants.ELF_FORMATTER, SimpleFormatter.class.getName());
+        properties.setProperty(LogConstants.BUFFER_SIZE, "1");
+        properties.setProperty(LogConstants.MAX_FILE_SIZE, Long.toString(maxFileSize));
+        properties.setProperty(LogConstants.NUM_HISTORY_FILES, "1");
+        ByteArrayOutputStream configuration = new ByteArrayOutputStream();
+        properties.store(configuration, null);
+        LogManagerUtil.getLogManager().readConfiguration(new ByteArrayInputStream(configuration.toByteArray()));
+        // the handler expects the OpenAM logger for the file to have been created already, and the log manager only
+        // holds a weak reference to it
+        logger = new Logger(logName, null) { };
+        LogManagerUtil.getLogManager().addLogger(logger);
+
+        FileHandler fileHandler = new FileHandler(logName);
+        fileHandler.setFormatter(new MessageFormatter());
+        return fileHandler;
+    }
+
+    private Callable<Void> publish(final String prefix, final int count) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() {
+                for (int ii = 0; ii < count; ii++) {
+                    handler.publish(new LogRecord(Level.INFO, prefix + "-" + ii));
+                }
+                return null;
+            }
+        };
+    }
+
+    private static List<String> readRecords(File file) throws IOException {
+        List<String> records = new ArrayList<>();
+        for (String line : Files.readAllLines(file.toPath(), Charset.defaultCharset())) {
+            if (!line.startsWith("#")) {
+                records.add(line);
+            }
+        }
+        return records;
+    }
+
+    private static List<String> recordsStartingWith(List<String> records, String prefix) {
+        List<String> result = new ArrayList<>();
+        for (String record : records) {
+            if (record.startsWith(prefix)) {
+                result.add(record);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the message of each record on its own line.
+     */
+    public static final class MessageFormatter extends Formatter {
+
+        static final String HEADER = "#Version: 1.0\n";
+
+        @Override
+        public String format(LogRecord record) {
+            return record.getMessage() + "\n";
+        }
+
+        @Override
+        public String getHead(Handler handler) {
+            return HEADER;
+        }
+    }
+}
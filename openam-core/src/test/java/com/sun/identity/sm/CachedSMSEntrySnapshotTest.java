@@ -0,0 +1,130 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package com.sun.identity.sm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.testng.annotations.Test;
+
+import com.sun.identity.sm.CachedSMSEntry.Snapshot;
+
+public class CachedSMSEntrySnapshotTest {
+
+    @Test
+    public void snapshotIsNotChangedByLaterChangesToTheAttributes() {
+        // Given
+        Map<String, Set<String>> attributes = attributes("first", "first");
+        Snapshot snapshot = Snapshot.of(attributes);
+
+        // When
+        attributes.get("a").clear();
+        attributes.get("a").add("second");
+        attributes.put("c", Collections.singleton("third"));
+
+        // Then
+        assertThat(snapshot.getAttributes().keySet()).containsOnly("a", "b");
+        assertThat(snapshot.getAttributes().get("a")).containsOnly("first");
+    }
+
+    @Test
+    public void snapshotCannotBeModified() {
+        // Given
+        Snapshot snapshot = Snapshot.of(attributes("first", "first"));
+
+        // When
+        try {
+            snapshot.getAttributes().get("a").add("second");
+            fail("Expected the attribute values to be unmodifiable");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            snapshot.getAttributes().remove("a");
+            fail("Expected the attributes to be unmodifiable");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+
+        // Then
+        assertThat(snapshot.getAttributes().get("a")).containsOnly("first");
+    }
+
+    @Test
+    public void readersSeeAConsistentSnapshotAcrossRefreshes() throws Exception {
+        // Given
+        final Map<String, Set<String>> attributes = attributes("0", "0");
+        final AtomicReference<Snapshot> published = new AtomicReference<>(Snapshot.of(attributes));
+        final AtomicBoolean refreshing = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        Callable<Integer> reader = new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                int inconsistent = 0;
+                while (refreshing.get()) {
+                    Map<String, Set<String>> snapshot = published.get().getAttributes();
+                    if (!snapshot.get("a").equals(snapshot.get("b"))) {
+                        inconsistent++;
+                    }
+                }
+                return inconsistent;
+            }
+        };
+
+        // When
+        Set<Future<Integer>> results = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(readers.submit(reader));
+        }
+        for (int i = 1; i <= 20000; i++) {
+            // The refresh changes one attribute at a time, then publishes
+            attributes.get("a").clear();
+            attributes.get("a").add(String.valueOf(i));
+            attributes.get("b").clear();
+            attributes.get("b").add(String.valueOf(i));
+            published.set(Snapshot.of(attributes));
+        }
+        refreshing.set(false);
+
+        // Then
+        for (Future<Integer> result : results) {
+            assertThat(result.get(10, TimeUnit.SECONDS)).isZero();
+        }
+        readers.shutdown();
+        assertThat(published.get().getAttributes().get("a")).containsOnly("20000");
+    }
+
+    private static Map<String, Set<String>> attributes(String a, String b) {
+        Map<String, Set<String>> attributes = new HashMap<>();
+        attributes.put("a", new HashSet<>(Collections.singleton(a)));
+        attributes.put("b", new HashSet<>(Collections.singleton(b)));
+        return attributes;
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.blacklist;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.forgerock.util.time.TimeService;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class BucketedBlacklistTest {
+    private static final long PURGE_DELAY = 1000L;
+    private static final long BUCKET_WIDTH = 60000L;
+    private static final long NOW = 10 * BUCKET_WIDTH;
+
+    @Mock
+    private Blacklist<Blacklistable> mockDelegate;
+
+    @Mock
+    private Blacklistable mockEntry;
+
+    @Mock
+    private TimeService mockClock;
+
+    private BucketedBlacklist<Blacklistable> testBlacklist;
+    private Blacklist.Listener listener;
+
+    @BeforeMethod
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        given(mockClock.now()).willReturn(NOW);
+        ArgumentCaptor<Blacklist.Listener> listenerCaptor = ArgumentCaptor.forClass(Blacklist.Listener.class);
+        willDoNothing().given(mockDelegate).subscribe(listenerCaptor.capture());
+        testBlacklist = new BucketedBlacklist<>(mockDelegate, PURGE_DELAY, BUCKET_WIDTH, mockClock);
+        listener = listenerCaptor.getValue();
+    }
+
+    @Test
+    public void shouldSubscribeForUpdatesFromOtherServers() {
+        verify(mockDelegate).subscribe(any(Blacklist.Listener.class));
+    }
+
+    @Test
+    public void shouldDelegateBlacklistToDelegate() throws Exception {
+        testBlacklist.blacklist(mockEntry);
+        verify(mockDelegate).blacklist(mockEntry);
+    }
+
+    @Test
+    public void shouldNotCheckDelegateIfEntryNotInAnyBucket() throws Exception {
+        // Given
+        listener.onBlacklisted("other", NOW + BUCKET_WIDTH);
+        given(mockEntry.getStableStorageID()).willReturn("testEntry");
+        given(mockEntry.getBlacklistExpiryTime()).willReturn(NOW + BUCKET_WIDTH - PURGE_DELAY);
+
+        // When
+        boolean result = testBlacklist.isBlacklisted(mockEntry);
+
+        // Then
+        assertThat(result).isFalse();
+        verify(mockDelegate, never()).isBlacklisted(any(Blacklistable.class));
+    }
+
+    @Test
+    public void shouldCheckDelegateIfEntryIsInABucket() throws Exception {
+        // Given
+        listener.onBlacklisted("testEntry", NOW + 3 * BUCKET_WIDTH);
+        given(mockEntry.getStableStorageID()).willReturn("testEntry");
+        given(mockEntry.getBlacklistExpiryTime()).willReturn(NOW + 3 * BUCKET_WIDTH - PURGE_DELAY);
+        given(mockDelegate.isBlacklisted(mockEntry)).willReturn(true);
+
+        // When
+        boolean result = testBlacklist.isBlacklisted(mockEntry);
+
+        // Then
+        assertThat(result).isTrue();
+        verify(mockDelegate).isBlacklisted(mockEntry);
+    }
+
+    @Test
+    public void shouldOnlyProbeBucketOfEntryExpiryTimePlusPurgeDelay() throws Exception {
+        // Given
+        listener.onBlacklisted("testEntry", NOW + 3 * BUCKET_WIDTH);
+        given(mockEntry.getStableStorageID()).willReturn("testEntry");
+        given(mockEntry.getBlacklistExpiryTime()).willReturn(NOW + BUCKET_WIDTH);
+
+        // When
+        boolean result = testBlacklist.isBlacklisted(mockEntry);
+
+        // Then
+        assertThat(result).isFalse();
+        verify(mockDelegate, never()).isBlacklisted(any(Blacklistable.class));
+    }
+
+    @Test
+    public void shouldAddPurgeDelayToEntryExpiryTimeWhenFindingBucket() throws Exception {
+        // Given
+        listener.onBlacklisted("testEntry", NOW + 10);
+        given(mockEntry.getStableStorageID()).willReturn("testEntry");
+        given(mockEntry.getBlacklistExpiryTime()).willReturn(NOW + 10 - PURGE_DELAY);
+        given(mockDelegate.isBlacklisted(mockEntry)).willReturn(true);
+
+        // When
+        boolean result = testBlacklist.isBlacklisted(mockEntry);
+
+        // Then
+        assertThat(result).isTrue();
+    }
+
+    @Test
+    public void shouldPartitionEntriesByExpiryTime() {
+        // Given
+        listener.onBlacklisted("one", NOW + 10);
+        listener.onBlacklisted("two", NOW + 20);
+        listener.onBlacklisted("three", NOW + BUCKET_WIDTH + 10);
+
+        // When
+        List<BucketedBlacklist.BucketStatistics> statistics = testBlacklist.getBucketStatistics();
+
+        // Then
+        assertThat(statistics).hasSize(2);
+        assertThat(statistics.get(0).getStartTime()).isEqualTo(NOW);
+        assertThat(statistics.get(0).getEndTime()).isEqualTo(NOW + BUCKET_WIDTH);
+        assertThat(statistics.get(0).getEntries()).isEqualTo(2);
+        assertThat(statistics.get(0).getEstimatedMemoryBytes()).isGreaterThan(0);
+        assertThat(statistics.get(1).getEntries()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldIgnoreAlreadyExpiredEntries() {
+        // When
+        listener.onBlacklisted("expired", NOW - 1);
+
+        // Then
+        assertThat(testBlacklist.getBucketStatistics()).isEmpty();
+    }
+
+    @Test
+    public void shouldDropWholeBucketOnceExpired() throws Exception {
+        // Given
+        listener.onBlacklisted("testEntry", NOW + 10);
+        listener.onBlacklisted("later", NOW + BUCKET_WIDTH + 10);
+        given(mockEntry.getStableStorageID()).willReturn("testEntry");
+        given(mockEntry.getBlacklistExpiryTime()).willReturn(NOW + 10 - PURGE_DELAY);
+        given(mockClock.now()).willReturn(NOW + BUCKET_WIDTH);
+
+        // When
+        boolean result = testBlacklist.isBlacklisted(mockEntry);
+
+        // Then
+        assertThat(result).isFalse();
+        assertThat(testBlacklist.getBucketStatistics()).hasSize(1);
+        verify(mockDelegate, never()).isBlacklisted(any(Blacklistable.class));
+    }
+
+    @Test
+    public void shouldDelegateSubscriptions() {
+        // Given
+        Blacklist.Listener other = mock(Blacklist.Listener.class);
+
+        // When
+        testBlacklist.subscribe(other);
+
+        // Then
+        verify(mockDelegate).subscribe(other);
+    }
+}
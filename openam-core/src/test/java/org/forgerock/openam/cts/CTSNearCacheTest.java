@@ -0,0 +1,221 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.cts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.forgerock.openam.cts.api.CTSOptions.OPTIMISTIC_CONCURRENCY_CHECK_OPTION;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.forgerock.openam.cts.api.filter.TokenFilter;
+import org.forgerock.openam.cts.api.tokens.Token;
+import org.forgerock.openam.cts.continuous.ChangeType;
+import org.forgerock.openam.cts.continuous.ContinuousQueryListener;
+import org.forgerock.openam.cts.impl.CoreTokenAdapter;
+import org.forgerock.openam.sm.datalayer.api.DataLayerException;
+import org.forgerock.openam.tokens.CoreTokenField;
+import org.forgerock.openam.tokens.TokenType;
+import org.forgerock.opendj.ldap.Attribute;
+import org.forgerock.opendj.ldap.LinkedAttribute;
+import org.forgerock.util.Options;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.sun.identity.shared.debug.Debug;
+
+public class CTSNearCacheTest {
+
+    private CoreTokenAdapter adapter;
+    private CoreTokenConfig config;
+    private CTSNearCache nearCache;
+
+    @BeforeMethod
+    public void setup() {
+        adapter = mock(CoreTokenAdapter.class);
+        config = mock(CoreTokenConfig.class);
+        given(config.isNearCacheEnabled()).willReturn(true);
+        given(config.getNearCacheSize()).willReturn(100);
+        given(config.getNearCacheStaleness()).willReturn(60000);
+        nearCache = new CTSNearCache(adapter, config, mock(Debug.class));
+    }
+
+    @Test
+    public void shouldServeCopyOfWrittenToken() throws Exception {
+        // Given
+        nearCache.cacheWrite(token("badger", "1"));
+
+        // When
+        Token result = nearCache.get("badger", Options.defaultOptions());
+
+        // Then
+        assertThat(result).isNotNull();
+        assertThat(result.getTokenId()).isEqualTo("badger");
+        assertThat(result).isNotSameAs(nearCache.get("badger", Options.defaultOptions()));
+        verify(adapter).continuousQuery(nearCache, CTSNearCache.INVALIDATION_FILTER);
+    }
+
+    @Test
+    public void shouldNotCacheWhenDisabled() throws Exception {
+        // Given
+        given(config.isNearCacheEnabled()).willReturn(false);
+        nearCache.configChanged();
+
+        // When
+        nearCache.cacheWrite(token("badger", "1"));
+
+        // Then
+        assertThat(nearCache.get("badger", Options.defaultOptions())).isNull();
+        verify(adapter, times(0)).continuousQuery(any(ContinuousQueryListener.class), any(TokenFilter.class));
+    }
+
+    @Test
+    public void shouldNotCacheReadWhenInvalidatedDuringRead() throws Exception {
+        // Given
+        long version = nearCache.version("badger");
+        nearCache.invalidate("badger");
+
+        // When
+        nearCache.cacheRead(token("badger", "1"), version);
+
+        // Then
+        assertThat(nearCache.get("badger", Options.defaultOptions())).isNull();
+    }
+
+    @Test
+    public void shouldCacheReadWhenNotInvalidated() throws Exception {
+        // Given
+        long version = nearCache.version("badger");
+
+        // When
+        nearCache.cacheRead(token("badger", "1"), version);
+
+        // Then
+        assertThat(nearCache.get("badger", Options.defaultOptions())).isNotNull();
+    }
+
+    @Test
+    public void shouldOnlyServeReadWithMatchingETag() throws Exception {
+        // Given
+        nearCache.cacheWrite(token("badger", "1"));
+
+        // When
+        Token matching = nearCache.get("badger", etagOption("1"));
+        Token different = nearCache.get("badger", etagOption("2"));
+
+        // Then
+        assertThat(matching).isNotNull();
+        assertThat(different).isNull();
+    }
+
+    @Test
+    public void shouldInvalidateOnChangeWithDifferentETag() throws Exception {
+        // Given
+        nearCache.cacheWrite(token("badger", "1"));
+
+        // When
+        nearCache.objectChanged("dn", changeSet("badger", "2"), ChangeType.MODIFY);
+
+        // Then
+        assertThat(nearCache.get("badger", Options.defaultOptions())).isNull();
+    }
+
+    @Test
+    public void shouldIgnoreEchoOfCachedWrite() throws Exception {
+        // Given
+        nearCache.cacheWrite(token("badger", "1"));
+
+        // When
+        nearCache.objectChanged("dn", changeSet("badger", "1"), ChangeType.MODIFY);
+
+        // Then
+        assertThat(nearCache.get("badger", Options.defaultOptions())).isNotNull();
+    }
+
+    @Test
+    public void shouldInvalidateOnDelete() throws Exception {
+        // Given
+        nearCache.cacheWrite(token("badger", "1"));
+
+        // When
+        nearCache.objectChanged("dn", changeSet("badger", "1"), ChangeType.DELETE);
+
+        // Then
+        assertThat(nearCache.get("badger", Options.defaultOptions())).isNull();
+    }
+
+    @Test
+    public void shouldClearCacheWhenConnectionLost() throws Exception {
+        // Given
+        nearCache.cacheWrite(token("badger", "1"));
+        nearCache.cacheWrite(token("weasel", "1"));
+
+        // When
+        nearCache.connectionLost();
+
+        // Then
+        assertThat(nearCache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldDisableCacheWhenContinuousQueryFails() throws Exception {
+        // Given
+        nearCache.cacheWrite(token("badger", "1"));
+
+        // When
+        nearCache.processError(new DataLayerException("test"));
+        nearCache.cacheWrite(token("badger", "2"));
+
+        // Then
+        assertThat(nearCache.get("badger", Options.defaultOptions())).isNull();
+    }
+
+    @Test
+    public void shouldRegisterContinuousQueryOnce() throws Exception {
+        // When
+        nearCache.cacheWrite(token("badger", "1"));
+        nearCache.get("badger", Options.defaultOptions());
+
+        // Then
+        verify(adapter, times(1)).continuousQuery(eq(nearCache), any(TokenFilter.class));
+        assertThat(nearCache.isListening()).isTrue();
+    }
+
+    private static Token token(String tokenId, String etag) {
+        Token token = new Token(tokenId, TokenType.SESSION);
+        token.setAttribute(CoreTokenField.ETAG, etag);
+        return token;
+    }
+
+    private static Options etagOption(String etag) {
+        return Options.defaultOptions().set(OPTIMISTIC_CONCURRENCY_CHECK_OPTION, etag);
+    }
+
+    private static Map<String, Attribute> changeSet(String tokenId, String etag) {
+        Map<String, Attribute> changeSet = new HashMap<>();
+        changeSet.put(CoreTokenField.TOKEN_ID.toString(),
+                new LinkedAttribute(CoreTokenField.TOKEN_ID.toString(), tokenId));
+        changeSet.put(CoreTokenField.ETAG.toString(), new LinkedAttribute(CoreTokenField.ETAG.toString(), etag));
+        return changeSet;
+    }
+}
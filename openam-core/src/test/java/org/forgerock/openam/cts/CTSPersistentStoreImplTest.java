@@ -16,9 +16,13 @@
 package org.forgerock.openam.cts;
 
 import com.sun.identity.shared.debug.Debug;
+import org.forgerock.openam.cts.api.tokens.Token;
 import org.forgerock.openam.cts.exceptions.CoreTokenException;
 import org.forgerock.openam.cts.impl.CoreTokenAdapter;
 import org.forgerock.openam.cts.utils.blob.TokenBlobStrategy;
+import org.forgerock.openam.sm.datalayer.api.ResultHandler;
+import org.forgerock.openam.sm.datalayer.api.query.PartialToken;
+import org.forgerock.openam.tokens.TokenType;
 import org.forgerock.util.Options;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -29,17 +33,20 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 public class CTSPersistentStoreImplTest {
 
     private CoreTokenAdapter mockAdapter;
+    private CTSNearCache mockNearCache;
     private CTSPersistentStoreImpl impl;
 
     @BeforeMethod
     public void setup() {
         mockAdapter = mock(CoreTokenAdapter.class);
-        impl = new CTSPersistentStoreImpl(mockAdapter, mock(Debug.class));
+        mockNearCache = mock(CTSNearCache.class);
+        impl = new CTSPersistentStoreImpl(mockAdapter, mockNearCache, mock(Debug.class));
     }
 
     @Test
@@ -54,4 +61,46 @@ public class CTSPersistentStoreImplTest {
         given(mockAdapter.read(anyString(), any(Options.class))).willReturn(null);
         assertThat(impl.read("")).isNull();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldServeReadFromNearCache() throws CoreTokenException {
+        // Given
+        Token cached = new Token("badger", TokenType.SESSION);
+        given(mockNearCache.get(eq("badger"), any(Options.class))).willReturn(cached);
+
+        // When
+        Token result = impl.read("badger");
+
+        // Then
+        assertThat(result).isSameAs(cached);
+        verify(mockAdapter, never()).read(anyString(), any(Options.class));
+    }
+
+    @Test
+    public void shouldCacheTokenReadFromAdapter() throws CoreTokenException {
+        // Given
+        Token token = new Token("badger", TokenType.SESSION);
+        given(mockNearCache.version("badger")).willReturn(7L);
+        given(mockAdapter.read(eq("badger"), any(Options.class))).willReturn(token);
+
+        // When
+        impl.read("badger");
+
+        // Then
+        verify(mockNearCache).cacheRead(token, 7L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldInvalidateNearCacheOnDelete() throws CoreTokenException {
+        // Given
+        ResultHandler<PartialToken, CoreTokenException> handler = mock(ResultHandler.class);
+        given(mockAdapter.delete(eq("badger"), any(Options.class))).willReturn(handler);
+
+        // When
+        impl.delete("badger");
+
+        // Then
+        verify(mockNearCache).invalidate("badger");
+    }
+}
@@ -167,4 +167,65 @@ public class TokenTest {
 
         assert(set.contains("one"));
     }
+
+    @Test
+    public void shouldDecodeEncodedDateWhenRead() {
+        // Given
+        Calendar now = getCalendarInstance();
+        Token token = new Token("id", TokenType.SESSION);
+        token.setAttribute(CoreTokenField.DATE_ONE, now);
+        String encoded = token.getEncodedAttribute(CoreTokenField.DATE_ONE);
+        Token other = new Token("id", TokenType.SESSION);
+
+        // When
+        other.setEncodedAttribute(CoreTokenField.DATE_ONE, encoded);
+
+        // Then
+        Calendar result = other.getAttribute(CoreTokenField.DATE_ONE);
+        assertEquals(now.getTimeInMillis(), result.getTimeInMillis());
+    }
+
+    @Test
+    public void shouldDecodeEncodedIntegerWhenRead() {
+        // Given
+        Token token = new Token("id", TokenType.SESSION);
+
+        // When
+        token.setEncodedAttribute(CoreTokenField.INTEGER_ONE, "1234");
+
+        // Then
+        assertThat(token.<Integer>getAttribute(CoreTokenField.INTEGER_ONE)).isEqualTo(1234);
+        assertThat(token.getEncodedAttribute(CoreTokenField.INTEGER_ONE)).isEqualTo("1234");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldNotSetEncodedBlob() {
+        // Given
+        Token token = new Token("id", TokenType.SESSION);
+
+        // When
+        token.setEncodedAttribute(CoreTokenField.BLOB, "badger");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldNotSetEncodedReadOnlyField() {
+        // Given
+        Token token = new Token("id", TokenType.SESSION);
+
+        // When
+        token.setEncodedAttribute(CoreTokenField.TOKEN_ID, "badger");
+    }
+
+    @Test
+    public void shouldNotCopyBlob() {
+        // Given
+        byte[] data = {1, 2, 3, 4};
+        Token token = new Token("id", TokenType.SESSION);
+
+        // When
+        token.setBlob(data);
+
+        // Then
+        assertThat(token.getBlob()).isSameAs(data);
+    }
 }
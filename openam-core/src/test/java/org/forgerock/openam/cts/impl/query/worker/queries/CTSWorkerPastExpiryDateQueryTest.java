@@ -23,6 +23,8 @@ import static org.mockito.Mockito.verify;
 import java.util.Calendar;
 
 import org.forgerock.openam.cts.CoreTokenConfig;
+import org.forgerock.openam.cts.monitoring.CTSOperationsMonitoringStore;
+import org.forgerock.openam.cts.worker.process.CTSReaperPacing;
 import org.forgerock.openam.sm.datalayer.api.ConnectionFactory;
 import org.forgerock.openam.sm.datalayer.api.query.QueryBuilder;
 import org.forgerock.openam.sm.datalayer.api.query.QueryFactory;
@@ -33,6 +35,8 @@ import org.forgerock.util.query.QueryFilterVisitor;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.sun.identity.shared.debug.Debug;
+
 public class CTSWorkerPastExpiryDateQueryTest {
 
     private ConnectionFactory<Connection> mockConnectionFactory;
@@ -68,7 +72,7 @@ public class CTSWorkerPastExpiryDateQueryTest {
         mockConfig = mock(CoreTokenConfig.class);
         given(mockConfig.getCleanupPageSize()).willReturn(9);
         CTSWorkerPastExpiryDateQuery<Connection> query = new CTSWorkerPastExpiryDateQuery<>(mockConnectionFactory,
-                mockFactory, mockConfig);
+                mockFactory, mockConfig, pacing(mockConfig));
 
         // When
         query.getQuery();
@@ -81,7 +85,7 @@ public class CTSWorkerPastExpiryDateQueryTest {
     public void shouldReturnTokenId() {
         // Given
         CTSWorkerPastExpiryDateQuery<Connection> query = new CTSWorkerPastExpiryDateQuery<>(mockConnectionFactory,
-                mockFactory, mockConfig);
+                mockFactory, mockConfig, pacing(mockConfig));
 
         // When
         query.getQuery();
@@ -90,4 +94,8 @@ public class CTSWorkerPastExpiryDateQueryTest {
         verify(mockBuilder).returnTheseAttributes(CoreTokenField.TOKEN_ID);
     }
 
-}
\ No newline at end of file
+    private CTSReaperPacing pacing(CoreTokenConfig config) {
+        return new CTSReaperPacing(config, mock(CTSOperationsMonitoringStore.class), mock(Debug.class));
+    }
+
+}
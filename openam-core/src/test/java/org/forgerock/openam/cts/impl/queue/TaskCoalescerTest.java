@@ -0,0 +1,249 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.cts.impl.queue;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.forgerock.openam.cts.CTSCoalescingDecision;
+import org.forgerock.openam.cts.api.CTSOptions;
+import org.forgerock.openam.cts.api.tokens.Token;
+import org.forgerock.openam.cts.exceptions.CoreTokenException;
+import org.forgerock.openam.cts.impl.queue.config.CTSQueueConfiguration;
+import org.forgerock.openam.cts.monitoring.CTSOperationsMonitoringStore;
+import org.forgerock.openam.sm.datalayer.api.ResultHandler;
+import org.forgerock.openam.sm.datalayer.api.Task;
+import org.forgerock.openam.sm.datalayer.api.TokenStorageAdapter;
+import org.forgerock.openam.sm.datalayer.api.query.PartialToken;
+import org.forgerock.openam.sm.datalayer.impl.tasks.TaskFactory;
+import org.forgerock.util.Options;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TaskCoalescerTest {
+
+    private CTSQueueConfiguration configuration;
+    private CTSOperationsMonitoringStore monitoringStore;
+    private TaskFactory taskFactory;
+    private TokenStorageAdapter adapter;
+    private Options options;
+    private Token first;
+    private Token second;
+    private TaskCoalescer coalescer;
+
+    @BeforeMethod
+    public void setup() {
+        configuration = mock(CTSQueueConfiguration.class);
+        given(configuration.isCoalescingEnabled()).willReturn(true);
+        monitoringStore = mock(CTSOperationsMonitoringStore.class);
+        taskFactory = mock(TaskFactory.class);
+        given(taskFactory.update(any(Token.class), any(Options.class), any(ResultHandler.class)))
+                .willReturn(mock(Task.class));
+        adapter = mock(TokenStorageAdapter.class);
+        options = Options.defaultOptions();
+
+        first = mock(Token.class);
+        given(first.getTokenId()).willReturn("badger");
+        second = mock(Token.class);
+        given(second.getTokenId()).willReturn("badger");
+
+        coalescer = new TaskCoalescer(configuration, monitoringStore);
+    }
+
+    @Test
+    public void shouldReplaceQueuedUpdateWithNewerUpdate() throws Exception {
+        // Given
+        Task queued = queueUpdate(first, mock(ResultHandler.class));
+
+        // When
+        boolean replaced = coalescer.replace(second, options, mock(ResultHandler.class));
+        queued.execute(adapter);
+
+        // Then
+        assertThat(replaced).isTrue();
+        verify(taskFactory).update(eq(second), eq(options), any(ResultHandler.class));
+        verify(taskFactory, never()).update(eq(first), any(Options.class), any(ResultHandler.class));
+        verify(monitoringStore).addCoalescedOperation(CTSCoalescingDecision.UPDATE_REPLACED);
+    }
+
+    @Test
+    public void shouldNotifyEveryCoalescedHandlerWithWrittenToken() throws Exception {
+        // Given
+        ResultHandler<Token, ?> firstHandler = mock(ResultHandler.class);
+        ResultHandler<Token, ?> secondHandler = mock(ResultHandler.class);
+        Task queued = queueUpdate(first, firstHandler);
+        coalescer.replace(second, options, secondHandler);
+        queued.execute(adapter);
+
+        ArgumentCaptor<ResultHandler> captor = ArgumentCaptor.forClass(ResultHandler.class);
+        verify(taskFactory).update(eq(second), eq(options), captor.capture());
+
+        // When
+        captor.getValue().processResults(second);
+
+        // Then
+        verify(firstHandler).processResults(second);
+        verify(secondHandler).processResults(second);
+    }
+
+    @Test
+    public void shouldNotReplaceUpdateOnceItHasBeenExecuted() throws Exception {
+        // Given
+        Task queued = queueUpdate(first, mock(ResultHandler.class));
+        queued.execute(adapter);
+
+        // When
+        boolean replaced = coalescer.replace(second, options, mock(ResultHandler.class));
+
+        // Then
+        assertThat(replaced).isFalse();
+    }
+
+    @Test
+    public void shouldBlockForResultOfCoalescedWrite() throws Exception {
+        // Given
+        given(configuration.getQueueTimeout()).willReturn(1);
+        Task queued = queueUpdate(first, mock(ResultHandler.class));
+        queued.execute(adapter);
+
+        ArgumentCaptor<ResultHandler> captor = ArgumentCaptor.forClass(ResultHandler.class);
+        verify(taskFactory).update(eq(first), eq(options), captor.capture());
+
+        // When
+        captor.getValue().processResults(first);
+
+        // Then
+        assertThat(captor.getValue().getResults()).isSameAs(first);
+    }
+
+    @Test (expectedExceptions = CoreTokenException.class)
+    public void shouldThrowErrorOfCoalescedWriteFromGetResults() throws Exception {
+        // Given
+        given(configuration.getQueueTimeout()).willReturn(1);
+        Task queued = queueUpdate(first, mock(ResultHandler.class));
+        queued.execute(adapter);
+
+        ArgumentCaptor<ResultHandler> captor = ArgumentCaptor.forClass(ResultHandler.class);
+        verify(taskFactory).update(eq(first), eq(options), captor.capture());
+        captor.getValue().processError(new CoreTokenException("badger"));
+
+        // When
+        captor.getValue().getResults();
+    }
+
+    @Test
+    public void shouldCancelQueuedUpdateOnDelete() throws Exception {
+        // Given
+        ResultHandler<Token, ?> handler = mock(ResultHandler.class);
+        Task queued = queueUpdate(first, handler);
+
+        // When
+        coalescer.cancel("badger", options, mock(ResultHandler.class));
+        queued.execute(adapter);
+
+        // Then
+        verify(handler, never()).processResults(any(Token.class));
+        verify(taskFactory, never()).update(any(Token.class), any(Options.class), any(ResultHandler.class));
+        verify(monitoringStore).addCoalescedOperation(CTSCoalescingDecision.UPDATE_CANCELLED);
+    }
+
+    @Test
+    public void shouldNotifyCancelledUpdateOnceDeleteSucceeds() throws Exception {
+        // Given
+        ResultHandler<Token, ?> handler = mock(ResultHandler.class);
+        ResultHandler<PartialToken, ?> deleteHandler = mock(ResultHandler.class);
+        queueUpdate(first, handler);
+        ResultHandler<PartialToken, ?> returned = coalescer.cancel("badger", options, deleteHandler);
+        PartialToken deleted = mock(PartialToken.class);
+
+        // When
+        returned.processResults(deleted);
+
+        // Then
+        verify(deleteHandler).processResults(deleted);
+        verify(handler).processResults(first);
+    }
+
+    @Test
+    public void shouldNotifyCancelledUpdateWhenDeleteFails() throws Exception {
+        // Given
+        ResultHandler<Token, ?> handler = mock(ResultHandler.class);
+        ResultHandler<PartialToken, ?> deleteHandler = mock(ResultHandler.class);
+        queueUpdate(first, handler);
+        ResultHandler<PartialToken, ?> returned = coalescer.cancel("badger", options, deleteHandler);
+        Exception error = new CoreTokenException("badger");
+
+        // When
+        returned.processError(error);
+
+        // Then
+        verify(deleteHandler).processError(error);
+        verify(handler).processError(error);
+        verify(handler, never()).processResults(any(Token.class));
+    }
+
+    @Test
+    public void shouldReturnDeleteHandlerWhenNoUpdateIsQueued() throws Exception {
+        // Given
+        ResultHandler<PartialToken, ?> deleteHandler = mock(ResultHandler.class);
+
+        // When
+        ResultHandler<PartialToken, ?> returned = coalescer.cancel("badger", options, deleteHandler);
+
+        // Then
+        assertThat(returned).isSameAs(deleteHandler);
+        verify(monitoringStore, never()).addCoalescedOperation(any(CTSCoalescingDecision.class));
+    }
+
+    @Test
+    public void shouldNotCoalesceConditionalUpdates() throws Exception {
+        // Given
+        queueUpdate(first, mock(ResultHandler.class));
+        Options conditional = Options.defaultOptions().set(CTSOptions.OPTIMISTIC_CONCURRENCY_CHECK_OPTION, "etag");
+
+        // When
+        boolean replaced = coalescer.replace(second, conditional, mock(ResultHandler.class));
+
+        // Then
+        assertThat(replaced).isFalse();
+    }
+
+    @Test
+    public void shouldNotCoalesceWhenDisabled() throws Exception {
+        // Given
+        given(configuration.isCoalescingEnabled()).willReturn(false);
+        queueUpdate(first, mock(ResultHandler.class));
+
+        // When
+        boolean replaced = coalescer.replace(second, options, mock(ResultHandler.class));
+
+        // Then
+        assertThat(replaced).isFalse();
+        verify(taskFactory).update(eq(first), eq(options), any(ResultHandler.class));
+    }
+
+    private Task queueUpdate(Token token, ResultHandler<Token, ?> handler) {
+        Task task = coalescer.update(taskFactory, token, options, handler);
+        coalescer.register(token.getTokenId(), task);
+        return task;
+    }
+}
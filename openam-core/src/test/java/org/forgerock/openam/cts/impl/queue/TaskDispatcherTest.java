@@ -23,6 +23,8 @@ import java.util.Collection;
 import org.forgerock.openam.cts.api.filter.TokenFilter;
 import org.forgerock.openam.cts.api.tokens.Token;
 import org.forgerock.openam.cts.exceptions.CoreTokenException;
+import org.forgerock.openam.cts.impl.queue.config.CTSQueueConfiguration;
+import org.forgerock.openam.cts.monitoring.CTSOperationsMonitoringStore;
 import org.forgerock.openam.sm.datalayer.api.ResultHandler;
 import org.forgerock.openam.sm.datalayer.api.Task;
 import org.forgerock.openam.sm.datalayer.api.query.PartialToken;
@@ -54,7 +56,8 @@ public class TaskDispatcherTest {
 
         queue = new TaskDispatcher(
                 mockTaskFactory,
-                mockExecutor);
+                mockExecutor,
+                new TaskCoalescer(mock(CTSQueueConfiguration.class), mock(CTSOperationsMonitoringStore.class)));
     }
 
     @Test
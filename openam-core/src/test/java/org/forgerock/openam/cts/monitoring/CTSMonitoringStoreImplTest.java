@@ -17,11 +17,13 @@
 package org.forgerock.openam.cts.monitoring;
 
 import com.sun.identity.shared.debug.Debug;
+import org.forgerock.openam.cts.CTSCoalescingDecision;
 import org.forgerock.openam.cts.CTSOperation;
 import org.forgerock.openam.tokens.TokenType;
 import org.forgerock.openam.cts.api.tokens.Token;
 import org.forgerock.openam.cts.monitoring.impl.CTSMonitoringStoreImpl;
 import org.forgerock.openam.cts.monitoring.impl.connections.ConnectionStore;
+import org.forgerock.openam.cts.monitoring.impl.operations.CoalescingStore;
 import org.forgerock.openam.cts.monitoring.impl.operations.TokenOperationsStore;
 import org.forgerock.openam.cts.monitoring.impl.reaper.ReaperMonitor;
 import org.mockito.Matchers;
@@ -46,6 +48,7 @@ public class CTSMonitoringStoreImplTest {
     private TokenOperationsStore tokenOperationsStore;
     private ReaperMonitor reaperMonitor;
     private ConnectionStore connectionStore;
+    private CoalescingStore coalescingStore;
 
     @BeforeMethod
     public void setUp() {
@@ -55,12 +58,14 @@ public class CTSMonitoringStoreImplTest {
         final Debug debug = mock(Debug.class);
         reaperMonitor = mock(ReaperMonitor.class);
         connectionStore = mock(ConnectionStore.class);
+        coalescingStore = mock(CoalescingStore.class);
 
         ctsOperationsMonitoringStore = new CTSMonitoringStoreImpl(
                 executorService,
                 tokenOperationsStore,
                 reaperMonitor,
                 connectionStore,
+                coalescingStore,
                 debug);
         ctsReaperMonitoringStore = (CTSReaperMonitoringStore) ctsOperationsMonitoringStore;
 
@@ -283,4 +288,14 @@ public class CTSMonitoringStoreImplTest {
         //Then
         assertEquals(result, 2.0D);
     }
+
+    @Test
+    public void shouldAddCoalescedOperation() {
+
+        //When
+        ctsOperationsMonitoringStore.addCoalescedOperation(CTSCoalescingDecision.UPDATE_REPLACED);
+
+        //Then
+        verify(coalescingStore).add(CTSCoalescingDecision.UPDATE_REPLACED);
+    }
 }
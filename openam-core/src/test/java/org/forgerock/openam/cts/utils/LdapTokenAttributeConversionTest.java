@@ -25,6 +25,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import org.forgerock.openam.cts.TokenTestUtils;
+import org.forgerock.openam.cts.api.CoreTokenConstants;
 import org.forgerock.openam.cts.api.tokens.Token;
 import org.forgerock.openam.cts.impl.CTSDataLayerConfiguration;
 import org.forgerock.openam.sm.datalayer.impl.ldap.LdapDataLayerConfiguration;
@@ -180,6 +181,40 @@ public class LdapTokenAttributeConversionTest {
         assertTrue(strings.contains("wobble"));
     }
 
+    @Test
+    public void shouldConvertBlobToEntryAndBack() {
+        // Given
+        LdapTokenAttributeConversion conversion = generateTokenAttributeConversion();
+        byte[] data = {1, 2, 3, 4, 5};
+        Token token = new Token("badger", TokenType.SESSION);
+        token.setBlob(data);
+
+        // When
+        Entry entry = conversion.getEntry(token);
+        Token result = conversion.tokenFromEntry(entry);
+
+        // Then
+        assertEquals(entry.getAttribute(CoreTokenField.BLOB.toString()).firstValue().toByteArray(), data);
+        assertEquals(result.getBlob(), data);
+    }
+
+    @Test
+    public void shouldNotModifyEntryWhenConvertingToToken() {
+        // Given
+        LdapTokenAttributeConversion conversion = generateTokenAttributeConversion();
+        Token token = new Token("badger", TokenType.SESSION);
+        token.setAttribute(CoreTokenField.STRING_ONE, "Ferret");
+        Entry entry = conversion.getEntry(token);
+        int attributes = entry.getAttributeCount();
+
+        // When
+        conversion.tokenFromEntry(entry);
+
+        // Then
+        assertEquals(entry.getAttributeCount(), attributes);
+        assertNotNull(entry.getAttribute(CoreTokenConstants.OBJECT_CLASS));
+    }
+
     @Test
     public void shouldAllowPlusSignInDN() {
         // Given
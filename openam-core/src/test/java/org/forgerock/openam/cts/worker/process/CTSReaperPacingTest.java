@@ -0,0 +1,121 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.cts.worker.process;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.mock;
+
+import org.forgerock.openam.cts.CTSOperation;
+import org.forgerock.openam.cts.CoreTokenConfig;
+import org.forgerock.openam.cts.monitoring.CTSOperationsMonitoringStore;
+import org.forgerock.openam.tokens.TokenType;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.sun.identity.shared.debug.Debug;
+
+public class CTSReaperPacingTest {
+
+    private CoreTokenConfig config;
+    private CTSOperationsMonitoringStore operationsStore;
+    private CTSReaperPacing pacing;
+
+    @BeforeMethod
+    public void setUp() {
+        config = mock(CoreTokenConfig.class);
+        given(config.getCleanupPageSize()).willReturn(1000);
+        given(config.isReaperBatchEnabled()).willReturn(true);
+        given(config.getReaperMaxPageSize()).willReturn(3000);
+        given(config.getReaperMaxConcurrency()).willReturn(3);
+        given(config.getReaperTargetLatency()).willReturn(1000);
+        operationsStore = mock(CTSOperationsMonitoringStore.class);
+        pacing = new CTSReaperPacing(config, operationsStore, mock(Debug.class));
+    }
+
+    @Test
+    public void shouldUseDefaultPageSizeAndNoPipeliningWhenDisabled() {
+        // Given
+        given(config.isReaperBatchEnabled()).willReturn(false);
+
+        // When
+        pacing.batchCompleted(1000, 10);
+
+        // Then
+        assertThat(pacing.getPageSize()).isEqualTo(1000);
+        assertThat(pacing.getMaxOutstandingBatches()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldGrowUpToLimitsWhileBatchesAreFast() {
+        // When
+        for (int i = 0; i < 10; i++) {
+            pacing.batchCompleted(1000, 10);
+        }
+
+        // Then
+        assertThat(pacing.getPageSize()).isEqualTo(3000);
+        assertThat(pacing.getMaxOutstandingBatches()).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldBackOffWhenBatchesAreSlow() {
+        // Given
+        for (int i = 0; i < 10; i++) {
+            pacing.batchCompleted(1000, 10);
+        }
+
+        // When
+        pacing.batchCompleted(3000, 5000);
+
+        // Then
+        assertThat(pacing.getPageSize()).isEqualTo(1500);
+        assertThat(pacing.getMaxOutstandingBatches()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotShrinkBelowMinimumPageSize() {
+        // When
+        for (int i = 0; i < 20; i++) {
+            pacing.batchCompleted(1000, 5000);
+        }
+
+        // Then
+        assertThat(pacing.getPageSize()).isEqualTo(100);
+        assertThat(pacing.getMaxOutstandingBatches()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldBackOffWhenLiveRateIsHigh() throws Exception {
+        // Given
+        given(config.getReaperLiveRateThreshold()).willReturn(1);
+        given(operationsStore.getOperationsCumulativeCount((TokenType) isNull(), any(CTSOperation.class)))
+                .willReturn(0L).willReturn(0L).willReturn(0L)
+                .willReturn(1000000L);
+        pacing.batchCompleted(1000, 10);
+        Thread.sleep(5);
+
+        // When
+        pacing.batchCompleted(1000, 10);
+
+        // Then
+        assertThat(pacing.getMaxOutstandingBatches()).isEqualTo(1);
+        assertThat(pacing.getPageSize()).isEqualTo(1000);
+    }
+}
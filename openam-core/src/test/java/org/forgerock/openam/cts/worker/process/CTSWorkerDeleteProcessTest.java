@@ -17,9 +17,12 @@ package org.forgerock.openam.cts.worker.process;
 
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.verify;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -31,6 +34,7 @@ import org.forgerock.openam.cts.monitoring.CTSReaperMonitoringStore;
 import org.forgerock.openam.cts.worker.CTSWorkerFilter;
 import org.forgerock.openam.cts.worker.process.CTSWorkerDeleteProcess.TokenDeletion;
 import org.forgerock.openam.sm.datalayer.api.query.PartialToken;
+import org.mockito.ArgumentCaptor;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -51,7 +55,8 @@ public class CTSWorkerDeleteProcessTest {
         monitoringStore = mock(CTSReaperMonitoringStore.class);
         mockQuery = mock(CTSWorkerQuery.class);
 
-        process = new CTSWorkerDeleteProcess(mockTokenDeletion, monitoringStore, mock(Debug.class));
+        process = new CTSWorkerDeleteProcess(mockTokenDeletion, monitoringStore, mock(CTSReaperPacing.class),
+                mock(Debug.class));
     }
 
     @AfterMethod
@@ -66,13 +71,79 @@ public class CTSWorkerDeleteProcessTest {
         Collection<PartialToken> tokens = Arrays.asList(partialToken(), partialToken(), partialToken());
         given(mockFilter.filter(anyCollection())).willReturn(tokens);
         given(mockQuery.nextPage()).willReturn(tokens).willReturn(null);
-        given(mockTokenDeletion.deleteBatch(anyCollection())).willReturn(new CountDownLatch(0));
+        given(mockTokenDeletion.deleteBatch(anyCollection(), any(TokenDeletion.BatchCallback.class))).willReturn(new CountDownLatch(0));
 
         // When
         process.handle(mockQuery, mockFilter);
 
         // Then
-        verify(mockTokenDeletion).deleteBatch(tokens);
+        verify(mockTokenDeletion).deleteBatch(eq(tokens), any(TokenDeletion.BatchCallback.class));
+    }
+
+    @Test
+    public void shouldRecordQueuedDeletesInMonitoringStore() throws CoreTokenException {
+        // Given
+        Collection<PartialToken> tokens = Arrays.asList(partialToken(), partialToken(), partialToken());
+        given(mockFilter.filter(anyCollection())).willReturn(tokens);
+        given(mockQuery.nextPage()).willReturn(tokens).willReturn(null);
+        given(mockTokenDeletion.deleteBatch(anyCollection(), any(TokenDeletion.BatchCallback.class))).willReturn(new CountDownLatch(0));
+
+        // When
+        process.handle(mockQuery, mockFilter);
+
+        // Then
+        verify(monitoringStore).addQueuedReaperDeletes(3);
+    }
+
+    @Test
+    public void shouldRemoveUnqueuedDeletesFromBacklog() throws CoreTokenException {
+        // Given
+        Collection<PartialToken> tokens = Arrays.asList(partialToken(), partialToken(), partialToken());
+        ArgumentCaptor<TokenDeletion.BatchCallback> captor = ArgumentCaptor.forClass(TokenDeletion.BatchCallback.class);
+        given(mockTokenDeletion.deleteBatch(anyCollection(), captor.capture()))
+                .willThrow(new CoreTokenException("queue full"));
+
+        // When
+        try {
+            process.handleBatch(tokens);
+        } catch (CoreTokenException e) {
+            captor.getValue().notQueued(2);
+        }
+
+        // Then
+        verify(monitoringStore).addQueuedReaperDeletes(3);
+        verify(monitoringStore).addQueuedReaperDeletes(-2);
+    }
+
+    @Test
+    public void shouldNotRecordCompletionOfBatchWithNoDeletesProcessed() throws CoreTokenException {
+        // Given
+        Collection<PartialToken> tokens = Arrays.asList(partialToken(), partialToken());
+        ArgumentCaptor<TokenDeletion.BatchCallback> captor = ArgumentCaptor.forClass(TokenDeletion.BatchCallback.class);
+        given(mockTokenDeletion.deleteBatch(anyCollection(), captor.capture())).willReturn(new CountDownLatch(0));
+        process.handleBatch(tokens);
+
+        // When
+        captor.getValue().notQueued(2);
+        captor.getValue().completed(0);
+
+        // Then
+        verify(monitoringStore, never()).addCompletedReaperDeletes(anyLong(), anyLong());
+    }
+
+    @Test
+    public void shouldRecordCompletionOfProcessedDeletes() throws CoreTokenException {
+        // Given
+        Collection<PartialToken> tokens = Arrays.asList(partialToken(), partialToken(), partialToken());
+        ArgumentCaptor<TokenDeletion.BatchCallback> captor = ArgumentCaptor.forClass(TokenDeletion.BatchCallback.class);
+        given(mockTokenDeletion.deleteBatch(anyCollection(), captor.capture())).willReturn(new CountDownLatch(0));
+        process.handleBatch(tokens);
+
+        // When
+        captor.getValue().completed(1);
+
+        // Then
+        verify(monitoringStore).addCompletedReaperDeletes(eq(1L), anyLong());
     }
 
     private PartialToken partialToken() {
@@ -17,15 +17,18 @@ package org.forgerock.openam.cts.worker.process;
 
 import static org.fest.assertions.Assertions.assertThat;
 import static org.mockito.BDDMockito.*;
+import static org.testng.Assert.fail;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.forgerock.openam.cts.exceptions.CoreTokenException;
 import org.forgerock.openam.cts.impl.queue.TaskDispatcher;
 import org.forgerock.openam.cts.worker.process.CTSWorkerDeleteProcess.TokenDeletion;
 import org.forgerock.openam.sm.datalayer.api.ResultHandler;
 import org.forgerock.openam.sm.datalayer.api.query.PartialToken;
+import org.mockito.ArgumentCaptor;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -53,6 +56,87 @@ public class TokenDeletionTest {
         assertThat(deletion.deleteBatch(tokens).getCount()).isEqualTo(tokens.size());
     }
 
+    @Test
+    public void shouldRunCallbackOnceLastDeleteHasCompleted() throws CoreTokenException {
+        // Given
+        RecordingCallback callback = new RecordingCallback();
+        ArgumentCaptor<ResultHandler> captor = ArgumentCaptor.forClass(ResultHandler.class);
+
+        // When
+        deletion.deleteBatch(tokens, callback);
+
+        // Then
+        verify(mockQueue, times(3)).delete(anyString(), captor.capture());
+        ResultHandler<PartialToken, ?> handler = captor.getValue();
+        handler.processResults(null);
+        handler.processError(new Exception());
+        assertThat(callback.calls.get()).isEqualTo(0);
+        handler.processResults(null);
+        assertThat(callback.calls.get()).isEqualTo(1);
+        assertThat(callback.processed.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldReportUnqueuedDeletesWhenQueuingFails() throws CoreTokenException {
+        // Given
+        RecordingCallback callback = new RecordingCallback();
+        ArgumentCaptor<ResultHandler> captor = ArgumentCaptor.forClass(ResultHandler.class);
+        willDoNothing().willThrow(new CoreTokenException("queue full"))
+                .given(mockQueue).delete(anyString(), captor.capture());
+
+        // When
+        try {
+            deletion.deleteBatch(tokens, callback);
+            fail("expected queuing to fail");
+        } catch (CoreTokenException e) {
+            // expected
+        }
+
+        // Then
+        assertThat(callback.unqueued.get()).isEqualTo(2);
+        assertThat(callback.calls.get()).isEqualTo(0);
+        captor.getAllValues().get(0).processResults(null);
+        assertThat(callback.calls.get()).isEqualTo(1);
+        assertThat(callback.processed.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldCompleteStraightAwayWhenNoDeleteWasQueued() throws CoreTokenException {
+        // Given
+        RecordingCallback callback = new RecordingCallback();
+        willThrow(new CoreTokenException("queue full")).given(mockQueue).delete(anyString(), any(ResultHandler.class));
+
+        // When
+        try {
+            deletion.deleteBatch(tokens, callback);
+            fail("expected queuing to fail");
+        } catch (CoreTokenException e) {
+            // expected
+        }
+
+        // Then
+        assertThat(callback.unqueued.get()).isEqualTo(3);
+        assertThat(callback.calls.get()).isEqualTo(1);
+        assertThat(callback.processed.get()).isEqualTo(0);
+    }
+
+    private static final class RecordingCallback implements TokenDeletion.BatchCallback {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger unqueued = new AtomicInteger();
+
+        @Override
+        public void notQueued(int count) {
+            unqueued.addAndGet(count);
+        }
+
+        @Override
+        public void completed(int count) {
+            calls.incrementAndGet();
+            processed.addAndGet(count);
+        }
+    }
+
     private PartialToken partialToken() {
         return mock(PartialToken.class);
     }
@@ -82,4 +82,20 @@ public class LowerCaseIdServicesDecoratorTest {
         // Then
         assertEquals(result, Collections.singletonMap(KEY.toLowerCase(), VALUE));
     }
+
+    @Test
+    public void shouldReturnLowerCaseAttributeNamesForEachIdentity() throws Exception {
+        // Given
+        Set<String> names = Collections.singleton(NAME);
+        Set attrNames = Collections.emptySet();
+        Map<String, Map> attrs = Collections.<String, Map>singletonMap(NAME, Collections.singletonMap(KEY, VALUE));
+
+        given(mockDelegate.getAttributes(TOKEN, ID_TYPE, names, attrNames, AM_ORG_NAME)).willReturn(attrs);
+
+        // When
+        Map<String, Map> result = decorator.getAttributes(TOKEN, ID_TYPE, names, attrNames, AM_ORG_NAME);
+
+        // Then
+        assertEquals(result, Collections.singletonMap(NAME, Collections.singletonMap(KEY.toLowerCase(), VALUE)));
+    }
 }
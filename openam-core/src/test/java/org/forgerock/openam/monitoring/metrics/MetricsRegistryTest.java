@@ -0,0 +1,167 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.monitoring.metrics;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.forgerock.util.time.TimeService;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class MetricsRegistryTest {
+
+    private MetricsRegistry registry;
+
+    @BeforeMethod
+    public void setup() {
+        registry = new MetricsRegistry();
+    }
+
+    @Test
+    public void shouldReturnSameMetricForSameNameAndLabels() {
+        // Given
+        Counter counter = registry.counter("test_requests_total", "Requests", "outcome", "success");
+
+        // When
+        Counter result = registry.counter("test_requests_total", "Requests", "outcome", "success");
+
+        // Then
+        assertThat(result).isSameAs(counter);
+        assertThat(registry.counter("test_requests_total", "Requests", "outcome", "failure")).isNotSameAs(counter);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldRejectNameRegisteredWithDifferentType() {
+        // Given
+        registry.counter("test_operation", "Operations");
+
+        // When
+        registry.timer("test_operation", "Operations");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void shouldRejectUnpairedLabels() {
+        // When
+        registry.timer("test_duration_seconds", "Duration", "operation");
+    }
+
+    @Test
+    public void shouldReportTimerPercentiles() {
+        // Given
+        Timer timer = registry.timer("test_duration_seconds", "Duration");
+        for (int i = 1; i <= 1000; i++) {
+            timer.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+
+        // When
+        TimerSnapshot snapshot = timer.getSnapshot();
+
+        // Then
+        assertThat(snapshot.getCount()).isEqualTo(1000);
+        assertThat(snapshot.getTotalNanos()).isEqualTo(TimeUnit.MICROSECONDS.toNanos(500500));
+        assertThat(snapshot.getP50Nanos()).isBetween(TimeUnit.MICROSECONDS.toNanos(495),
+                TimeUnit.MICROSECONDS.toNanos(505));
+        assertThat(snapshot.getP99Nanos()).isBetween(TimeUnit.MICROSECONDS.toNanos(985),
+                TimeUnit.MICROSECONDS.toNanos(995));
+        assertThat(snapshot.getMaxNanos()).isBetween(TimeUnit.MICROSECONDS.toNanos(995),
+                TimeUnit.MICROSECONDS.toNanos(1005));
+    }
+
+    @Test
+    public void shouldKeepDurationsAcrossSnapshots() {
+        // Given
+        Timer timer = registry.timer("test_duration_seconds", "Duration");
+        timer.record(TimeUnit.MILLISECONDS.toNanos(10));
+        timer.getSnapshot();
+
+        // When
+        timer.record(TimeUnit.MILLISECONDS.toNanos(20));
+        TimerSnapshot snapshot = timer.getSnapshot();
+
+        // Then
+        assertThat(snapshot.getCount()).isEqualTo(2);
+        assertThat(snapshot.getMaxNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    public void shouldOnlyReportPercentilesOfRecentDurations() {
+        // Given
+        TimeService clock = mock(TimeService.class);
+        given(clock.now()).willReturn(0L);
+        Timer timer = new Timer("test_duration_seconds", "", clock);
+        timer.record(TimeUnit.SECONDS.toNanos(1));
+        timer.getSnapshot();
+        given(clock.now()).willReturn(TimeUnit.MINUTES.toMillis(6));
+
+        // When
+        timer.record(TimeUnit.MILLISECONDS.toNanos(10));
+        TimerSnapshot snapshot = timer.getSnapshot();
+
+        // Then
+        assertThat(snapshot.getCount()).isEqualTo(2);
+        assertThat(snapshot.getTotalNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(1010));
+        assertThat(snapshot.getMaxNanos()).isLessThan(TimeUnit.MILLISECONDS.toNanos(20));
+        assertThat(snapshot.getP999Nanos()).isLessThan(TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    public void shouldWriteGaugesInPrometheusTextFormat() throws Exception {
+        // Given
+        Gauge gauge = registry.gauge("test_queue_depth", "Queued records", "log", "amAuthentication.access");
+        gauge.add(5);
+        gauge.add(-2);
+        StringWriter writer = new StringWriter();
+
+        // When
+        PrometheusTextFormat.write(registry, writer);
+
+        // Then
+        assertThat(writer.toString()).isEqualTo("# HELP test_queue_depth Queued records\n"
+                + "# TYPE test_queue_depth gauge\n"
+                + "test_queue_depth{log=\"amAuthentication.access\"} 3\n");
+        assertThat(registry.getGauges()).containsEntry("test_queue_depth{log=\"amAuthentication.access\"}", 3L);
+    }
+
+    @Test
+    public void shouldWritePrometheusTextFormat() throws Exception {
+        // Given
+        registry.counter("test_failures_total", "Failed \"operations\"", "operation", "read\"er").add(3);
+        registry.timer("test_duration_seconds", "Duration", "operation", "read").record(
+                TimeUnit.MILLISECONDS.toNanos(250));
+        StringWriter writer = new StringWriter();
+
+        // When
+        PrometheusTextFormat.write(registry, writer);
+
+        // Then
+        String text = writer.toString();
+        assertThat(text).startsWith("# HELP test_duration_seconds Duration\n"
+                + "# TYPE test_duration_seconds summary\n"
+                + "test_duration_seconds{operation=\"read\",quantile=\"0.5\"} 0.2");
+        assertThat(text).contains("test_duration_seconds{operation=\"read\",quantile=\"0.99\"} 0.2");
+        assertThat(text).contains("test_duration_seconds{operation=\"read\",quantile=\"0.999\"} 0.2");
+        assertThat(text).endsWith("test_duration_seconds_sum{operation=\"read\"} 0.25\n"
+                + "test_duration_seconds_count{operation=\"read\"} 1\n"
+                + "# HELP test_failures_total Failed \"operations\"\n"
+                + "# TYPE test_failures_total counter\n"
+                + "test_failures_total{operation=\"read\\\"er\"} 3\n");
+    }
+}
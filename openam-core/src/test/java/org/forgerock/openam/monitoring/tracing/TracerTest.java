@@ -0,0 +1,172 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.monitoring.tracing;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.forgerock.openam.audit.context.AuditRequestContext;
+import org.forgerock.services.TransactionId;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TracerTest {
+
+    private static final String TRANSACTION_ID = "2d6a4b3c-1f0e-4a5b-9c8d-7e6f5a4b3c2d";
+
+    private SpanBuffer buffer;
+
+    @BeforeMethod
+    public void setup() {
+        buffer = new SpanBuffer(16);
+        AuditRequestContext.set(new AuditRequestContext(new TransactionId(TRANSACTION_ID)));
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        AuditRequestContext.clear();
+    }
+
+    @Test
+    public void shouldNotRecordRequestsThatAreNotSampled() {
+        // Given
+        Tracer tracer = new Tracer(0, buffer);
+
+        // When
+        Span span = tracer.start("cts.read");
+        span.setAttribute("realm", "/").end();
+
+        // Then
+        assertThat(span).isSameAs(Span.NOOP);
+        assertThat(span.isRecording()).isFalse();
+        assertThat(drain()).isEmpty();
+    }
+
+    @Test
+    public void shouldRecordNestedSpansOfTheSameRequest() {
+        // Given
+        Tracer tracer = new Tracer(1, buffer);
+
+        // When
+        Span login = tracer.start("authentication.login");
+        Span module = tracer.start("authentication.module").setAttribute("module", "DataStore");
+        module.end();
+        Span profile = tracer.start("idrepo.get_attributes");
+        profile.end();
+        login.end();
+
+        // Then
+        List<Span> spans = drain();
+        assertThat(spans).containsOnly(login, module, profile);
+        assertThat(login.getParentSpanId()).isZero();
+        assertThat(module.getParentSpanId()).isEqualTo(login.getSpanId());
+        assertThat(profile.getParentSpanId()).isEqualTo(login.getSpanId());
+        assertThat(module.getTraceId()).isEqualTo("2d6a4b3c1f0e4a5b9c8d7e6f5a4b3c2d").isEqualTo(login.getTraceId());
+        assertThat(module.getEndEpochNanos()).isGreaterThanOrEqualTo(module.getStartEpochNanos());
+        assertThat(module.getAttributeCount()).isEqualTo(1);
+        assertThat(module.getAttributeValue(0)).isEqualTo("DataStore");
+    }
+
+    @Test
+    public void shouldNotParentSpansOnSpansOfAnEarlierRequest() {
+        // Given
+        Tracer tracer = new Tracer(1, buffer);
+        Span earlier = tracer.start("policy.evaluate");
+
+        // When
+        AuditRequestContext.set(new AuditRequestContext(new TransactionId("another-request")));
+        Span span = tracer.start("cts.read");
+
+        // Then
+        assertThat(span.getParentSpanId()).isZero();
+        assertThat(span.getTraceId()).hasSize(32).isNotEqualTo(earlier.getTraceId());
+    }
+
+    @Test
+    public void shouldMakeTheSameSamplingDecisionForSubTransactions() {
+        // Given
+        Tracer tracer = new Tracer(0.5, buffer);
+        int sampled = 0;
+
+        for (int i = 0; i < 1000; i++) {
+            String transactionId = new TransactionId().getValue();
+
+            // When
+            boolean decision = tracer.isSampled(transactionId);
+
+            // Then
+            assertThat(tracer.isSampled(transactionId + "/0/1")).isEqualTo(decision);
+            assertThat(Tracer.toTraceId(transactionId + "/0")).isEqualTo(Tracer.toTraceId(transactionId));
+            if (decision) {
+                sampled++;
+            }
+        }
+        assertThat(sampled).isBetween(400, 600);
+    }
+
+    @Test
+    public void shouldOverwriteOldestSpansWhenBufferIsFull() {
+        // Given
+        Tracer tracer = new Tracer(1, buffer);
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            tracer.start("cts.read").end();
+        }
+
+        // Then
+        assertThat(drain()).hasSize(16);
+        assertThat(buffer.getOverwritten()).isEqualTo(4);
+    }
+
+    @Test
+    public void shouldWriteSpansAsOtlpJson() throws Exception {
+        // Given
+        Tracer tracer = new Tracer(1, buffer);
+        Span parent = tracer.start("policy.evaluate").setAttribute("realm", "/");
+        tracer.start("policy.index_search").setError(new IllegalStateException()).end();
+        parent.end();
+        SpanExporter exporter = new SpanExporter(buffer, new File("."), 1, 1000, "service.name", "openam");
+        StringWriter writer = new StringWriter();
+
+        // When
+        exporter.write(drain(), writer);
+
+        // Then
+        String json = writer.toString();
+        assertThat(json).startsWith("{\"resourceSpans\":[{\"resource\":{\"attributes\":[{\"key\":\"service.name\","
+                + "\"value\":{\"stringValue\":\"openam\"}}]},\"scopeSpans\":[{\"scope\":{\"name\":");
+        assertThat(json).contains("\"traceId\":\"2d6a4b3c1f0e4a5b9c8d7e6f5a4b3c2d\"");
+        assertThat(json).contains("\"parentSpanId\":\"" + Tracer.toSpanId(parent.getSpanId()) + "\"");
+        assertThat(json).contains("\"name\":\"policy.index_search\"");
+        assertThat(json).contains("{\"key\":\"openam.transaction_id\",\"value\":{\"stringValue\":\"" + TRANSACTION_ID
+                + "\"}}");
+        assertThat(json).contains("{\"key\":\"realm\",\"value\":{\"stringValue\":\"/\"}}");
+        assertThat(json).contains("\"status\":{\"code\":2,\"message\":\"java.lang.IllegalStateException\"}");
+    }
+
+    private List<Span> drain() {
+        List<Span> spans = new ArrayList<>();
+        buffer.drainTo(spans);
+        return spans;
+    }
+}
@@ -144,4 +144,68 @@ public class StatelessJWTCacheTest {
         // Then
         assertThat(cache.contains(mockSessionInfo)).isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldContainSessionInfoCachedAgainstJWT() {
+        // Given
+        given(mockConfig.getJWTCacheSize()).willReturn(1);
+        cache = new StatelessJWTCache(mockConfig, mockListeners);
+        SessionInfo mockSessionInfo = mock(SessionInfo.class);
+
+        // When
+        cache.cache(mockSessionInfo, "badger");
+
+        // Then
+        assertThat(cache.contains(mockSessionInfo)).isTrue();
+    }
+
+    @Test
+    public void shouldRemoveSessionInfoFromReverseIndexOnEviction() {
+        // Given
+        given(mockConfig.getJWTCacheSize()).willReturn(1);
+        cache = new StatelessJWTCache(mockConfig, mockListeners);
+        SessionInfo first = mock(SessionInfo.class);
+        SessionInfo second = mock(SessionInfo.class);
+
+        // When
+        cache.cache(first, "badger");
+        cache.cache(second, "ferret");
+
+        // Then
+        assertThat(cache.contains(first)).isFalse();
+        assertThat(cache.contains(second)).isTrue();
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldRemoveSessionInfoFromReverseIndexOnRemove() {
+        // Given
+        given(mockConfig.getJWTCacheSize()).willReturn(1);
+        cache = new StatelessJWTCache(mockConfig, mockListeners);
+        SessionInfo mockSessionInfo = mock(SessionInfo.class);
+        cache.cache(mockSessionInfo, "badger");
+
+        // When
+        cache.remove("badger");
+
+        // Then
+        assertThat(cache.contains(mockSessionInfo)).isFalse();
+        assertThat(cache.contains("badger")).isFalse();
+    }
+
+    @Test
+    public void shouldRecordHitsAndMisses() {
+        // Given
+        given(mockConfig.getJWTCacheSize()).willReturn(1);
+        cache = new StatelessJWTCache(mockConfig, mockListeners);
+        cache.cache(mock(SessionInfo.class), "badger");
+
+        // When
+        cache.getSessionInfo("badger");
+        cache.getSessionInfo("ferret");
+
+        // Then
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.sm.datalayer.impl;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Provider;
+
+import org.forgerock.openam.cts.impl.queue.config.CTSQueueConfiguration;
+import org.forgerock.openam.shared.concurrency.ThreadMonitor;
+import org.forgerock.openam.sm.datalayer.api.DataLayerException;
+import org.forgerock.openam.sm.datalayer.api.QueueTimeoutException;
+import org.forgerock.openam.sm.datalayer.api.Task;
+import org.forgerock.openam.sm.datalayer.api.TokenStorageAdapter;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.sun.identity.shared.debug.Debug;
+
+public class WorkStealingTaskExecutorTest {
+
+    private ExecutorService executorService;
+    private ThreadMonitor monitor;
+    private CTSQueueConfiguration configuration;
+    private WorkStealingTaskExecutor executor;
+    private List<Thread> threads;
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        executorService = mock(ExecutorService.class);
+        monitor = mock(ThreadMonitor.class);
+        configuration = mock(CTSQueueConfiguration.class);
+        given(configuration.getQueueSize()).willReturn(10);
+        given(configuration.getQueueTimeout()).willReturn(1);
+        given(configuration.getBatchSize()).willReturn(4);
+        threads = new ArrayList<>();
+
+        final Debug debug = mock(Debug.class);
+        final TokenStorageAdapter adapter = mock(TokenStorageAdapter.class);
+        Provider<SimpleTaskExecutor> executorProvider = new Provider<SimpleTaskExecutor>() {
+            @Override
+            public SimpleTaskExecutor get() {
+                return new SimpleTaskExecutor(debug, adapter);
+            }
+        };
+        executor = new WorkStealingTaskExecutor(executorService, executorProvider, monitor, configuration, debug);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        for (Thread thread : threads) {
+            thread.interrupt();
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    @Test
+    public void shouldStartTaskProcessorsWithThreadMonitor() throws Exception {
+        // Given
+        int processors = 4;
+        given(configuration.getProcessors()).willReturn(processors);
+
+        // When
+        executor.start();
+
+        // Then
+        verify(monitor, times(processors)).watchThread(any(ExecutorService.class), any(Runnable.class));
+    }
+
+    @Test
+    public void shouldTimeoutWhenAllQueuedCapacityIsUsed() throws Exception {
+        // Given
+        given(configuration.getQueueTimeout()).willReturn(0);
+        given(configuration.getQueueSize()).willReturn(1);
+        given(configuration.getProcessors()).willReturn(2);
+        executor.start();
+
+        executor.execute("123", mock(Task.class));
+        executor.execute("456", mock(Task.class));
+
+        // When
+        DataLayerException result = null;
+        try {
+            executor.execute("789", mock(Task.class));
+            fail("Expected exception");
+        } catch (QueueTimeoutException e) {
+            result = e;
+        }
+
+        // Then
+        assertThat(result).isNotNull();
+    }
+
+    @Test
+    public void shouldProcessTasksForSameTokenInOrder() throws Exception {
+        // Given
+        int count = 200;
+        given(configuration.getQueueSize()).willReturn(count);
+        startProcessors(4);
+
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<Integer>());
+        CountDownLatch latch = new CountDownLatch(count);
+
+        // When
+        for (int ii = 0; ii < count; ii++) {
+            executor.execute("badger", new RecordingTask(ii, executed, latch));
+        }
+
+        // Then
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        List<Integer> expected = new ArrayList<>();
+        for (int ii = 0; ii < count; ii++) {
+            expected.add(ii);
+        }
+        assertThat(executed).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    public void shouldProcessTasksForManyTokensAndQueries() throws Exception {
+        // Given
+        int count = 100;
+        given(configuration.getQueueSize()).willReturn(count);
+        startProcessors(4);
+
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<Integer>());
+        CountDownLatch latch = new CountDownLatch(count * 2);
+
+        // When
+        for (int ii = 0; ii < count; ii++) {
+            executor.execute("token" + ii, new RecordingTask(ii, executed, latch));
+            executor.execute(null, new RecordingTask(ii, executed, latch));
+        }
+
+        // Then
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(executed).hasSize(count * 2);
+    }
+
+    @Test
+    public void shouldKeepProcessingTokenWhenTaskThrowsRuntimeException() throws Exception {
+        // Given
+        int count = 20;
+        given(configuration.getQueueSize()).willReturn(1);
+        startProcessors(2);
+
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<Integer>());
+        CountDownLatch latch = new CountDownLatch(count);
+        List<DataLayerException> errors = Collections.synchronizedList(new ArrayList<DataLayerException>());
+
+        // When
+        for (int ii = 0; ii < count; ii++) {
+            if (ii % 2 == 0) {
+                executor.execute("badger", new FailingTask(errors, latch));
+            } else {
+                executor.execute("badger", new RecordingTask(ii, executed, latch));
+            }
+        }
+
+        // Then
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(errors).hasSize(count / 2);
+        assertThat(executed).hasSize(count / 2);
+    }
+
+    private void startProcessors(int processors) throws Exception {
+        given(configuration.getProcessors()).willReturn(processors);
+        executor.start();
+
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(monitor, times(processors)).watchThread(any(ExecutorService.class), captor.capture());
+        for (Runnable runnable : captor.getAllValues()) {
+            Thread thread = new Thread(runnable);
+            thread.start();
+            threads.add(thread);
+        }
+    }
+
+    private static final class FailingTask implements Task {
+        private final List<DataLayerException> errors;
+        private final CountDownLatch latch;
+
+        private FailingTask(List<DataLayerException> errors, CountDownLatch latch) {
+            this.errors = errors;
+            this.latch = latch;
+        }
+
+        @Override
+        public void execute(TokenStorageAdapter adapter) throws DataLayerException {
+            throw new IllegalStateException("badger");
+        }
+
+        @Override
+        public void processError(DataLayerException error) {
+            errors.add(error);
+            latch.countDown();
+        }
+    }
+
+    private static final class RecordingTask implements Task {
+        private final int id;
+        private final List<Integer> executed;
+        private final CountDownLatch latch;
+
+        private RecordingTask(int id, List<Integer> executed, CountDownLatch latch) {
+            this.id = id;
+            this.executed = executed;
+            this.latch = latch;
+        }
+
+        @Override
+        public void execute(TokenStorageAdapter adapter) throws DataLayerException {
+            executed.add(id);
+            latch.countDown();
+        }
+
+        @Override
+        public void processError(DataLayerException error) {
+            latch.countDown();
+        }
+    }
+}
@@ -22,14 +22,18 @@ import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 import org.forgerock.openam.cts.api.tokens.Token;
 import org.forgerock.openam.cts.exceptions.CoreTokenException;
 import org.forgerock.openam.cts.impl.LdapAdapter;
+import org.forgerock.openam.sm.datalayer.api.AsyncTokenStorageAdapter;
 import org.forgerock.openam.sm.datalayer.api.DataLayerException;
 import org.forgerock.openam.sm.datalayer.api.ResultHandler;
 import org.forgerock.util.Options;
+import org.forgerock.util.promise.Promise;
+import org.forgerock.util.promise.Promises;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -81,4 +85,38 @@ public class UpdateTaskTest {
         task.execute(mockAdapter);
         verify(mockHandler).processResults(eq(mockReturned));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldUpdateAsynchronouslyWhenTokenPresent() throws Exception {
+        // Given
+        AsyncTokenStorageAdapter asyncAdapter = mock(AsyncTokenStorageAdapter.class);
+        given(asyncAdapter.readAsync(anyString(), eq(options)))
+                .willReturn(Promises.<Token, DataLayerException>newResultPromise(mockPrevious));
+        given(asyncAdapter.updateAsync(mockPrevious, mockUpdated, options))
+                .willReturn(Promises.<Token, DataLayerException>newResultPromise(mockReturned));
+
+        // When
+        Promise<Void, DataLayerException> result = task.executeAsync(asyncAdapter);
+
+        // Then
+        result.getOrThrow();
+        verify(asyncAdapter, never()).update(any(Token.class), any(Token.class), any(Options.class));
+        verify(mockHandler).processResults(eq(mockReturned));
+    }
+
+    @Test
+    public void shouldNotifyHandlerOfAsynchronousFailure() throws Exception {
+        // Given
+        DataLayerException error = new DataLayerException("badger");
+        AsyncTokenStorageAdapter asyncAdapter = mock(AsyncTokenStorageAdapter.class);
+        given(asyncAdapter.readAsync(anyString(), eq(options)))
+                .willReturn(Promises.<Token, DataLayerException>newExceptionPromise(error));
+
+        // When
+        task.executeAsync(asyncAdapter);
+
+        // Then
+        verify(mockHandler).processError(error);
+        verify(asyncAdapter, never()).createAsync(any(Token.class), any(Options.class));
+    }
+}
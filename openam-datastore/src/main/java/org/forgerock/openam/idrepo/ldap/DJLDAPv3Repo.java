@@ -22,9 +22,12 @@ import static org.forgerock.opendj.ldap.LDAPConnectionFactory.*;
 
 import java.nio.charset.Charset;
 import java.security.GeneralSecurityException;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -53,6 +56,8 @@ import org.forgerock.openam.utils.IOUtils;
 import org.forgerock.openam.utils.StringUtils;
 import org.forgerock.opendj.ldap.Attribute;
 import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.DecodeException;
+import org.forgerock.opendj.ldap.DecodeOptions;
 import org.forgerock.opendj.ldap.Connection;
 import org.forgerock.opendj.ldap.DN;
 import org.forgerock.opendj.ldap.Entry;
@@ -67,6 +72,7 @@ import org.forgerock.opendj.ldap.ResultCode;
 import org.forgerock.opendj.ldap.SSLContextBuilder;
 import org.forgerock.opendj.ldap.SearchResultReferenceIOException;
 import org.forgerock.opendj.ldap.SearchScope;
+import org.forgerock.opendj.ldap.controls.SimplePagedResultsControl;
 import org.forgerock.opendj.ldap.requests.BindRequest;
 import org.forgerock.opendj.ldap.requests.ModifyRequest;
 import org.forgerock.opendj.ldap.requests.SearchRequest;
@@ -84,6 +90,7 @@ import org.forgerock.util.annotations.VisibleForTesting;
 import org.forgerock.util.time.Duration;
 
 import com.iplanet.am.util.Cache;
+import com.iplanet.am.util.SystemProperties;
 import com.iplanet.services.naming.ServerEntryNotFoundException;
 import com.iplanet.services.naming.WebtopNaming;
 import com.iplanet.sso.SSOToken;
@@ -102,6 +109,7 @@ import com.sun.identity.idm.IdRepoListener;
 import com.sun.identity.idm.IdRepoUnsupportedOpException;
 import com.sun.identity.idm.IdType;
 import com.sun.identity.idm.PasswordPolicyException;
+import com.sun.identity.idm.RepoSearchResultHandler;
 import com.sun.identity.idm.RepoSearchResults;
 import com.sun.identity.idm.common.IdRepoUtils;
 import com.sun.identity.shared.datastruct.CollectionHelper;
@@ -123,6 +131,21 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
     private static final Map<String, DJLDAPv3PersistentSearch> pSearchMap =
             new HashMap<>();
     private static final String AM_AUTH = "amAuth";
+    /**
+     * The maximum number of names in the OR filter of a single bulk attribute search.
+     */
+    private static final int BULK_SEARCH_SIZE = 100;
+    /**
+     * System property for the number of entries requested in each page of a streaming search.
+     */
+    private static final String SEARCH_PAGE_SIZE_PROPERTY =
+            "org.openidentityplatform.openam.idrepo.ldap.searchPageSize";
+    private static final int DEFAULT_SEARCH_PAGE_SIZE = 500;
+    /**
+     * System property to disable resolving uniqueMember based group memberships from an in-memory index.
+     */
+    private static final String MEMBERSHIP_INDEX_ENABLED_PROPERTY =
+            "org.openidentityplatform.openam.idrepo.ldap.membershipIndex.enabled";
     private static final Filter DEFAULT_ROLE_SEARCH_FILTER =
             Filter.valueOf("(&(objectclass=ldapsubentry)(objectclass=nsmanagedroledefinition))");
     private static final Filter DEFAULT_FILTERED_ROLE_SEARCH_FILTER =
@@ -170,6 +193,7 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
     private SearchScope roleScope;
     private int defaultSizeLimit;
     private int defaultTimeLimit;
+    private int searchPageSize;
     private DirectoryHelper helper;
     //although there is a max pool size, we are currently doubling that in order to be able to authenticate users
     private ConnectionFactory<Connection> connectionFactory;
@@ -182,6 +206,8 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
     private Cache dnCache;
     // provides a switch to enable/disable the dnCache
     private boolean dnCacheEnabled = false;
+    //resolves group memberships from an index kept up to date by persistent search (if enabled)
+    private volatile GroupMembershipResolver membershipResolver;
 
     private boolean isSecure = false;
     private boolean useStartTLS = false;
@@ -221,6 +247,7 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
 
         defaultSizeLimit = CollectionHelper.getIntMapAttr(configParams, LDAP_MAX_RESULTS, 100, DEBUG);
         defaultTimeLimit = CollectionHelper.getIntMapAttr(configParams, LDAP_TIME_LIMIT, 5, DEBUG);
+        searchPageSize = SystemProperties.getAsInt(SEARCH_PAGE_SIZE_PROPERTY, DEFAULT_SEARCH_PAGE_SIZE);
         int maxPoolSize = CollectionHelper.getIntMapAttr(configParams, LDAP_CONNECTION_POOL_MAX_SIZE, 10, DEBUG);
 
         String username = CollectionHelper.getMapAttr(configParams, LDAP_SERVER_USER_NAME);
@@ -694,6 +721,7 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
             }
         } finally {
             IOUtils.closeIfNotNull(conn);
+            invalidateGroupMemberships(type);
         }
 
         return dn;
@@ -787,28 +815,12 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
         }
         Map<String, T> result = new HashMap<>();
         String dn = getDN(type, name);
-        if (type.equals(IdType.USER)) {
-            if (attrs.contains(DEFAULT_USER_STATUS_ATTR)) {
-                attrs.add(userStatusAttr);
-            }
-        }
         Connection conn = null;
         Set<String> definedAttributes = getDefinedAttributes(type);
-        if (attrs.isEmpty() || attrs.contains("*")) {
-            attrs.clear();
-            if (definedAttributes.isEmpty()) {
-                attrs.add("*");
-            } else {
-                attrs.addAll(definedAttributes);
-            }
-        } else {
-            if (!definedAttributes.isEmpty()) {
-                attrs.retainAll(definedAttributes);
-            }
-            if (attrs.isEmpty()) {
-                //there were only non-defined attributes requested, so we shouldn't return anything here.
-                return new HashMap<>(0);
-            }
+        attrs = getRequestedAttributes(type, attrs, definedAttributes);
+        if (attrs.isEmpty()) {
+            //there were only non-defined attributes requested, so we shouldn't return anything here.
+            return new HashMap<>(0);
         }
         try {
             conn = createConnection();
@@ -816,19 +828,7 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
             SearchRequest searchRequest = LDAPRequests.newSingleEntrySearchRequest(dn, attrs.toArray(new String[attrs.size()]));
             DEBUG.message("DJLDAPv3Repo.getAttributes: executing request: "+ searchRequest.toString());
             SearchResultEntry entry = conn.searchSingleEntry(searchRequest);
-            for (Attribute attribute : entry.getAllAttributes()) {
-                String attrName = attribute.getAttributeDescriptionAsString();
-                if (!definedAttributes.isEmpty() && !definedAttributes.contains(attrName)) {
-                    continue;
-                }
-                result.put(attribute.getAttributeDescriptionAsString(), function.apply(attribute));
-                if (attrName.equalsIgnoreCase(userStatusAttr)) {
-                    // Always include the DEFAULT_USER_STATUS_ATTR to cover any mapped isActive logic in envs like AD.
-                    String converted = helper.convertToInetUserStatus(attribute.firstValueAsString(), activeValue);
-                    result.put(DEFAULT_USER_STATUS_ATTR,
-                            function.apply(new LinkedAttribute(DEFAULT_USER_STATUS_ATTR, converted)));
-                }
-            }
+            addAttributes(result, entry, definedAttributes, null, function);
         } catch (LdapException ere) {
             DEBUG.error("DJLDAPv3Repo.getAttributes: An error occurred while getting user attributes", ere);
             handleErrorResult(ere);
@@ -846,6 +846,194 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
         return result;
     }
 
+    /**
+     * Returns the requested attributes of a set of identities. Rather than locating and reading each identity in turn,
+     * the identities are read with one search per {@link #BULK_SEARCH_SIZE} names, using an OR filter on the search
+     * attribute. Identities that cannot be found are left out of the result.
+     *
+     * @param token Not used.
+     * @param type The type of the identities.
+     * @param names The names of the identities.
+     * @param attrNames The names of the requested attributes or <code>null</code> to retrieve all the attributes.
+     * @return The requested attributes of each identity that was found, keyed by identity name.
+     * @throws IdRepoException If there is an error while retrieving the identity attributes.
+     */
+    @Override
+    public Map<String, Map<String, Set<String>>> getAttributes(SSOToken token, IdType type, Set<String> names,
+            Set<String> attrNames) throws IdRepoException, SSOException {
+        if (DEBUG.messageEnabled()) {
+            DEBUG.message("getAttributes3 invoked");
+        }
+        Set<String> definedAttributes = getDefinedAttributes(type);
+        Set<String> attrs = getRequestedAttributes(type,
+                attrNames == null ? new CaseInsensitiveHashSet(0) : new CaseInsensitiveHashSet(attrNames),
+                definedAttributes);
+        if (type.equals(IdType.REALM) || attrs.isEmpty() || names.size() < 2) {
+            return super.getAttributes(token, type, names, attrNames);
+        }
+
+        Map<String, Map<String, Set<String>>> results = new HashMap<>(names.size());
+        List<String> batch = new ArrayList<>(BULK_SEARCH_SIZE);
+        for (String name : names) {
+            batch.add(name);
+            if (batch.size() == BULK_SEARCH_SIZE) {
+                searchAttributes(type, batch, attrs, definedAttributes, new StringAttributeExtractor(), results);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            searchAttributes(type, batch, attrs, definedAttributes, new StringAttributeExtractor(), results);
+        }
+
+        if (DEBUG.messageEnabled()) {
+            DEBUG.message("DJLDAPv3Repo.getAttributes: found " + results.size() + " of " + names.size()
+                    + " identities");
+        }
+        return results;
+    }
+
+    /**
+     * Reads the attributes of a batch of identities with a single search, adding an entry to the results for each
+     * identity that was found. When more than one entry matches a name, only the first one is used.
+     *
+     * @param <T>
+     * @param type The type of the identities.
+     * @param names The names of the identities.
+     * @param attrs The attributes to read, as returned by {@link #getRequestedAttributes(IdType, Set, Set)}.
+     * @param definedAttributes The attributes defined in the configuration for this identity type.
+     * @param function A function that can extract String or byte array values from an LDAP attribute.
+     * @param results The map to add the attributes of each identity to, keyed by identity name.
+     * @throws IdRepoException If there is an error while retrieving the identity attributes.
+     */
+    private <T> void searchAttributes(IdType type, List<String> names, Set<String> attrs,
+            Set<String> definedAttributes, Function<Attribute, T, IdRepoException> function,
+            Map<String, Map<String, T>> results) throws IdRepoException {
+        String searchAttr = getSearchAttribute(type);
+        Map<String, String> pending = new HashMap<>(names.size());
+        List<Filter> filters = new ArrayList<>(names.size());
+        for (String name : names) {
+            pending.put(name.toLowerCase(), name);
+            filters.add(Filter.equality(searchAttr, name));
+        }
+        Set<String> requestAttrs = new CaseInsensitiveHashSet(attrs);
+        requestAttrs.add(searchAttr);
+        // The search attribute is only needed to match entries to names, so only return it if it was asked for
+        String skipAttr = attrs.contains(searchAttr) || attrs.contains("*") ? null : searchAttr;
+
+        Filter filter = Filter.and(Filter.or(filters), getObjectClassFilter(type));
+        SearchRequest searchRequest = LDAPRequests.newSearchRequest(getBaseDN(type), defaultScope, filter,
+                requestAttrs.toArray(new String[requestAttrs.size()]));
+        DEBUG.message("DJLDAPv3Repo.searchAttributes: executing request: " + searchRequest.toString());
+        Connection conn = null;
+        try {
+            conn = createConnection();
+            ConnectionEntryReader reader = conn.search(searchRequest);
+            while (reader.hasNext()) {
+                if (!reader.isEntry()) {
+                    //ignore references
+                    reader.readReference();
+                    continue;
+                }
+                SearchResultEntry entry = reader.readEntry();
+                String name = null;
+                Attribute nameAttr = entry.getAttribute(searchAttr);
+                if (nameAttr != null) {
+                    for (ByteString value : nameAttr) {
+                        name = pending.remove(value.toString().toLowerCase());
+                        if (name != null) {
+                            break;
+                        }
+                    }
+                }
+                if (name == null) {
+                    DEBUG.warning("DJLDAPv3Repo.searchAttributes: ignoring unmatched or duplicate entry "
+                            + entry.getName());
+                    continue;
+                }
+                String dn = entry.getName().toString();
+                Map<String, T> result = new HashMap<>();
+                addAttributes(result, entry, definedAttributes, skipAttr, function);
+                if (attrs.contains(DN_ATTR)) {
+                    result.put(DN_ATTR, function.apply(new LinkedAttribute(DN_ATTR, dn)));
+                }
+                if (dnCacheEnabled) {
+                    dnCache.put(generateDNCacheKey(name, type), dn);
+                }
+                results.put(name, result);
+            }
+        } catch (LdapException ere) {
+            DEBUG.error("DJLDAPv3Repo.searchAttributes: An error occurred while getting identity attributes", ere);
+            handleErrorResult(ere);
+        } catch (SearchResultReferenceIOException srrioe) {
+            //should never ever happen...
+            DEBUG.error("DJLDAPv3Repo.searchAttributes: Got reference instead of entry", srrioe);
+            throw newIdRepoException(IdRepoErrorCode.SEARCH_FAILED, CLASS_NAME);
+        } finally {
+            IOUtils.closeIfNotNull(conn);
+        }
+    }
+
+    /**
+     * Works out which attributes to read for a request. An empty request, or "*", is expanded to all the defined
+     * attributes, otherwise the request is restricted to the defined attributes. If the default "inetUserStatus"
+     * attribute has been requested, the configured status attribute is read as well.
+     *
+     * @param type The type of the identity.
+     * @param attrs The requested attribute names. This set is modified and returned.
+     * @param definedAttributes The attributes defined in the configuration for this identity type.
+     * @return The attributes to read, which is empty if only non-defined attributes were requested.
+     */
+    private Set<String> getRequestedAttributes(IdType type, Set<String> attrs, Set<String> definedAttributes) {
+        if (type.equals(IdType.USER)) {
+            if (attrs.contains(DEFAULT_USER_STATUS_ATTR)) {
+                attrs.add(userStatusAttr);
+            }
+        }
+        if (attrs.isEmpty() || attrs.contains("*")) {
+            attrs.clear();
+            if (definedAttributes.isEmpty()) {
+                attrs.add("*");
+            } else {
+                attrs.addAll(definedAttributes);
+            }
+        } else if (!definedAttributes.isEmpty()) {
+            attrs.retainAll(definedAttributes);
+        }
+        return attrs;
+    }
+
+    /**
+     * Adds the defined attributes of an entry to the result, mapping the configured status attribute to the standard
+     * "inetUserStatus" values as well.
+     *
+     * @param <T>
+     * @param result The map to add the attributes to.
+     * @param entry The entry read from the directory.
+     * @param definedAttributes The attributes defined in the configuration for this identity type.
+     * @param skipAttr An attribute that was only read for internal use and must not be added, or <code>null</code>.
+     * @param function A function that can extract String or byte array values from an LDAP attribute.
+     * @throws IdRepoException If the values of an attribute cannot be extracted.
+     */
+    private <T> void addAttributes(Map<String, T> result, Entry entry, Set<String> definedAttributes,
+            String skipAttr, Function<Attribute, T, IdRepoException> function) throws IdRepoException {
+        for (Attribute attribute : entry.getAllAttributes()) {
+            String attrName = attribute.getAttributeDescriptionAsString();
+            if (!definedAttributes.isEmpty() && !definedAttributes.contains(attrName)) {
+                continue;
+            }
+            if (attrName.equalsIgnoreCase(skipAttr)) {
+                continue;
+            }
+            result.put(attribute.getAttributeDescriptionAsString(), function.apply(attribute));
+            if (attrName.equalsIgnoreCase(userStatusAttr)) {
+                // Always include the DEFAULT_USER_STATUS_ATTR to cover any mapped isActive logic in envs like AD.
+                String converted = helper.convertToInetUserStatus(attribute.firstValueAsString(), activeValue);
+                result.put(DEFAULT_USER_STATUS_ATTR,
+                        function.apply(new LinkedAttribute(DEFAULT_USER_STATUS_ATTR, converted)));
+            }
+        }
+    }
+
     /**
      * Sets the provided attributes for the given identity.
      *
@@ -1061,6 +1249,7 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
             handleErrorResult(ere);
         } finally {
             IOUtils.closeIfNotNull(conn);
+            invalidateGroupMemberships(type);
         }
     }
 
@@ -1099,6 +1288,7 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
             handleErrorResult(ere);
         } finally {
             IOUtils.closeIfNotNull(conn);
+            invalidateGroupMemberships(type);
         }
     }
 
@@ -1147,31 +1337,9 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
         SearchScope scope = defaultScope;
 
         String searchAttr = getSearchAttribute(type);
-        String[] attrs;
-        Filter first;
-
-        if (crestQuery.hasQueryId()) {
-            first = Filter.valueOf(searchAttr + "=" + crestQuery.getQueryId());
-        } else {
-            first = crestQuery.getQueryFilter().accept(new LdapFromJsonQueryFilterVisitor(), null);
-        }
-
-        Filter filter = Filter.and(first, getObjectClassFilter(type));
-        Filter tempFilter = constructFilter(filterOp, avPairs);
-        if (tempFilter != null) {
-            filter = Filter.and(tempFilter, filter);
-        }
-        if (returnAllAttrs || (returnAttrs != null && returnAttrs.contains("*"))) {
-            Set<String> predefinedAttrs = getDefinedAttributes(type);
-            predefinedAttrs.add(searchAttr);
-            attrs = predefinedAttrs.toArray(new String[predefinedAttrs.size()]);
-            returnAllAttrs = true;
-        } else if (returnAttrs != null && !returnAttrs.isEmpty()) {
-            returnAttrs.add(searchAttr);
-            attrs = returnAttrs.toArray(new String[returnAttrs.size()]);
-        } else {
-            attrs = new String[]{searchAttr};
-        }
+        Filter filter = getSearchFilter(type, searchAttr, crestQuery, filterOp, avPairs);
+        returnAllAttrs = returnAllAttrs || (returnAttrs != null && returnAttrs.contains("*"));
+        String[] attrs = getSearchAttributes(type, searchAttr, returnAttrs, returnAllAttrs);
         SearchRequest searchRequest = LDAPRequests.newSearchRequest(baseDN, scope, filter, attrs);
         searchRequest.setSizeLimit(maxResults < 1 ? defaultSizeLimit : maxResults);
         searchRequest.setTimeLimit(maxTime < 1 ? defaultTimeLimit : maxTime);
@@ -1183,26 +1351,14 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
             conn = createConnection();
             ConnectionEntryReader reader = conn.search(searchRequest);
             while (reader.hasNext()) {
-                Map<String, Set<String>> attributes = new HashMap<>();
                 if (reader.isEntry()) {
                     SearchResultEntry entry = reader.readEntry();
                     String name = entry.parseAttribute(searchAttr).asString();
                     names.add(name);
-                    if (returnAllAttrs) {
-                        for (Attribute attribute : entry.getAllAttributes()) {
-                            LDAPUtils.addAttributeToMapAsString(attribute, attributes);
-                        }
+                    Map<String, Set<String>> attributes = getSearchResultAttributes(entry, returnAttrs,
+                            returnAllAttrs);
+                    if (attributes != null) {
                         entries.put(name, attributes);
-                    } else if (returnAttrs != null && !returnAttrs.isEmpty()) {
-                        for (String attr : returnAttrs) {
-                            Attribute attribute = entry.getAttribute(attr);
-                            if (attribute != null) {
-                                LDAPUtils.addAttributeToMapAsString(attribute, attributes);
-                            }
-                        }
-                        entries.put(name, attributes);
-                    } else {
-                        //there is no attribute to return, don't populate the entries map
                     }
                 } else {
                     //ignore search result references
@@ -1233,6 +1389,217 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
         return new RepoSearchResults(names, errorCode, entries, type);
     }
 
+    /**
+     * Performs a search in the directory in the same way as
+     * {@link #search(SSOToken, IdType, CrestQuery, int, int, Set, boolean, int, Map, boolean)}, but passes each
+     * entry to the handler as it is read. The entries are requested in pages, sized by a system property, using the
+     * Simple Paged Results control, so that at most a single page is buffered. The control is not critical, hence
+     * directories that do not support it return all the entries in a single page.
+     * <p>
+     * Directories tie the paged results cookie to the connection it was issued on, so every page is read on the same
+     * connection. A page is read in full before its entries are passed to the handler, hence no operation is
+     * outstanding on the connection while the handler runs, and the handler may read from the directory itself.
+     * When the search stops before the last page, the directory is told to release its paging state.
+     *
+     * @param token Not used.
+     * @param type The type of the identity.
+     * @param crestQuery Either a string, coming from something like the CREST endpoint _queryId or a fully
+     *                        fledged query filter, coming from a CREST endpoint's _queryFilter
+     * @param maxTime The time limit for each page of this search (in seconds). When maxTime &lt; 1, the default time
+     * limit will be used.
+     * @param maxResults The number of maximum results we should receive for this search. When maxResults &lt; 1, the
+     * default size limit will be used.
+     * @param returnAttrs The attributes that should be returned from the "search hits".
+     * @param returnAllAttrs <code>true</code> if all user attribute should be returned.
+     * @param filterOp When avPairs is provided, this logical operation will be used between them. Use
+     * {@link IdRepo#AND_MOD} or {@link IdRepo#OR_MOD}.
+     * @param avPairs Attribute-value pairs based on the search should be performed.
+     * @param handler Receives the entries, the search is abandoned when the handler returns <code>false</code>.
+     * @return One of the {@link RepoSearchResults} result codes.
+     * @throws IdRepoException If the search results cannot be read.
+     */
+    @Override
+    public int search(SSOToken token, IdType type, CrestQuery crestQuery, int maxTime, int maxResults,
+            Set<String> returnAttrs, boolean returnAllAttrs, int filterOp, Map<String, Set<String>> avPairs,
+            RepoSearchResultHandler handler) throws IdRepoException {
+
+        if (DEBUG.messageEnabled()) {
+            DEBUG.message("streaming search invoked with type: " + type
+                    + " crestQuery: " + crestQuery
+                    + " avPairs: " + avPairs
+                    + " maxTime: " + maxTime
+                    + " maxResults: " + maxResults
+                    + " returnAttrs: " + returnAttrs
+                    + " returnAllAttrs: " + returnAllAttrs
+                    + " filterOp: " + filterOp);
+        }
+        DN baseDN = getBaseDN(type);
+        String searchAttr = getSearchAttribute(type);
+        Filter filter = getSearchFilter(type, searchAttr, crestQuery, filterOp, avPairs);
+        returnAllAttrs = returnAllAttrs || (returnAttrs != null && returnAttrs.contains("*"));
+        String[] attrs = getSearchAttributes(type, searchAttr, returnAttrs, returnAllAttrs);
+        Map<String, Set<String>> noAttributes = Collections.emptyMap();
+
+        int sizeLimit = maxResults < 1 ? defaultSizeLimit : maxResults;
+        int timeLimit = maxTime < 1 ? defaultTimeLimit : maxTime;
+
+        List<Map.Entry<String, Map<String, Set<String>>>> page = new ArrayList<>();
+        ByteString cookie = ByteString.empty();
+        int count = 0;
+        Connection conn = null;
+        try {
+            conn = createConnection();
+            do {
+                boolean sizeLimitExceeded = false;
+                page.clear();
+                int pageSize = sizeLimit > 0 ? Math.min(searchPageSize, sizeLimit - count) : searchPageSize;
+                SearchRequest searchRequest = LDAPRequests.newSearchRequest(baseDN, defaultScope, filter, attrs)
+                        .setTimeLimit(timeLimit)
+                        .addControl(SimplePagedResultsControl.newControl(false, pageSize, cookie));
+                ConnectionEntryReader reader = conn.search(searchRequest);
+                try {
+                    while (reader.hasNext()) {
+                        if (reader.isEntry()) {
+                            SearchResultEntry entry = reader.readEntry();
+                            if (sizeLimit > 0 && count == sizeLimit) {
+                                // The directory ignored the paged results control, closing the reader abandons the
+                                // rest of the search
+                                sizeLimitExceeded = true;
+                                break;
+                            }
+                            count++;
+                            String name = entry.parseAttribute(searchAttr).asString();
+                            Map<String, Set<String>> attributes = getSearchResultAttributes(entry, returnAttrs,
+                                    returnAllAttrs);
+                            page.add(new AbstractMap.SimpleImmutableEntry<>(name,
+                                    attributes == null ? noAttributes : attributes));
+                        } else {
+                            //ignore search result references
+                            reader.readReference();
+                        }
+                    }
+                    if (sizeLimitExceeded) {
+                        cookie = ByteString.empty();
+                    } else {
+                        SimplePagedResultsControl control = reader.readResult().getControl(
+                                SimplePagedResultsControl.DECODER, new DecodeOptions());
+                        cookie = control == null ? ByteString.empty() : control.getCookie();
+                        sizeLimitExceeded = sizeLimit > 0 && count == sizeLimit && !cookie.isEmpty();
+                    }
+                } finally {
+                    IOUtils.closeIfNotNull(reader);
+                }
+                for (Map.Entry<String, Map<String, Set<String>>> result : page) {
+                    if (!handler.handleResult(result.getKey(), result.getValue())) {
+                        endPagedSearch(conn, baseDN, filter, attrs, cookie);
+                        return RepoSearchResults.SUCCESS;
+                    }
+                }
+                if (sizeLimitExceeded) {
+                    endPagedSearch(conn, baseDN, filter, attrs, cookie);
+                    return RepoSearchResults.SIZE_LIMIT_EXCEEDED;
+                }
+            } while (!cookie.isEmpty());
+        } catch (LdapException ere) {
+            ResultCode resultCode = ere.getResult().getResultCode();
+            if (resultCode.equals(ResultCode.NO_SUCH_OBJECT)) {
+                return RepoSearchResults.SUCCESS;
+            } else if (resultCode.equals(ResultCode.TIME_LIMIT_EXCEEDED)
+                    || resultCode.equals(ResultCode.CLIENT_SIDE_TIMEOUT)) {
+                return RepoSearchResults.TIME_LIMIT_EXCEEDED;
+            } else if (resultCode.equals(ResultCode.SIZE_LIMIT_EXCEEDED)) {
+                return RepoSearchResults.SIZE_LIMIT_EXCEEDED;
+            }
+            DEBUG.error("Unexpected error occurred during search", ere);
+            return resultCode.intValue();
+        } catch (SearchResultReferenceIOException srrioe) {
+            //should never ever happen...
+            DEBUG.error("Got reference instead of entry", srrioe);
+            throw newIdRepoException(IdRepoErrorCode.SEARCH_FAILED, CLASS_NAME);
+        } catch (DecodeException de) {
+            DEBUG.error("Unable to decode the paged results control", de);
+            throw newIdRepoException(IdRepoErrorCode.SEARCH_FAILED, CLASS_NAME);
+        } finally {
+            IOUtils.closeIfNotNull(conn);
+        }
+        return RepoSearchResults.SUCCESS;
+    }
+
+    /**
+     * Releases the paging state the directory holds for a paged search that is stopped before its last page, by
+     * requesting a page of size zero with the cookie of the last page read.
+     */
+    private void endPagedSearch(Connection conn, DN baseDN, Filter filter, String[] attrs, ByteString cookie) {
+        if (cookie.isEmpty()) {
+            return;
+        }
+        SearchRequest searchRequest = LDAPRequests.newSearchRequest(baseDN, defaultScope, filter, attrs)
+                .addControl(SimplePagedResultsControl.newControl(false, 0, cookie));
+        try {
+            conn.search(searchRequest, new ArrayList<SearchResultEntry>());
+        } catch (LdapException ere) {
+            if (DEBUG.messageEnabled()) {
+                DEBUG.message("Unable to end the paged search", ere);
+            }
+        }
+    }
+
+    private Filter getSearchFilter(IdType type, String searchAttr, CrestQuery crestQuery, int filterOp,
+            Map<String, Set<String>> avPairs) {
+        Filter first;
+        if (crestQuery.hasQueryId()) {
+            first = Filter.valueOf(searchAttr + "=" + crestQuery.getQueryId());
+        } else {
+            first = crestQuery.getQueryFilter().accept(new LdapFromJsonQueryFilterVisitor(), null);
+        }
+
+        Filter filter = Filter.and(first, getObjectClassFilter(type));
+        Filter tempFilter = constructFilter(filterOp, avPairs);
+        if (tempFilter != null) {
+            filter = Filter.and(tempFilter, filter);
+        }
+        return filter;
+    }
+
+    private String[] getSearchAttributes(IdType type, String searchAttr, Set<String> returnAttrs,
+            boolean returnAllAttrs) {
+        if (returnAllAttrs) {
+            Set<String> predefinedAttrs = getDefinedAttributes(type);
+            predefinedAttrs.add(searchAttr);
+            return predefinedAttrs.toArray(new String[predefinedAttrs.size()]);
+        } else if (returnAttrs != null && !returnAttrs.isEmpty()) {
+            returnAttrs.add(searchAttr);
+            return returnAttrs.toArray(new String[returnAttrs.size()]);
+        } else {
+            return new String[]{searchAttr};
+        }
+    }
+
+    /**
+     * Returns the requested attributes of a search result entry, or <code>null</code> if no attributes were
+     * requested.
+     */
+    private Map<String, Set<String>> getSearchResultAttributes(SearchResultEntry entry, Set<String> returnAttrs,
+            boolean returnAllAttrs) {
+        Map<String, Set<String>> attributes = new HashMap<>();
+        if (returnAllAttrs) {
+            for (Attribute attribute : entry.getAllAttributes()) {
+                LDAPUtils.addAttributeToMapAsString(attribute, attributes);
+            }
+        } else if (returnAttrs != null && !returnAttrs.isEmpty()) {
+            for (String attr : returnAttrs) {
+                Attribute attribute = entry.getAttribute(attr);
+                if (attribute != null) {
+                    LDAPUtils.addAttributeToMapAsString(attribute, attributes);
+                }
+            }
+        } else {
+            //there is no attribute to return
+            return null;
+        }
+        return attributes;
+    }
+
     /**
      * Deletes the identity from the directory.
      *
@@ -1256,6 +1623,7 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
             handleErrorResult(ere);
         } finally {
             IOUtils.closeIfNotNull(conn);
+            invalidateGroupMemberships(type);
         }
         if (dnCacheEnabled) {
             dnCache.remove(generateDNCacheKey(name, type));
@@ -1305,13 +1673,28 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
 
     /**
      * Returns the DNs of the members of this group. If the MemberURL attribute has been configured, then this
-     * will also try to retrieve dynamic group members using the memberURL.
+     * will also try to retrieve dynamic group members using the memberURL. If persistent search is enabled the static
+     * members are read from the {@link GroupMembershipResolver} index, and the dynamic members are cached until an
+     * entry is changed.
      *
      * @param dn The DN of the group to query.
      * @return The DNs of the members.
      * @throws IdRepoException If there is an error while trying to retrieve the members.
      */
     private Set<String> getGroupMembers(String dn) throws IdRepoException {
+        GroupMembershipResolver resolver = membershipResolver;
+        long dynamicGeneration = 0;
+        if (resolver != null) {
+            GroupMembershipResolver.Index index = getMembershipIndex(resolver);
+            Set<String> members = index == null ? null : index.getMembers(dn);
+            if (members == null && memberURLAttr != null) {
+                members = resolver.getDynamicMembers(dn);
+            }
+            if (members != null) {
+                return members;
+            }
+            dynamicGeneration = resolver.getDynamicGeneration();
+        }
         Set<String> results = new HashSet<>();
         Connection conn = null;
         String[] attrs;
@@ -1329,8 +1712,10 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
             } else if (memberURLAttr != null) {
                 attr = entry.getAttribute(memberURLAttr);
                 if (attr != null) {
+                    Set<DN> urlBaseDNs = new HashSet<>();
                     for (ByteString byteString : attr) {
                         LDAPUrl url = LDAPUrl.valueOf(byteString.toString());
+                        urlBaseDNs.add(url.getName());
                         SearchRequest searchRequest = LDAPRequests.newSearchRequest(
                                 url.getName(), url.getScope(), url.getFilter(), DN_ATTR);
                         searchRequest.setTimeLimit(defaultTimeLimit);
@@ -1345,6 +1730,9 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
                             }
                         }
                     }
+                    if (resolver != null) {
+                        resolver.cacheDynamicMembers(dn, urlBaseDNs, results, dynamicGeneration);
+                    }
                 }
             }
         } catch (LdapException ere) {
@@ -1482,31 +1870,48 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
 
     /**
      * Returns the group membership informations for this given user. In case the memberOf attribute is configured,
-     * this will try to query the user entry and return the group DNs found in the memberOf attribute. Otherwise a
-     * search request will be issued using the uniqueMember attribute looking for matches with the user DN.
+     * this will try to query the user entry and return the group DNs found in the memberOf attribute. Otherwise, if
+     * persistent search is enabled the memberships are resolved from the {@link GroupMembershipResolver} index, and
+     * failing that search requests will be issued using the uniqueMember attribute looking for matches with the user
+     * DN, and then with the DN of each group found. Either way the memberships include nested groups.
      *
      * @param dn The DN of the user identity.
      * @return The DNs of the groups that the provided user is member of.
      * @throws IdRepoException If there was an error while retrieving the group membership information.
      */
     private Set<String> getGroupMemberships(String dn) throws IdRepoException {
+        GroupMembershipResolver resolver = membershipResolver;
+        if (memberOfAttr == null && resolver != null) {
+            GroupMembershipResolver.Index index = getMembershipIndex(resolver);
+            if (index != null) {
+                return index.getMemberships(dn);
+            }
+        }
         Set<String> results = new HashSet<>();
         if (memberOfAttr == null) {
-            Filter filter = Filter.and(groupSearchFilter, Filter.equality(uniqueMemberAttr, dn));
-            SearchRequest searchRequest =
-                    LDAPRequests.newSearchRequest(getBaseDN(IdType.GROUP), defaultScope, filter, DN_ATTR);
-            searchRequest.setTimeLimit(defaultTimeLimit);
-            searchRequest.setSizeLimit(defaultSizeLimit);
             Connection conn = null;
             try {
                 conn = createConnection();
-                ConnectionEntryReader reader = conn.search(searchRequest);
-                while (reader.hasNext()) {
-                    if (reader.isEntry()) {
-                        results.add(reader.readEntry().getName().toString());
-                    } else {
-                        //ignore search result references
-                        reader.readReference();
+                //walk up the nested groups, the results are used to stop at groups already visited
+                Deque<String> pending = new ArrayDeque<>();
+                pending.add(dn);
+                while (!pending.isEmpty()) {
+                    Filter filter = Filter.and(groupSearchFilter, Filter.equality(uniqueMemberAttr, pending.poll()));
+                    SearchRequest searchRequest =
+                            LDAPRequests.newSearchRequest(getBaseDN(IdType.GROUP), defaultScope, filter, DN_ATTR);
+                    searchRequest.setTimeLimit(defaultTimeLimit);
+                    searchRequest.setSizeLimit(defaultSizeLimit);
+                    ConnectionEntryReader reader = conn.search(searchRequest);
+                    while (reader.hasNext()) {
+                        if (reader.isEntry()) {
+                            String group = reader.readEntry().getName().toString();
+                            if (results.add(group)) {
+                                pending.add(group);
+                            }
+                        } else {
+                            //ignore search result references
+                            reader.readReference();
+                        }
                     }
                 }
             } catch (LdapException ere) {
@@ -1541,6 +1946,55 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
         return results;
     }
 
+    /**
+     * Returns the group membership index of the resolver, loading it if it has been invalidated since last used.
+     *
+     * @param resolver The resolver of the group memberships.
+     * @return The index, or <code>null</code> if it could not be loaded.
+     * @throws IdRepoException If a connection to the directory could not be obtained.
+     */
+    private GroupMembershipResolver.Index getMembershipIndex(GroupMembershipResolver resolver)
+            throws IdRepoException {
+        GroupMembershipResolver.Index index = resolver.getIndex();
+        if (index != null) {
+            return index;
+        }
+        Connection conn = null;
+        try {
+            conn = createConnection();
+            return resolver.load(conn);
+        } catch (LdapException ere) {
+            DEBUG.warning("Unable to load the group membership index, falling back to searching by "
+                    + uniqueMemberAttr, ere);
+        } catch (SearchResultReferenceIOException srrioe) {
+            //should never ever happen...
+            DEBUG.error("Got reference instead of entry", srrioe);
+        } catch (DecodeException de) {
+            DEBUG.error("Unable to decode the paged results control", de);
+        } finally {
+            IOUtils.closeIfNotNull(conn);
+        }
+        return null;
+    }
+
+    /**
+     * Discards the group membership index if a group has been changed through this IdRepo, or else the cached dynamic
+     * group members, so that the change is visible straight away rather than when the persistent search reports it.
+     *
+     * @param type The type of the changed identity.
+     */
+    private void invalidateGroupMemberships(IdType type) {
+        GroupMembershipResolver resolver = membershipResolver;
+        if (resolver == null) {
+            return;
+        }
+        if (IdType.GROUP.equals(type)) {
+            resolver.invalidate();
+        } else {
+            resolver.invalidateDynamicMembers();
+        }
+    }
+
     /**
      * Return the role membership informations for this given user. This will execute a read on the user entry to
      * retrieve the nsRoleDN attribute. The values of the attribute will be returned.
@@ -1687,6 +2141,7 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
             handleErrorResult(ere);
         } finally {
             IOUtils.closeIfNotNull(conn);
+            invalidateGroupMemberships(IdType.GROUP);
         }
 
     }
@@ -2115,10 +2570,35 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
                     pSearch.addMovedOrRenamedListener(this);
                 }
             }
+            if (isMembershipIndexEnabled(psearchBaseDN)) {
+                GroupMembershipResolver resolver = new GroupMembershipResolver(DN.valueOf(psearchBaseDN),
+                        getBaseDN(IdType.GROUP), defaultScope, groupSearchFilter, uniqueMemberAttr, defaultTimeLimit,
+                        searchPageSize);
+                pSearch.addChangedListener(resolver);
+                membershipResolver = resolver;
+            }
         }
         return 0;
     }
 
+    /**
+     * The group membership index can only be used if group memberships are not read from the memberOf attribute, and
+     * the persistent search covers all the group entries, as otherwise the index would not be invalidated when the
+     * groups are changed outside of OpenAM.
+     *
+     * @param psearchBaseDN The base DN of the persistent search.
+     * @return <code>true</code> if group memberships should be resolved from the index.
+     */
+    private boolean isMembershipIndexEnabled(String psearchBaseDN) {
+        if (memberOfAttr != null || !SystemProperties.getAsBoolean(MEMBERSHIP_INDEX_ENABLED_PROPERTY, true)) {
+            return false;
+        }
+        SearchScope psearchScope = LDAPUtils.getSearchScope(
+                CollectionHelper.getMapAttr(configMap, LDAP_PERSISTENT_SEARCH_SCOPE), SearchScope.WHOLE_SUBTREE);
+        return SearchScope.WHOLE_SUBTREE.equals(psearchScope)
+                && getBaseDN(IdType.GROUP).isInScopeOf(DN.valueOf(psearchBaseDN), SearchScope.WHOLE_SUBTREE);
+    }
+
     /**
      * This method will be called by the end of the IdRepo's lifetime, and makes sure that persistent search is properly
      * terminated for this IdRepo.
@@ -2141,6 +2621,10 @@ public class DJLDAPv3Repo extends IdRepo implements IdentityMovedOrRenamedListen
                     DEBUG.error("PSearch is already removed, unable to unregister");
                 } else {
                     pSearch.removeMovedOrRenamedListener(this);
+                    if (membershipResolver != null) {
+                        pSearch.removeChangedListener(membershipResolver);
+                        membershipResolver = null;
+                    }
                     pSearch.removeListener(idRepoListener);
                     if (!pSearch.hasListeners()) {
                         pSearch.stopSearch();
@@ -0,0 +1,383 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.idrepo.ldap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.forgerock.i18n.LocalizedIllegalArgumentException;
+import org.forgerock.openam.ldap.LDAPRequests;
+import org.forgerock.opendj.ldap.Attribute;
+import org.forgerock.opendj.ldap.ByteString;
+import org.forgerock.opendj.ldap.Connection;
+import org.forgerock.opendj.ldap.DN;
+import org.forgerock.opendj.ldap.DecodeException;
+import org.forgerock.opendj.ldap.DecodeOptions;
+import org.forgerock.opendj.ldap.Filter;
+import org.forgerock.opendj.ldap.LdapException;
+import org.forgerock.opendj.ldap.SearchResultReferenceIOException;
+import org.forgerock.opendj.ldap.SearchScope;
+import org.forgerock.opendj.ldap.controls.SimplePagedResultsControl;
+import org.forgerock.opendj.ldap.requests.SearchRequest;
+import org.forgerock.opendj.ldap.responses.SearchResultEntry;
+import org.forgerock.opendj.ldif.ConnectionEntryReader;
+
+import com.sun.identity.shared.debug.Debug;
+
+/**
+ * Resolves the static group memberships of an identity from an in-memory reverse index, instead of issuing a
+ * <code>uniqueMember=&lt;dn&gt;</code> search against the directory for every membership check.
+ * <p>
+ * The index is loaded with a single (paged) search for all the groups under the group base DN, and maps every member
+ * DN to the groups that list it directly. Nested groups are resolved by walking the index, so a member of a group
+ * that is itself a member of another group is reported as a member of both.
+ * <p>
+ * The index also holds the static members of every group. The members of dynamic groups, found by searching their
+ * member URLs, are cached separately when the URL is within the entries watched by the persistent search.
+ * <p>
+ * The index is discarded whenever a group is changed, either through the owning {@link DJLDAPv3Repo} or as reported
+ * by the persistent search, and is loaded again on the next membership check. As any change to an entry may change
+ * the results of a member URL, the dynamic group members are discarded on every change.
+ */
+final class GroupMembershipResolver implements IdentityChangedListener {
+
+    private static final Debug DEBUG = Debug.getInstance("DJLDAPv3Repo");
+    private static final int[] NO_GROUPS = new int[0];
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong dynamicGeneration = new AtomicLong();
+    private final ConcurrentMap<DN, DynamicMembers> dynamicMembers = new ConcurrentHashMap<>();
+    private final DN watchedBaseDN;
+    private final DN groupBaseDN;
+    private final SearchScope scope;
+    private final Filter groupFilter;
+    private final String uniqueMemberAttr;
+    private final int timeLimit;
+    private final int pageSize;
+    private volatile Index index;
+
+    /**
+     * Creates a new resolver for the groups matching the given search parameters.
+     *
+     * @param watchedBaseDN The base DN of the subtree the persistent search reports changes for.
+     * @param groupBaseDN The base DN of the group entries.
+     * @param scope The scope of the group search.
+     * @param groupFilter The filter matching group entries.
+     * @param uniqueMemberAttr The name of the attribute holding the DNs of the group members.
+     * @param timeLimit The time limit of each page of the group search, in seconds.
+     * @param pageSize The number of groups requested in each page of the group search.
+     */
+    GroupMembershipResolver(DN watchedBaseDN, DN groupBaseDN, SearchScope scope, Filter groupFilter,
+            String uniqueMemberAttr, int timeLimit, int pageSize) {
+        this.watchedBaseDN = watchedBaseDN;
+        this.groupBaseDN = groupBaseDN;
+        this.scope = scope;
+        this.groupFilter = groupFilter;
+        this.uniqueMemberAttr = uniqueMemberAttr;
+        this.timeLimit = timeLimit;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Returns the current index, if it has been loaded and has not been invalidated since.
+     *
+     * @return The current index, or <code>null</code> if it needs to be loaded.
+     */
+    Index getIndex() {
+        Index current = index;
+        return current != null && current.generation == generation.get() ? current : null;
+    }
+
+    /**
+     * Returns the current index, loading it from the directory if necessary. Concurrent callers wait for a single
+     * load to complete rather than each searching the directory.
+     *
+     * @param conn The connection to use for loading the groups.
+     * @return The index, never <code>null</code>.
+     * @throws LdapException If the group search fails.
+     * @throws SearchResultReferenceIOException If the group search returns a reference instead of an entry.
+     * @throws DecodeException If the paged results response control cannot be decoded.
+     */
+    synchronized Index load(Connection conn)
+            throws LdapException, SearchResultReferenceIOException, DecodeException {
+        Index current = getIndex();
+        if (current != null) {
+            return current;
+        }
+        long loadGeneration = generation.get();
+        List<DN> groups = new ArrayList<>();
+        List<String[]> members = new ArrayList<>();
+        Map<DN, List<Integer>> parents = new HashMap<>();
+        ByteString cookie = ByteString.empty();
+        do {
+            SearchRequest searchRequest = LDAPRequests.newSearchRequest(groupBaseDN, scope, groupFilter,
+                    uniqueMemberAttr)
+                    .setTimeLimit(timeLimit)
+                    .addControl(SimplePagedResultsControl.newControl(false, pageSize, cookie));
+            ConnectionEntryReader reader = conn.search(searchRequest);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.isEntry()) {
+                        addGroup(reader.readEntry(), groups, members, parents);
+                    } else {
+                        //ignore search result references
+                        reader.readReference();
+                    }
+                }
+                SimplePagedResultsControl control = reader.readResult().getControl(
+                        SimplePagedResultsControl.DECODER, new DecodeOptions());
+                cookie = control == null ? ByteString.empty() : control.getCookie();
+            } finally {
+                reader.close();
+            }
+        } while (!cookie.isEmpty());
+
+        current = new Index(loadGeneration, groups, members, parents);
+        index = current;
+        if (DEBUG.messageEnabled()) {
+            DEBUG.message("GroupMembershipResolver.load: indexed " + groups.size() + " groups with "
+                    + parents.size() + " distinct members under " + groupBaseDN);
+        }
+        return current;
+    }
+
+    private void addGroup(SearchResultEntry entry, List<DN> groups, List<String[]> members,
+            Map<DN, List<Integer>> parents) {
+        Integer id = groups.size();
+        groups.add(entry.getName());
+        Attribute memberAttr = entry.getAttribute(uniqueMemberAttr);
+        if (memberAttr == null) {
+            //the group may be a dynamic group, its members are not known to the index
+            members.add(null);
+            return;
+        }
+        String[] values = new String[memberAttr.size()];
+        int ii = 0;
+        for (ByteString value : memberAttr) {
+            values[ii++] = value.toString();
+        }
+        members.add(values);
+        for (ByteString value : memberAttr) {
+            DN member;
+            try {
+                member = DN.valueOf(value.toString());
+            } catch (LocalizedIllegalArgumentException liae) {
+                if (DEBUG.warningEnabled()) {
+                    DEBUG.warning("Ignoring invalid member " + value + " of group " + entry.getName());
+                }
+                continue;
+            }
+            List<Integer> memberOf = parents.get(member);
+            if (memberOf == null) {
+                memberOf = new ArrayList<>(1);
+                parents.put(member, memberOf);
+            }
+            memberOf.add(id);
+        }
+    }
+
+    /**
+     * Returns the cached members of a dynamic group, if they have been cached and no entry has been changed since.
+     *
+     * @param groupDN The DN of the dynamic group.
+     * @return The DNs of the members, or <code>null</code> if they need to be searched for.
+     */
+    Set<String> getDynamicMembers(String groupDN) {
+        DynamicMembers cached = dynamicMembers.get(DN.valueOf(groupDN));
+        if (cached != null && cached.generation == dynamicGeneration.get()) {
+            return new HashSet<>(cached.members);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the generation to pass to {@link #cacheDynamicMembers}, to be read before searching the member URLs so
+     * that the results are not cached if an entry changes during the search.
+     *
+     * @return The current generation of the dynamic group members.
+     */
+    long getDynamicGeneration() {
+        return dynamicGeneration.get();
+    }
+
+    /**
+     * Caches the members of a dynamic group, if all of its member URLs are within the entries watched by the
+     * persistent search, as otherwise changes to the matching entries would not be noticed.
+     *
+     * @param groupDN The DN of the dynamic group.
+     * @param urlBaseDNs The base DNs of the member URLs of the group.
+     * @param members The DNs of the members found by searching the member URLs.
+     * @param searchGeneration The generation read by {@link #getDynamicGeneration()} before the search.
+     */
+    void cacheDynamicMembers(String groupDN, Set<DN> urlBaseDNs, Set<String> members, long searchGeneration) {
+        for (DN urlBaseDN : urlBaseDNs) {
+            if (!urlBaseDN.isInScopeOf(watchedBaseDN, SearchScope.WHOLE_SUBTREE)) {
+                return;
+            }
+        }
+        if (searchGeneration == dynamicGeneration.get()) {
+            dynamicMembers.put(DN.valueOf(groupDN), new DynamicMembers(searchGeneration, new HashSet<>(members)));
+        }
+    }
+
+    /**
+     * Discards the current index and dynamic group members, so that the next membership check loads them again.
+     */
+    void invalidate() {
+        generation.incrementAndGet();
+        invalidateDynamicMembers();
+    }
+
+    /**
+     * Discards the cached dynamic group members, as the changed entries may now match different member URLs.
+     */
+    void invalidateDynamicMembers() {
+        dynamicGeneration.incrementAndGet();
+        dynamicMembers.clear();
+    }
+
+    @Override
+    public void identityChanged(DN dn) {
+        Index current = index;
+        if (dn.isInScopeOf(groupBaseDN, scope) || (current != null && current.isGroup(dn))) {
+            if (DEBUG.messageEnabled()) {
+                DEBUG.message("GroupMembershipResolver.identityChanged: invalidating index due to change of " + dn);
+            }
+            invalidate();
+        } else {
+            invalidateDynamicMembers();
+        }
+    }
+
+    @Override
+    public void allIdentitiesChanged() {
+        invalidate();
+    }
+
+    private static final class DynamicMembers {
+
+        private final long generation;
+        private final Set<String> members;
+
+        private DynamicMembers(long generation, Set<String> members) {
+            this.generation = generation;
+            this.members = members;
+        }
+    }
+
+    /**
+     * An immutable reverse index from member DN to the groups listing that member, which also holds the static members
+     * of each group.
+     */
+    static final class Index {
+
+        private final long generation;
+        private final DN[] groups;
+        private final String[][] members;
+        private final Map<DN, Integer> groupIds;
+        private final Map<DN, int[]> parents;
+
+        private Index(long generation, List<DN> groups, List<String[]> members, Map<DN, List<Integer>> memberOf) {
+            this.generation = generation;
+            this.groups = groups.toArray(new DN[groups.size()]);
+            this.members = members.toArray(new String[members.size()][]);
+            this.groupIds = new HashMap<>(groups.size() * 2);
+            for (int ii = 0; ii < this.groups.length; ii++) {
+                groupIds.put(this.groups[ii], ii);
+            }
+            this.parents = new HashMap<>(memberOf.size() * 2);
+            for (Map.Entry<DN, List<Integer>> entry : memberOf.entrySet()) {
+                List<Integer> ids = entry.getValue();
+                int[] compact = new int[ids.size()];
+                for (int ii = 0; ii < compact.length; ii++) {
+                    compact[ii] = ids.get(ii);
+                }
+                parents.put(entry.getKey(), compact);
+            }
+        }
+
+        private boolean isGroup(DN dn) {
+            return groupIds.containsKey(dn);
+        }
+
+        /**
+         * Returns the static members of the given group, as listed by its unique member attribute.
+         *
+         * @param groupDN The DN of the group.
+         * @return The DNs of the members, or <code>null</code> if the group is not indexed or has no unique member
+         * attribute, such as a dynamic group.
+         */
+        Set<String> getMembers(String groupDN) {
+            Integer id = groupIds.get(DN.valueOf(groupDN));
+            if (id == null || members[id] == null) {
+                return null;
+            }
+            return new HashSet<>(Arrays.asList(members[id]));
+        }
+
+        /**
+         * Returns the DNs of the groups that the given DN is a member of, either directly or through nested groups.
+         *
+         * @param dn The DN of the member.
+         * @return The DNs of the groups, never <code>null</code>.
+         */
+        Set<String> getMemberships(String dn) {
+            Set<String> results = new HashSet<>();
+            int[] direct = getParents(DN.valueOf(dn));
+            if (direct.length == 0) {
+                return results;
+            }
+            BitSet visited = new BitSet();
+            int[] pending = new int[Math.max(direct.length, 8)];
+            int head = 0;
+            int tail = 0;
+            for (int id : direct) {
+                if (!visited.get(id)) {
+                    visited.set(id);
+                    pending[tail++] = id;
+                }
+            }
+            while (head < tail) {
+                int id = pending[head++];
+                results.add(groups[id].toString());
+                for (int parent : getParents(groups[id])) {
+                    if (!visited.get(parent)) {
+                        visited.set(parent);
+                        if (tail == pending.length) {
+                            pending = Arrays.copyOf(pending, tail * 2);
+                        }
+                        pending[tail++] = parent;
+                    }
+                }
+            }
+            return results;
+        }
+
+        private int[] getParents(DN dn) {
+            int[] result = parents.get(dn);
+            return result == null ? NO_GROUPS : result;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+package org.forgerock.openam.idrepo.ldap;
+
+import org.forgerock.opendj.ldap.DN;
+
+/**
+ * Interface describing interactions when any watched identity is added, modified, deleted or renamed.
+ */
+public interface IdentityChangedListener {
+
+    /**
+     * Called when an entry has been changed within the identity store.
+     *
+     * @param dn The DN of the changed entry.
+     */
+    void identityChanged(DN dn);
+
+    /**
+     * Called when the changes made to the identity store since the last notification cannot be determined, for
+     * example because the persistent search connection has been re-established.
+     */
+    void allIdentitiesChanged();
+}
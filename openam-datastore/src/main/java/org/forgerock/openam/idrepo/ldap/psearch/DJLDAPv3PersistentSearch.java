@@ -21,7 +21,9 @@ import static org.forgerock.openam.ldap.LDAPConstants.*;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
+import org.forgerock.openam.idrepo.ldap.IdentityChangedListener;
 import org.forgerock.openam.idrepo.ldap.IdentityMovedOrRenamedListener;
 import org.forgerock.openam.ldap.LDAPUtils;
 import org.forgerock.openam.sm.datalayer.api.ConnectionFactory;
@@ -46,6 +48,7 @@ public class DJLDAPv3PersistentSearch extends LDAPv3PersistentSearch<IdRepoListe
     private static final Debug DEBUG = Debug.getInstance("PersistentSearch");
     private final SearchResultEntryHandler resultEntryHandler = new PSearchResultEntryHandler();
     private final Set<IdentityMovedOrRenamedListener> movedOrRenamedListenerSet = new HashSet<>(1);
+    private final Set<IdentityChangedListener> changedListenerSet = new CopyOnWriteArraySet<>();
     private final String usersSearchAttributeName;
 
     /**
@@ -91,8 +94,29 @@ public class DJLDAPv3PersistentSearch extends LDAPv3PersistentSearch<IdRepoListe
         movedOrRenamedListenerSet.remove(movedOrRenamedListener);
     }
 
+    /**
+     * Adds an {@link IdentityChangedListener} object, which needs to be notified about every persistent search result.
+     *
+     * @param changedListener The {@link IdentityChangedListener} instance that needs to be notified about changes.
+     */
+    public void addChangedListener(IdentityChangedListener changedListener) {
+        changedListenerSet.add(changedListener);
+    }
+
+    /**
+     * Removes an {@link IdentityChangedListener} if it was registered to get persistent search notifications.
+     *
+     * @param changedListener The {@link IdentityChangedListener} instance to remove from the listeners
+     */
+    public void removeChangedListener(IdentityChangedListener changedListener) {
+        changedListenerSet.remove(changedListener);
+    }
+
     @Override
     protected void clearCaches() {
+        for (IdentityChangedListener changedListener : changedListenerSet) {
+            changedListener.allIdentitiesChanged();
+        }
         for (IdRepoListener idRepoListener : getListeners().keySet()) {
             idRepoListener.allObjectsChanged();
         }
@@ -120,6 +144,13 @@ public class DJLDAPv3PersistentSearch extends LDAPv3PersistentSearch<IdRepoListe
                     }
                 }
 
+                for (IdentityChangedListener listener : changedListenerSet) {
+                    if (previousDn != null) {
+                        listener.identityChanged(previousDn);
+                    }
+                    listener.identityChanged(entry.getName());
+                }
+
                 for (Map.Entry<IdRepoListener, Set<IdType>> listenerEntry : getListeners().entrySet()) {
                     IdRepoListener listener = listenerEntry.getKey();
 
@@ -22,9 +22,11 @@ import static org.mockito.Mockito.*;
 import static org.testng.Assert.fail;
 
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -46,6 +48,7 @@ import com.sun.identity.idm.IdRepoDuplicateObjectException;
 import com.sun.identity.idm.IdRepoErrorCode;
 import com.sun.identity.idm.IdRepoException;
 import com.sun.identity.idm.IdType;
+import com.sun.identity.idm.RepoSearchResultHandler;
 import com.sun.identity.idm.RepoSearchResults;
 import com.sun.identity.sm.SchemaType;
 
@@ -192,6 +195,17 @@ public class GenericRepoTest extends IdRepoTestBase {
         assertThat(attrs.get("dn")).isNotNull().contains(DEMO_DN);
     }
 
+    @Test
+    public void getAttributesForMultipleUsersLeavesOutNonExistentUsers() throws Exception {
+        Map<String, Map<String, Set<String>>> attrs = idrepo.getAttributes(null, IdType.USER,
+                asSet(DEMO, "searchTester1", "invalid"), asSet("sn", "dn"));
+        assertThat(attrs).hasSize(2);
+        assertThat(attrs.get(DEMO).keySet()).hasSize(2).contains("sn", "dn");
+        assertThat(attrs.get(DEMO).get("sn")).containsOnly("demo");
+        assertThat(attrs.get(DEMO).get("dn")).containsOnly(DEMO_DN);
+        assertThat(attrs.get("searchTester1").get("sn")).containsOnly("hello");
+    }
+
     @Test
     public void getBinaryAttributesReturnsByteArrays() throws Exception {
         Map<String, byte[][]> binAttrs = idrepo.getBinaryAttributes(null, IdType.USER, DEMO, asSet("sn"));
@@ -374,6 +388,77 @@ public class GenericRepoTest extends IdRepoTestBase {
         assertThat(resultAttrs.get("searchTester1").get("uid")).containsOnly("searchTester1");
     }
 
+    @Test
+    public void streamingSearchPassesEachMatchToHandler() throws Exception {
+        CrestQuery crestQuery = new CrestQuery("searchTester*");
+        final Map<String, Map<String, Set<String>>> results = new HashMap<String, Map<String, Set<String>>>();
+        int errorCode = idrepo.search(null, IdType.USER, crestQuery, 0, 0, asSet("sn"), false, IdRepo.AND_MOD, null,
+                new RepoSearchResultHandler() {
+                    @Override
+                    public boolean handleResult(String name, Map<String, Set<String>> attributes) {
+                        results.put(name, attributes);
+                        return true;
+                    }
+                });
+        assertThat(errorCode).isEqualTo(RepoSearchResults.SUCCESS);
+        assertThat(results.keySet()).containsOnly("searchTester1", "searchTester2", "searchTester3",
+                "searchTester4");
+        assertThat(results.get("searchTester1").get("sn")).containsOnly("hello");
+    }
+
+    @Test
+    public void streamingSearchStopsWhenHandlerCancels() throws Exception {
+        CrestQuery crestQuery = new CrestQuery("searchTester*");
+        final List<String> names = new ArrayList<String>();
+        int errorCode = idrepo.search(null, IdType.USER, crestQuery, 0, 0, null, false, IdRepo.AND_MOD, null,
+                new RepoSearchResultHandler() {
+                    @Override
+                    public boolean handleResult(String name, Map<String, Set<String>> attributes) {
+                        names.add(name);
+                        return names.size() < 2;
+                    }
+                });
+        assertThat(errorCode).isEqualTo(RepoSearchResults.SUCCESS);
+        assertThat(names).hasSize(2);
+    }
+
+    @Test
+    public void streamingSearchStopsAtTheSizeLimit() throws Exception {
+        CrestQuery crestQuery = new CrestQuery("searchTester*");
+        final List<String> names = new ArrayList<String>();
+        int errorCode = idrepo.search(null, IdType.USER, crestQuery, 0, 3, null, false, IdRepo.AND_MOD, null,
+                new RepoSearchResultHandler() {
+                    @Override
+                    public boolean handleResult(String name, Map<String, Set<String>> attributes) {
+                        names.add(name);
+                        return true;
+                    }
+                });
+        assertThat(errorCode).isEqualTo(RepoSearchResults.SIZE_LIMIT_EXCEEDED);
+        assertThat(names).hasSize(3);
+    }
+
+    @Test
+    public void streamingSearchHandlerCanReadFromDirectory() throws Exception {
+        CrestQuery crestQuery = new CrestQuery("searchTester*");
+        final Map<String, Set<String>> surnames = new HashMap<String, Set<String>>();
+        int errorCode = idrepo.search(null, IdType.USER, crestQuery, 0, 0, null, false, IdRepo.AND_MOD, null,
+                new RepoSearchResultHandler() {
+                    @Override
+                    public boolean handleResult(String name, Map<String, Set<String>> attributes) {
+                        try {
+                            surnames.put(name, idrepo.getAttributes(null, IdType.USER, name, asSet("sn")).get("sn"));
+                        } catch (Exception ex) {
+                            fail("Unable to read " + name + " whilst searching", ex);
+                        }
+                        return true;
+                    }
+                });
+        assertThat(errorCode).isEqualTo(RepoSearchResults.SUCCESS);
+        assertThat(surnames).hasSize(4);
+        assertThat(surnames.get("searchTester1")).containsOnly("hello");
+    }
+
     //need to depend on deleteSuccessful, otherwise testuser1 would ruin the day :)
     @Test(dependsOnMethods = "deleteSuccessful")
     public void searchReturnsMatchesForComplexFilters() throws Exception {
@@ -444,6 +529,27 @@ public class GenericRepoTest extends IdRepoTestBase {
         assertThat(idrepo.getMemberships(null, IdType.USER, DEMO, IdType.GROUP)).isEmpty();
     }
 
+    @Test
+    public void groupMembershipsIncludeNestedGroups() throws Exception {
+        String innerDN = "cn=inner,ou=groups,dc=openam,dc=openidentityplatform,dc=org";
+        String outerDN = "cn=outer,ou=groups,dc=openam,dc=openidentityplatform,dc=org";
+        Map<String, Set<String>> attributes = MapHelper.readMap("/config/groups/test1.properties");
+        idrepo.create(null, IdType.GROUP, "inner", attributes);
+        idrepo.create(null, IdType.GROUP, "outer", attributes);
+        try {
+            Map<String, Set<String>> members = new HashMap<>();
+            members.put("uniqueMember", asSet(innerDN));
+            idrepo.setAttributes(null, IdType.GROUP, "outer", members, false);
+
+            assertThat(idrepo.getMembers(null, IdType.GROUP, "outer", IdType.USER)).containsOnly(innerDN);
+            assertThat(idrepo.getMemberships(null, IdType.USER, DEMO, IdType.GROUP)).contains(innerDN, outerDN);
+        } finally {
+            idrepo.delete(null, IdType.GROUP, "outer");
+            idrepo.delete(null, IdType.GROUP, "inner");
+        }
+        assertThat(idrepo.getMemberships(null, IdType.USER, DEMO, IdType.GROUP)).excludes(innerDN, outerDN);
+    }
+
     @Test(dependsOnMethods = "groupMembershipsAreConsistent")
     public void groupDeletionSuccessful() throws Exception {
         assertThat(idrepo.isExists(null, IdType.GROUP, TEST1_GROUP)).isTrue();
@@ -16,12 +16,17 @@
 package org.forgerock.openam.idrepo.ldap;
 
 import com.sun.identity.idm.IdRepoListener;
+import com.sun.identity.idm.IdType;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 import org.forgerock.openam.utils.MapHelper;
 import org.powermock.api.mockito.PowerMockito;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import static org.fest.assertions.Assertions.assertThat;
+import static org.forgerock.openam.utils.CollectionUtils.asSet;
 import static org.testng.Assert.fail;
 
 
@@ -52,4 +57,29 @@ public class PSearchRepoTest  extends IdRepoTestBase {
         idrepo.addListener(null, newIdRepoListener);
     }
 
+    @Test
+    public void groupMembershipsIncludeNestedGroupsWithoutMembershipIndex() throws Exception {
+        String innerDN = "cn=inner,ou=groups,dc=openam,dc=openidentityplatform,dc=org";
+        String outerDN = "cn=outer,ou=groups,dc=openam,dc=openidentityplatform,dc=org";
+        String topDN = "cn=top,ou=groups,dc=openam,dc=openidentityplatform,dc=org";
+        Map<String, Set<String>> attributes = MapHelper.readMap("/config/groups/test1.properties");
+        idrepo.create(null, IdType.GROUP, "inner", attributes);
+        idrepo.create(null, IdType.GROUP, "outer", attributes);
+        idrepo.create(null, IdType.GROUP, "top", attributes);
+        try {
+            Map<String, Set<String>> members = new HashMap<>();
+            members.put("uniqueMember", asSet(innerDN));
+            idrepo.setAttributes(null, IdType.GROUP, "outer", members, false);
+            members.put("uniqueMember", asSet(outerDN, innerDN));
+            idrepo.setAttributes(null, IdType.GROUP, "top", members, false);
+
+            assertThat(idrepo.getMemberships(null, IdType.USER, DEMO, IdType.GROUP)).contains(innerDN, outerDN, topDN);
+        } finally {
+            idrepo.delete(null, IdType.GROUP, "top");
+            idrepo.delete(null, IdType.GROUP, "outer");
+            idrepo.delete(null, IdType.GROUP, "inner");
+        }
+        assertThat(idrepo.getMemberships(null, IdType.USER, DEMO, IdType.GROUP)).excludes(innerDN, outerDN, topDN);
+    }
+
 }
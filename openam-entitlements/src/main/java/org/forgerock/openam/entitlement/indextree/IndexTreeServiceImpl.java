@@ -25,6 +25,7 @@ import com.sun.identity.shared.debug.Debug;
 import com.sun.identity.sm.SMSDataEntry;
 import com.sun.identity.sm.SMSException;
 import com.sun.identity.sm.ServiceManagementDAO;
+import org.forgerock.openam.audit.context.AMExecutorServiceFactory;
 import org.forgerock.openam.core.DNWrapper;
 import org.forgerock.openam.entitlement.indextree.events.ErrorEventType;
 import org.forgerock.openam.entitlement.indextree.events.EventType;
@@ -32,23 +33,29 @@ import org.forgerock.openam.entitlement.indextree.events.IndexChangeEvent;
 import org.forgerock.openam.entitlement.indextree.events.IndexChangeObserver;
 import org.forgerock.openam.entitlement.indextree.events.ModificationEvent;
 import org.forgerock.openam.entitlement.indextree.events.ModificationEventType;
+import org.forgerock.openam.entitlement.utils.indextree.CopyOnWriteIndexRuleTree;
 import org.forgerock.openam.entitlement.utils.indextree.IndexRuleTree;
-import org.forgerock.openam.entitlement.utils.indextree.SimpleReferenceTree;
 import org.forgerock.util.thread.listener.ShutdownListener;
 import org.forgerock.util.thread.listener.ShutdownManager;
 
 import javax.inject.Inject;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Provides a search implementation that takes on a lazy approach to policy rule retrieval. Policy rules for a given
  * realm are only loaded into a index rule tree instance as search requests are made against that realm. This avoids
  * there being a potentially large memory consumption earlier on and instead builds up the data as it is required.
+ * <p/>
+ * Each realm's tree is a {@link CopyOnWriteIndexRuleTree}, so policy changes are applied in batches by a single
+ * background builder thread while searches continue against the previous version of the tree.
  *
  * @author apforrest
  */
@@ -70,16 +77,19 @@ public class IndexTreeServiceImpl implements IndexTreeService, IndexChangeObserv
     private final PrivilegedAction<SSOToken> adminAction;
     private final ServiceManagementDAO smDAO;
     private final DNWrapper dnMapper;
+    private final ExecutorService treeBuilder;
 
     @Inject
     public IndexTreeServiceImpl(IndexChangeManager manager, PrivilegedAction<SSOToken> adminTokenAction,
                                 ServiceManagementDAO smDAO, DNWrapper dnMapper,
-                                ShutdownManager shutdownManager) {
+                                ShutdownManager shutdownManager, AMExecutorServiceFactory executorServiceFactory) {
 
         this.manager = manager;
         this.adminAction = adminTokenAction;
         this.smDAO = smDAO;
         this.dnMapper = dnMapper;
+        // Changes to all trees are applied by a single thread, one batch at a time.
+        this.treeBuilder = executorServiceFactory.createFixedThreadPool(1, "IndexTreeBuilder");
 
        // Register to the shutdown to clean up appropriate resources.
         shutdownManager.addShutdownListener(this);
@@ -160,7 +170,7 @@ public class IndexTreeServiceImpl implements IndexTreeService, IndexChangeObserv
         SSOToken token = AccessController.doPrivileged(adminAction);
 
         if (smDAO.checkIfEntryExists(baseDN, token)) {
-            indexTree = new SimpleReferenceTree();
+            List<String> indexRules = new ArrayList<String>();
 
             try {
                 Set<String> excludes = Collections.emptySet();
@@ -174,13 +184,15 @@ public class IndexTreeServiceImpl implements IndexTreeService, IndexChangeObserv
                     @SuppressWarnings("unchecked")
                     Set<String> policyPathIndexes = e.getAttributeValues(INDEX_PATH_ATT);
 
-                    indexTree.addIndexRules(policyPathIndexes);
+                    indexRules.addAll(policyPathIndexes);
                 }
 
             } catch (SMSException smsE) {
                 throw new EntitlementException(52, new Object[] {baseDN}, smsE);
             }
 
+            indexTree = new CopyOnWriteIndexRuleTree(treeBuilder, indexRules);
+
             if (DEBUG.messageEnabled()) {
                 DEBUG.message(String.format("Index rule tree created for '%s'.", realm));
             }
@@ -217,7 +229,7 @@ public class IndexTreeServiceImpl implements IndexTreeService, IndexChangeObserv
                 }
 
                 if (DEBUG.messageEnabled()) {
-                    DEBUG.message(String.format("Policy path index '%s' updated for realm '%s'.", pathIndex, realm));
+                    DEBUG.message(String.format("Policy path index '%s' queued for realm '%s'.", pathIndex, realm));
                 }
             }
         } else if (type == ErrorEventType.DATA_LOSS) {
@@ -237,6 +249,7 @@ public class IndexTreeServiceImpl implements IndexTreeService, IndexChangeObserv
     public void shutdown() {
         manager.removeObserver(this);
         manager.shutdown();
+        treeBuilder.shutdown();
     }
 
 }
\ No newline at end of file
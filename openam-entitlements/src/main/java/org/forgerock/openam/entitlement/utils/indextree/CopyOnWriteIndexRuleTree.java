@@ -0,0 +1,248 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.entitlement.utils.indextree;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.forgerock.openam.entitlement.utils.indextree.nodefactory.BasicTreeNodeFactory;
+import org.forgerock.openam.entitlement.utils.indextree.nodefactory.TreeNodeFactory;
+
+import com.sun.identity.shared.debug.Debug;
+
+/**
+ * A versioned, copy-on-write index rule tree. Searches are made against the current version of the tree without any
+ * locking, and a version is never modified once it has been published.
+ * <p/>
+ * Additions and removals are queued and applied by a builder task run on the given {@link Executor}. The builder
+ * drains every queued change in one batch, builds a new {@link SimpleReferenceTree} from the resulting set of rules
+ * and then swaps it in atomically. A bulk import of policies therefore results in a small number of rebuilds, none of
+ * which hold up searches. A search may not yet see changes that are still queued.
+ * <p/>
+ * Rules passed to the constructor are built into the first version synchronously, so that a new tree can be searched
+ * straight away.
+ */
+public class CopyOnWriteIndexRuleTree implements IndexRuleTree {
+
+    private static final Debug DEBUG = Debug.getInstance("amEntitlements");
+
+    private final Executor builder;
+    private final TreeNodeFactory factory;
+    private final Queue<Change> pending = new ConcurrentLinkedQueue<Change>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final BuildTask buildTask = new BuildTask();
+    // Only accessed by the builder, holds the number of times each rule has been added.
+    private final Map<String, Integer> rules = new HashMap<String, Integer>();
+    private volatile Version current;
+
+    /**
+     * Creates a tree using the basic tree node factory.
+     *
+     * @param builder
+     *         The executor on which changes are applied.
+     * @param initialRules
+     *         The index rules to build the first version from.
+     */
+    public CopyOnWriteIndexRuleTree(Executor builder, Collection<String> initialRules) {
+        this(builder, initialRules, new BasicTreeNodeFactory());
+    }
+
+    /**
+     * Creates a tree using the given tree node factory.
+     *
+     * @param builder
+     *         The executor on which changes are applied.
+     * @param initialRules
+     *         The index rules to build the first version from.
+     * @param factory
+     *         The factory used to create the tree nodes of each version.
+     */
+    public CopyOnWriteIndexRuleTree(Executor builder, Collection<String> initialRules, TreeNodeFactory factory) {
+        this.builder = builder;
+        this.factory = factory;
+        synchronized (rules) {
+            for (String rule : initialRules) {
+                addRule(rule);
+            }
+            current = new Version(0, build());
+        }
+    }
+
+    @Override
+    public void addIndexRule(String indexRule) {
+        if (indexRule == null) {
+            throw new IllegalArgumentException("Pattern must not be null");
+        }
+        enqueue(new Change(indexRule, true));
+    }
+
+    @Override
+    public void addIndexRules(Collection<String> indexRules) {
+        for (String indexRule : indexRules) {
+            if (indexRule == null) {
+                throw new IllegalArgumentException("Pattern must not be null");
+            }
+            pending.add(new Change(indexRule, true));
+        }
+        schedule();
+    }
+
+    @Override
+    public void removeIndexRule(String indexRule) {
+        if (indexRule == null) {
+            throw new IllegalArgumentException("Pattern must not be null");
+        }
+        enqueue(new Change(indexRule, false));
+    }
+
+    @Override
+    public Set<String> searchTree(String resource) {
+        return current.tree.searchTree(resource);
+    }
+
+    /**
+     * @return The version of the tree currently being searched, which starts at zero and increases by one each time
+     * a batch of changes is applied.
+     */
+    public long getVersion() {
+        return current.number;
+    }
+
+    private void enqueue(Change change) {
+        pending.add(change);
+        schedule();
+    }
+
+    private void schedule() {
+        if (!pending.isEmpty() && scheduled.compareAndSet(false, true)) {
+            try {
+                builder.execute(buildTask);
+            } catch (RejectedExecutionException e) {
+                // The changes stay queued for the next schedule, which must not see a build as running.
+                scheduled.set(false);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Builds a new tree containing every rule. Must be called holding the lock on the rules.
+     */
+    private SimpleReferenceTree build() {
+        SimpleReferenceTree tree = new SimpleReferenceTree(factory);
+        for (Map.Entry<String, Integer> entry : rules.entrySet()) {
+            List<String> copies = Collections.nCopies(entry.getValue(), entry.getKey());
+            tree.addIndexRules(copies);
+        }
+        return tree;
+    }
+
+    private void addRule(String rule) {
+        Integer count = rules.get(rule);
+        rules.put(rule, count == null ? 1 : count + 1);
+    }
+
+    private void removeRule(String rule) {
+        Integer count = rules.get(rule);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            rules.put(rule, count - 1);
+        } else {
+            rules.remove(rule);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return current.tree.toString();
+    }
+
+    /**
+     * Applies all queued changes as a single new version of the tree.
+     */
+    private final class BuildTask implements Runnable {
+
+        @Override
+        public void run() {
+            // Clear the flag before draining, so changes queued from here on schedule a further build.
+            scheduled.set(false);
+
+            List<Change> batch = new ArrayList<Change>();
+            for (Change change = pending.poll(); change != null; change = pending.poll()) {
+                batch.add(change);
+            }
+
+            if (!batch.isEmpty()) {
+                synchronized (rules) {
+                    for (Change change : batch) {
+                        if (change.add) {
+                            addRule(change.rule);
+                        } else {
+                            removeRule(change.rule);
+                        }
+                    }
+                    current = new Version(current.number + 1, build());
+                }
+
+                if (DEBUG.messageEnabled()) {
+                    DEBUG.message(String.format("Index rule tree version %d built from %d changes.",
+                            current.number, batch.size()));
+                }
+            }
+
+            schedule();
+        }
+    }
+
+    /**
+     * A queued addition or removal of an index rule.
+     */
+    private static final class Change {
+        private final String rule;
+        private final boolean add;
+
+        private Change(String rule, boolean add) {
+            this.rule = rule;
+            this.add = add;
+        }
+    }
+
+    /**
+     * A published version of the tree, which is never modified.
+     */
+    private static final class Version {
+        private final long number;
+        private final IndexRuleTree tree;
+
+        private Version(long number, IndexRuleTree tree) {
+            this.number = number;
+            this.tree = tree;
+        }
+    }
+}
@@ -28,6 +28,9 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.forgerock.openam.audit.context.AMExecutorServiceFactory;
 import org.forgerock.openam.core.DNWrapper;
 import org.forgerock.opendj.ldap.LdapException;
 import org.forgerock.util.thread.listener.ShutdownManager;
@@ -59,6 +62,8 @@ public class IndexTreeServiceImplTest {
     private ServiceManagementDAO serviceManagementDAO;
     private ShutdownManager shutdownManager;
     private DNWrapper dnMapper;
+    private AMExecutorServiceFactory executorServiceFactory;
+    private ExecutorService treeBuilder;
     private SSOToken ssoToken;
 
     private Set<String> excludes;
@@ -73,9 +78,12 @@ public class IndexTreeServiceImplTest {
         shutdownManager = mock(ShutdownManager.class);
         ssoToken = mock(SSOToken.class);
         excludes = Collections.emptySet();
+        executorServiceFactory = mock(AMExecutorServiceFactory.class);
+        treeBuilder = Executors.newSingleThreadExecutor();
+        when(executorServiceFactory.createFixedThreadPool(1, "IndexTreeBuilder")).thenReturn(treeBuilder);
 
         treeService = new IndexTreeServiceImpl(
-                manager, privilegedAction, serviceManagementDAO, dnMapper, shutdownManager);
+                manager, privilegedAction, serviceManagementDAO, dnMapper, shutdownManager, executorServiceFactory);
 
         verify(shutdownManager).addShutdownListener(treeService);
         verify(manager).registerObserver(treeService);
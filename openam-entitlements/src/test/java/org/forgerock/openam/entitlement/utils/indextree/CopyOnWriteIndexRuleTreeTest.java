@@ -0,0 +1,173 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.entitlement.utils.indextree;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for CopyOnWriteIndexRuleTree.
+ */
+public class CopyOnWriteIndexRuleTreeTest {
+
+    private QueuingExecutor builder;
+
+    @BeforeMethod
+    public void setUp() {
+        builder = new QueuingExecutor();
+    }
+
+    /**
+     * The initial rules are searchable as soon as the tree is created.
+     */
+    @Test
+    public void initialRulesAreBuiltSynchronously() {
+        IndexRuleTree tree = new CopyOnWriteIndexRuleTree(builder,
+                Arrays.asList("http://www.example.com/*", "http://www.test.com"));
+
+        Set<String> results = tree.searchTree("http://www.example.com/home");
+
+        assertEquals(results, Collections.singleton("http://www.example.com/*"));
+        assertTrue(builder.tasks.isEmpty());
+    }
+
+    /**
+     * Searches continue to use the published version until the builder has applied queued changes.
+     */
+    @Test
+    public void changesArePublishedByTheBuilder() {
+        CopyOnWriteIndexRuleTree tree = new CopyOnWriteIndexRuleTree(builder,
+                Collections.singletonList("http://www.example.com"));
+
+        tree.addIndexRule("http://www.test.com");
+        tree.removeIndexRule("http://www.example.com");
+
+        assertEquals(tree.searchTree("http://www.example.com"), Collections.singleton("http://www.example.com"));
+        assertTrue(tree.searchTree("http://www.test.com").isEmpty());
+        assertEquals(tree.getVersion(), 0L);
+
+        builder.runAll();
+
+        assertTrue(tree.searchTree("http://www.example.com").isEmpty());
+        assertEquals(tree.searchTree("http://www.test.com"), Collections.singleton("http://www.test.com"));
+        assertEquals(tree.getVersion(), 1L);
+    }
+
+    /**
+     * Many changes queued before the builder runs are applied as a single new version.
+     */
+    @Test
+    public void queuedChangesAreAppliedAsOneBatch() {
+        CopyOnWriteIndexRuleTree tree = new CopyOnWriteIndexRuleTree(builder, Collections.<String>emptyList());
+
+        List<String> rules = new ArrayList<String>();
+        for (int i = 0; i < 1000; i++) {
+            String rule = "http://www.example.com/" + i;
+            rules.add(rule);
+            tree.addIndexRule(rule);
+        }
+
+        assertEquals(builder.tasks.size(), 1);
+        builder.runAll();
+
+        assertEquals(tree.getVersion(), 1L);
+        for (String rule : rules) {
+            assertEquals(tree.searchTree(rule), Collections.singleton(rule));
+        }
+    }
+
+    /**
+     * A rule added more than once remains until it has been removed as many times.
+     */
+    @Test
+    public void duplicateRulesAreCounted() {
+        CopyOnWriteIndexRuleTree tree = new CopyOnWriteIndexRuleTree(builder,
+                Arrays.asList("http://www.example.com/*", "http://www.example.com/*"));
+
+        tree.removeIndexRule("http://www.example.com/*");
+        builder.runAll();
+
+        Set<String> expected = new HashSet<String>();
+        expected.add("http://www.example.com/*");
+        assertEquals(tree.searchTree("http://www.example.com/home"), expected);
+
+        tree.removeIndexRule("http://www.example.com/*");
+        builder.runAll();
+
+        assertTrue(tree.searchTree("http://www.example.com/home").isEmpty());
+    }
+
+    /**
+     * A change the builder rejects stays queued and is applied by the next build that is accepted.
+     */
+    @Test
+    public void rejectedBuildIsScheduledAgain() {
+        CopyOnWriteIndexRuleTree tree = new CopyOnWriteIndexRuleTree(builder, Collections.<String>emptyList());
+        builder.rejecting = true;
+
+        try {
+            tree.addIndexRule("http://www.example.com");
+            fail("Expected the build to be rejected");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+
+        builder.rejecting = false;
+        tree.addIndexRule("http://www.test.com");
+        assertEquals(builder.tasks.size(), 1);
+        builder.runAll();
+
+        assertEquals(tree.getVersion(), 1L);
+        assertEquals(tree.searchTree("http://www.example.com"), Collections.singleton("http://www.example.com"));
+        assertEquals(tree.searchTree("http://www.test.com"), Collections.singleton("http://www.test.com"));
+    }
+
+    /**
+     * Runs submitted tasks only when asked to, or rejects them.
+     */
+    private static final class QueuingExecutor implements Executor {
+        private final List<Runnable> tasks = new ArrayList<Runnable>();
+        private boolean rejecting;
+
+        @Override
+        public void execute(Runnable command) {
+            if (rejecting) {
+                throw new RejectedExecutionException();
+            }
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+    }
+}
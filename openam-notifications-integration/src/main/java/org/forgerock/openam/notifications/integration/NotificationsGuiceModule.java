@@ -56,6 +56,8 @@ public class NotificationsGuiceModule extends PrivateModule {
                 .to(SystemProperties.getAsInt("org.forgerock.openam.notifications.local.queueSize", 10000));
         bindConstant().annotatedWith(Names.named("consumers"))
                 .to(SystemProperties.getAsInt("org.forgerock.openam.notifications.local.consumers", 4));
+        bindConstant().annotatedWith(Names.named("batchSize"))
+                .to(SystemProperties.getAsInt("org.forgerock.openam.notifications.local.batchSize", 32));
         bindConstant().annotatedWith(Names.named("tokenExpirySeconds"))
                 .to(SystemProperties.getAsLong("org.forgerock.openam.notifications.cts.tokenExpirySeconds", 600L));
         bindConstant().annotatedWith(Names.named("publishFrequencyMilliseconds"))
@@ -63,6 +65,10 @@ public class NotificationsGuiceModule extends PrivateModule {
                         100L));
         bindConstant().annotatedWith(Names.named("ctsQueueSize"))
                 .to(SystemProperties.getAsInt("org.forgerock.openam.notifications.cts.queueSize", 10000));
+        bindConstant().annotatedWith(Names.named("publishBatchSize"))
+                .to(SystemProperties.getAsInt("org.forgerock.openam.notifications.cts.publishBatchSize", 500));
+        bindConstant().annotatedWith(Names.named("binaryFraming"))
+                .to(SystemProperties.getAsBoolean("org.forgerock.openam.notifications.cts.binaryFraming", false));
 
         expose(NotificationBroker.class).annotatedWith(LocalOnly.class);
         expose(NotificationBroker.class);
@@ -16,17 +16,11 @@
 
 package org.forgerock.openam.notifications.integration.brokers;
 
-import static org.forgerock.json.JsonValue.*;
-import static org.forgerock.openam.utils.JsonValueBuilder.toJsonArray;
 import static org.forgerock.openam.utils.Time.currentTimeMillis;
 import static org.forgerock.openam.utils.TimeUtils.fromUnixTime;
 import static org.forgerock.util.query.QueryFilter.equalTo;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
@@ -36,8 +30,8 @@ import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.zip.DeflaterOutputStream;
-import java.util.zip.InflaterInputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -65,8 +59,6 @@ import org.forgerock.util.generator.IdGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 /**
  * Uses the CTS to propagate notifications across an OpenAM cluster.
  * <p>
@@ -76,13 +68,18 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  * <p>
  * This implementation uses a local-server broker to handle the brokerage
  * of messages that come in from the CTS.
+ * <p>
+ * Queued notifications are written to the CTS when {@code publishBatchSize} of them are waiting,
+ * or at the latest every {@code publishFrequencyMilliseconds}, so a busy server writes fewer,
+ * larger tokens without delaying notifications on a quiet one. The queue depth and the lag
+ * between a notification being published and being written to the CTS are available through
+ * {@link #getQueueDepth()} and {@link #getPublishLag(TimeUnit)}.
  *
  * @since 14.0.0
  */
 public final class CTSNotificationBroker implements NotificationBroker {
 
     private static final Logger logger = LoggerFactory.getLogger(CTSNotificationBroker.class);
-    private static final ObjectMapper mapper = new ObjectMapper();
 
     private final NotificationBroker localBroker;
     private final CTSPersistentStore store;
@@ -91,6 +88,12 @@ public final class CTSNotificationBroker implements NotificationBroker {
     private final IdGenerator idGenerator;
     private final BlockingQueue<NotificationEntry> queue;
     private final ScheduledExecutorService executorService;
+    private final CTSPublisher publisher;
+    private final int publishBatchSize;
+    private final boolean binaryFraming;
+    private final AtomicBoolean flushPending = new AtomicBoolean();
+    private final AtomicLong publishLagNanos = new AtomicLong();
+    private final AtomicLong maxPublishLagNanos = new AtomicLong();
     private volatile boolean shutdown;
 
     /**
@@ -103,28 +106,55 @@ public final class CTSNotificationBroker implements NotificationBroker {
      * @param publishFrequencyMilliseconds the number of milliseconds between each publish to the CTS
      * @param executorServiceFactory an executor service factory for scheduling the publish task
      */
+    public CTSNotificationBroker(CTSPersistentStore store, NotificationBroker localBroker, int queueSize,
+            long tokenExpirySeconds, long publishFrequencyMilliseconds,
+            AMExecutorServiceFactory executorServiceFactory) {
+        this(store, localBroker, queueSize, tokenExpirySeconds, publishFrequencyMilliseconds, queueSize, false,
+                executorServiceFactory);
+    }
+
+    /**
+     * Constructs a new broker.
+     *
+     * @param store a CTS persistent store that notifications will be written to and read from
+     * @param localBroker a local-server broker used to propagate messages to local subscribers
+     * @param queueSize the size of the queue of notifications waiting to be written to the CTS
+     * @param tokenExpirySeconds the number of seconds that a notification will live in the CTS before it is deleted
+     * @param publishFrequencyMilliseconds the maximum number of milliseconds a notification waits before it is
+     *                                     written to the CTS
+     * @param publishBatchSize the number of waiting notifications that causes an immediate write to the CTS, and
+     *                         the maximum number of notifications written in a single token
+     * @param binaryFraming whether to write tokens in the binary format rather than the original JSON format
+     * @param executorServiceFactory an executor service factory for scheduling the publish task
+     */
     @Inject
     public CTSNotificationBroker(CTSPersistentStore store,
             @Named("localBroker") NotificationBroker localBroker,
             @Named("ctsQueueSize") int queueSize,
             @Named("tokenExpirySeconds") long tokenExpirySeconds,
             @Named("publishFrequencyMilliseconds") long publishFrequencyMilliseconds,
+            @Named("publishBatchSize") int publishBatchSize,
+            @Named("binaryFraming") boolean binaryFraming,
             AMExecutorServiceFactory executorServiceFactory) {
         Reject.ifNull(store, "CTS store must not be null");
         Reject.ifNull(localBroker, "Notification broker must not be null");
         Reject.ifNull(executorServiceFactory, "Executor service factory must not be null");
         Reject.ifTrue(tokenExpirySeconds <= 0, "Token expiry must be a positive integer");
         Reject.ifTrue(publishFrequencyMilliseconds <= 0, "Publish frequency must be a positive integer");
+        Reject.ifTrue(publishBatchSize <= 0, "Publish batch size must be a positive integer");
 
         this.localBroker = localBroker;
         this.store = store;
         this.tokenExpirySeconds = tokenExpirySeconds;
+        this.publishBatchSize = publishBatchSize;
+        this.binaryFraming = binaryFraming;
         executorService = executorServiceFactory.createScheduledService(1, "CTSNotificationsBroker");
         idGenerator = IdGenerator.DEFAULT;
         listener = new SessionNotificationListener();
         queue = new ArrayBlockingQueue<>(queueSize);
+        publisher = new CTSPublisher();
 
-        executorService.scheduleAtFixedRate(new CTSPublisher(), publishFrequencyMilliseconds,
+        executorService.scheduleAtFixedRate(publisher, publishFrequencyMilliseconds,
                 publishFrequencyMilliseconds, TimeUnit.MILLISECONDS);
 
         try {
@@ -144,13 +174,46 @@ public final class CTSNotificationBroker implements NotificationBroker {
             return false;
         }
 
-        if (!queue.offer(NotificationEntry.of(topic, notification))) {
+        if (!queue.offer(NotificationEntry.of(topic, notification, System.nanoTime()))) {
             logger.info("Failed to publish notification because queue is full. Notification discarded");
             return false;
         }
+
+        if (queue.size() >= publishBatchSize && flushPending.compareAndSet(false, true)) {
+            executorService.execute(publisher);
+        }
         return true;
     }
 
+    /**
+     * Gets the number of notifications waiting to be written to the CTS.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Gets how long the oldest notification of the most recently written token waited before being written.
+     *
+     * @param unit the unit of the result
+     * @return the publish lag
+     */
+    public long getPublishLag(TimeUnit unit) {
+        return unit.convert(publishLagNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the longest time a notification has waited before being written to the CTS.
+     *
+     * @param unit the unit of the result
+     * @return the maximum publish lag
+     */
+    public long getMaxPublishLag(TimeUnit unit) {
+        return unit.convert(maxPublishLagNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
     @Override
     public Subscription subscribe(Consumer consumer) {
         return localBroker.subscribe(consumer);
@@ -183,16 +246,7 @@ public final class CTSNotificationBroker implements NotificationBroker {
             if (changeType == ChangeType.ADD) {
                 try {
                     ByteString entryBlob = changeSet.get(CoreTokenField.BLOB.toString()).firstValue();
-
-                    InputStream stream = new InflaterInputStream(new ByteArrayInputStream(entryBlob.toByteArray()));
-                    JsonValue entries = toJsonArray(stream);
-
-                    for (JsonValue entry : entries) {
-                        String topic = entry.get("topic").asString();
-                        JsonValue content = entry.get("content");
-
-                        localBroker.publish(Topic.of(topic), content);
-                    }
+                    NotificationFraming.decode(entryBlob.toByteArray(), localBroker::publish);
                 } catch (Exception e) {
                     logger.error("Failed to publish notification to the local broker", e);
                 }
@@ -214,33 +268,40 @@ public final class CTSNotificationBroker implements NotificationBroker {
         }
     }
 
+    /**
+     * Writes the queued notifications to the CTS, in tokens of at most {@code publishBatchSize} notifications.
+     * Runs on the fixed schedule and whenever a full batch is waiting.
+     */
     private final class CTSPublisher implements Runnable {
-        @Override
-        public void run() {
-            List<NotificationEntry> entries = new ArrayList<>();
-            queue.drainTo(entries);
 
-            if (entries.isEmpty()) {
-                return;
-            }
+        private final List<NotificationEntry> entries = new ArrayList<>();
 
-            List<Object> jsonEntries = new ArrayList<>(entries.size());
-            for (NotificationEntry entry : entries) {
-                jsonEntries.add(object(
-                        field("topic", entry.topic.getIdentifier()),
-                        field("content", entry.notification.getObject())
-                ));
-            }
+        @Override
+        public synchronized void run() {
+            flushPending.set(false);
+            int drained;
+            do {
+                drained = queue.drainTo(entries, publishBatchSize);
+                if (drained > 0) {
+                    write(entries);
+                    entries.clear();
+                }
+            } while (drained == publishBatchSize);
+        }
 
-            JsonValue entry = json(jsonEntries);
+        private void write(List<NotificationEntry> batch) {
+            long lag = System.nanoTime() - batch.get(0).published;
+            publishLagNanos.set(lag);
+            maxPublishLagNanos.accumulateAndGet(lag, Math::max);
 
             try {
+                NotificationFraming.Encoder encoder = NotificationFraming.encoder(binaryFraming);
+                for (NotificationEntry entry : batch) {
+                    encoder.add(entry.topic, entry.notification);
+                }
+
                 Token token = new Token(idGenerator.generate(), TokenType.NOTIFICATION);
-                ByteArrayOutputStream stream = new ByteArrayOutputStream();
-                OutputStream dos = new DeflaterOutputStream(stream);
-                dos.write(mapper.writeValueAsBytes(entry.getObject()));
-                dos.close();
-                token.setBlob(stream.toByteArray());
+                token.setBlob(encoder.finish());
 
                 long expiryTime = currentTimeMillis() + TimeUnit.SECONDS.toMillis(tokenExpirySeconds);
                 Calendar expiryTimeStamp = fromUnixTime(expiryTime, TimeUnit.MILLISECONDS);
@@ -257,14 +318,16 @@ public final class CTSNotificationBroker implements NotificationBroker {
 
         private final Topic topic;
         private final JsonValue notification;
+        private final long published;
 
-        private NotificationEntry(Topic topic, JsonValue notification) {
+        private NotificationEntry(Topic topic, JsonValue notification, long published) {
             this.topic = topic;
             this.notification = notification;
+            this.published = published;
         }
 
-        static NotificationEntry of(Topic topic, JsonValue notification) {
-            return new NotificationEntry(topic, notification);
+        static NotificationEntry of(Topic topic, JsonValue notification, long published) {
+            return new NotificationEntry(topic, notification, published);
         }
 
     }
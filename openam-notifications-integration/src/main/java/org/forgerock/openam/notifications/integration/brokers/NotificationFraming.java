@@ -0,0 +1,274 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.notifications.integration.brokers;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.forgerock.json.JsonValue.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.forgerock.json.JsonValue;
+import org.forgerock.openam.notifications.Topic;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Encodes batches of notifications into the blob of a CTS notification token and decodes them again.
+ * <p>
+ * Two formats are understood:
+ * <ul>
+ *     <li>The original format, a deflated JSON array of {@code {"topic": ..., "content": ...}} objects.</li>
+ *     <li>The binary format, a {@link #BINARY_FORMAT} marker byte followed by a deflate stream, primed with a
+ *     dictionary of the common notification fields and topics, of length prefixed topic and content frames.</li>
+ * </ul>
+ * A deflate stream always starts with a zlib header byte, so the two formats cannot be mistaken for each other
+ * and servers can switch to the binary format while tokens in the original format are still being read.
+ * <p>
+ * Decoding is incremental: each notification is handed on as soon as it has been read.
+ */
+final class NotificationFraming {
+
+    static final byte BINARY_FORMAT = 1;
+
+    /**
+     * Strings that occur in most notifications. Deflate favours the end of the dictionary, so the most common
+     * session notifications come last.
+     */
+    private static final byte[] DICTIONARY = ("/internal/policySet/agent/config{\"realm\":\"/\",\"agentName\":\"\"}"
+            + "/agent/policy{\"realm\":\"/\",\"policy\":\"\",\"policySet\":\"iPlanetAMWebAgentService\","
+            + "\"eventType\":\"\"}\"PROPERTY_CHANGED\"\"DESTROY\"/agent/session{\"tokenId\":\"\",\"eventType\":\"LOGOUT\"}")
+            .getBytes(UTF_8);
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private NotificationFraming() {
+    }
+
+    /**
+     * Creates an encoder for a new token blob.
+     *
+     * @param binary whether to use the binary format rather than the original JSON format
+     * @return a new encoder
+     * @throws IOException if the encoder could not be initialised
+     */
+    static Encoder encoder(boolean binary) throws IOException {
+        return binary ? new BinaryEncoder() : new JsonEncoder();
+    }
+
+    /**
+     * Decodes the notifications in a token blob, passing each one to the handler as soon as it has been read.
+     *
+     * @param blob the token blob
+     * @param handler receives the topic and content of each notification
+     * @throws IOException if the blob could not be decoded
+     */
+    static void decode(byte[] blob, BiConsumer<Topic, JsonValue> handler) throws IOException {
+        if (blob.length > 0 && blob[0] == BINARY_FORMAT) {
+            decodeBinary(blob, handler);
+        } else {
+            decodeJson(blob, handler);
+        }
+    }
+
+    private static void decodeBinary(byte[] blob, BiConsumer<Topic, JsonValue> handler) throws IOException {
+        try (DataInputStream in = new DataInputStream(new DictionaryInflaterInputStream(
+                new ByteArrayInputStream(blob, 1, blob.length - 1)))) {
+            int length;
+            while ((length = readLength(in)) >= 0) {
+                String topic = new String(readFully(in, length), UTF_8);
+                byte[] content = readFully(in, readLength(in));
+                handler.accept(Topic.of(topic), json(mapper.readValue(content, Object.class)));
+            }
+        }
+    }
+
+    private static void decodeJson(byte[] blob, BiConsumer<Topic, JsonValue> handler) throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(
+                new InflaterInputStream(new ByteArrayInputStream(blob)))) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Notification token does not contain a JSON array");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                JsonValue entry = json(parser.readValueAs(Map.class));
+                handler.accept(Topic.of(entry.get("topic").asString()), entry.get("content"));
+            }
+        }
+    }
+
+    /**
+     * @return the length, or -1 if the end of the stream was reached before a new frame
+     */
+    private static int readLength(DataInputStream in) throws IOException {
+        int length = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int read = in.read();
+            if (read < 0) {
+                if (shift == 0) {
+                    return -1;
+                }
+                throw new EOFException("Truncated notification frame");
+            }
+            length |= (read & 0x7F) << shift;
+            if ((read & 0x80) == 0) {
+                return length;
+            }
+        }
+        throw new IOException("Invalid notification frame length");
+    }
+
+    private static byte[] readFully(DataInputStream in, int length) throws IOException {
+        if (length < 0) {
+            throw new EOFException("Truncated notification frame");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Accumulates notifications into a token blob.
+     */
+    interface Encoder {
+
+        /**
+         * Adds a notification to the blob.
+         *
+         * @param topic the notification topic
+         * @param notification the notification content
+         * @throws IOException if the notification could not be encoded
+         */
+        void add(Topic topic, JsonValue notification) throws IOException;
+
+        /**
+         * Completes the blob. No notifications may be added afterwards.
+         *
+         * @return the encoded blob
+         * @throws IOException if the blob could not be completed
+         */
+        byte[] finish() throws IOException;
+    }
+
+    private static final class JsonEncoder implements Encoder {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final JsonGenerator generator;
+
+        private JsonEncoder() throws IOException {
+            generator = mapper.getFactory().createGenerator(new DeflaterOutputStream(bytes));
+            generator.writeStartArray();
+        }
+
+        @Override
+        public void add(Topic topic, JsonValue notification) throws IOException {
+            generator.writeObject(object(
+                    field("topic", topic.getIdentifier()),
+                    field("content", notification.getObject())));
+        }
+
+        @Override
+        public byte[] finish() throws IOException {
+            generator.writeEndArray();
+            generator.close();
+            return bytes.toByteArray();
+        }
+    }
+
+    private static final class BinaryEncoder implements Encoder {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final Deflater deflater = new Deflater();
+        private final OutputStream out;
+
+        private BinaryEncoder() {
+            bytes.write(BINARY_FORMAT);
+            deflater.setDictionary(DICTIONARY);
+            out = new DeflaterOutputStream(bytes, deflater);
+        }
+
+        @Override
+        public void add(Topic topic, JsonValue notification) throws IOException {
+            byte[] identifier = topic.getIdentifier().getBytes(UTF_8);
+            byte[] content = mapper.writeValueAsBytes(notification.getObject());
+            writeLength(identifier.length);
+            out.write(identifier);
+            writeLength(content.length);
+            out.write(content);
+        }
+
+        private void writeLength(int length) throws IOException {
+            while ((length & ~0x7F) != 0) {
+                out.write((length & 0x7F) | 0x80);
+                length >>>= 7;
+            }
+            out.write(length);
+        }
+
+        @Override
+        public byte[] finish() throws IOException {
+            try {
+                out.close();
+            } finally {
+                deflater.end();
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    /**
+     * Supplies the shared dictionary when the deflate stream asks for it.
+     */
+    private static final class DictionaryInflaterInputStream extends InflaterInputStream {
+
+        private DictionaryInflaterInputStream(InputStream in) {
+            super(in, new Inflater());
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read == -1 && inf.needsDictionary()) {
+                inf.setDictionary(DICTIONARY);
+                read = super.read(b, off, len);
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                inf.end();
+            }
+        }
+    }
+}
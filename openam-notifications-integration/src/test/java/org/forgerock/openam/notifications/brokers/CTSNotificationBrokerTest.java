@@ -291,6 +291,82 @@ public final class CTSNotificationBrokerTest {
         verify(store).removeContinuousQueryListener(listenerCaptor.getValue(), filterCaptor.getValue());
     }
 
+    @Test
+    public void whenPublishBatchSizeIsReachedPublisherIsTriggeredImmediately() throws Exception {
+        // Given
+        CTSNotificationBroker batchingBroker = new CTSNotificationBroker(store, localBroker, 10, 600L, 100L, 2, false,
+                executorServiceFactory);
+        JsonValue notification = json(object(field("some-field", "some-value")));
+
+        // When
+        batchingBroker.publish(Topic.of("test-topic"), notification);
+        verify(executorService, never()).execute(any(Runnable.class));
+        batchingBroker.publish(Topic.of("test-topic"), notification);
+
+        // Then
+        verify(executorService, times(2)).scheduleAtFixedRate(publisherTaskCaptor.capture(), anyLong(), anyLong(),
+                any(TimeUnit.class));
+        verify(executorService).execute(publisherTaskCaptor.getValue());
+        assertThat(batchingBroker.getQueueDepth()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenPublisherRunsItWritesTokensOfAtMostPublishBatchSize() throws Exception {
+        // Given
+        CTSNotificationBroker batchingBroker = new CTSNotificationBroker(store, localBroker, 10, 600L, 100L, 2, false,
+                executorServiceFactory);
+        verify(executorService, times(2)).scheduleAtFixedRate(publisherTaskCaptor.capture(), anyLong(), anyLong(),
+                any(TimeUnit.class));
+        Runnable publisher = publisherTaskCaptor.getValue();
+
+        // When
+        JsonValue notification = json(object(field("some-field", "some-value")));
+        for (int i = 0; i < 5; i++) {
+            batchingBroker.publish(Topic.of("test-topic"), notification);
+        }
+        publisher.run();
+
+        // Then
+        verify(store, times(3)).createAsync(any(Token.class));
+        assertThat(batchingBroker.getQueueDepth()).isZero();
+        assertThat(batchingBroker.getMaxPublishLag(TimeUnit.NANOSECONDS))
+                .isGreaterThanOrEqualTo(batchingBroker.getPublishLag(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void whenBinaryFramingIsUsedBrokerDispatchesAllNotifications() throws Exception {
+        // Given
+        CTSNotificationBroker binaryBroker = new CTSNotificationBroker(store, localBroker, 10, 600L, 100L, 10, true,
+                executorServiceFactory);
+        verify(executorService, times(2)).scheduleAtFixedRate(publisherTaskCaptor.capture(), anyLong(), anyLong(),
+                any(TimeUnit.class));
+        Runnable publisher = publisherTaskCaptor.getValue();
+
+        JsonValue sessionNotification = json(object(field("tokenId", "123-456"), field("eventType", "LOGOUT")));
+        JsonValue policyNotification = json(object(field("realm", "/"), field("policy", "test-policy")));
+        binaryBroker.publish(Topic.of("/agent/session"), sessionNotification);
+        binaryBroker.publish(Topic.of("/agent/policy"), policyNotification);
+        publisher.run();
+        verify(store).createAsync(tokenCaptor.capture());
+        Token token = tokenCaptor.getValue();
+
+        verify(store, times(2)).addContinuousQueryListener(listenerCaptor.capture(), any(TokenFilter.class));
+        ContinuousQueryListener<Attribute> listener = listenerCaptor.getValue();
+        Attribute attribute = mock(Attribute.class);
+        given(attribute.firstValue()).willReturn(ByteString.valueOfBytes(token.getBlob()));
+
+        // When
+        listener.objectChanged("1234", Collections.singletonMap(CoreTokenField.BLOB.toString(), attribute),
+                ChangeType.ADD);
+
+        // Then
+        assertThat(token.getBlob()[0]).isEqualTo((byte) 1);
+        verify(localBroker).publish(eq(Topic.of("/agent/session")), jsonValueCaptor.capture());
+        assertThat(jsonValueCaptor.getValue().isEqualTo(sessionNotification)).isTrue();
+        verify(localBroker).publish(eq(Topic.of("/agent/policy")), jsonValueCaptor.capture());
+        assertThat(jsonValueCaptor.getValue().isEqualTo(policyNotification)).isTrue();
+    }
+
     private Runnable getPublisherTask() {
         verify(executorService).scheduleAtFixedRate(publisherTaskCaptor.capture(), anyLong(), anyLong(),
                 any(TimeUnit.class));
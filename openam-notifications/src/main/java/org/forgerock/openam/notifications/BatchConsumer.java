@@ -0,0 +1,41 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.notifications;
+
+import java.util.List;
+
+import org.forgerock.json.JsonValue;
+
+/**
+ * A {@link Consumer} that can accept several notifications at once.
+ * <p>
+ * Brokers that read notifications in batches hand all notifications of a batch that match the
+ * subscription to {@link #acceptAll(List)} in a single call, in the order they were published.
+ * Brokers that do not batch continue to call {@link #accept(JsonValue)}.
+ *
+ * @since 14.5.2
+ */
+public interface BatchConsumer extends Consumer {
+
+    /**
+     * Accepts the given notifications.
+     *
+     * @param notifications a non-null, non-empty list of notifications
+     */
+    void acceptAll(List<JsonValue> notifications);
+
+}
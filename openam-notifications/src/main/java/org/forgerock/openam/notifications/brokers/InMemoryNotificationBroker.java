@@ -19,11 +19,15 @@ package org.forgerock.openam.notifications.brokers;
 import static org.forgerock.json.JsonValue.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -33,6 +37,7 @@ import javax.inject.Named;
 
 import org.forgerock.json.JsonValue;
 import org.forgerock.openam.audit.context.AMExecutorServiceFactory;
+import org.forgerock.openam.notifications.BatchConsumer;
 import org.forgerock.openam.notifications.Consumer;
 import org.forgerock.openam.notifications.NotificationBroker;
 import org.forgerock.openam.notifications.Subscription;
@@ -50,6 +55,12 @@ import org.slf4j.LoggerFactory;
  * a single thread for reading from it. Routing of notifications to subscriptions is done
  * on the reading thread.
  * <p>
+ * Subscriptions are indexed by the topics they are bound to, so routing a notification only
+ * visits the subscriptions bound to its topic. A reader takes up to {@code batchSize}
+ * notifications from the queue at a time; subscriptions whose consumer is a
+ * {@link BatchConsumer} receive all of their notifications from that batch in one call.
+ * Fan-out and latency statistics are kept per topic, see {@link #getTopicMetrics()}.
+ * <p>
  * The queue is a fixed size and therefore notifications may be lost if the queue becomes
  * full.
  *
@@ -61,8 +72,10 @@ public final class InMemoryNotificationBroker implements NotificationBroker {
     private static final DateTimeFormatter TS_FORMATTER = ISODateTimeFormat.dateTime().withZoneUTC();
 
     private final BlockingQueue<NotificationEntry> queue;
-    private final List<InternalSubscription> subscriptions;
+    private final ConcurrentMap<Topic, Set<InternalSubscription>> subscriptions;
+    private final ConcurrentMap<Topic, TopicMetrics> metrics;
     private final TimeService timeService;
+    private final int batchSize;
 
     private final ExecutorService executorService;
     private volatile boolean shutdown;
@@ -73,19 +86,38 @@ public final class InMemoryNotificationBroker implements NotificationBroker {
      * @param executorServiceFactory an executor service factory for scheduling reader threads
      * @param timeService a time service for adding timestamps to messages
      * @param queueSize the number of notifications to buffer in memory
+     * @param consumers the number of reader threads
+     */
+    public InMemoryNotificationBroker(AMExecutorServiceFactory executorServiceFactory, TimeService timeService,
+            int queueSize, int consumers) {
+        this(executorServiceFactory, timeService, queueSize, consumers, 1);
+    }
+
+    /**
+     * Constructs a new InMemoryNotificationBroker.
+     *
+     * @param executorServiceFactory an executor service factory for scheduling reader threads
+     * @param timeService a time service for adding timestamps to messages
+     * @param queueSize the number of notifications to buffer in memory
+     * @param consumers the number of reader threads
+     * @param batchSize the maximum number of notifications a reader takes from the queue at a time
      */
     @Inject
     public InMemoryNotificationBroker(AMExecutorServiceFactory executorServiceFactory, TimeService timeService,
-            @Named("queueSize") int queueSize, @Named("consumers") int consumers) {
+            @Named("queueSize") int queueSize, @Named("consumers") int consumers,
+            @Named("batchSize") int batchSize) {
         Reject.ifNull(executorServiceFactory, "Executor service factory must not be null");
         Reject.ifNull(timeService, "Time service must not be null");
         Reject.ifTrue(queueSize <= 0, "Queue size must be a positive integer");
         Reject.ifTrue(consumers <= 0, "Number of consumer threads must be a positive integer");
+        Reject.ifTrue(batchSize <= 0, "Batch size must be a positive integer");
 
         this.timeService = timeService;
+        this.batchSize = batchSize;
 
         queue = new ArrayBlockingQueue<>(queueSize);
-        subscriptions = new CopyOnWriteArrayList<>();
+        subscriptions = new ConcurrentHashMap<>();
+        metrics = new ConcurrentHashMap<>();
         executorService = executorServiceFactory.createFixedThreadPool(consumers, "InMemoryNotificationsBroker");
         for (int i = 0; i < consumers; i++) {
             executorService.submit(new NotificationReader());
@@ -102,7 +134,8 @@ public final class InMemoryNotificationBroker implements NotificationBroker {
             return false;
         }
 
-        NotificationEntry entry = NotificationEntry.of(topic, packageNotification(topic, notification));
+        NotificationEntry entry = NotificationEntry.of(topic, packageNotification(topic, notification),
+                System.nanoTime());
 
         if (!queue.offer(entry)) {
             logger.info("Failed to publish notification because queue is full. Notification discarded");
@@ -124,9 +157,16 @@ public final class InMemoryNotificationBroker implements NotificationBroker {
     @Override
     public Subscription subscribe(Consumer consumer) {
         Reject.ifNull(consumer, "Consumer must not be null");
-        InternalSubscription subscription = new InternalSubscription(consumer);
-        subscriptions.add(subscription);
-        return subscription;
+        return new InternalSubscription(consumer);
+    }
+
+    /**
+     * Gets the delivery statistics of every topic a notification has been delivered for.
+     *
+     * @return an unmodifiable live view of the statistics by topic
+     */
+    public Map<Topic, TopicMetrics> getTopicMetrics() {
+        return Collections.unmodifiableMap(metrics);
     }
 
     @Override
@@ -137,6 +177,9 @@ public final class InMemoryNotificationBroker implements NotificationBroker {
 
     private final class NotificationReader implements Runnable {
 
+        private final List<NotificationEntry> entries = new ArrayList<>();
+        private final Map<InternalSubscription, List<JsonValue>> batches = new LinkedHashMap<>();
+
         @Override
         public void run() {
             while (!shutdown) {
@@ -147,7 +190,10 @@ public final class InMemoryNotificationBroker implements NotificationBroker {
                         continue;
                     }
 
-                    deliver(entry);
+                    entries.add(entry);
+                    queue.drainTo(entries, batchSize - 1);
+                    deliver(entries);
+                    entries.clear();
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
                     // Informs the broker that the reader is shutting down as
@@ -159,19 +205,38 @@ public final class InMemoryNotificationBroker implements NotificationBroker {
 
             List<NotificationEntry> remainingEntries = new ArrayList<>();
             queue.drainTo(remainingEntries);
-
-            for (NotificationEntry entry : remainingEntries) {
-                deliver(entry);
-            }
+            deliver(remainingEntries);
         }
 
-        private void deliver(NotificationEntry entry) {
-            for (InternalSubscription subscription : subscriptions) {
-                try {
-                    subscription.consumeIfApplicable(entry.topic, entry.notification);
-                } catch (RuntimeException ex) {
-                    logger.warn("Exception thrown whilst delivering notifications", ex);
+        private void deliver(List<NotificationEntry> entries) {
+            int[] fanOuts = new int[entries.size()];
+            for (int i = 0; i < fanOuts.length; i++) {
+                NotificationEntry entry = entries.get(i);
+                Set<InternalSubscription> bound = subscriptions.get(entry.topic);
+                if (bound == null) {
+                    continue;
                 }
+
+                for (InternalSubscription subscription : bound) {
+                    if (subscription.batching) {
+                        batches.computeIfAbsent(subscription, key -> new ArrayList<>()).add(entry.notification);
+                        fanOuts[i]++;
+                    } else if (subscription.consume(entry.notification)) {
+                        fanOuts[i]++;
+                    }
+                }
+            }
+
+            for (Map.Entry<InternalSubscription, List<JsonValue>> batch : batches.entrySet()) {
+                batch.getKey().consumeAll(batch.getValue());
+            }
+            batches.clear();
+
+            long now = System.nanoTime();
+            for (int i = 0; i < fanOuts.length; i++) {
+                NotificationEntry entry = entries.get(i);
+                metrics.computeIfAbsent(entry.topic, key -> new TopicMetrics())
+                        .record(fanOuts[i], now - entry.published);
             }
         }
 
@@ -181,18 +246,27 @@ public final class InMemoryNotificationBroker implements NotificationBroker {
 
         private final Set<Topic> topics;
         private final Consumer consumer;
+        private final boolean batching;
         private volatile boolean closed;
 
         private InternalSubscription(Consumer consumer) {
             this.consumer = consumer;
+            this.batching = batchSize > 1 && consumer instanceof BatchConsumer;
             topics = new CopyOnWriteArraySet<>();
         }
 
         @Override
-        public Subscription bindTo(Topic topic) {
+        public synchronized Subscription bindTo(Topic topic) {
             Reject.rejectStateIfTrue(closed, "Subscription is closed");
             Reject.ifNull(topic, "Topic must not be null");
-            topics.add(topic);
+            if (topics.add(topic)) {
+                subscriptions.compute(topic, (key, bound) -> {
+                    Set<InternalSubscription> updated = bound == null
+                            ? ConcurrentHashMap.<InternalSubscription>newKeySet() : bound;
+                    updated.add(this);
+                    return updated;
+                });
+            }
             return this;
         }
 
@@ -204,27 +278,54 @@ public final class InMemoryNotificationBroker implements NotificationBroker {
         }
 
         @Override
-        public Subscription unbindFrom(Topic topic) {
+        public synchronized Subscription unbindFrom(Topic topic) {
             Reject.rejectStateIfTrue(closed, "Subscription is closed");
             Reject.ifNull(topic, "Topic must not be null");
-            topics.remove(topic);
+            if (topics.remove(topic)) {
+                unindex(topic);
+            }
             return this;
         }
 
         @Override
-        public void close() {
+        public synchronized void close() {
             closed = true;
-            subscriptions.remove(this);
+            for (Topic topic : topics) {
+                unindex(topic);
+            }
+        }
+
+        private void unindex(Topic topic) {
+            subscriptions.computeIfPresent(topic, (key, bound) -> {
+                bound.remove(this);
+                return bound.isEmpty() ? null : bound;
+            });
         }
 
         // Called from reader thread.
-        void consumeIfApplicable(Topic topic, JsonValue notification) {
-            if (consumer == null) {
-                return;
+        boolean consume(JsonValue notification) {
+            if (consumer == null || closed) {
+                return false;
             }
 
-            if (isBoundTo(topic)) {
+            try {
                 consumer.accept(notification);
+            } catch (RuntimeException ex) {
+                logger.warn("Exception thrown whilst delivering notifications", ex);
+            }
+            return true;
+        }
+
+        // Called from reader thread.
+        void consumeAll(List<JsonValue> notifications) {
+            if (closed) {
+                return;
+            }
+
+            try {
+                ((BatchConsumer) consumer).acceptAll(notifications);
+            } catch (RuntimeException ex) {
+                logger.warn("Exception thrown whilst delivering notifications", ex);
             }
         }
     }
@@ -233,14 +334,16 @@ public final class InMemoryNotificationBroker implements NotificationBroker {
 
         private final Topic topic;
         private final JsonValue notification;
+        private final long published;
 
-        private NotificationEntry(Topic topic, JsonValue notification) {
+        private NotificationEntry(Topic topic, JsonValue notification, long published) {
             this.topic = topic;
             this.notification = notification;
+            this.published = published;
         }
 
-        static NotificationEntry of(Topic topic, JsonValue notification) {
-            return new NotificationEntry(topic, notification);
+        static NotificationEntry of(Topic topic, JsonValue notification, long published) {
+            return new NotificationEntry(topic, notification, published);
         }
 
     }
@@ -0,0 +1,95 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.notifications.brokers;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivery statistics for a single {@link org.forgerock.openam.notifications.Topic}.
+ * <p>
+ * Fan-out is the number of subscriptions a notification was delivered to. Latency is measured
+ * from the time a notification was published until it had been handed to every subscription.
+ *
+ * @since 14.5.2
+ */
+public final class TopicMetrics {
+
+    private final LongAdder notifications = new LongAdder();
+    private final LongAdder deliveries = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxFanOut = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    void record(int fanOut, long latencyNanos) {
+        notifications.increment();
+        deliveries.add(fanOut);
+        totalLatencyNanos.add(latencyNanos);
+        maxFanOut.accumulateAndGet(fanOut, Math::max);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    /**
+     * Gets the number of notifications delivered for the topic.
+     *
+     * @return the number of notifications
+     */
+    public long getNotifications() {
+        return notifications.sum();
+    }
+
+    /**
+     * Gets the total number of deliveries to subscriptions made for the topic.
+     *
+     * @return the number of deliveries
+     */
+    public long getDeliveries() {
+        return deliveries.sum();
+    }
+
+    /**
+     * Gets the largest number of subscriptions a single notification was delivered to.
+     *
+     * @return the maximum fan-out
+     */
+    public long getMaxFanOut() {
+        return maxFanOut.get();
+    }
+
+    /**
+     * Gets the mean delivery latency.
+     *
+     * @param unit the unit of the result
+     * @return the mean latency, or zero if no notification has been delivered
+     */
+    public long getMeanLatency(TimeUnit unit) {
+        long count = notifications.sum();
+        return count == 0 ? 0 : unit.convert(totalLatencyNanos.sum() / count, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the largest delivery latency.
+     *
+     * @param unit the unit of the result
+     * @return the maximum latency
+     */
+    public long getMaxLatency(TimeUnit unit) {
+        return unit.convert(maxLatencyNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+}
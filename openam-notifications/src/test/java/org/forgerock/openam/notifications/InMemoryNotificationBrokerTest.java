@@ -22,12 +22,16 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.forgerock.json.JsonPointer;
 import org.forgerock.json.JsonValue;
 import org.forgerock.openam.audit.context.AMExecutorServiceFactory;
 import org.forgerock.openam.notifications.brokers.InMemoryNotificationBroker;
+import org.forgerock.openam.notifications.brokers.TopicMetrics;
 import org.forgerock.util.time.TimeService;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
@@ -317,6 +321,98 @@ public final class InMemoryNotificationBrokerTest {
         subscription.isBoundTo(Topic.of("test_topic"));
     }
 
+    @Test
+    public void whenBatchConsumerIsSubscribedNotificationsAreDeliveredTogether() {
+        // Given
+        BatchConsumer batchConsumer = mock(BatchConsumer.class);
+        InMemoryNotificationBroker batchingBroker =
+                new InMemoryNotificationBroker(executorServiceFactory, timeService, 10, CONSUMERS, 10);
+        batchingBroker.subscribe(batchConsumer).bindTo(Topic.of("test_topic"));
+        batchingBroker.subscribe(consumer).bindTo(Topic.of("test_topic"));
+
+        // When
+        batchingBroker.publish(Topic.of("test_topic"), json(object(field("tokenId", "123"))));
+        batchingBroker.publish(Topic.of("test_topic"), json(object(field("tokenId", "456"))));
+
+        // Then
+        verify(executorService, times(CONSUMERS * 2)).submit(readerCapture.capture());
+        Runnable reader = readerCapture.getValue();
+
+        batchingBroker.shutdown();
+        reader.run();
+
+        ArgumentCaptor<List> batchCapture = ArgumentCaptor.forClass(List.class);
+        verify(batchConsumer).acceptAll(batchCapture.capture());
+        verify(batchConsumer, never()).accept(any(JsonValue.class));
+        verify(consumer, times(2)).accept(any(JsonValue.class));
+
+        List<JsonValue> batch = batchCapture.getValue();
+        assertThat(batch).hasSize(2);
+        assertThat(batch.get(0).get(new JsonPointer("body/tokenId")).asString()).isEqualTo("123");
+        assertThat(batch.get(1).get(new JsonPointer("body/tokenId")).asString()).isEqualTo("456");
+    }
+
+    @Test
+    public void whenNotificationsAreDeliveredTopicMetricsAreRecorded() {
+        // Given
+        InMemoryNotificationBroker meteredBroker =
+                new InMemoryNotificationBroker(executorServiceFactory, timeService, 10, CONSUMERS);
+        meteredBroker.subscribe(consumer).bindTo(Topic.of("test_topic"));
+        meteredBroker.subscribe(mock(Consumer.class)).bindTo(Topic.of("test_topic"));
+
+        // When
+        meteredBroker.publish(Topic.of("test_topic"), json(object(field("tokenId", "123-456"))));
+        meteredBroker.publish(Topic.of("another_test_topic"), json(object(field("tokenId", "123-456"))));
+
+        // Then
+        verify(executorService, times(CONSUMERS * 2)).submit(readerCapture.capture());
+        Runnable reader = readerCapture.getValue();
+
+        meteredBroker.shutdown();
+        reader.run();
+
+        TopicMetrics metrics = meteredBroker.getTopicMetrics().get(Topic.of("test_topic"));
+        assertThat(metrics.getNotifications()).isEqualTo(1);
+        assertThat(metrics.getDeliveries()).isEqualTo(2);
+        assertThat(metrics.getMaxFanOut()).isEqualTo(2);
+        assertThat(metrics.getMeanLatency(TimeUnit.NANOSECONDS))
+                .isLessThanOrEqualTo(metrics.getMaxLatency(TimeUnit.NANOSECONDS));
+        assertThat(meteredBroker.getTopicMetrics().get(Topic.of("another_test_topic")).getDeliveries()).isZero();
+    }
+
+    @Test
+    public void whenManySubscribersAreBoundOnlyThoseBoundToTheTopicReceiveNotifications() {
+        // Given
+        int subscribers = 10000;
+        int notifications = 1000;
+        InMemoryNotificationBroker largeBroker =
+                new InMemoryNotificationBroker(executorServiceFactory, timeService, notifications, CONSUMERS, 100);
+        List<Consumer> consumers = new ArrayList<>(subscribers);
+        for (int i = 0; i < subscribers; i++) {
+            Consumer subscriber = mock(Consumer.class);
+            consumers.add(subscriber);
+            largeBroker.subscribe(subscriber).bindTo(Topic.of("topic_" + i));
+        }
+        largeBroker.subscribe(consumer).bindTo(Topic.of("topic_0"));
+
+        // When
+        for (int i = 0; i < notifications; i++) {
+            largeBroker.publish(Topic.of("topic_" + (i % 10)), json(object(field("tokenId", "123-456"))));
+        }
+
+        // Then
+        verify(executorService, times(CONSUMERS * 2)).submit(readerCapture.capture());
+        Runnable reader = readerCapture.getValue();
+
+        largeBroker.shutdown();
+        reader.run();
+
+        verify(consumer, times(notifications / 10)).accept(any(JsonValue.class));
+        verify(consumers.get(9), times(notifications / 10)).accept(any(JsonValue.class));
+        verify(consumers.get(10), never()).accept(any(JsonValue.class));
+        assertThat(largeBroker.getTopicMetrics().get(Topic.of("topic_0")).getMaxFanOut()).isEqualTo(2);
+    }
+
     @Test
     public void whenShuttingDownShutsDownExecutorService() throws Exception {
         broker.shutdown();
@@ -92,7 +92,7 @@ import org.forgerock.oauth2.restlet.resources.ResourceSetRegistrationHook;
 import org.forgerock.openam.audit.context.AMExecutorServiceFactory;
 import org.forgerock.openam.blacklist.Blacklist;
 import org.forgerock.openam.blacklist.Blacklistable;
-import org.forgerock.openam.blacklist.BloomFilterBlacklist;
+import org.forgerock.openam.blacklist.BucketedBlacklist;
 import org.forgerock.openam.blacklist.CTSBlacklist;
 import org.forgerock.openam.blacklist.CachingBlacklist;
 import org.forgerock.openam.blacklist.NoOpBlacklist;
@@ -462,7 +462,7 @@ public class OAuth2GuiceModule extends AbstractModule {
         }
 
         if (pollIntervalMs > 0) {
-            blacklist = new BloomFilterBlacklist<>(blacklist, purgeDelayMs);
+            blacklist = new BucketedBlacklist<>(blacklist, purgeDelayMs);
         }
 
         return blacklist;
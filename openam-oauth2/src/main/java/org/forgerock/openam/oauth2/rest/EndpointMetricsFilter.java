@@ -0,0 +1,52 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.oauth2.rest;
+
+import org.forgerock.openam.monitoring.metrics.Timer;
+import org.restlet.Request;
+import org.restlet.Response;
+import org.restlet.Restlet;
+import org.restlet.routing.Filter;
+
+/**
+ * Records the time taken to handle each request to an OAuth2 endpoint, including the access audit filter.
+ */
+final class EndpointMetricsFilter extends Filter {
+
+    private final Timer timer;
+
+    /**
+     * Creates a new filter recording the requests handled by the given restlet.
+     *
+     * @param next The restlet handling the requests.
+     * @param timer The timer recording the duration of the requests.
+     */
+    EndpointMetricsFilter(Restlet next, Timer timer) {
+        this.timer = timer;
+        setNext(next);
+    }
+
+    @Override
+    protected int doHandle(Request request, Response response) {
+        long startNanos = System.nanoTime();
+        try {
+            return super.doHandle(request, response);
+        } finally {
+            timer.recordSince(startNanos);
+        }
+    }
+}
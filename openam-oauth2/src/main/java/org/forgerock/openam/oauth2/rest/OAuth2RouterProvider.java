@@ -43,6 +43,7 @@ import org.forgerock.oauth2.restlet.TokenIntrospectionResource;
 import org.forgerock.oauth2.restlet.ValidationServerResource;
 import org.forgerock.openam.audit.AuditEventFactory;
 import org.forgerock.openam.audit.AuditEventPublisher;
+import org.forgerock.openam.monitoring.metrics.MetricsRegistry;
 import org.forgerock.openam.oauth2.OAuth2Constants;
 import org.forgerock.openam.rest.RealmRoutingFactory;
 import org.forgerock.openam.rest.audit.OAuth2AccessAuditFilter;
@@ -70,6 +71,7 @@ public class OAuth2RouterProvider implements Provider<Router> {
     private final AuditEventFactory eventFactory;
     private final OAuth2RequestFactory requestFactory;
     private final JacksonRepresentationFactory jacksonRepresentationFactory;
+    private final MetricsRegistry metricsRegistry;
 
     /**
      * Constructs a new RestEndpoints instance.
@@ -77,15 +79,17 @@ public class OAuth2RouterProvider implements Provider<Router> {
      * @param eventFactory The factory that can be used to create the events.
      * @param requestFactory The factory that provides access to OAuth2Request.
      * @param jacksonRepresentationFactory The factory for {@code JacksonRepresentation} instances.
+     * @param metricsRegistry The registry of the endpoint latency metrics.
      */
     @Inject
     public OAuth2RouterProvider(AuditEventPublisher eventPublisher, AuditEventFactory eventFactory,
             OAuth2RequestFactory requestFactory,
-            JacksonRepresentationFactory jacksonRepresentationFactory) {
+            JacksonRepresentationFactory jacksonRepresentationFactory, MetricsRegistry metricsRegistry) {
         this.eventPublisher = eventPublisher;
         this.eventFactory = eventFactory;
         this.requestFactory = requestFactory;
         this.jacksonRepresentationFactory = jacksonRepresentationFactory;
+        this.metricsRegistry = metricsRegistry;
     }
 
     @Override
@@ -95,52 +99,61 @@ public class OAuth2RouterProvider implements Provider<Router> {
 
         // Standard OAuth2 endpoints
 
-        router.attach("/authorize", auditWithOAuthFilter(new AuthorizeEndpointFilter(wrap(AuthorizeResource.class),
-                jacksonRepresentationFactory)));
-        router.attach("/access_token", auditWithOAuthFilter(new TokenEndpointFilter(new AccessTokenFlowFinder(),
-                jacksonRepresentationFactory),
-                formAuditor(RESPONSE_TYPE, GRANT_TYPE, CLIENT_ID, USERNAME, SCOPE, REDIRECT_URI),
-                jacksonAuditor(SCOPE, TOKEN_TYPE)));
-        router.attach("/tokeninfo", auditWithOAuthFilter(wrap(ValidationServerResource.class),
-                noBodyAuditor(), jacksonAuditor(SCOPE, TOKEN_TYPE)));
+        router.attach("/authorize", metered("authorize",
+                auditWithOAuthFilter(new AuthorizeEndpointFilter(wrap(AuthorizeResource.class),
+                        jacksonRepresentationFactory))));
+        router.attach("/access_token", metered("access_token",
+                auditWithOAuthFilter(new TokenEndpointFilter(new AccessTokenFlowFinder(), jacksonRepresentationFactory),
+                        formAuditor(RESPONSE_TYPE, GRANT_TYPE, CLIENT_ID, USERNAME, SCOPE, REDIRECT_URI),
+                        jacksonAuditor(SCOPE, TOKEN_TYPE))));
+        router.attach("/tokeninfo", metered("tokeninfo", auditWithOAuthFilter(wrap(ValidationServerResource.class),
+                noBodyAuditor(), jacksonAuditor(SCOPE, TOKEN_TYPE))));
 
         // OAuth 2.0 Token Introspection Endpoint
 
-        router.attach("/introspect", auditWithOAuthFilter(wrap(TokenIntrospectionResource.class),
+        router.attach("/introspect", metered("introspect", auditWithOAuthFilter(wrap(TokenIntrospectionResource.class),
                 formAuditor(TOKEN_TYPE_HINT),
-                jsonAuditor(SCOPE, TOKEN_TYPE, CLIENT_ID, USERNAME, ACTIVE)));
+                jsonAuditor(SCOPE, TOKEN_TYPE, CLIENT_ID, USERNAME, ACTIVE))));
 
         // OpenID Connect endpoints
 
-        router.attach("/connect/register", auditWithOAuthFilter(wrap(ConnectClientRegistration.class),
-                jsonAuditor(CLIENT_NAME.getType(), APPLICATION_TYPE.getType(), REDIRECT_URIS.getType()),
-                jacksonAuditor(CLIENT_ID, CLIENT_NAME.getType(), APPLICATION_TYPE.getType(), REDIRECT_URIS.getType())));
-        router.attach("/userinfo", auditWithOAuthFilter(wrap(UserInfo.class)));
-        router.attach("/idtokeninfo", auditWithOAuthFilter(wrap(IdTokenInfo.class)));
-        router.attach("/connect/endSession", auditWithOAuthFilter(wrap(EndSession.class)));
-        router.attach("/connect/jwk_uri", auditWithOAuthFilter(wrap(OpenIDConnectJWKEndpoint.class)));
+        router.attach("/connect/register", metered("connect_register",
+                auditWithOAuthFilter(wrap(ConnectClientRegistration.class),
+                        jsonAuditor(CLIENT_NAME.getType(), APPLICATION_TYPE.getType(), REDIRECT_URIS.getType()),
+                        jacksonAuditor(CLIENT_ID, CLIENT_NAME.getType(), APPLICATION_TYPE.getType(),
+                                REDIRECT_URIS.getType()))));
+        router.attach("/userinfo", metered("userinfo", auditWithOAuthFilter(wrap(UserInfo.class))));
+        router.attach("/idtokeninfo", metered("idtokeninfo", auditWithOAuthFilter(wrap(IdTokenInfo.class))));
+        router.attach("/connect/endSession",
+                metered("connect_end_session", auditWithOAuthFilter(wrap(EndSession.class))));
+        router.attach("/connect/jwk_uri",
+                metered("connect_jwk_uri", auditWithOAuthFilter(wrap(OpenIDConnectJWKEndpoint.class))));
 
         // Resource Set Registration
 
-        Restlet resourceSetRegistrationEndpoint = auditWithOAuthFilter(getRestlet(OAuth2Constants.Custom.RSR_ENDPOINT),
-                jsonAuditor(NAME, SCOPES),
-                jacksonAuditor("_id"));
+        Restlet resourceSetRegistrationEndpoint = metered("resource_set",
+                auditWithOAuthFilter(getRestlet(OAuth2Constants.Custom.RSR_ENDPOINT),
+                        jsonAuditor(NAME, SCOPES),
+                        jacksonAuditor("_id")));
         router.attach("/resource_set/{rsid}", resourceSetRegistrationEndpoint);
         router.attach("/resource_set", resourceSetRegistrationEndpoint);
         router.attach("/resource_set/", resourceSetRegistrationEndpoint);
 
         // OpenID Connect Discovery
 
-        router.attach("/.well-known/openid-configuration", auditWithOAuthFilter(wrap(OpenIDConnectConfiguration.class)));
+        router.attach("/.well-known/openid-configuration",
+                metered("openid_configuration", auditWithOAuthFilter(wrap(OpenIDConnectConfiguration.class))));
 
         // OAuth 2 Device Flow
 
-        router.attach("/device/user", auditWithOAuthFilter(wrap(DeviceCodeVerificationResource.class)));
-        router.attach("/device/code", auditWithOAuthFilter(wrap(DeviceCodeResource.class),
-                formAuditor(RESPONSE_TYPE, GRANT_TYPE, CLIENT_ID, SCOPE), noBodyAuditor()));
+        router.attach("/device/user",
+                metered("device_user", auditWithOAuthFilter(wrap(DeviceCodeVerificationResource.class))));
+        router.attach("/device/code", metered("device_code", auditWithOAuthFilter(wrap(DeviceCodeResource.class),
+                formAuditor(RESPONSE_TYPE, GRANT_TYPE, CLIENT_ID, SCOPE), noBodyAuditor())));
 
         // OAuth2 Token Revocation
-        router.attach("/token/revoke", auditWithOAuthFilter(wrap(TokenRevocationResource.class)));
+        router.attach("/token/revoke",
+                metered("token_revoke", auditWithOAuthFilter(wrap(TokenRevocationResource.class))));
 
         return router;
     }
@@ -149,6 +162,11 @@ public class OAuth2RouterProvider implements Provider<Router> {
         return InjectorHolder.getInstance(Key.get(Restlet.class, Names.named(name)));
     }
 
+    private Filter metered(String endpoint, Restlet restlet) {
+        return new EndpointMetricsFilter(restlet, metricsRegistry.timer("openam_oauth2_endpoint_duration_seconds",
+                "Time taken to handle requests to the OAuth2 endpoints", "endpoint", endpoint));
+    }
+
     private Filter auditWithOAuthFilter(Restlet restlet) {
         return new OAuth2AccessAuditFilter(restlet, eventPublisher, eventFactory, requestFactory,
                 noBodyAuditor(), noBodyAuditor());
@@ -0,0 +1,222 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package org.forgerock.openam.scripting;
+
+import static org.forgerock.openam.scripting.ScriptConstants.SERVICE_NAME;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+
+import org.forgerock.util.Reject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.sun.identity.sm.ServiceListener;
+
+/**
+ * A bounded cache of compiled scripts, so that the source of a script is only parsed once rather than on every
+ * evaluation.
+ *
+ * Entries are keyed on the script name and language together with the script source itself, so an edited script
+ * can never be served from a stale entry. The whole cache is cleared when the script engine configuration changes,
+ * as the compiled scripts hold on to the sandbox of the engine that compiled them, and when the scripting service
+ * configuration changes, so that scripts which have been edited or deleted are released straight away.
+ *
+ * @since 14.0.0
+ */
+public class CompiledScriptCache implements StandardScriptEngineManager.ConfigurationListener, ServiceListener {
+
+    /**
+     * The default maximum number of compiled scripts to hold.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompiledScriptCache.class);
+
+    private final Cache<Key, CompiledScript> cache;
+
+    /**
+     * Constructs a cache holding up to {@link #DEFAULT_MAXIMUM_SIZE} compiled scripts.
+     */
+    public CompiledScriptCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Constructs a cache holding up to the given number of compiled scripts.
+     *
+     * @param maximumSize the maximum number of compiled scripts to hold. Must not be negative.
+     */
+    public CompiledScriptCache(int maximumSize) {
+        Reject.ifTrue(maximumSize < 0, "Maximum size must not be negative");
+        this.cache = CacheBuilder.newBuilder()
+                .concurrencyLevel(16)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the compiled form of the given script, compiling it with the given engine if it is not already cached.
+     *
+     * @param script the script to compile. Must not be null.
+     * @param engine the engine to compile the script with. Must not be null.
+     * @return the compiled script, or null if the engine does not support compilation.
+     * @throws ScriptException if the script fails to compile.
+     */
+    public CompiledScript getCompiledScript(final ScriptObject script, final ScriptEngine engine)
+            throws ScriptException {
+        Reject.ifNull(script, engine);
+        if (!(engine instanceof Compilable)) {
+            return null;
+        }
+
+        try {
+            return cache.get(new Key(script), new Callable<CompiledScript>() {
+                @Override
+                public CompiledScript call() throws ScriptException {
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug("Compiling script: " + script.getName());
+                    }
+                    return ((Compilable) engine).compile(script.getScript());
+                }
+            });
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ScriptException) {
+                throw (ScriptException) e.getCause();
+            }
+            throw new IllegalStateException("Unable to compile script " + script.getName(), e.getCause());
+        }
+    }
+
+    /**
+     * Discards all compiled scripts.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return the number of compiled scripts currently held.
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * @return the number of evaluations which were served an already compiled script.
+     */
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    /**
+     * @return the number of evaluations which had to compile the script.
+     */
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    /**
+     * @return the number of compiled scripts discarded to keep the cache within its maximum size.
+     */
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    /**
+     * @return a snapshot of all statistics recorded by the cache.
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void onConfigurationChange(ScriptEngineConfiguration newConfiguration) {
+        invalidateAll();
+    }
+
+    @Override
+    public void schemaChanged(String serviceName, String version) {
+        // ignore.
+    }
+
+    @Override
+    public void globalConfigChanged(String serviceName, String version, String groupName, String serviceComponent,
+            int type) {
+        if (SERVICE_NAME.equals(serviceName)) {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void organizationConfigChanged(String serviceName, String version, String orgName, String groupName,
+            String serviceComponent, int type) {
+        if (SERVICE_NAME.equals(serviceName)) {
+            invalidateAll();
+        }
+    }
+
+    /**
+     * Cache key made up of the script name, language and source. The hash of the source is computed once, so the
+     * full source is only compared when two keys share the same hash.
+     */
+    private static final class Key {
+        private final String name;
+        private final ScriptingLanguage language;
+        private final String source;
+        private final int hash;
+
+        private Key(ScriptObject script) {
+            this.name = script.getName();
+            this.language = script.getLanguage();
+            this.source = script.getScript();
+            int result = name != null ? name.hashCode() : 0;
+            result = 31 * result + (language != null ? language.hashCode() : 0);
+            result = 31 * result + (source != null ? source.hashCode() : 0);
+            this.hash = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash
+                    && (name != null ? name.equals(other.name) : other.name == null)
+                    && (language != null ? language.equals(other.language) : other.language == null)
+                    && (source != null ? source.equals(other.source) : other.source == null);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
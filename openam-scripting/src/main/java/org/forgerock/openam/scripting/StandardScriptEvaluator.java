@@ -17,12 +17,15 @@
 package org.forgerock.openam.scripting;
 
 import org.codehaus.groovy.control.io.NullWriter;
+import org.forgerock.openam.monitoring.tracing.Span;
+import org.forgerock.openam.monitoring.tracing.Tracing;
 import org.forgerock.util.Reject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.script.Bindings;
+import javax.script.CompiledScript;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
@@ -40,6 +43,9 @@ import javax.script.SimpleScriptContext;
  * us sending its thread an interrupt signal, while JavaScript has its own timer which is checked on
  * each processed instruction.
  *
+ * Scripts are compiled once and held in a {@link CompiledScriptCache}, so that subsequent evaluations of the same
+ * script do not need to parse its source again.
+ *
  * @since 12.0.0
  */
 public class StandardScriptEvaluator implements ScriptEvaluator {
@@ -47,6 +53,7 @@ public class StandardScriptEvaluator implements ScriptEvaluator {
     private static final Logger LOGGER = LoggerFactory.getLogger(StandardScriptEvaluator.class);
 
     private final StandardScriptEngineManager scriptEngineManager;
+    private final CompiledScriptCache compiledScriptCache;
 
     /**
      * Constructs the script evaluator using the given JSR 223 script engine manager instance.
@@ -54,8 +61,22 @@ public class StandardScriptEvaluator implements ScriptEvaluator {
      * @param scriptEngineManager the script engine manager to use for creating script engines. May not be null.
      */
     public StandardScriptEvaluator(StandardScriptEngineManager scriptEngineManager) {
-        Reject.ifNull(scriptEngineManager);
+        this(scriptEngineManager, new CompiledScriptCache());
+    }
+
+    /**
+     * Constructs the script evaluator using the given JSR 223 script engine manager instance and compiled script
+     * cache. The cache is registered to be cleared whenever the script engine manager configuration changes.
+     *
+     * @param scriptEngineManager the script engine manager to use for creating script engines. May not be null.
+     * @param compiledScriptCache the cache of compiled scripts. May not be null.
+     */
+    public StandardScriptEvaluator(StandardScriptEngineManager scriptEngineManager,
+            CompiledScriptCache compiledScriptCache) {
+        Reject.ifNull(scriptEngineManager, compiledScriptCache);
         this.scriptEngineManager = scriptEngineManager;
+        this.compiledScriptCache = compiledScriptCache;
+        scriptEngineManager.addConfigurationListener(compiledScriptCache);
     }
 
     /**
@@ -87,11 +108,27 @@ public class StandardScriptEvaluator implements ScriptEvaluator {
             LOGGER.debug("Evaluating script: " + script);
         }
 
-        final ScriptEngine engine = getScriptEngineFor(script);
-        final Bindings variableBindings = mergeBindings(script.getBindings(), bindings);
-        final ScriptContext context = buildScriptContext(variableBindings);
-
-        return (T) engine.eval(script.getScript(), context);
+        final Span span = Tracing.start("script.evaluate");
+        if (span.isRecording()) {
+            span.setAttribute("script.name", script.getName())
+                    .setAttribute("script.language", String.valueOf(script.getLanguage()));
+        }
+        try {
+            final ScriptEngine engine = getScriptEngineFor(script);
+            final Bindings variableBindings = mergeBindings(script.getBindings(), bindings);
+            final ScriptContext context = buildScriptContext(variableBindings);
+
+            final CompiledScript compiledScript = compiledScriptCache.getCompiledScript(script, engine);
+            if (compiledScript == null) {
+                return (T) engine.eval(script.getScript(), context);
+            }
+            return (T) compiledScript.eval(context);
+        } catch (ScriptException | RuntimeException e) {
+            span.setError(e);
+            throw e;
+        } finally {
+            span.end();
+        }
     }
 
     /**
@@ -20,6 +20,7 @@ import static org.forgerock.openam.scripting.ScriptConstants.AUTHENTICATION_SERV
 import static org.forgerock.openam.scripting.ScriptConstants.OIDC_CLAIMS_NAME;
 import static org.forgerock.openam.scripting.ScriptConstants.POLICY_CONDITION_NAME;
 import static org.forgerock.openam.scripting.ScriptConstants.SCRIPTING_HTTP_CLIENT_NAME;
+import static org.forgerock.openam.scripting.ScriptConstants.SERVICE_NAME;
 import static org.forgerock.openam.scripting.ScriptConstants.ScriptContext.AUTHENTICATION_SERVER_SIDE;
 import static org.forgerock.openam.scripting.ScriptConstants.ScriptContext.OIDC_CLAIMS;
 import static org.forgerock.openam.scripting.ScriptConstants.ScriptContext.POLICY_CONDITION;
@@ -35,6 +36,8 @@ import org.forgerock.guice.core.GuiceModule;
 import org.forgerock.http.Client;
 import org.forgerock.http.client.RestletHttpClient;
 import org.forgerock.openam.audit.context.AMExecutorServiceFactory;
+import org.forgerock.openam.core.CoreWrapper;
+import org.forgerock.openam.scripting.CompiledScriptCache;
 import org.forgerock.openam.scripting.ScriptConstants;
 import org.forgerock.openam.scripting.ScriptEngineConfiguration;
 import org.forgerock.openam.scripting.ScriptEvaluator;
@@ -55,6 +58,8 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.name.Names;
+import com.iplanet.sso.SSOException;
+import com.sun.identity.sm.SMSException;
 
 
 /**
@@ -103,6 +108,7 @@ public class ScriptingGuiceModule extends AbstractModule {
      *
      * @param scriptEngineManager the script engine manager to use.
      * @param executorServiceFactory the factory for creating managed thread pools for script execution.
+     * @param coreWrapper used to listen for changes to the stored scripts.
      * @return an appropriately configured script evaluator for use with scripted authentication.
      */
     @Provides
@@ -111,9 +117,9 @@ public class ScriptingGuiceModule extends AbstractModule {
     @Named(AUTHENTICATION_SERVER_SIDE_NAME)
     ScriptEvaluator getAuthenticationServerSideScriptEvaluator(
             @Named(AUTHENTICATION_SERVER_SIDE_NAME) StandardScriptEngineManager scriptEngineManager,
-            AMExecutorServiceFactory executorServiceFactory) {
+            AMExecutorServiceFactory executorServiceFactory, CoreWrapper coreWrapper) {
 
-        return createEvaluator(scriptEngineManager, executorServiceFactory);
+        return createEvaluator(scriptEngineManager, executorServiceFactory, coreWrapper);
     }
 
     /**
@@ -122,6 +128,7 @@ public class ScriptingGuiceModule extends AbstractModule {
      *
      * @param scriptEngineManager the script engine manager to use.
      * @param executorServiceFactory the factory for creating managed thread pools for script execution.
+     * @param coreWrapper used to listen for changes to the stored scripts.
      * @return an appropriately configured script evaluator for use with scripted entitlement condition.
      */
     @Provides
@@ -130,9 +137,9 @@ public class ScriptingGuiceModule extends AbstractModule {
     @Named(POLICY_CONDITION_NAME)
     ScriptEvaluator getPoliyConditionScriptEvaluator(
             @Named(POLICY_CONDITION_NAME) StandardScriptEngineManager scriptEngineManager,
-            AMExecutorServiceFactory executorServiceFactory) {
+            AMExecutorServiceFactory executorServiceFactory, CoreWrapper coreWrapper) {
 
-        return createEvaluator(scriptEngineManager, executorServiceFactory);
+        return createEvaluator(scriptEngineManager, executorServiceFactory, coreWrapper);
     }
 
     /**
@@ -141,6 +148,7 @@ public class ScriptingGuiceModule extends AbstractModule {
      *
      * @param scriptEngineManager the script engine manager to use.
      * @param executorServiceFactory the factory for creating managed thread pools for script execution.
+     * @param coreWrapper used to listen for changes to the stored scripts.
      * @return an appropriately configured script evaluator for use with OIDC Claims scripts.
      */
     @Provides
@@ -149,13 +157,14 @@ public class ScriptingGuiceModule extends AbstractModule {
     @Named(OIDC_CLAIMS_NAME)
     ScriptEvaluator getOidcClaimsScriptEvaluator(
             @Named(OIDC_CLAIMS_NAME) StandardScriptEngineManager scriptEngineManager,
-            AMExecutorServiceFactory executorServiceFactory) {
+            AMExecutorServiceFactory executorServiceFactory, CoreWrapper coreWrapper) {
 
-        return createEvaluator(scriptEngineManager, executorServiceFactory);
+        return createEvaluator(scriptEngineManager, executorServiceFactory, coreWrapper);
     }
 
     private ThreadPoolScriptEvaluator createEvaluator(StandardScriptEngineManager scriptEngineManager,
-                                                      AMExecutorServiceFactory executorServiceFactory) {
+                                                      AMExecutorServiceFactory executorServiceFactory,
+                                                      CoreWrapper coreWrapper) {
 
         ScriptEngineConfiguration configuration = scriptEngineManager.getConfiguration();
 
@@ -168,7 +177,19 @@ public class ScriptingGuiceModule extends AbstractModule {
                         getThreadPoolQueue(configuration.getThreadPoolQueueSize()),
                         "ScriptEvaluator"
                 ),
-                new StandardScriptEvaluator(scriptEngineManager));
+                new StandardScriptEvaluator(scriptEngineManager, createCompiledScriptCache(coreWrapper)));
+    }
+
+    private CompiledScriptCache createCompiledScriptCache(CoreWrapper coreWrapper) {
+        CompiledScriptCache cache = new CompiledScriptCache();
+        try {
+            coreWrapper.getServiceConfigManager(SERVICE_NAME, coreWrapper.getAdminToken()).addListener(cache);
+        } catch (SSOException | SMSException e) {
+            // The cache is keyed on the script source, so edited scripts are still recompiled; only the early
+            // release of replaced scripts is lost.
+            logger.warn("Unable to listen for script changes, compiled scripts will only be released on eviction", e);
+        }
+        return cache;
     }
 
     private BlockingQueue<Runnable> getThreadPoolQueue(int size) {
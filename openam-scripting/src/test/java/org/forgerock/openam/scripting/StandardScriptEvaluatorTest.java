@@ -285,6 +285,87 @@ public class StandardScriptEvaluatorTest {
     }
 
 
+    @Test
+    public void shouldReuseCompiledScriptWithFreshBindings() throws Exception {
+        // Given
+        CompiledScriptCache cache = new CompiledScriptCache();
+        StandardScriptEvaluator evaluator = new StandardScriptEvaluator(scriptEngineManager, cache);
+        ScriptObject script = getGroovyScript("x * 2");
+        Bindings first = new SimpleBindings();
+        first.put("x", 2);
+        Bindings second = new SimpleBindings();
+        second.put("x", 5);
+
+        // When
+        Number firstResult = evaluator.evaluateScript(script, first);
+        Number secondResult = evaluator.evaluateScript(script, second);
+
+        // Then
+        assertThat(firstResult.intValue()).isEqualTo(4);
+        assertThat(secondResult.intValue()).isEqualTo(10);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldRecompileScriptWhenSourceChanges() throws Exception {
+        // Given
+        CompiledScriptCache cache = new CompiledScriptCache();
+        StandardScriptEvaluator evaluator = new StandardScriptEvaluator(scriptEngineManager, cache);
+        evaluator.evaluateScript(getJavascript("1 + 1"), null);
+
+        // When
+        Number result = evaluator.evaluateScript(getJavascript("2 + 2"), null);
+
+        // Then
+        assertThat(result.intValue()).isEqualTo(4);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldClearCompiledScriptsWhenConfigurationChanges() throws Exception {
+        // Given
+        CompiledScriptCache cache = new CompiledScriptCache();
+        StandardScriptEvaluator evaluator = new StandardScriptEvaluator(scriptEngineManager, cache);
+        evaluator.evaluateScript(getGroovyScript("3 * 4"), null);
+
+        // When
+        scriptEngineManager.setConfiguration(CONFIGURATION);
+
+        // Then
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldClearCompiledScriptsWhenScriptsChange() throws Exception {
+        // Given
+        CompiledScriptCache cache = new CompiledScriptCache();
+        StandardScriptEvaluator evaluator = new StandardScriptEvaluator(scriptEngineManager, cache);
+        evaluator.evaluateScript(getGroovyScript("3 * 4"), null);
+
+        // When
+        cache.organizationConfigChanged(ScriptConstants.SERVICE_NAME, "1.0", "/", null, null, 0);
+
+        // Then
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldBoundNumberOfCompiledScripts() throws Exception {
+        // Given
+        CompiledScriptCache cache = new CompiledScriptCache(1);
+        StandardScriptEvaluator evaluator = new StandardScriptEvaluator(scriptEngineManager, cache);
+
+        // When
+        evaluator.evaluateScript(getGroovyScript("1"), null);
+        evaluator.evaluateScript(getGroovyScript("2"), null);
+
+        // Then
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.getEvictionCount()).isEqualTo(1);
+    }
+
     static ScriptObject getJavascript(String... script) {
         return getJavascript(null, script);
     }
@@ -51,6 +51,12 @@ public final class DebugConstants {
 
     public static final String CONFIG_DEBUG_DIRECTORY = "com.iplanet.services.debug.directory";
 
+    public static final String CONFIG_DEBUG_ASYNC = "org.openidentityplatform.openam.debug.async.enabled";
+
+    public static final String CONFIG_DEBUG_ASYNC_QUEUE_SIZE = "org.openidentityplatform.openam.debug.async.queueSize";
+
+    public static final String CONFIG_DEBUG_ASYNC_BATCH_SIZE = "org.openidentityplatform.openam.debug.async.batchSize";
+
     /**
      * Constant string used as property key to look up the debug provider class
      * name.
@@ -0,0 +1,213 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package com.sun.identity.shared.debug.file.impl;
+
+import com.sun.identity.common.ShutdownManager;
+import com.sun.identity.shared.configuration.SystemPropertiesManager;
+import com.sun.identity.shared.debug.DebugConstants;
+import org.forgerock.util.thread.listener.ShutdownListener;
+import org.forgerock.util.thread.listener.ShutdownPriority;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes debug messages on a single background thread, so that the threads logging debug messages don't wait for
+ * the debug files to be initialized, rotated, written and flushed.
+ * <p>
+ * Messages are queued in a bounded queue shared by all the debug files. The writer thread takes them in batches,
+ * appends each message to its debug file and flushes each file once per batch. When the queue is full the logging
+ * threads wait for the writer to catch up rather than losing messages. Once the writer is stopped, messages are
+ * written by the logging thread itself.
+ */
+final class AsyncDebugWriter {
+
+    private static final int DEFAULT_QUEUE_SIZE = 16384;
+    private static final int DEFAULT_BATCH_SIZE = 512;
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private static volatile AsyncDebugWriter instance;
+
+    private final BlockingQueue<Entry> queue;
+    private final int batchSize;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    /**
+     * Whether the debug files should be written asynchronously.
+     *
+     * @return true if the asynchronous writer is enabled
+     */
+    static boolean isEnabled() {
+        return SystemPropertiesManager.getAsBoolean(DebugConstants.CONFIG_DEBUG_ASYNC, false);
+    }
+
+    /**
+     * Get the writer shared by all the debug files, starting it the first time.
+     *
+     * @return the shared writer
+     */
+    static AsyncDebugWriter getInstance() {
+        AsyncDebugWriter writer = instance;
+        if (writer != null) {
+            return writer;
+        }
+        synchronized (AsyncDebugWriter.class) {
+            writer = instance;
+            if (writer != null) {
+                return writer;
+            }
+            writer = new AsyncDebugWriter(
+                    SystemPropertiesManager.getAsInt(DebugConstants.CONFIG_DEBUG_ASYNC_QUEUE_SIZE, DEFAULT_QUEUE_SIZE),
+                    SystemPropertiesManager.getAsInt(DebugConstants.CONFIG_DEBUG_ASYNC_BATCH_SIZE, DEFAULT_BATCH_SIZE));
+            writer.start();
+            instance = writer;
+        }
+        // registered once the instance is published, in case the shutdown manager itself writes debug messages
+        final AsyncDebugWriter started = writer;
+        ShutdownManager.getInstance().addShutdownListener(new ShutdownListener() {
+            @Override
+            public void shutdown() {
+                started.stop();
+            }
+        }, ShutdownPriority.LOWEST);
+        return writer;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param queueSize maximum number of messages waiting to be written
+     * @param batchSize maximum number of messages written before the debug files are flushed
+     */
+    AsyncDebugWriter(int queueSize, int batchSize) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(queueSize, 1));
+        this.batchSize = Math.max(batchSize, 1);
+        this.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runWriter();
+            }
+        }, "AsyncDebugWriter");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Start the writer thread
+     */
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Queue a formatted message to be written in a debug file
+     *
+     * @param file    the debug file
+     * @param message the formatted message
+     */
+    void write(DebugFileImpl file, String message) {
+        Entry entry = new Entry(file, message);
+        try {
+            while (running) {
+                if (queue.offer(entry, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeBatch(Collections.singletonList(entry));
+    }
+
+    /**
+     * Stop the writer thread, once it has written the queued messages
+     */
+    void stop() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!thread.isAlive()) {
+            drain(new ArrayList<Entry>(batchSize));
+        }
+    }
+
+    private void runWriter() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Entry first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    writeBatch(batch);
+                }
+            } catch (InterruptedException e) {
+                // stop() interrupts the writer, the running flag decides whether to carry on
+            } finally {
+                batch.clear();
+            }
+        }
+        drain(batch);
+    }
+
+    private void drain(List<Entry> batch) {
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<Entry> batch) {
+        Map<DebugFileImpl, Boolean> written = new IdentityHashMap<>();
+        for (Entry entry : batch) {
+            try {
+                if (entry.file.write(entry.message)) {
+                    written.put(entry.file, Boolean.TRUE);
+                } else {
+                    StdDebugFile.printError(AsyncDebugWriter.class.getSimpleName(), entry.message, null);
+                }
+            } catch (IOException | RuntimeException e) {
+                StdDebugFile.printError(AsyncDebugWriter.class.getSimpleName(),
+                        "Debug file can't be written : " + e.getMessage() + "\n" + entry.message, null);
+            }
+        }
+        for (DebugFileImpl file : written.keySet()) {
+            file.flush();
+        }
+    }
+
+    private static final class Entry {
+        private final DebugFileImpl file;
+        private final String message;
+
+        private Entry(DebugFileImpl file, String message) {
+            this.file = file;
+            this.message = message;
+        }
+    }
+}
@@ -81,6 +81,8 @@ public class DebugFileImpl implements DebugFile {
 
     private File currentFile;
 
+    private final AsyncDebugWriter asyncWriter;
+
     /**
      * Constructor
      *
@@ -99,9 +101,23 @@ public class DebugFileImpl implements DebugFile {
      * @param clock         Clock used to generate date
      */
     public DebugFileImpl(DebugConfiguration configuration, String debugName, TimeService clock) {
+        this(configuration, debugName, clock, AsyncDebugWriter.isEnabled() ? AsyncDebugWriter.getInstance() : null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param configuration debug configuration
+     * @param debugName     log file name
+     * @param clock         Clock used to generate date
+     * @param asyncWriter   writer used to write the messages in the background, or null to write them directly
+     */
+    DebugFileImpl(DebugConfiguration configuration, String debugName, TimeService clock,
+            AsyncDebugWriter asyncWriter) {
         this.debugName = debugName;
         this.clock = clock;
         this.configuration = configuration;
+        this.asyncWriter = asyncWriter;
 
         //initialize SimpleDateFormat
         SimpleDateFormat tmpSuffixDateFormat = null;
@@ -155,6 +171,25 @@ public class DebugFileImpl implements DebugFile {
             buf.append(stBuf.toString());
         }
 
+        if (asyncWriter != null) {
+            // the writer thread opens and rotates the file
+            asyncWriter.write(this, buf.toString());
+            return;
+        }
+
+        if (!write(buf.toString())) {
+            StdDebugFile.printError(prefix, msg, th);
+        }
+    }
+
+    /**
+     * Write a formatted message in the log file, initializing or rotating the file first if needed
+     *
+     * @param message the formatted message
+     * @return false if the log file couldn't be opened
+     * @throws IOException if the log file couldn't be initialized
+     */
+    boolean write(String message) throws IOException {
         if (isConfigChanged() || !isConfigFileInitialized()) {
             initialize();
         }
@@ -166,14 +201,27 @@ public class DebugFileImpl implements DebugFile {
         fileLock.readLock().lock();
         try {
             if (debugWriter != null) {
-                debugWriter.println(buf.toString());
-            } else {
-                StdDebugFile.printError(prefix, msg, th);
-            } 
+                debugWriter.println(message);
+                return true;
+            }
+            return false;
         } finally {
             fileLock.readLock().unlock();
         }
+    }
 
+    /**
+     * Flush the messages written since the last flush, when they are written by the asynchronous writer
+     */
+    void flush() {
+        fileLock.readLock().lock();
+        try {
+            if (debugWriter != null) {
+                debugWriter.flush();
+            }
+        } finally {
+            fileLock.readLock().unlock();
+        }
     }
 
     /**
@@ -260,8 +308,8 @@ public class DebugFileImpl implements DebugFile {
 
             try {
                 this.currentFile = new File(debugFilePath);
-                this.debugWriter = new PrintWriter(new FileWriter(currentFile, true), true);
-                debugWriter = new PrintWriter(new FileWriter(debugFilePath, true), true);
+                // the asynchronous writer flushes once per batch instead of once per message
+                this.debugWriter = new PrintWriter(new FileWriter(currentFile, true), asyncWriter == null);
             } catch (IOException ioex) {
                 close();
                 ResourceBundle bundle = Locale.getInstallResourceBundle("amUtilMsgs");
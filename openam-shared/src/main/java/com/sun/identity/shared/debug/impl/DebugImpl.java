@@ -65,6 +65,14 @@ public class DebugImpl implements IDebug {
     private final static int DIR_ISSUE_ERROR_INTERVAL_IN_MS = 60 * 1000;
     private static final boolean SERVER_MODE = SystemPropertiesManager.getAsBoolean(Constants.SERVER_MODE);
     private static volatile long lastDirectoryIssue = 0l;
+    private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT = new ThreadLocal<SimpleDateFormat>() {
+        @Override
+        protected SimpleDateFormat initialValue() {
+            synchronized (DEBUG_DATE_FORMAT) {
+                return (SimpleDateFormat) DEBUG_DATE_FORMAT.clone();
+            }
+        }
+    };
 
     private final String debugName;
     private boolean mergeAllMode = false;
@@ -237,11 +245,9 @@ public class DebugImpl implements IDebug {
 
     private void record(String msg, Throwable th) {
 
-        StringBuilder prefix = new StringBuilder();
-        String dateFormatted;
-        synchronized (DEBUG_DATE_FORMAT) {
-            dateFormatted = DEBUG_DATE_FORMAT.format(newDate());
-        }
+        StringBuilder prefix = new StringBuilder(128);
+        // one date format per thread, rather than all the logging threads contending for a shared one
+        String dateFormatted = DATE_FORMAT.get().format(newDate());
         prefix.append(debugName)
                 .append(":").append(dateFormatted)
                 .append(": ").append(Thread.currentThread().toString())
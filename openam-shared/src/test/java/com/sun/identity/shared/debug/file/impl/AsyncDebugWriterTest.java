@@ -0,0 +1,98 @@
+/*
+ * The contents of this file are subject to the terms of the Common Development and
+ * Distribution License (the License). You may not use this file except in compliance with the
+ * License.
+ *
+ * You can obtain a copy of the License at legal/CDDLv1.0.txt. See the License for the
+ * specific language governing permission and limitations under the License.
+ *
+ * When distributing Covered Software, include this CDDL Header Notice in each file and include
+ * the License file at legal/CDDLv1.0.txt. If applicable, add the following below the CDDL
+ * Header, with the fields enclosed by brackets [] replaced by your own identifying
+ * information: "Portions copyright [year] [name of copyright owner]".
+ *
+ * Copyright 2026 Open Identity Platform Community.
+ */
+
+package com.sun.identity.shared.debug.file.impl;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import com.sun.identity.shared.configuration.SystemPropertiesManager;
+import com.sun.identity.shared.debug.DebugConstants;
+import org.forgerock.util.time.TimeService;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class AsyncDebugWriterTest {
+
+    private File debugDirectory;
+    private AsyncDebugWriter writer;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        debugDirectory = Files.createTempDirectory("AsyncDebugWriterTest").toFile();
+        SystemPropertiesManager.initializeProperties(DebugConstants.CONFIG_DEBUG_DIRECTORY,
+                debugDirectory.getAbsolutePath());
+        writer = new AsyncDebugWriter(4, 2);
+        writer.start();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        writer.stop();
+        for (File file : debugDirectory.listFiles()) {
+            file.delete();
+        }
+        debugDirectory.delete();
+    }
+
+    @Test
+    public void shouldWriteMessagesInOrderInEachDebugFile() throws Exception {
+        // Given
+        DebugFileImpl first = new DebugFileImpl(DefaultDebugConfiguration.getInstance(), "first",
+                TimeService.SYSTEM, writer);
+        DebugFileImpl second = new DebugFileImpl(DefaultDebugConfiguration.getInstance(), "second",
+                TimeService.SYSTEM, writer);
+        List<String> expected = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            first.writeIt("prefix", "first " + i, null);
+            second.writeIt("prefix", "second " + i, null);
+            expected.add("prefix");
+            expected.add("first " + i);
+        }
+        writer.stop();
+
+        // Then
+        assertThat(readLines("first")).isEqualTo(expected);
+        assertThat(readLines("second")).hasSize(100);
+    }
+
+    @Test
+    public void shouldWriteDirectlyOnceStopped() throws Exception {
+        // Given
+        DebugFileImpl debugFile = new DebugFileImpl(DefaultDebugConfiguration.getInstance(), "stopped",
+                TimeService.SYSTEM, writer);
+        writer.stop();
+
+        // When
+        debugFile.writeIt("prefix", "message", null);
+
+        // Then
+        assertThat(readLines("stopped")).isEqualTo(Arrays.asList("prefix", "message"));
+    }
+
+    private List<String> readLines(String debugName) throws Exception {
+        return Files.readAllLines(new File(debugDirectory, debugName).toPath(), Charset.defaultCharset());
+    }
+}
@@ -16,6 +16,8 @@
 package org.forgerock.openam.tokens;
 
 import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * CoreTokenField contains a mapping from the Java enumeration and the defined
@@ -204,6 +206,14 @@ public enum CoreTokenField {
      */
     MULTI_STRING_THREE("coreTokenMultiString03", String.class);
 
+    private static final Map<String, CoreTokenField> BY_LDAP_ATTRIBUTE = new HashMap<>();
+
+    static {
+        for (CoreTokenField field : values()) {
+            BY_LDAP_ATTRIBUTE.put(field.ldapAttribute, field);
+        }
+    }
+
     private final String ldapAttribute;
     private final Class<?> attributeType;
 
@@ -236,12 +246,11 @@ public enum CoreTokenField {
      * @throws IllegalArgumentException If the value provided did not match a CoreTokenField.
      */
     public static CoreTokenField fromLDAPAttribute(String value) {
-        for (CoreTokenField field : values()) {
-            if (field.toString().equals(value)) {
-                return field;
-            }
+        CoreTokenField field = value == null ? null : BY_LDAP_ATTRIBUTE.get(value);
+        if (field == null) {
+            throw new IllegalArgumentException("Invalid CoreTokenField value: " + value);
         }
-        throw new IllegalArgumentException("Invalid CoreTokenField value: " + value);
+        return field;
     }
 
     /**
@@ -49,6 +49,7 @@ import com.sun.identity.entitlement.Application;
 import com.sun.identity.entitlement.ApplicationType;
 import com.sun.identity.entitlement.JwtClaimSubject;
 import com.sun.identity.idm.AMIdentity;
+import com.sun.identity.idm.AMIdentityRepository;
 import com.sun.identity.idm.IdConstants;
 import com.sun.identity.idm.IdSearchControl;
 import com.sun.identity.idm.IdSearchResults;
@@ -94,15 +95,18 @@ public class UmaApplicationSubjectsStep extends AbstractUpgradeStep {
                     //Get the list of OAuth2 agents
                     Set<String> agentsName = new HashSet<>();
                     SSOToken adminToken = AccessController.doPrivileged(AdminTokenAction.getInstance());
-                    IdSearchResults searchResults = idRepoFactory.create(realm, adminToken)
-                            .searchIdentities(IdType.AGENT, "*", new IdSearchControl());
+                    AMIdentityRepository idRepo = idRepoFactory.create(realm, adminToken);
+                    IdSearchResults searchResults = idRepo.searchIdentities(IdType.AGENT, "*",
+                            new IdSearchControl());
 
                     Set<AMIdentity> results = searchResults.getSearchResults();
 
                     if ((results != null) && !results.isEmpty()) {
-                        // Select the OAuth2 agents which are also UMA agents
-                        for (AMIdentity amid : results) {
-                            Map<String, Set<String>> attrValues = amid.getAttributes();
+                        // Select the OAuth2 agents which are also UMA agents, reading all the agents in one go
+                        for (Map.Entry<AMIdentity, Map<String, Set<String>>> agent
+                                : idRepo.getAttributes(results, null).entrySet()) {
+                            AMIdentity amid = agent.getKey();
+                            Map<String, Set<String>> attrValues = agent.getValue();
                             String agentType = CollectionHelper.getMapAttr(attrValues, IdConstants.AGENT_TYPE,
                                     "NO_TYPE");
 